@@ -73,6 +73,31 @@ val syncDependencies by tasks.registering(Sync::class) {
     }
 }
 
+/**
+ * The tests tagged as "slow" compile the Ecstasy library modules from source (and some of them run
+ * Ecstasy code on top of those), so they are excluded from the default "test" task. They are run
+ * by the "slowTest" task instead.
+ */
+val test by tasks.existing(Test::class) {
+    useJUnitPlatform {
+        excludeTags("slow")
+    }
+}
+
+val slowTest by tasks.registering(Test::class) {
+    group = VERIFICATION_GROUP
+    description = "Runs the tests that compile the Ecstasy library modules and run Ecstasy code."
+
+    testClassesDirs = test.get().testClassesDirs
+    classpath = test.get().classpath
+    useJUnitPlatform {
+        includeTags("slow")
+    }
+    maxHeapSize = "2g"
+    jvmArgs("-Xss8m")
+    shouldRunAfter(test)
+}
+
 val jar by tasks.existing(Jar::class) {
     inputs.property("manifestSemanticVersion") {
         semanticVersion.toString()
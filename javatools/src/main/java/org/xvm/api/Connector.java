@@ -3,6 +3,7 @@ package org.xvm.api;
 
 import java.io.File;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +21,7 @@ import org.xvm.runtime.MainContainer;
 import org.xvm.runtime.NativeContainer;
 import org.xvm.runtime.ObjectHandle;
 import org.xvm.runtime.Runtime;
+import org.xvm.runtime.TypeSystemSnapshot;
 
 
 /**
@@ -48,6 +50,7 @@ public class Connector
         m_repository      = repository;
         f_runtime         = new Runtime();
         f_containerNative = new NativeContainer(f_runtime, repository);
+        f_cNativeLinked   = f_containerNative.getConstantPool().size();
         }
 
     /**
@@ -70,7 +73,8 @@ public class Connector
             }
         else if (m_repository instanceof LinkedRepository)
             {
-            List<ModuleRepository> listRepo = ((LinkedRepository) m_repository).asList();
+            List<ModuleRepository> listRepo =
+                    new ArrayList<>(((LinkedRepository) m_repository).asList());
             listRepo.add(repo);
 
             m_repository = new LinkedRepository(listRepo.toArray(ModuleRepository.NO_REPOS));
@@ -108,6 +112,9 @@ public class Connector
                 getChild(moduleApp.getName()).getIdentityConstant();
 
         m_containerMain = new MainContainer(f_runtime, f_containerNative, idApp);
+        m_snapshot      = new TypeSystemSnapshot(
+                new ConstantPool[] {f_containerNative.getConstantPool(), structApp.getConstantPool()},
+                new int[]          {f_cNativeLinked, structApp.getConstantPool().size()});
         }
 
     /**
@@ -126,6 +133,18 @@ public class Connector
         return m_containerMain;
         }
 
+    /**
+     * Obtain the type system snapshot support for the loaded module.
+     */
+    public TypeSystemSnapshot getSnapshot()
+        {
+        if (m_snapshot == null)
+            {
+            throw new IllegalStateException("The module has not been loaded");
+            }
+        return m_snapshot;
+        }
+
     /**
      * Start the Runtime and the main Container.
      */
@@ -188,6 +207,16 @@ public class Connector
      */
     protected NativeContainer f_containerNative;
 
+    /**
+     * The number of constants in the native container's pool after its initialization.
+     */
+    private final int f_cNativeLinked;
+
+    /**
+     * The type system snapshot support for the main container.
+     */
+    private TypeSystemSnapshot m_snapshot;
+
     /**
      * The main container currently associated with this Connector.
      */
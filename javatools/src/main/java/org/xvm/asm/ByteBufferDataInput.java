@@ -0,0 +1,215 @@
+package org.xvm.asm;
+
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * A DataInput that reads from a ByteBuffer. Unlike a stream, it allows a portion of the data to be
+ * {@link #slice sliced} off without copying it, which is used to defer the deserialization of the
+ * child components without holding a copy of their bytes (and, if the buffer is memory-mapped,
+ * without even paging those bytes in).
+ */
+public class ByteBufferDataInput
+        implements DataInput
+    {
+    /**
+     * Construct a DataInput for the remaining bytes of the specified buffer.
+     *
+     * @param buf  the buffer (big-endian); its position is advanced as the data is read
+     */
+    public ByteBufferDataInput(ByteBuffer buf)
+        {
+        f_buf = buf;
+        }
+
+    /**
+     * Obtain the next portion of the data as a buffer that shares the content with the underlying
+     * buffer, and skip over it.
+     *
+     * @param cb  the number of bytes
+     *
+     * @return a new buffer of the specified size
+     */
+    public ByteBuffer slice(int cb)
+            throws IOException
+        {
+        ByteBuffer buf = f_buf;
+        ensure(cb);
+
+        ByteBuffer bufSlice = buf.slice(buf.position(), cb);
+        buf.position(buf.position() + cb);
+        return bufSlice;
+        }
+
+
+    // ----- DataInput interface -------------------------------------------------------------------
+
+    @Override
+    public void readFully(byte[] ab)
+            throws IOException
+        {
+        readFully(ab, 0, ab.length);
+        }
+
+    @Override
+    public void readFully(byte[] ab, int of, int cb)
+            throws IOException
+        {
+        ensure(cb);
+        f_buf.get(ab, of, cb);
+        }
+
+    @Override
+    public int skipBytes(int cb)
+        {
+        ByteBuffer buf = f_buf;
+        cb = Math.max(0, Math.min(cb, buf.remaining()));
+        buf.position(buf.position() + cb);
+        return cb;
+        }
+
+    @Override
+    public boolean readBoolean()
+            throws IOException
+        {
+        return readByte() != 0;
+        }
+
+    @Override
+    public byte readByte()
+            throws IOException
+        {
+        ensure(1);
+        return f_buf.get();
+        }
+
+    @Override
+    public int readUnsignedByte()
+            throws IOException
+        {
+        return readByte() & 0xFF;
+        }
+
+    @Override
+    public short readShort()
+            throws IOException
+        {
+        ensure(2);
+        return f_buf.getShort();
+        }
+
+    @Override
+    public int readUnsignedShort()
+            throws IOException
+        {
+        return readShort() & 0xFFFF;
+        }
+
+    @Override
+    public char readChar()
+            throws IOException
+        {
+        ensure(2);
+        return f_buf.getChar();
+        }
+
+    @Override
+    public int readInt()
+            throws IOException
+        {
+        ensure(4);
+        return f_buf.getInt();
+        }
+
+    @Override
+    public long readLong()
+            throws IOException
+        {
+        ensure(8);
+        return f_buf.getLong();
+        }
+
+    @Override
+    public float readFloat()
+            throws IOException
+        {
+        ensure(4);
+        return f_buf.getFloat();
+        }
+
+    @Override
+    public double readDouble()
+            throws IOException
+        {
+        ensure(8);
+        return f_buf.getDouble();
+        }
+
+    @Override
+    public String readLine()
+        {
+        // same as DataInputStream: each byte is a character, and a line ends with '\n', '\r' or
+        // "\r\n"
+        ByteBuffer buf = f_buf;
+        if (!buf.hasRemaining())
+            {
+            return null;
+            }
+
+        StringBuilder sb = new StringBuilder();
+        while (buf.hasRemaining())
+            {
+            int ch = buf.get() & 0xFF;
+            if (ch == '\n')
+                {
+                break;
+                }
+            if (ch == '\r')
+                {
+                if (buf.hasRemaining() && buf.get(buf.position()) == '\n')
+                    {
+                    buf.get();
+                    }
+                break;
+                }
+            sb.append((char) ch);
+            }
+        return sb.toString();
+        }
+
+    @Override
+    public String readUTF()
+            throws IOException
+        {
+        return DataInputStream.readUTF(this);
+        }
+
+
+    // ----- internal ------------------------------------------------------------------------------
+
+    /**
+     * Make sure the buffer has the specified number of bytes remaining.
+     */
+    private void ensure(int cb)
+            throws EOFException
+        {
+        if (f_buf.remaining() < cb)
+            {
+            throw new EOFException();
+            }
+        }
+
+
+    // ----- data fields ---------------------------------------------------------------------------
+
+    /**
+     * The underlying buffer.
+     */
+    private final ByteBuffer f_buf;
+    }
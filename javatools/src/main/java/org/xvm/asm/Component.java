@@ -1,18 +1,19 @@
 package org.xvm.asm;
 
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInput;
-import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 
+import java.nio.ByteBuffer;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
@@ -832,7 +833,7 @@ public abstract class Component
      */
     protected void ensureChildren()
         {
-        if (m_abChildren != null)
+        if (m_bufChildren != null)
             {
             ensureChildrenComplex();
             }
@@ -844,37 +845,38 @@ public abstract class Component
      */
     private void ensureChildrenComplex()
         {
-        byte[] ab = m_abChildren;
-        if (ab != null)
+        ByteBuffer buf = m_bufChildren;
+        if (buf != null)
             {
             // sync on an object shared by all siblings
-            synchronized (ab)
+            synchronized (buf)
                 {
-                if (ab.length == 0)
+                if (buf.capacity() == 0)
                     {
                     // we've recursed from disassembleChildren() below, or the deserialization
                     // thread just released the empty array monitor introduced below
                     return;
                     }
 
-                if (m_abChildren != null)
+                if (m_bufChildren != null)
                     {
-                    assert ab == m_abChildren;
+                    assert buf == m_bufChildren;
 
-                    // create an empty array to serve as a marker indicating that we are in the
+                    // create an empty buffer to serve as a marker indicating that we are in the
                     // process of deserialization, so threads would be forced to block on this object
-                    byte[] empty = new byte[0];
+                    ByteBuffer empty = ByteBuffer.allocate(0);
                     synchronized (empty)
                         {
                         // mark all siblings as in active serialization; this blocks other threads
                         // until deserialization is complete
                         for (Iterator<Component> siblings = siblings(); siblings.hasNext(); )
                             {
-                            siblings.next().m_abChildren = empty;
+                            siblings.next().m_bufChildren = empty;
                             }
 
-                        // now read in the children
-                        DataInput in = new DataInputStream(new ByteArrayInputStream(ab));
+                        // now read in the children; the grandchildren are sliced off the same
+                        // buffer, so they stay deferred without being copied
+                        DataInput in = new ByteBufferDataInput(buf.duplicate());
                         try
                             {
                             // this may recurse, hence the complexity of the synchronization above
@@ -891,7 +893,7 @@ public abstract class Component
                             // mark the deserialization as complete
                             for (Iterator<Component> siblings = siblings(); siblings.hasNext(); )
                                 {
-                                siblings.next().m_abChildren = null;
+                                siblings.next().m_bufChildren = null;
                                 }
                             }
                         }
@@ -1011,11 +1013,11 @@ public abstract class Component
         {
         // the child can't have any of its own children; that "merge" functionality is simply
         // not supported by this operation
-        assert m_abChildren       == null;
+        assert m_bufChildren      == null;
         assert m_childByName      == null;
 
         // make sure that the various sibling-shared fields are configured
-        m_abChildren  = that.m_abChildren;
+        m_bufChildren = that.m_bufChildren;
         m_childByName = that.m_childByName;
         }
 
@@ -1879,15 +1881,26 @@ public abstract class Component
                 {
                 if (fLazy)
                     {
-                    // just read the bytes for the children and store it off for later
-                    byte[] ab = new byte[cb];
-                    in.readFully(ab);
+                    // just take the bytes for the children and store them off for later; if the
+                    // input is a buffer (e.g. a memory-mapped file), the bytes are not even copied
+                    ByteBuffer buf;
+                    if (in instanceof ByteBufferDataInput inBuf)
+                        {
+                        buf = inBuf.slice(cb);
+                        }
+                    else
+                        {
+                        byte[] ab = new byte[cb];
+                        in.readFully(ab);
+                        buf = ByteBuffer.wrap(ab);
+                        }
+
                     for (Component eachSibling = kid; eachSibling != null; eachSibling = eachSibling.getNextSibling())
                         {
-                        // note that every sibling has a copy of all the children; this is because
-                        // the byte[] serves as both the storage of those children and an indicator that
-                        // the deserialization of the children has been deferred
-                        eachSibling.m_abChildren = ab;
+                        // note that every sibling has a reference to all the children; this is
+                        // because the buffer serves as both the storage of those children and an
+                        // indicator that the deserialization of the children has been deferred
+                        eachSibling.m_bufChildren = buf;
                         }
                     }
                 else
@@ -2176,7 +2189,9 @@ public abstract class Component
                     {
                     return ResolutionResult.UNKNOWN;
                     }
-                if (m_FVisited != null && m_FVisited.booleanValue() == fAllowInto)
+                Map<Component, Boolean> mapVisited = s_tloVisited.get();
+                Boolean                 FVisited   = mapVisited.get(this);
+                if (FVisited != null && FVisited.booleanValue() == fAllowInto)
                     {
                     // recursive contribution
                     collector.getErrorListener().log(Severity.FATAL, Constants.VE_CYCLICAL_CONTRIBUTION,
@@ -2184,10 +2199,16 @@ public abstract class Component
                     return ResolutionResult.ERROR;
                     }
 
-                m_FVisited = fAllowInto;
-                ResolutionResult result =
-                        clzContrib.resolveContributedName(sName, access, collector, fAllowInto);
-                m_FVisited = null;
+                mapVisited.put(this, fAllowInto);
+                ResolutionResult result;
+                try
+                    {
+                    result = clzContrib.resolveContributedName(sName, access, collector, fAllowInto);
+                    }
+                finally
+                    {
+                    mapVisited.remove(this);
+                    }
 
                 if (result != ResolutionResult.UNKNOWN)
                     {
@@ -2235,7 +2256,7 @@ public abstract class Component
 
         that.m_sibling     = null;
         that.m_childByName = null;
-        that.m_abChildren  = null;
+        that.m_bufChildren = null;
 
         return that;
         }
@@ -3927,7 +3948,7 @@ public abstract class Component
      * it can optionally lazily deserialize its children. This is possible because the "children"
      * block is length-encoded.
      */
-    private volatile byte[] m_abChildren;
+    private volatile ByteBuffer m_bufChildren;
 
     /**
      * This holds all of the children of all of the siblings, except for methods (because they are
@@ -3947,7 +3968,9 @@ public abstract class Component
     private boolean m_fModified;
 
     /**
-     * Recursion check for {@link #resolveContributedName}. Not thread-safe.
+     * Recursion check for {@link #resolveContributedName}, kept per thread, since the compiler may
+     * resolve the names of the same component on multiple threads.
      */
-    private transient Boolean m_FVisited;
+    private static final ThreadLocal<Map<Component, Boolean>> s_tloVisited =
+            ThreadLocal.withInitial(IdentityHashMap::new);
     }
\ No newline at end of file
@@ -479,6 +479,14 @@ public abstract class Constant
         return m_cRefs > 0;
         }
 
+    /**
+     * Discard any run-time state (such as cached object handles) held by this constant. This is
+     * used when the constant pool is reused by a new container.
+     */
+    public void resetRuntimeState()
+        {
+        }
+
 
     // ----- XvmStructure operations ---------------------------------------------------------------
 
@@ -1033,7 +1041,11 @@ public abstract class Constant
 
     /**
      * A Comparator of Constant values that orders the "most frequently used" constants to the front
-     * of the ConstantPool.
+     * of the ConstantPool. Constants that are used equally often are ordered by their values, so
+     * that the resulting order doesn't depend on the order in which the constants were registered
+     * (which is not deterministic when the compiler runs on multiple threads). Note that this also
+     * changes the pool layout of the modules compiled on a single thread, compared to the modules
+     * produced by the compilers that ordered such constants by registration.
      */
     public static final Comparator<Constant> MFU_ORDER = (o1, o2) ->
         {
@@ -1048,7 +1060,9 @@ public abstract class Constant
         int cDif = o1.m_cRefs - o2.m_cRefs;
 
         // most used comes first (i.e. _reverse_ sort on most used)
-        return -cDif;
+        return cDif == 0
+                ? o1.compareTo(o2)
+                : -cDif;
         };
 
 
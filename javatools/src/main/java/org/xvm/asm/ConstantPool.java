@@ -74,6 +74,16 @@ public class ConstantPool
 
     // ----- public API ----------------------------------------------------------------------------
 
+    /**
+     * @return an object that uniquely identifies this ConstantPool without keeping it reachable;
+     *         this allows long-lived objects to remember the type system they have been checked
+     *         against without holding on to it
+     */
+    public Object getIdentityToken()
+        {
+        return f_oIdentity;
+        }
+
     /**
      * Obtain the Constant that is currently stored at the specified index. A runtime exception will
      * occur if the index is invalid.
@@ -113,6 +123,18 @@ public class ConstantPool
         return m_listConst.toArray(Constant.NO_CONSTS);
         }
 
+    /**
+     * Discard the run-time state (such as cached object handles) held by the constants of this
+     * pool, so the pool can be reused by a new container.
+     */
+    public synchronized void resetRuntimeState()
+        {
+        for (Constant constant : m_listConst)
+            {
+            constant.resetRuntimeState();
+            }
+        }
+
     /**
      * Obtain the corresponding Constant that is currently stored in this pool.
      *
@@ -3272,6 +3294,28 @@ public class ConstantPool
         return m_cInvalidated;
         }
 
+    /**
+     * Specify the lock that the TypeInfos for the types of this pool are built under. The compiler
+     * uses it while it processes the code on multiple threads, since building a TypeInfo reads the
+     * class structures and the other TypeInfos as they are being built.
+     *
+     * @param lock  the lock shared by all the pools of a compilation, or null to build the
+     *              TypeInfos without locking
+     */
+    public void setTypeInfoLock(Object lock)
+        {
+        m_lockTypeInfo = lock;
+        }
+
+    /**
+     * @return the lock that the TypeInfos for the types of this pool are built under; null if
+     *         there is none
+     */
+    public Object getTypeInfoLock()
+        {
+        return m_lockTypeInfo;
+        }
+
     /**
      * Determine what classes have new information since the specified invalidation count.
      *
@@ -3876,6 +3920,11 @@ public class ConstantPool
      */
     private final Set<ConstantPool> m_setValidPools = Collections.newSetFromMap(new IdentityHashMap<>());
 
+    /**
+     * The identity token of this ConstantPool (see {@link #getIdentityToken}).
+     */
+    private final transient Object f_oIdentity = new Object();
+
     /**
      * Tracks whether the ConstantPool should recursively register constants.
      */
@@ -4317,6 +4366,11 @@ public class ConstantPool
      */
     private volatile int m_cInvalidated;
 
+    /**
+     * The lock that the TypeInfos are built under (see {@link #setTypeInfoLock}).
+     */
+    private volatile Object m_lockTypeInfo;
+
     /**
      * NakedRef is a fundamental formal type that comes from the "_native" module.
      */
@@ -5,8 +5,11 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -27,11 +30,25 @@ public class DirRepository
      * @param fReadOnly  true to make the repository "read-only"
      */
     public DirRepository(File dir, boolean fReadOnly)
+        {
+        this(dir, fReadOnly, fReadOnly);
+        }
+
+    /**
+     * Construct a File System ModuleRepository.
+     *
+     * @param dir        the directory that contains the repository contents
+     * @param fReadOnly  true to make the repository "read-only"
+     * @param fMap       true to allow the module files to be memory-mapped (only for the read-only
+     *                   repository)
+     */
+    public DirRepository(File dir, boolean fReadOnly, boolean fMap)
         {
         assert dir != null && dir.isDirectory();
 
-        m_dir = dir;
-        m_fRO = fReadOnly;
+        m_dir  = dir;
+        m_fRO  = fReadOnly;
+        m_fMap = fReadOnly && fMap;
         }
 
 
@@ -57,7 +74,7 @@ public class DirRepository
     // ----- ModuleRepository API ------------------------------------------------------------------
 
     @Override
-    public Set<String> getModuleNames()
+    public synchronized Set<String> getModuleNames()
         {
         ensureCache();
         return Collections.unmodifiableSet(modulesByName.keySet());
@@ -66,13 +83,23 @@ public class DirRepository
     @Override
     public ModuleStructure loadModule(String sModule)
         {
-        ensureCache();
-        ModuleInfo info = modulesByName.get(sModule);
+        ModuleInfo info;
+        synchronized (this)
+            {
+            ensureCache();
+            info = modulesByName.get(sModule);
+            }
         return info == null ? null : info.ensureModule();
         }
 
     @Override
-    public void storeModule(ModuleStructure module)
+    public void preloadModules(Collection<String> colModules)
+        {
+        colModules.parallelStream().forEach(this::loadModule);
+        }
+
+    @Override
+    public synchronized void storeModule(ModuleStructure module)
             throws IOException
         {
         if (m_fRO)
@@ -86,6 +113,8 @@ public class DirRepository
                 ? new File(m_dir, module.getIdentityConstant().getUnqualifiedName() + ".xtc")
                 : info.file;
 
+        // a module file that is memory-mapped can't be deleted on some platforms
+        FileStructure.unmap(file);
         if (file.exists() && !file.delete())
             {
             throw new IOException("unable to delete " + file);
@@ -95,7 +124,7 @@ public class DirRepository
 
         if (file.exists())
             {
-            info = new ModuleInfo(file);
+            info = new ModuleInfo(file, m_fMap);
             modulesByName.put(name, info);
             modulesByFile.put(file, info);
             }
@@ -152,17 +181,30 @@ public class DirRepository
         modulesByFile = newModulesByFile;
         modulesByName.clear();
 
-        File[] files = m_dir.listFiles(ModulesOnly);
+        File[]     files    = m_dir.listFiles(ModulesOnly);
+        List<File> listLoad = new ArrayList<>();
         for (File file : files)
             {
             ModuleInfo info = oldModulesByFile.get(file);
             if (info == null || info.timestamp != file.lastModified() || info.size != file.length())
                 {
                 // build a new one to cache
-                info = new ModuleInfo(file);
+                listLoad.add(file);
                 }
+            else
+                {
+                newModulesByFile.put(file, info);
+                }
+            }
 
-            newModulesByFile.put(file, info);
+        // the new and changed module files are read independently of each other
+        for (ModuleInfo info : listLoad.parallelStream().map(file -> new ModuleInfo(file, m_fMap)).toList())
+            {
+            newModulesByFile.put(info.file, info);
+            }
+
+        for (ModuleInfo info : newModulesByFile.values())
+            {
             if (!info.err)
                 {
                 modulesByName.put(info.name, info);
@@ -207,11 +249,17 @@ public class DirRepository
 
     protected static class ModuleInfo
         {
-        public ModuleInfo(File file)
+        /**
+         * @param file  the module file
+         * @param fMap  true to allow the module file to be memory-mapped (only for the read-only
+         *              repositories)
+         */
+        public ModuleInfo(File file, boolean fMap)
             {
             this.file      = file;
             this.timestamp = file.lastModified();
             this.size      = file.length();
+            this.map       = fMap;
 
             ModuleStructure module = tryLoad();
             if (module == null)
@@ -225,6 +273,9 @@ public class DirRepository
                 this.name     = module.getIdentityConstant().getName();
                 this.versions = module.getFileStructure().getVersionTree();
                 this.err      = false;
+
+                // the module is not retained: the scan reads every module in the directory, while
+                // only the requested ones are kept (by ensureModule)
                 }
             }
 
@@ -232,7 +283,7 @@ public class DirRepository
             {
             try
                 {
-                FileStructure struct = new FileStructure(file);
+                FileStructure struct = FileStructure.load(file, map);
                 return struct.getModule();
                 }
             catch (Exception e)
@@ -243,7 +294,7 @@ public class DirRepository
             return null;
             }
 
-        ModuleStructure ensureModule()
+        synchronized ModuleStructure ensureModule()
             {
             if (err)
                 {
@@ -263,6 +314,7 @@ public class DirRepository
         public final VersionTree<Boolean> versions;
         public final long                 timestamp;
         public final long                 size;
+        public final boolean              map;
         public final boolean              err;
 
         /**
@@ -284,6 +336,7 @@ public class DirRepository
 
     private final File    m_dir;
     private final boolean m_fRO;
+    private final boolean m_fMap;
 
     private       Map<File  , ModuleInfo> modulesByFile = new HashMap<>();
     private final Map<String, ModuleInfo> modulesByName = new TreeMap<>();
@@ -13,6 +13,8 @@ import org.xvm.util.Severity;
 /**
  * Represents a list of errors collected from a process such as compilation, assembly, or the
  * verifier, with an option to abort the process should a maximum number of errors be exceeded.
+ * <p/>
+ * Errors can be logged concurrently from multiple threads.
  */
 public class ErrorList
         implements ErrorListener
@@ -34,7 +36,7 @@ public class ErrorList
         }
 
     @Override
-    public boolean log(ErrorInfo err)
+    public synchronized boolean log(ErrorInfo err)
         {
         String uid = err.genUID();
         if (f_setUID.add(uid))
@@ -74,7 +76,7 @@ public class ErrorList
         }
 
     @Override
-    public boolean hasError(String sCode)
+    public synchronized boolean hasError(String sCode)
         {
         return f_list.stream().anyMatch(info -> info.getCode().equals(sCode));
         }
@@ -140,7 +142,7 @@ public class ErrorList
     /**
      * Clear the list of errors, resetting the error collection state.
      */
-    public void clear()
+    public synchronized void clear()
         {
         f_list.clear();
         m_cErrors  = 0;
@@ -241,12 +243,12 @@ public class ErrorList
     /**
      * The number of serious errors encountered.
      */
-    private int m_cErrors;
+    private volatile int m_cErrors;
 
     /**
      * The worst severity encountered.
      */
-    private Severity m_severity = Severity.NONE;
+    private volatile Severity m_severity = Severity.NONE;
 
     /**
      * The accumulated list of errors.
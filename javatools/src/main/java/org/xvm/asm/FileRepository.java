@@ -23,6 +23,19 @@ public class FileRepository
      * @param fReadOnly  true to make the repository "read-only"
      */
     public FileRepository(File file, boolean fReadOnly)
+        {
+        this(file, fReadOnly, fReadOnly);
+        }
+
+    /**
+     * Construct a single-file ModuleRepository.
+     *
+     * @param file       the file that contains the single module
+     * @param fReadOnly  true to make the repository "read-only"
+     * @param fMap       true to allow the module file to be memory-mapped (only for the read-only
+     *                   repository)
+     */
+    public FileRepository(File file, boolean fReadOnly, boolean fMap)
         {
         assert file != null && !file.isDirectory();
 
@@ -40,7 +53,8 @@ public class FileRepository
             }
 
         this.file = file;
-        this.fRO = fReadOnly;
+        this.fRO  = fReadOnly;
+        this.fMap = fReadOnly && fMap;
         }
 
 
@@ -66,21 +80,21 @@ public class FileRepository
     // ----- ModuleRepository API ------------------------------------------------------------------
 
     @Override
-    public Set<String> getModuleNames()
+    public synchronized Set<String> getModuleNames()
         {
         checkCache();
         return file.exists() && name != null ? Collections.singleton(name) : Collections.emptySet();
         }
 
     @Override
-    public VersionTree<Boolean> getAvailableVersions(String sModule)
+    public synchronized VersionTree<Boolean> getAvailableVersions(String sModule)
         {
         checkCache();
         return !err && name.equals(sModule) ? versions : null;
         }
 
     @Override
-    public ModuleStructure loadModule(String sModule)
+    public synchronized ModuleStructure loadModule(String sModule)
         {
         ModuleStructure module = checkCache();
         if (sModule.equals(name))
@@ -91,7 +105,7 @@ public class FileRepository
         }
 
     @Override
-    public void storeModule(ModuleStructure module)
+    public synchronized void storeModule(ModuleStructure module)
             throws IOException
         {
         if (fRO)
@@ -99,6 +113,8 @@ public class FileRepository
             throw new IOException("repository is read-only: " + this);
             }
 
+        // a module file that is memory-mapped can't be deleted on some platforms
+        FileStructure.unmap(file);
         if (file.exists() && !file.delete())
             {
             err = true;
@@ -235,7 +251,7 @@ public class FileRepository
         {
         try
             {
-            FileStructure struct = new FileStructure(file);
+            FileStructure struct = FileStructure.load(file, fMap);
             return struct.getModule();
             }
         catch (Exception e)
@@ -252,6 +268,7 @@ public class FileRepository
 
     private final File           file;
     private final boolean        fRO;
+    private final boolean        fMap;
 
     private String               name;
     private VersionTree<Boolean> versions;
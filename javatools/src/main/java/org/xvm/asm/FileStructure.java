@@ -2,6 +2,7 @@ package org.xvm.asm;
 
 
 import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
@@ -13,6 +14,19 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 
+import java.lang.reflect.Field;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
 import java.time.Instant;
 
 import java.util.ArrayList;
@@ -27,11 +41,12 @@ import java.util.function.Consumer;
 import org.xvm.asm.constants.ModuleConstant;
 import org.xvm.asm.constants.TypeConstant;
 
+import org.xvm.util.Hasher;
 import org.xvm.util.LinkedIterator;
+import org.xvm.util.WeakHasherMap;
 
 import static org.xvm.util.Handy.intToHexString;
 import static org.xvm.util.Handy.readIndex;
-import static org.xvm.util.Handy.toInputStream;
 import static org.xvm.util.Handy.writePackedLong;
 
 
@@ -101,9 +116,28 @@ public class FileStructure
     public FileStructure(File file, boolean fLazy)
             throws IOException
         {
-        this(toInputStream(file), true, fLazy);
+        this(file, read(file), fLazy);
+        }
+
+    /**
+     * Construct a file structure for the content of the specified file.
+     *
+     * @param file   the file that contains the existing FileStructure
+     * @param buf    the content of the file, either read or memory-mapped
+     * @param fLazy  true to defer the module deserialization until necessary
+     *
+     * @throws IOException  if an IOException occurs while reading the FileStructure
+     */
+    private FileStructure(File file, ByteBuffer buf, boolean fLazy)
+            throws IOException
+        {
+        this(new ByteBufferDataInput(buf), null, fLazy);
 
         m_file = file;
+        if (buf instanceof MappedByteBuffer bufMapped)
+            {
+            m_bufMapped = bufMapped;
+            }
         }
 
     /**
@@ -132,20 +166,35 @@ public class FileStructure
     public FileStructure(InputStream in, boolean fAutoClose, boolean fLazy)
             throws IOException
         {
+        this(new DataInputStream(in), fAutoClose ? in : null, fLazy);
+        }
+
+    /**
+     * Construct a file structure from the specified DataInput.
+     *
+     * @param in         the DataInput that contains a FileStructure
+     * @param closeable  (optional) the resource to close once the FileStructure has been read
+     * @param fLazy      true to defer the module deserialization until necessary
+     *
+     * @throws IOException  if an IOException occurs while reading the FileStructure
+     */
+    private FileStructure(DataInput in, Closeable closeable, boolean fLazy)
+            throws IOException
+        {
         super(null, Access.PUBLIC, true, true, true, Format.FILE, null, null);
 
         m_fLazyDeser = fLazy;
         try
             {
-            disassemble(new DataInputStream(in));
+            disassemble(in);
             }
         finally
             {
-            if (fAutoClose)
+            if (closeable != null)
                 {
                 try
                     {
-                    in.close();
+                    closeable.close();
                     }
                 catch (IOException ignore) {}
                 }
@@ -224,6 +273,161 @@ public class FileStructure
             }
         }
 
+    /**
+     * Memory-map the specified file. The mapped pages are only read in (and only take up memory)
+     * when the corresponding parts of the file structure get deserialized.
+     *
+     * @param file  the file to map
+     *
+     * @return a read-only buffer for the file content
+     */
+    private static ByteBuffer map(File file)
+            throws IOException
+        {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+            {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+
+    /**
+     * Read the content of the specified file.
+     *
+     * @param file  the file to read
+     *
+     * @return a buffer for the file content
+     */
+    private static ByteBuffer read(File file)
+            throws IOException
+        {
+        return ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        }
+
+    /**
+     * Load a file structure for an existing file, deferring the module deserialization until
+     * necessary. If allowed by the "xvm.mmap" system property, the file is memory-mapped instead
+     * of being read; this is only meant for the files that are loaded read-only (e.g. by the
+     * run-time), since a mapped file has to be {@link #unmap unmapped} before it can be replaced.
+     *
+     * @param file  the file that contains the existing FileStructure
+     * @param fMap  true to memory-map the file (if allowed)
+     *
+     * @return the FileStructure
+     *
+     * @throws IOException  if an IOException occurs while reading the FileStructure
+     */
+    public static FileStructure load(File file, boolean fMap)
+            throws IOException
+        {
+        return fMap && USE_MMAP
+                ? loadMapped(file)
+                : new FileStructure(file, true);
+        }
+
+    /**
+     * Load a file structure for an existing file by memory-mapping the file.
+     *
+     * @param file  the file that contains the existing FileStructure
+     *
+     * @return the FileStructure
+     *
+     * @throws IOException  if an IOException occurs while reading the FileStructure
+     */
+    private static FileStructure loadMapped(File file)
+            throws IOException
+        {
+        FileStructure struct = new FileStructure(file, map(file), true);
+        synchronized (s_setMapped)
+            {
+            s_setMapped.add(struct);
+            }
+        return struct;
+        }
+
+    /**
+     * @return true iff the file structure holds a memory mapping of its file
+     */
+    boolean isMapped()
+        {
+        return m_bufMapped != null;
+        }
+
+    /**
+     * Release the memory mappings of the specified file held by any of the file structures loaded
+     * by {@link #load}. The deferred parts of those file structures are deserialized first, so they
+     * remain fully usable.
+     *
+     * @param file  the file that is about to be replaced
+     */
+    public static void unmap(File file)
+        {
+        if (!USE_MMAP)
+            {
+            // nothing could have been mapped
+            return;
+            }
+
+        Path path = file.toPath().toAbsolutePath().normalize();
+
+        List<FileStructure> listMapped = new ArrayList<>();
+        synchronized (s_setMapped)
+            {
+            for (FileStructure struct : s_setMapped)
+                {
+                if (struct.m_file.toPath().toAbsolutePath().normalize().equals(path))
+                    {
+                    listMapped.add(struct);
+                    }
+                }
+            s_setMapped.removeAll(listMapped);
+            }
+
+        for (FileStructure struct : listMapped)
+            {
+            struct.releaseMapping();
+            }
+        }
+
+    /**
+     * Deserialize everything that still refers to the memory-mapped content of the file, and
+     * release the mapping.
+     */
+    private void releaseMapping()
+        {
+        MappedByteBuffer buf = m_bufMapped;
+        if (buf != null)
+            {
+            // the deferred children are slices of the mapped buffer; once they are all read in,
+            // nothing refers to the mapping anymore, and it can be released right away, without
+            // waiting for the garbage collector (which the replacement of the file on some
+            // platforms would have to)
+            visitChildren(component -> {}, false, true);
+            m_bufMapped = null;
+
+            // invariant: the only slices of the mapping are the deferred children buffers of this
+            // structure's components (clones drop them, and a concurrent deferred read holds the
+            // sibling monitor the visit above waits for), so nothing can access the mapping once
+            // the cleaner has run; any access after that would crash the JVM rather than throw,
+            // which is why the cleaner is only used under the same "xvm.mmap" opt-in as the
+            // mapping itself
+            if (USE_MMAP)
+                {
+                try
+                    {
+                    Class<?> clzUnsafe = Class.forName("sun.misc.Unsafe");
+                    Field    field     = clzUnsafe.getDeclaredField("theUnsafe");
+                    field.setAccessible(true);
+                    clzUnsafe.getMethod("invokeCleaner", ByteBuffer.class)
+                            .invoke(field.get(null), buf);
+                    }
+                catch (ReflectiveOperationException | RuntimeException ignore)
+                    {
+                    // the mapping is released when the buffer gets collected
+                    }
+                }
+            }
+        }
+
 
     // ----- serialization -------------------------------------------------------------------------
 
@@ -237,6 +441,30 @@ public class FileStructure
     public void writeTo(File file)
             throws IOException
         {
+        // the existing file may be memory-mapped by a FileStructure, which has to let go of the
+        // mapping before the file can be replaced; the new content is written to a separate file
+        // first, so that a failed write doesn't leave the existing file truncated
+        unmap(file);
+
+        File fileTemp = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+        writeTo0(fileTemp);
+        try
+            {
+            Files.move(fileTemp.toPath(), file.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        catch (AtomicMoveNotSupportedException e)
+            {
+            Files.move(fileTemp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+    /**
+     * Write the FileStructure to the specified file, overwriting it in place.
+     */
+    private void writeTo0(File file)
+            throws IOException
+        {
         FileOutputStream fos = new FileOutputStream(file);
 
         try
@@ -379,6 +607,22 @@ public class FileStructure
                 }
             }
 
+        // the modules are read independently of each other (and possibly in parallel) before the
+        // dependency graph is walked; the linking itself merges them into this structure in order
+        List<String> listPreload = new ArrayList<>();
+        for (String sModule : moduleNames())
+            {
+            ModuleStructure module = getModule(sModule);
+            if (module != null && !module.isLinked() && !sModule.equals(getModuleName()))
+                {
+                listPreload.add(sModule);
+                }
+            }
+        if (!listPreload.isEmpty())
+            {
+            repository.preloadModules(listPreload);
+            }
+
         String sMissing = findMissing(repository, new HashSet<>(), fRuntime);
         if (sMissing == null)
             {
@@ -612,6 +856,23 @@ public class FileStructure
         m_fLinked = true;
         }
 
+    /**
+     * Discard the run-time state held by the constants of this FileStructure and by the ops of
+     * its methods, so the linked structure can be reused by a new container.
+     */
+    public void resetRuntimeState()
+        {
+        getConstantPool().resetRuntimeState();
+
+        visitChildren(component ->
+            {
+            if (component instanceof MethodStructure method)
+                {
+                method.resetRuntimeState();
+                }
+            }, true, true);
+        }
+
     /**
      * @return a read-only tree of versions in this FileStructure
      */
@@ -1255,11 +1516,28 @@ public class FileStructure
 
     // ----- fields --------------------------------------------------------------------------------
 
+    /**
+     * True iff the files {@link #load loaded} for read-only use are allowed to be memory-mapped;
+     * controlled by the "xvm.mmap" system property.
+     */
+    private static final boolean USE_MMAP = Boolean.getBoolean("xvm.mmap");
+
+    /**
+     * The file structures that hold a memory mapping of their files.
+     */
+    private static final Set<FileStructure> s_setMapped =
+            Collections.newSetFromMap(new WeakHasherMap<>(Hasher.identity()));
+
     /**
      * The file that the file structure was loaded from.
      */
     private File m_file;
 
+    /**
+     * The memory-mapped content of the file, if the file structure was loaded from a mapping.
+     */
+    private MappedByteBuffer m_bufMapped;
+
     /**
      * The indicator that deserialization of components should be done lazily (deferred).
      */
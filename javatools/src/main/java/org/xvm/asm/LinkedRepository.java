@@ -3,10 +3,13 @@ package org.xvm.asm;
 
 import java.io.IOException;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 
 /**
  * A repository that delegates to a chain of repositories. Reads occur from the repositories in the
@@ -107,6 +110,39 @@ public class LinkedRepository
 
     @Override
     public ModuleStructure loadModule(String sModule)
+        {
+        // the read-through copy must be made only once per module
+        synchronized (f_mapLocks.computeIfAbsent(sModule, k -> new Object()))
+            {
+            return loadModuleImpl(sModule);
+            }
+        }
+
+    @Override
+    public void preloadModules(Collection<String> colModules)
+        {
+        // let each repository load its modules in the way it supports (e.g. in parallel); then
+        // make the read-through copies
+        for (ModuleRepository repo : repos)
+            {
+            Set<String> setModules = new TreeSet<>(colModules);
+            setModules.retainAll(repo.getModuleNames());
+            if (!setModules.isEmpty())
+                {
+                repo.preloadModules(setModules);
+                }
+            }
+
+        for (String sModule : colModules)
+            {
+            loadModule(sModule);
+            }
+        }
+
+    /**
+     * Implementation of {@link #loadModule(String)}.
+     */
+    private ModuleStructure loadModuleImpl(String sModule)
         {
         for (int i = 0, c = repos.length; i < c; ++i)
             {
@@ -186,4 +222,9 @@ public class LinkedRepository
      * A value of true stores a copy of all read modules in the first repository.
      */
     private final boolean            readThrough;
+
+    /**
+     * The per-module locks used to load the modules.
+     */
+    private final ConcurrentHashMap<String, Object> f_mapLocks = new ConcurrentHashMap<>();
     }
\ No newline at end of file
@@ -679,7 +679,8 @@ public class MethodStructure
         }
 
     /**
-     * @return the op-code array for this method
+     * @return the op-code array for this method to be executed by the run-time; the array is
+     *         address-compatible with the assembled ops, but may contain {@link OpFused fused} ops
      */
     public Op[] getOps()
         {
@@ -690,7 +691,7 @@ public class MethodStructure
                 getIdentityConstant().getPathString() + "\" has not been compiled");
             }
 
-        return code.getAssembledOps();
+        return code.getExecutableOps();
         }
 
     /**
@@ -1123,6 +1124,20 @@ public class MethodStructure
         m_fNative = false;
         }
 
+    /**
+     * Discard the run-time state (such as cached object handles) held by the ops of this method,
+     * so the method can be executed by a new container. Unlike {@link #resetRuntimeInfo()}, this
+     * keeps the ops themselves.
+     */
+    public void resetRuntimeState()
+        {
+        Code code = m_code;
+        if (code != null)
+            {
+            code.resetRuntimeState();
+            }
+        }
+
     boolean needsReassembly()
         {
         return m_code != null && m_abOps == null
@@ -2622,6 +2637,56 @@ public class MethodStructure
             return ensureOps();
             }
 
+        /**
+         * @return the array of Ops to be executed by the run-time
+         */
+        public Op[] getExecutableOps()
+            {
+            Op[]          aop  = ensureOps();
+            ExecutableOps exec = m_execOps;
+            if (exec == null || exec.aopSource() != aop)
+                {
+                // the executable ops are shared by all services, and the run-time replaces ops
+                // within that array (e.g. the quickening), so there must be only one array per
+                // assembled ops; it is published through a volatile field, so the ops it holds
+                // are safely visible to all threads
+                synchronized (this)
+                    {
+                    exec = m_execOps;
+                    if (exec == null || exec.aopSource() != aop)
+                        {
+                        m_execOps = exec = new ExecutableOps(aop, OpFused.fuse(aop));
+                        }
+                    }
+                }
+            return exec.aopExec();
+            }
+
+        /**
+         * Discard the run-time state held by the ops of this code, including the ops that the
+         * run-time has put into the executable ops (e.g. the fused or quickened ops).
+         */
+        public void resetRuntimeState()
+            {
+            Op[] aop = m_aop;
+            if (aop != null)
+                {
+                for (Op op : aop)
+                    {
+                    op.ensureOp().resetRuntimeState();
+                    }
+                }
+
+            ExecutableOps exec = m_execOps;
+            if (exec != null)
+                {
+                for (Op op : exec.aopExec())
+                    {
+                    op.ensureOp().resetRuntimeState();
+                    }
+                }
+            }
+
         /**
          * @return true iff there are any ops in the code
          */
@@ -2777,6 +2842,12 @@ public class MethodStructure
                 throw new IllegalStateException();
                 }
 
+            @Override
+            public Op[] getExecutableOps()
+                {
+                throw new IllegalStateException();
+                }
+
             @Override
             public Code blackhole()
                 {
@@ -3083,6 +3154,12 @@ public class MethodStructure
          */
         private Op[] m_aop;
 
+        /**
+         * The array of ops to be executed by the run-time (see {@link OpFused}) together with the
+         * assembled ops it has been produced from; rebuilt whenever the assembled ops change.
+         */
+        private volatile ExecutableOps m_execOps;
+
         /**
          * A coding black hole.
          */
@@ -3097,6 +3174,11 @@ public class MethodStructure
          * Current line number.
          */
         private int m_nCurLine;
+
+        /**
+         * The executable ops and the assembled ops they have been produced from.
+         */
+        private record ExecutableOps(Op[] aopSource, Op[] aopExec) {}
         }
 
 
@@ -3,6 +3,7 @@ package org.xvm.asm;
 
 import java.io.IOException;
 
+import java.util.Collection;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -84,6 +85,21 @@ public interface ModuleRepository
      */
     ModuleStructure loadModule(String sModule);
 
+    /**
+     * Load the specified modules ahead of time, so that the subsequent {@link #loadModule} calls
+     * for them don't need to do any I/O. A thread-safe repository may load the modules in
+     * parallel.
+     *
+     * @param colModules  the fully qualified module names
+     */
+    default void preloadModules(Collection<String> colModules)
+        {
+        for (String sModule : colModules)
+            {
+            loadModule(sModule);
+            }
+        }
+
     /**
      * Load the specified version of the specified module.
      *
@@ -448,6 +448,14 @@ public abstract class Op
         return false;
         }
 
+    /**
+     * Discard any run-time state (such as cached object handles) held by this op. This is used
+     * when the op's method is reused by a new container.
+     */
+    public void resetRuntimeState()
+        {
+        }
+
     /**
      * Calculate a number of scopes that must be exited by a jump from this Op to another.
      *
@@ -467,6 +475,69 @@ public abstract class Op
         }
 
 
+    // ----- quickening support --------------------------------------------------------------------
+
+    /**
+     * Attempt to "quicken" this op, i.e. to replace it at the specified address of the frame's op
+     * array with a type-specialized op produced by {@link #createQuickenedOp}. Only one attempt is
+     * made for any given op: if the operands are not suitable for a specialization, or the
+     * quickened op had to be {@link OpQuickened#deoptimize deoptimized}, this op stays generic.
+     *
+     * @param frame  the current frame
+     * @param iPC    the address of this op
+     *
+     * @return the quickened op that should be processed instead of this op; null otherwise
+     */
+    protected Op quicken(Frame frame, int iPC)
+        {
+        if ((m_lStruct & GENERIC_BIT) == 0)
+            {
+            if (QUICKEN_OPS && !frame.f_context.isDebuggerActive())
+                {
+                Op opQuick = createQuickenedOp(frame);
+                if (opQuick != null && frame.replaceOp(iPC, this, opQuick))
+                    {
+                    return opQuick;
+                    }
+                }
+            markGeneric();
+            }
+        return null;
+        }
+
+    /**
+     * Create a type-specialized op based on the current values of this op's arguments. The
+     * quickened op must not produce any side effects before it validates its assumptions, so it
+     * could {@link OpQuickened#deoptimize deoptimize} itself by simply delegating to this op.
+     *
+     * @param frame  the current frame
+     *
+     * @return a quickened op or null if this op cannot be specialized
+     */
+    protected Op createQuickenedOp(Frame frame)
+        {
+        return null;
+        }
+
+    /**
+     * Mark this op as "generic", so it's never going to be quickened.
+     */
+    public void markGeneric()
+        {
+        // there is no concern about concurrent updates; the rest of the bits are only changed
+        // during the assembly
+        m_lStruct |= GENERIC_BIT;
+        }
+
+    /**
+     * @return true iff this op has been {@link #markGeneric marked} as "generic"
+     */
+    public boolean isGeneric()
+        {
+        return (m_lStruct & GENERIC_BIT) != 0;
+        }
+
+
     // ----- inner class: Prefix Op ----------------------------------------------------------------
 
     /**
@@ -2398,10 +2469,17 @@ public abstract class Op
      */
     public static final Op[] NO_OPS = new Op[0];
 
+    /**
+     * Indicates whether the ops are allowed to {@link #quicken} themselves at run-time.
+     */
+    public static final boolean QUICKEN_OPS =
+            Boolean.parseBoolean(System.getProperty("xvm.quicken", "true"));
+
     private static final long REACHABLE_BIT        = 0x8000_0000_0000_0000L;
     private static final long NECESSARY_BIT        = 0x4000_0000_0000_0000L;
     private static final long REDUNDANT_BIT        = 0x2000_0000_0000_0000L;
-    private static final long RESERVED_BITS        = 0x1FFF_F000_0000_0000L;
+    private static final long GENERIC_BIT          = 0x1000_0000_0000_0000L;
+    private static final long RESERVED_BITS        = 0x0FFF_F000_0000_0000L;
     private static final long GUARD_ALL_DEPTH_BITS = 0x0000_0FF0_0000_0000L, GUARD_ALL_DEPTH_SHIFT = 36;
     private static final long GUARD_DEPTH_BITS     = 0x0000_000F_F000_0000L, GUARD_DEPTH_SHIFT     = 28;
     private static final long SCOPE_DEPTH_BITS     = 0x0000_0000_0FF0_0000L, SCOPE_DEPTH_SHIFT     = 20;
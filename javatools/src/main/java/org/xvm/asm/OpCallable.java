@@ -16,7 +16,9 @@ import org.xvm.asm.constants.TypeConstant;
 import org.xvm.asm.constants.TypeInfo;
 
 import org.xvm.runtime.ClassTemplate;
+import org.xvm.runtime.Container;
 import org.xvm.runtime.Frame;
+import org.xvm.runtime.InlineCache;
 import org.xvm.runtime.ObjectHandle;
 import org.xvm.runtime.ServiceContext;
 import org.xvm.runtime.TypeComposition;
@@ -398,8 +400,8 @@ public abstract class OpCallable extends Op
         {
         ServiceContext   context    = frame.f_context;
         MethodConstant   idFunction = (MethodConstant) frame.getConstant(m_nFunctionId);
-        MethodStructure  function   = (MethodStructure) context.getOpInfo(this, Category.Function);
         IdentityConstant idTarget   = idFunction.getNamespace();
+        MethodStructure  function;
 
         switch (idTarget.getFormat())
             {
@@ -407,30 +409,21 @@ public abstract class OpCallable extends Op
             case Package:
             case Class:
                 {
+                // the resolution only depends on the container, which is used as the inline
+                // cache key, unless there are too many containers calling this op
+                InlineCache cache = ensureTargetCache();
+
+                function = cache.isMegamorphic()
+                        ? (MethodStructure) context.getOpInfo(this, Category.Function)
+                        : (MethodStructure) cache.get(context.f_container);
                 if (function == null)
                     {
-                    ConstantPool        pool     = frame.poolContext();
-                    GenericTypeResolver resolver = frame.getGenericsResolver(false);
-
-                    TypeConstant typeTarget = idTarget.getFormalType().resolveGenerics(pool, resolver);
-
-                    function = (MethodStructure) idFunction.getComponent();
-                    if (function == null)
+                    Object[] aoTarget = resolveTarget(frame, idFunction, cache);
+                    if (aoTarget == null)
                         {
-                        function = pool.ensureAccessTypeConstant(typeTarget, Access.PRIVATE).
-                            findCallable(idFunction.getSignature().resolveGenericTypes(pool, resolver));
-                        }
-
-                    if (function == null)
-                        {
-                        frame.raiseException("Unresolvable or ambiguous function \"" +
-                            idFunction.getValueString() + "\" for " + typeTarget.getValueString());
                         return null;
                         }
-
-                    context.setOpInfo(this, Category.Function, function);
-                    context.setOpInfo(this, Category.Template,
-                            context.f_container.getTemplate(typeTarget));
+                    function = (MethodStructure) aoTarget[0];
                     }
                 break;
                 }
@@ -442,6 +435,8 @@ public abstract class OpCallable extends Op
                 {
                 GenericTypeResolver resolver   = frame.getGenericsResolver(true);
                 TypeConstant        typeTarget = ((FormalConstant) idTarget).resolve(resolver);
+
+                function = (MethodStructure) context.getOpInfo(this, Category.Function);
                 TypeConstant        typePrev   = (TypeConstant) context.getOpInfo(this, Category.TargetType);
                 if (function == null || !typeTarget.equals(typePrev))
                     {
@@ -466,6 +461,7 @@ public abstract class OpCallable extends Op
 
             case Method:
                 {
+                function = (MethodStructure) context.getOpInfo(this, Category.Function);
                 if (function == null)
                     {
                     function = (MethodStructure) idFunction.getComponent();
@@ -484,14 +480,108 @@ public abstract class OpCallable extends Op
         return function;
         }
 
+    /**
+     * Resolve the function called by this op (which is defined by a class, package or module) and
+     * the template of its target, and cache them together keyed by the container.
+     *
+     * @return an array of the function and the template or null if the function cannot be found,
+     *         in which case an exception has been raised on the frame
+     */
+    private Object[] resolveTarget(Frame frame, MethodConstant idFunction, InlineCache cache)
+        {
+        ServiceContext      context    = frame.f_context;
+        Container           container  = context.f_container;
+        ConstantPool        pool       = frame.poolContext();
+        GenericTypeResolver resolver   = frame.getGenericsResolver(false);
+        TypeConstant        typeTarget = idFunction.getNamespace().getFormalType().
+                                            resolveGenerics(pool, resolver);
+
+        MethodStructure function = (MethodStructure) idFunction.getComponent();
+        if (function == null)
+            {
+            function = pool.ensureAccessTypeConstant(typeTarget, Access.PRIVATE).
+                findCallable(idFunction.getSignature().resolveGenericTypes(pool, resolver));
+            }
+
+        if (function == null)
+            {
+            frame.raiseException("Unresolvable or ambiguous function \"" +
+                idFunction.getValueString() + "\" for " + typeTarget.getValueString());
+            return null;
+            }
+
+        ClassTemplate template = container.getTemplate(typeTarget);
+
+        // the function and the template are cached as a single entry, so they can never be
+        // observed out of sync
+        cache.put(container, function, template);
+
+        // the cache could have just turned megamorphic
+        if (cache.isMegamorphic())
+            {
+            context.setOpInfo(this, Category.Function, function);
+            context.setOpInfo(this, Category.Template, template);
+            }
+        return new Object[] {function, template};
+        }
+
     /**
      * @return the ClassTemplate that defines a native implementation for the specified function
      *         using the information collected by {@link #getMethodStructure}
      */
     protected ClassTemplate getNativeTemplate(Frame frame, MethodStructure function)
         {
-        assert function == frame.f_context.getOpInfo(this, Category.Function);
-        return (ClassTemplate) frame.f_context.getOpInfo(this, Category.Template);
+        ServiceContext context = frame.f_context;
+        InlineCache    cache   = m_cacheTarget;
+        if (cache == null)
+            {
+            // the template has been resolved by the service-local op info only
+            assert function == context.getOpInfo(this, Category.Function);
+            return (ClassTemplate) context.getOpInfo(this, Category.Template);
+            }
+
+        Object[] aoTarget;
+        if (cache.isMegamorphic())
+            {
+            aoTarget = context.getOpInfo(this, Category.Function) == function
+                    ? new Object[] {function, context.getOpInfo(this, Category.Template)}
+                    : null;
+            }
+        else
+            {
+            aoTarget = cache.getValues(context.f_container);
+            }
+
+        if (aoTarget == null || aoTarget[0] != function || aoTarget[1] == null)
+            {
+            // the entry has been lost since the function was resolved (e.g. a racing update has
+            // evicted it or the cache has just turned megamorphic); resolve it again
+            aoTarget = resolveTarget(frame, (MethodConstant) frame.getConstant(m_nFunctionId), cache);
+            assert aoTarget != null && aoTarget[0] == function;
+            }
+        return (ClassTemplate) aoTarget[1];
+        }
+
+    /**
+     * @return the inline cache of the resolved functions and their templates keyed by the
+     *         Container
+     */
+    private InlineCache ensureTargetCache()
+        {
+        InlineCache cache = m_cacheTarget;
+        if (cache == null)
+            {
+            // a concurrent initialization could lose a cache entry, which only causes a miss
+            cache = m_cacheTarget = new InlineCache();
+            }
+        return cache;
+        }
+
+    @Override
+    public void resetRuntimeState()
+        {
+        // the cache is keyed by the containers that executed this op
+        m_cacheTarget = null;
         }
 
     /**
@@ -623,6 +713,12 @@ public abstract class OpCallable extends Op
     protected Argument   m_argReturn;  // optional
     protected Argument[] m_aArgReturn; // optional
 
+    /**
+     * The inline cache of the resolved functions and their templates keyed by the Container; the
+     * function and its template are always stored together as a single entry.
+     */
+    private transient InlineCache m_cacheTarget;
+
     // categories for cached info
     enum Category {Function, Template, TargetClass, TargetType, Constructor}
     }
\ No newline at end of file
@@ -128,6 +128,12 @@ public abstract class OpCondJump
     @Override
     public int process(Frame frame, int iPC)
         {
+        Op opQuick = quicken(frame, iPC);
+        if (opQuick != null)
+            {
+            return opQuick.process(frame, iPC);
+            }
+
         return isBinaryOp() ? processBinaryOp(frame, iPC) : processUnaryOp(frame, iPC);
         }
 
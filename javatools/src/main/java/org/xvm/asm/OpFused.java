@@ -0,0 +1,244 @@
+package org.xvm.asm;
+
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.xvm.asm.op.Nop;
+
+import org.xvm.runtime.Frame;
+
+
+/**
+ * A run-time only "superinstruction" that executes two adjacent ops in a single dispatch of the
+ * {@link org.xvm.runtime.ServiceContext#execute} loop.
+ * <p/>
+ * The fused op replaces the first op of the sequence, while the second op stays in place at the
+ * next address. As a result, no op addresses change: jump offsets, guard ranges, line number
+ * calculations and the exception handling all keep working against the original layout, and any
+ * code that jumps directly to the second op simply executes it alone. The second op is always read
+ * from the op array, so it could be quickened, replaced by a breakpoint, or be a fused op itself.
+ * <p/>
+ * If the first op completes with anything other than a fall-through to the next op, the fused op
+ * returns that result unchanged, which makes it indistinguishable from the unfused sequence.
+ * <p/>
+ * Fused ops are never serialized; the serialization is delegated to the first op. The fusion can be
+ * disabled using the "xvm.fuseOps" system property (e.g. to simplify debugging of the interpreter).
+ */
+public class OpFused
+        extends Op
+    {
+    /**
+     * Construct a fused op.
+     *
+     * @param op1  the first op
+     * @param aOp  the op array the fused op is placed into (the second op is at the next address)
+     */
+    protected OpFused(Op op1, Op[] aOp)
+        {
+        m_op1 = op1;
+        f_aOp = aOp;
+        }
+
+    /**
+     * Create an array of ops to be executed by the interpreter, fusing the eligible op sequences.
+     *
+     * @param aOp  the assembled ops
+     *
+     * @return the specified array if there is nothing to fuse; otherwise a new array with some
+     *         of the ops replaced by the fused ones
+     */
+    public static Op[] fuse(Op[] aOp)
+        {
+        int c = aOp.length;
+        if (!FUSE_OPS || c < 2)
+            {
+            return aOp;
+            }
+
+        Op[] aOpNew = null;
+
+        // go backwards, so it's already known whether the next op is a fused one
+        for (int i = c - 2; i >= 0; i--)
+            {
+            Op op1 = aOp[i];
+            Op op2 = aOp[i+1];
+
+            if (op1 instanceof Nop && !(op2 instanceof Nop))
+                {
+                // the most common case: every source line begins with a LINE_* op; the next op can
+                // be a fused op itself, which limits the nesting depth to two
+                if (aOpNew == null)
+                    {
+                    aOpNew = aOp.clone();
+                    }
+                aOpNew[i] = new Line((Nop) op1, aOpNew);
+                }
+            else if (isFusible(op1, op2) && (aOpNew == null || !(aOpNew[i+1] instanceof OpFused)))
+                {
+                if (aOpNew == null)
+                    {
+                    aOpNew = aOp.clone();
+                    }
+                aOpNew[i] = new OpFused(op1, aOpNew);
+                }
+            }
+
+        return aOpNew == null ? aOp : aOpNew;
+        }
+
+    /**
+     * Check if the specified sequence of ops is known to be hot enough to be fused.
+     *
+     * @param op1  the first op
+     * @param op2  the op that follows the first op
+     *
+     * @return true iff the two ops should be fused
+     */
+    protected static boolean isFusible(Op op1, Op op2)
+        {
+        if (op1 instanceof OpTest)
+            {
+            // compare followed by a conditional jump
+            return op2 instanceof OpCondJump;
+            }
+
+        if (op1 instanceof OpVar)
+            {
+            // declaration followed by an assignment or a call
+            return op2 instanceof OpMove || op2 instanceof OpInvocable;
+            }
+
+        if (op1 instanceof OpProperty)
+            {
+            // property access followed by a call on or a test of the property value
+            return op2 instanceof OpInvocable || op2 instanceof OpCondJump;
+            }
+
+        return false;
+        }
+
+    /**
+     * @return the first op
+     */
+    public Op getFirstOp()
+        {
+        return m_op1;
+        }
+
+    /**
+     * Replace the first op of this fused op; this is used by the quickening logic, since the
+     * first op cannot replace itself in the op array.
+     *
+     * @param opOld  the op that is expected to be the first op
+     * @param opNew  the replacement op
+     *
+     * @return true iff the op has been replaced
+     */
+    public boolean replaceFirst(Op opOld, Op opNew)
+        {
+        if (m_op1 == opOld)
+            {
+            // a concurrent replacement is benign: the ops are equivalent
+            m_op1 = opNew;
+            return true;
+            }
+        return false;
+        }
+
+    @Override
+    public int process(Frame frame, int iPC)
+        {
+        int iNext = m_op1.process(frame, iPC);
+        if (iNext != R_NEXT && iNext != iPC + 1)
+            {
+            return iNext;
+            }
+
+        return processNext(frame, iPC + 1);
+        }
+
+    /**
+     * Process the second op as if it was dispatched by the interpreter.
+     *
+     * @param frame  the current frame
+     * @param iPC    the address of the second op
+     *
+     * @return the result of the second op processing
+     */
+    protected int processNext(Frame frame, int iPC)
+        {
+        frame.m_iPC = iPC;
+
+        int iNext = f_aOp[iPC].process(frame, iPC);
+        return iNext == R_NEXT ? iPC + 1 : iNext;
+        }
+
+    @Override
+    public Op ensureOp()
+        {
+        return m_op1.ensureOp();
+        }
+
+    @Override
+    public void write(DataOutput out, ConstantRegistry registry)
+            throws IOException
+        {
+        m_op1.write(out, registry);
+        }
+
+    @Override
+    public int getOpCode()
+        {
+        return m_op1.getOpCode();
+        }
+
+    @Override
+    public String toString()
+        {
+        return m_op1.toString();
+        }
+
+
+    // ----- Line ----------------------------------------------------------------------------------
+
+    /**
+     * A LINE_* op fused with the op that follows it. Unless the debugger is active, the LINE_* op
+     * doesn't cost anything.
+     */
+    protected static class Line
+            extends OpFused
+        {
+        protected Line(Nop opLine, Op[] aOp)
+            {
+            super(opLine, aOp);
+            }
+
+        @Override
+        public int process(Frame frame, int iPC)
+            {
+            return frame.f_context.isDebuggerActive()
+                    ? super.process(frame, iPC)
+                    : processNext(frame, iPC + 1);
+            }
+        }
+
+
+    // ----- constants and fields ------------------------------------------------------------------
+
+    /**
+     * Indicates whether the op fusion is enabled (true by default).
+     */
+    public static final boolean FUSE_OPS =
+            Boolean.parseBoolean(System.getProperty("xvm.fuseOps", "true"));
+
+    /**
+     * The first op.
+     */
+    private Op m_op1;
+
+    /**
+     * The op array this op is a part of.
+     */
+    protected final Op[] f_aOp;
+    }
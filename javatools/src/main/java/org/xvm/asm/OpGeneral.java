@@ -107,6 +107,12 @@ public abstract class OpGeneral
     @Override
     public int process(Frame frame, int iPC)
         {
+        Op opQuick = quicken(frame, iPC);
+        if (opQuick != null)
+            {
+            return opQuick.process(frame, iPC);
+            }
+
         return isBinaryOp() ? processBinaryOp(frame) : processUnaryOp(frame);
         }
 
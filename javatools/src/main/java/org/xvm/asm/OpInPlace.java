@@ -104,6 +104,12 @@ public abstract class OpInPlace
     @Override
     public int process(Frame frame, int iPC)
         {
+        Op opQuick = quicken(frame, iPC);
+        if (opQuick != null)
+            {
+            return opQuick.process(frame, iPC);
+            }
+
         try
             {
             int nTarget = m_nTarget;
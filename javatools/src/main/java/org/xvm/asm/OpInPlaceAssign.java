@@ -68,6 +68,12 @@ public abstract class OpInPlaceAssign
     @Override
     public int process(Frame frame, int iPC)
         {
+        Op opQuick = quicken(frame, iPC);
+        if (opQuick != null)
+            {
+            return opQuick.process(frame, iPC);
+            }
+
         try
             {
             int nTarget = m_nTarget;
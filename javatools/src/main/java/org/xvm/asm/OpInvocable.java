@@ -14,6 +14,7 @@ import org.xvm.asm.constants.SignatureConstant;
 
 import org.xvm.runtime.CallChain;
 import org.xvm.runtime.Frame;
+import org.xvm.runtime.InlineCache;
 import org.xvm.runtime.ObjectHandle;
 import org.xvm.runtime.PropertyComposition;
 import org.xvm.runtime.ServiceContext;
@@ -126,30 +127,96 @@ public abstract class OpInvocable extends Op
         }
 
     // helper methods
-     protected CallChain getCallChain(Frame frame, ObjectHandle hTarget)
+
+    /**
+     * Retrieve the CallChain for the specified target. The chains are cached in the op's inline
+     * cache keyed by the target's composition; if the call site turns out to be megamorphic, the
+     * service-local op info is used instead.
+     *
+     * @param frame    the current frame
+     * @param hTarget  the target handle
+     *
+     * @return the CallChain (could be an {@link CallChain.ExceptionChain})
+     */
+    protected CallChain getCallChain(Frame frame, ObjectHandle hTarget)
         {
-        ServiceContext  context   = frame.f_context;
-        CallChain       chain     = (CallChain) context.getOpInfo(this, Category.Chain);
-        TypeComposition clazzPrev = (TypeComposition) context.getOpInfo(this, Category.Composition);
-        TypeComposition clazz     = hTarget.getComposition();
+        TypeComposition clazz = hTarget.getComposition();
+        InlineCache     cache = ensureInlineCache();
+        CallChain       chain = (CallChain) cache.get(clazz);
+        if (chain != null)
+            {
+            return chain;
+            }
 
-        if (chain != null && clazz == clazzPrev)
+        ServiceContext context = null;
+        if (cache.isMegamorphic())
+            {
+            context = frame.f_context;
+            chain   = (CallChain) context.getOpInfo(this, Category.Chain);
+            if (chain != null && clazz == context.getOpInfo(this, Category.Composition))
+                {
+                return chain;
+                }
+            }
+
+        chain = resolveCallChain(frame, hTarget, clazz);
+        if (chain instanceof CallChain.ExceptionChain)
             {
             return chain;
             }
 
-        context.setOpInfo(this, Category.Composition, clazz);
+        if (context == null)
+            {
+            cache.put(clazz, chain);
+            }
+        else
+            {
+            context.setOpInfo(this, Category.Composition, clazz);
+            context.setOpInfo(this, Category.Chain, chain);
+            }
+        return chain;
+        }
+
+    /**
+     * @return the inline cache for this op
+     */
+    private InlineCache ensureInlineCache()
+        {
+        InlineCache cache = m_cache;
+        if (cache == null)
+            {
+            // a concurrent initialization could lose a cache entry, which is benign
+            cache = m_cache = new InlineCache();
+            }
+        return cache;
+        }
+
+    @Override
+    public void resetRuntimeState()
+        {
+        // the cache is keyed by the compositions of the containers that executed this op
+        m_cache = null;
+        }
 
+    /**
+     * Compute the CallChain for the specified target.
+     */
+    private CallChain resolveCallChain(Frame frame, ObjectHandle hTarget, TypeComposition clazz)
+        {
         MethodConstant  idMethod = (MethodConstant) frame.getConstant(m_nMethodId);
         MethodStructure method   = (MethodStructure) idMethod.getComponent();
+        CallChain       chain;
 
         m_constMethod = idMethod; // used by "toString()" only
 
         if (method != null && method.getAccess() == Access.PRIVATE)
             {
-            chain = new CallChain(method);
-
-            context.setOpInfo(this, Category.Chain, chain);
+            // the method belongs to the same module as this op, so it's safe to hold on to it
+            chain = m_chainPrivate;
+            if (chain == null)
+                {
+                chain = m_chainPrivate = new CallChain(method);
+                }
             return chain;
             }
 
@@ -191,8 +258,6 @@ public abstract class OpInvocable extends Op
                 "Missing method \"" + idMethod.getValueString() +
                 "\" on " + hTarget.getType().getValueString()));
             }
-
-        context.setOpInfo(this, Category.Chain, chain);
         return chain;
         }
 
@@ -344,6 +409,16 @@ public abstract class OpInvocable extends Op
     protected Argument       m_argReturn;  // optional
     protected Argument[]     m_aArgReturn; // optional
 
+    /**
+     * The inline cache of CallChains keyed by the target's TypeComposition.
+     */
+    private transient InlineCache m_cache;
+
+    /**
+     * The CallChain for a private method.
+     */
+    private transient CallChain m_chainPrivate;
+
     // categories for cached info
     enum Category {Chain, Composition}
     }
\ No newline at end of file
@@ -7,6 +7,12 @@ import java.io.IOException;
 
 import org.xvm.asm.constants.PropertyConstant;
 
+import org.xvm.runtime.ClassComposition.FieldInfo;
+import org.xvm.runtime.InlineCache;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.GenericHandle;
+import org.xvm.runtime.TypeComposition;
+
 import static org.xvm.util.Handy.readPackedInt;
 import static org.xvm.util.Handy.writePackedLong;
 
@@ -63,7 +69,102 @@ public abstract class OpProperty extends Op
         return super.toString() + ' ' + Argument.toIdString(m_idProp, m_nPropId);
         }
 
+
+    // ----- direct field access -------------------------------------------------------------------
+
+    /**
+     * Try to read the property value directly out of the target's fields. This is only possible
+     * if the property is a plain field and neither the composition nor the template customize the
+     * property access.
+     *
+     * @param hTarget  the target handle
+     * @param idProp   the property id
+     *
+     * @return the field value or null if the value must be retrieved via the template
+     */
+    protected ObjectHandle getFieldDirect(ObjectHandle hTarget, PropertyConstant idProp)
+        {
+        if (hTarget instanceof GenericHandle hThis)
+            {
+            FieldInfo field = findDirectField(hThis.getComposition(), idProp, false);
+            if (field != null)
+                {
+                return hThis.getField(field.getIndex());
+                }
+            }
+        return null;
+        }
+
+    /**
+     * Try to store the property value directly into the target's fields. This is only possible
+     * if the property is a plain field, neither the composition nor the template customize the
+     * property access, the target is mutable and the value's type is known to fit.
+     *
+     * @param hTarget  the target handle
+     * @param idProp   the property id
+     * @param hValue   the new value
+     *
+     * @return true iff the value has been stored; false if it must be stored via the template
+     */
+    protected boolean setFieldDirect(ObjectHandle hTarget, PropertyConstant idProp,
+                                     ObjectHandle hValue)
+        {
+        if (hTarget instanceof GenericHandle hThis && hThis.isMutable())
+            {
+            FieldInfo field = findDirectField(hThis.getComposition(), idProp, true);
+            if (field != null && hValue.getUnsafeType().isA(field.getType()))
+                {
+                hThis.setField(field.getIndex(), hValue);
+                return true;
+                }
+            }
+        return false;
+        }
+
+    /**
+     * @return the field that could be directly accessed for the specified composition or null
+     */
+    private FieldInfo findDirectField(TypeComposition clazz, PropertyConstant idProp, boolean fSet)
+        {
+        InlineCache cache = m_cacheField;
+        if (cache == null)
+            {
+            // a concurrent initialization could lose a cache entry, which is benign
+            cache = m_cacheField = new InlineCache();
+            }
+
+        Object oField = cache.get(clazz);
+        if (oField == null)
+            {
+            if (cache.isMegamorphic())
+                {
+                return null;
+                }
+
+            FieldInfo field = clazz.getDirectField(idProp, fSet);
+            cache.put(clazz, oField = field == null ? NO_FIELD : field);
+            }
+        return oField == NO_FIELD ? null : (FieldInfo) oField;
+        }
+
+    @Override
+    public void resetRuntimeState()
+        {
+        // the cache is keyed by the compositions of the containers that executed this op
+        m_cacheField = null;
+        }
+
     protected int m_nPropId;
 
     protected PropertyConstant m_idProp;
+
+    /**
+     * The cache of directly accessible fields keyed by the target's composition.
+     */
+    private transient InlineCache m_cacheField;
+
+    /**
+     * A marker indicating that a property of a composition cannot be accessed directly.
+     */
+    private static final Object NO_FIELD = new Object();
     }
@@ -0,0 +1,223 @@
+package org.xvm.asm;
+
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.ExceptionHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.runtime.template.numbers.xInt64;
+
+
+/**
+ * Base class for the run-time only "quickened" ops. A quickened op replaces a generic op in the
+ * method's op array after the generic op has observed its operand types; it stays semantically
+ * equivalent to the generic op, and if its assumptions don't hold anymore, it "deoptimizes" by
+ * putting the generic op back and delegating to it.
+ * <p/>
+ * Quickened ops are never serialized; the serialization is delegated to the generic op.
+ */
+public abstract class OpQuickened
+        extends Op
+    {
+    /**
+     * Construct a quickened op for the specified generic op.
+     *
+     * @param opGeneric  the generic op
+     */
+    protected OpQuickened(Op opGeneric)
+        {
+        f_opGeneric = opGeneric;
+        }
+
+    /**
+     * @return the generic op this op has replaced
+     */
+    public Op getGenericOp()
+        {
+        return f_opGeneric;
+        }
+
+    /**
+     * Put the generic op back in place of this op and process it.
+     *
+     * @param frame  the current frame
+     * @param iPC    the address of this op
+     *
+     * @return the result of the generic op processing
+     */
+    protected int deoptimize(Frame frame, int iPC)
+        {
+        Op opGeneric = f_opGeneric;
+
+        opGeneric.markGeneric();
+        frame.replaceOp(iPC, this, opGeneric);
+        return opGeneric.process(frame, iPC);
+        }
+
+    @Override
+    public void write(DataOutput out, ConstantRegistry registry)
+            throws IOException
+        {
+        f_opGeneric.write(out, registry);
+        }
+
+    @Override
+    public int getOpCode()
+        {
+        return f_opGeneric.getOpCode();
+        }
+
+    @Override
+    public String toString()
+        {
+        return f_opGeneric.toString();
+        }
+
+
+    // ----- Int64 helpers -------------------------------------------------------------------------
+
+    /**
+     * @return the composition of the Int64 values the quickened ops are specialized for
+     */
+    protected static TypeComposition getInt64Composition()
+        {
+        return xInt64.INSTANCE.getCanonicalClass();
+        }
+
+    /**
+     * Check if the specified argument holds an Int64 value and can be read by a quickened op
+     * without any side effects. This method is called when the quickened op is being created.
+     *
+     * @param frame  the current frame
+     * @param nArg   the argument index
+     *
+     * @return true iff the argument is a register, the local stack or a constant holding an Int64
+     *         value
+     */
+    protected static boolean isInt64(Frame frame, int nArg)
+        {
+        if (nArg >= 0 || nArg == A_STACK)
+            {
+            ObjectHandle hValue = nArg >= 0 ? frame.f_ahVar[nArg] : frame.peekStackUnboxed();
+            return hValue == Frame.UNBOXED || hValue instanceof JavaLong hLong &&
+                    hLong.getComposition() == getInt64Composition();
+            }
+
+        if (nArg <= CONSTANT_OFFSET)
+            {
+            try
+                {
+                return frame.getArgument(nArg) instanceof JavaLong hValue &&
+                        hValue.getComposition() == getInt64Composition();
+                }
+            catch (ExceptionHandle.WrapperException e)
+                {
+                return false;
+                }
+            }
+
+        // other pre-defined arguments are not "pure"
+        return false;
+        }
+
+    /**
+     * Check if both specified arguments hold Int64 values and can be read by a quickened op.
+     * Only one of them could be the local stack, so the quickened op doesn't need to replicate
+     * the order in which the generic op pops the stack.
+     *
+     * @param frame  the current frame
+     * @param nArg1  the first argument index
+     * @param nArg2  the second argument index
+     *
+     * @return true iff both arguments are suitable for a quickened op
+     */
+    protected static boolean isInt64(Frame frame, int nArg1, int nArg2)
+        {
+        return (nArg1 != A_STACK || nArg2 != A_STACK) &&
+                isInt64(frame, nArg1) && isInt64(frame, nArg2);
+        }
+
+    /**
+     * Read the specified argument by a quickened op without any side effects; if the argument is
+     * the local stack, the caller is responsible for {@link Frame#dropStack dropping} the value
+     * once it's been validated and read.
+     *
+     * @param frame   the current frame
+     * @param nArg    the argument index
+     * @param hConst  the constant handle computed by {@link #getConstantHandle}
+     *
+     * @return the register content, the top of the stack or the constant handle
+     */
+    protected static ObjectHandle getInt64Handle(Frame frame, int nArg, ObjectHandle hConst)
+        {
+        return nArg >= 0
+                ? frame.f_ahVar[nArg]
+                : nArg == A_STACK ? frame.peekStackUnboxed() : hConst;
+        }
+
+    /**
+     * Check if the specified handle read by a quickened op represents an Int64 value.
+     *
+     * @param hValue  the register content or the constant handle
+     * @param clz     the Int64 composition
+     *
+     * @return true iff the handle is an Int64 handle or the {@link Frame#UNBOXED} marker
+     */
+    protected static boolean isInt64Value(ObjectHandle hValue, TypeComposition clz)
+        {
+        return hValue == Frame.UNBOXED ||
+               hValue instanceof JavaLong hLong && hLong.getComposition() == clz;
+        }
+
+    /**
+     * Retrieve the Int64 value for a handle that passed the {@link #isInt64Value} check.
+     *
+     * @param frame   the current frame
+     * @param nArg    the argument index
+     * @param hValue  the register content or the constant handle
+     *
+     * @return the Int64 value
+     */
+    protected static long getInt64Value(Frame frame, int nArg, ObjectHandle hValue)
+        {
+        return hValue == Frame.UNBOXED
+                ? frame.getUnboxedInt64(nArg)
+                : ((JavaLong) hValue).getValue();
+        }
+
+    /**
+     * Compute the handle to be used by a quickened op for the specified argument. This method is
+     * called when the quickened op is being created and only if {@link #isInt64} returned true.
+     *
+     * @return the constant handle for a constant argument or null for a register or the stack
+     */
+    protected static ObjectHandle getConstantHandle(Frame frame, int nArg)
+        {
+        if (nArg >= 0 || nArg == A_STACK)
+            {
+            return null;
+            }
+
+        try
+            {
+            return frame.getArgument(nArg);
+            }
+        catch (ExceptionHandle.WrapperException e)
+            {
+            throw new IllegalStateException(e);
+            }
+        }
+
+
+    // ----- data fields ---------------------------------------------------------------------------
+
+    /**
+     * The generic op.
+     */
+    protected final Op f_opGeneric;
+    }
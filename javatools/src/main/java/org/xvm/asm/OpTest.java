@@ -121,6 +121,12 @@ public abstract class OpTest
     @Override
     public int process(Frame frame, int iPC)
         {
+        Op opQuick = quicken(frame, iPC);
+        if (opQuick != null)
+            {
+            return opQuick.process(frame, iPC);
+            }
+
         if (frame.isNextRegister(m_nRetValue))
             {
             frame.introduceResolvedVar(m_nRetValue, getResultType(frame));
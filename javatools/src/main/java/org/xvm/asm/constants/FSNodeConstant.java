@@ -260,6 +260,12 @@ public class FSNodeConstant
         m_handle = handle;
         }
 
+    @Override
+    public void resetRuntimeState()
+        {
+        m_handle = null;
+        }
+
 
     // ----- ValueConstant methods -----------------------------------------------------------------
 
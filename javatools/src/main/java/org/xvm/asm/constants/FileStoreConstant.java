@@ -130,6 +130,12 @@ public class FileStoreConstant
         m_handle = handle;
         }
 
+    @Override
+    public void resetRuntimeState()
+        {
+        m_handle = null;
+        }
+
 
     // ----- Constant methods ----------------------------------------------------------------------
 
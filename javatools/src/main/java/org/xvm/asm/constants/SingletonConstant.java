@@ -150,6 +150,13 @@ public class SingletonConstant
         return m_fInitializing = true;
         }
 
+    @Override
+    public void resetRuntimeState()
+        {
+        m_handle        = null;
+        m_fInitializing = false;
+        }
+
 
     // ----- Constant methods ----------------------------------------------------------------------
 
@@ -50,6 +50,7 @@ import org.xvm.asm.constants.PropertyBody.Effect;
 import org.xvm.asm.constants.TypeInfo.Progress;
 
 import org.xvm.compiler.Compiler;
+import org.xvm.compiler.CompilerProfiler;
 
 import org.xvm.runtime.ClassTemplate;
 import org.xvm.runtime.Container;
@@ -1732,7 +1733,24 @@ public abstract class TypeConstant
             return info;
             }
 
-        return ensureTypeInfo(info, errs);
+        Object lock = getConstantPool().getTypeInfoLock();
+        if (lock == null)
+            {
+            return ensureTypeInfo(info, errs);
+            }
+
+        // the TypeInfo building reads the class structures and the other TypeInfos as they are
+        // being built, which is only safe when done by one thread at a time
+        synchronized (lock)
+            {
+            info = getTypeInfo();
+            if (isComplete(info) && isUpToDate(info))
+                {
+                return info;
+                }
+
+            return ensureTypeInfo(info, errs);
+            }
         }
 
     private synchronized TypeInfo ensureTypeInfo(TypeInfo info, ErrorListener errs)
@@ -2034,6 +2052,14 @@ public abstract class TypeConstant
                 : info.getProgress().ordinal();
         }
 
+    /**
+     * @return true iff this type has a complete (though not necessarily up-to-date) TypeInfo
+     */
+    public boolean hasTypeInfo()
+        {
+        return isComplete(getTypeInfo());
+        }
+
     /**
      * @param info  the TypeInfo to evaluate
      *
@@ -2081,6 +2107,8 @@ public abstract class TypeConstant
      */
     protected TypeInfo buildTypeInfo(ErrorListener errs)
         {
+        CompilerProfiler.countTypeInfo();
+
         // any newly created derivative types and various constants should be placed into the same
         // pool where this type comes from
         try (var ignore = ConstantPool.withPool(getConstantPool()))
@@ -7227,6 +7255,12 @@ public abstract class TypeConstant
         return xRTType.makeForeignHandle(this);
         }
 
+    @Override
+    public void resetRuntimeState()
+        {
+        m_handle = null;
+        }
+
     /**
      * Compare for equality (==) two object handles that both belong to this type.
      *
@@ -1380,7 +1380,8 @@ public class TypeInfo
 
         if (map == null)
             {
-            map = new HashMap<>();
+            // the map is added to by the lookups, which could happen on multiple threads
+            map = new ConcurrentHashMap<>();
             for (Map.Entry<MethodConstant, MethodInfo> entry : f_mapMethods.entrySet())
                 {
                 MethodConstant idMethod = entry.getKey();
@@ -2845,7 +2846,7 @@ public class TypeInfo
      * The methods of the type, indexed by signature. This will not include nested methods, such
      * as those nested within a property or method. Lazily initialized
      */
-    private transient Map<SignatureConstant, MethodInfo> m_mapMethodsBySignature;
+    private transient volatile Map<SignatureConstant, MethodInfo> m_mapMethodsBySignature;
 
     private       boolean                         m_fCacheReady;
     private       boolean                         m_fChildrenChecked;
@@ -6,6 +6,7 @@ import java.io.IOException;
 
 import org.xvm.asm.Argument;
 import org.xvm.asm.Constant;
+import org.xvm.asm.Op;
 import org.xvm.asm.OpGeneral;
 
 import org.xvm.runtime.Frame;
@@ -48,6 +49,12 @@ public class GP_Mul
         return OP_GP_MUL;
         }
 
+    @Override
+    protected Op createQuickenedOp(Frame frame)
+        {
+        return GP_Int64.create(frame, this, m_nTarget, m_nArgValue, m_nRetValue);
+        }
+
     protected int completeBinary(Frame frame, ObjectHandle hTarget, ObjectHandle hArg)
         {
         return hTarget.getOpSupport().invokeMul(frame, hTarget, hArg, m_nRetValue);
@@ -6,6 +6,7 @@ import java.io.IOException;
 
 import org.xvm.asm.Argument;
 import org.xvm.asm.Constant;
+import org.xvm.asm.Op;
 import org.xvm.asm.OpInPlace;
 
 import org.xvm.asm.constants.PropertyConstant;
@@ -50,6 +51,12 @@ public class IP_Dec
         return OP_IP_DEC;
         }
 
+    @Override
+    protected Op createQuickenedOp(Frame frame)
+        {
+        return IP_Int64.create(frame, this, m_nTarget);
+        }
+
     @Override
     protected boolean isAssignOp()
         {
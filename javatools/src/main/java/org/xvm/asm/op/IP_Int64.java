@@ -0,0 +1,133 @@
+package org.xvm.asm.op;
+
+
+import org.xvm.asm.Op;
+import org.xvm.asm.OpQuickened;
+
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.TypeComposition;
+
+
+/**
+ * A quickened IP_INC, IP_DEC, IP_ADD, IP_SUB or IP_MUL op for an Int64 register.
+ */
+public class IP_Int64
+        extends OpQuickened
+    {
+    /**
+     * Construct a quickened op.
+     *
+     * @param opGeneric  the generic op
+     * @param nTarget    the target register
+     * @param nArgValue  the value argument index (IP_ADD, IP_SUB and IP_MUL only)
+     * @param hConst     the value argument if it's a constant; null otherwise
+     */
+    private IP_Int64(Op opGeneric, int nTarget, int nArgValue, ObjectHandle hConst)
+        {
+        super(opGeneric);
+
+        f_nOp       = opGeneric.getOpCode();
+        f_nTarget   = nTarget;
+        f_nArgValue = nArgValue;
+        f_hConst    = hConst;
+        f_clzInt64  = getInt64Composition();
+        }
+
+    /**
+     * Create a quickened op for the specified IP_INC or IP_DEC op if the target is suitable.
+     *
+     * @param frame      the current frame
+     * @param opGeneric  the generic IP_INC or IP_DEC op
+     * @param nTarget    the target index
+     *
+     * @return the quickened op or null
+     */
+    public static Op create(Frame frame, Op opGeneric, int nTarget)
+        {
+        // only a register could be quickened; a negative target is a local property
+        return nTarget >= 0 && isInt64(frame, nTarget)
+                ? new IP_Int64(opGeneric, nTarget, 0, null)
+                : null;
+        }
+
+    /**
+     * Create a quickened op for the specified IP_ADD, IP_SUB or IP_MUL op if the arguments are
+     * suitable.
+     *
+     * @param frame      the current frame
+     * @param opGeneric  the generic IP_ADD, IP_SUB or IP_MUL op
+     * @param nTarget    the target index
+     * @param nArgValue  the value argument index
+     *
+     * @return the quickened op or null
+     */
+    public static Op create(Frame frame, Op opGeneric, int nTarget, int nArgValue)
+        {
+        return nTarget >= 0 && isInt64(frame, nTarget) && isInt64(frame, nArgValue)
+                ? new IP_Int64(opGeneric, nTarget, nArgValue, getConstantHandle(frame, nArgValue))
+                : null;
+        }
+
+    @Override
+    public int process(Frame frame, int iPC)
+        {
+        int             nTarget = f_nTarget;
+        ObjectHandle    hTarget = frame.f_ahVar[nTarget];
+        TypeComposition clz     = f_clzInt64;
+
+        // a dynamic var would hold a RefHandle; that's a reason to deoptimize as well
+        if (!isInt64Value(hTarget, clz))
+            {
+            return deoptimize(frame, iPC);
+            }
+
+        long lTarget = getInt64Value(frame, nTarget, hTarget);
+        long lValue;
+        switch (f_nOp)
+            {
+            case OP_IP_INC:
+                lValue = lTarget + 1;
+                break;
+
+            case OP_IP_DEC:
+                lValue = lTarget - 1;
+                break;
+
+            default:
+                {
+                int          nArg = f_nArgValue;
+                ObjectHandle hArg = getInt64Handle(frame, nArg, f_hConst);
+                if (!isInt64Value(hArg, clz))
+                    {
+                    return deoptimize(frame, iPC);
+                    }
+
+                long lArg = getInt64Value(frame, nArg, hArg);
+                if (nArg == A_STACK)
+                    {
+                    frame.dropStack();
+                    }
+                lValue = switch (f_nOp)
+                    {
+                    case OP_IP_ADD -> lTarget + lArg;
+                    case OP_IP_SUB -> lTarget - lArg;
+                    case OP_IP_MUL -> lTarget * lArg;
+                    default        -> throw new IllegalStateException();
+                    };
+                break;
+                }
+            }
+
+        return frame.storeUnboxedInt64(nTarget, lValue)
+                ? R_NEXT
+                : frame.assignValue(nTarget, new JavaLong(clz, lValue));
+        }
+
+    private final int             f_nOp;
+    private final int             f_nTarget;
+    private final int             f_nArgValue;
+    private final ObjectHandle    f_hConst;
+    private final TypeComposition f_clzInt64;
+    }
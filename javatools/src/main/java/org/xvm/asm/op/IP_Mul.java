@@ -6,6 +6,7 @@ import java.io.IOException;
 
 import org.xvm.asm.Argument;
 import org.xvm.asm.Constant;
+import org.xvm.asm.Op;
 import org.xvm.asm.OpInPlaceAssign;
 
 import org.xvm.asm.constants.PropertyConstant;
@@ -51,6 +52,12 @@ public class IP_Mul
         return OP_IP_MUL;
         }
 
+    @Override
+    protected Op createQuickenedOp(Frame frame)
+        {
+        return IP_Int64.create(frame, this, m_nTarget, m_nArgValue);
+        }
+
     @Override
     protected int completeWithRegister(Frame frame, ObjectHandle hTarget, ObjectHandle hValue)
         {
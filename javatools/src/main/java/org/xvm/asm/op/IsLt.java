@@ -6,6 +6,7 @@ import java.io.IOException;
 
 import org.xvm.asm.Argument;
 import org.xvm.asm.Constant;
+import org.xvm.asm.Op;
 import org.xvm.asm.OpTest;
 
 import org.xvm.asm.constants.TypeConstant;
@@ -53,6 +54,12 @@ public class IsLt
         return OP_IS_LT;
         }
 
+    @Override
+    protected Op createQuickenedOp(Frame frame)
+        {
+        return Is_Int64.create(frame, this, m_nValue1, m_nValue2, m_nRetValue);
+        }
+
     @Override
     protected boolean isBinaryOp()
         {
@@ -0,0 +1,108 @@
+package org.xvm.asm.op;
+
+
+import org.xvm.asm.Op;
+import org.xvm.asm.OpQuickened;
+
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.TypeComposition;
+
+import org.xvm.runtime.template.xBoolean;
+
+
+/**
+ * A quickened IS_EQ, IS_NEQ, IS_LT, IS_LTE, IS_GT or IS_GTE op for Int64 operands.
+ */
+public class Is_Int64
+        extends OpQuickened
+    {
+    /**
+     * Construct a quickened op.
+     *
+     * @param opGeneric  the generic op
+     * @param nArg1      the first argument index
+     * @param nArg2      the second argument index
+     * @param nRetValue  the return value index
+     * @param hConst1    the first argument value if it's a constant; null otherwise
+     * @param hConst2    the second argument value if it's a constant; null otherwise
+     */
+    private Is_Int64(Op opGeneric, int nArg1, int nArg2, int nRetValue,
+                     ObjectHandle hConst1, ObjectHandle hConst2)
+        {
+        super(opGeneric);
+
+        f_nOp       = opGeneric.getOpCode();
+        f_nArg1     = nArg1;
+        f_nArg2     = nArg2;
+        f_nRetValue = nRetValue;
+        f_hConst1   = hConst1;
+        f_hConst2   = hConst2;
+        f_clzInt64  = getInt64Composition();
+        }
+
+    /**
+     * Create a quickened op for the specified generic op if the arguments are suitable.
+     *
+     * @param frame      the current frame
+     * @param opGeneric  the generic IS_* op
+     * @param nArg1      the first argument index
+     * @param nArg2      the second argument index
+     * @param nRetValue  the return value index
+     *
+     * @return the quickened op or null
+     */
+    public static Op create(Frame frame, Op opGeneric, int nArg1, int nArg2, int nRetValue)
+        {
+        return isInt64(frame, nArg1, nArg2)
+                ? new Is_Int64(opGeneric, nArg1, nArg2, nRetValue,
+                        getConstantHandle(frame, nArg1), getConstantHandle(frame, nArg2))
+                : null;
+        }
+
+    @Override
+    public int process(Frame frame, int iPC)
+        {
+        ObjectHandle    h1  = getInt64Handle(frame, f_nArg1, f_hConst1);
+        ObjectHandle    h2  = getInt64Handle(frame, f_nArg2, f_hConst2);
+        TypeComposition clz = f_clzInt64;
+
+        if (isInt64Value(h1, clz) && isInt64Value(h2, clz))
+            {
+            if (frame.isNextRegister(f_nRetValue))
+                {
+                frame.introduceResolvedVar(f_nRetValue, frame.poolContext().typeBoolean());
+                }
+
+            long    l1 = getInt64Value(frame, f_nArg1, h1);
+            long    l2 = getInt64Value(frame, f_nArg2, h2);
+            boolean f  = switch (f_nOp)
+                {
+                case OP_IS_EQ  -> l1 == l2;
+                case OP_IS_NEQ -> l1 != l2;
+                case OP_IS_LT  -> l1 <  l2;
+                case OP_IS_LTE -> l1 <= l2;
+                case OP_IS_GT  -> l1 >  l2;
+                case OP_IS_GTE -> l1 >= l2;
+                default        -> throw new IllegalStateException();
+                };
+
+            if (f_nArg1 == A_STACK || f_nArg2 == A_STACK)
+                {
+                frame.dropStack();
+                }
+
+            return frame.assignValue(f_nRetValue, xBoolean.makeHandle(f));
+            }
+
+        return deoptimize(frame, iPC);
+        }
+
+    private final int             f_nOp;
+    private final int             f_nArg1;
+    private final int             f_nArg2;
+    private final int             f_nRetValue;
+    private final ObjectHandle    f_hConst1;
+    private final ObjectHandle    f_hConst2;
+    private final TypeComposition f_clzInt64;
+    }
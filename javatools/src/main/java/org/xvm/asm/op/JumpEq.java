@@ -53,6 +53,12 @@ public class JumpEq
         return OP_JMP_EQ;
         }
 
+    @Override
+    protected Op createQuickenedOp(Frame frame)
+        {
+        return Jump_Int64.create(frame, this, m_nArg, m_nArg2, m_ofJmp, m_cExits);
+        }
+
     @Override
     protected boolean isBinaryOp()
         {
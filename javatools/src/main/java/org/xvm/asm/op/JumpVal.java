@@ -405,6 +405,17 @@ public class JumpVal
         return hLo.isNativeEqual();
         }
 
+    @Override
+    public synchronized void resetRuntimeState()
+        {
+        // the case handles belong to the container that built the jump map
+        m_algorithm  = null;
+        m_ahCase     = null;
+        m_mapJump    = null;
+        m_typeCond   = null;
+        m_listRanges = null;
+        }
+
     @Override
     public void registerConstants(ConstantRegistry registry)
         {
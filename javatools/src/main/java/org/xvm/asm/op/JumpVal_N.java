@@ -585,6 +585,19 @@ public class JumpVal_N
         throw new UnsupportedOperationException();
         }
 
+    @Override
+    public synchronized void resetRuntimeState()
+        {
+        // the case handles belong to the container that built the jump maps
+        m_algorithm       = null;
+        m_aAlgorithm      = null;
+        m_aahCases        = null;
+        m_atypeColumn     = null;
+        m_amapJumpSmall   = null;
+        m_alWildcardSmall = null;
+        m_alistRangeSmall = null;
+        }
+
     @Override
     public void registerConstants(ConstantRegistry registry)
         {
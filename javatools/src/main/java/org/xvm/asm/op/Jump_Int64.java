@@ -0,0 +1,105 @@
+package org.xvm.asm.op;
+
+
+import org.xvm.asm.Op;
+import org.xvm.asm.OpQuickened;
+
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.TypeComposition;
+
+
+/**
+ * A quickened JMP_EQ, JMP_NEQ, JMP_LT, JMP_LTE, JMP_GT or JMP_GTE op for Int64 operands.
+ */
+public class Jump_Int64
+        extends OpQuickened
+    {
+    /**
+     * Construct a quickened op.
+     *
+     * @param opGeneric  the generic op
+     * @param nArg1      the first argument index
+     * @param nArg2      the second argument index
+     * @param ofJmp      the relative jump address
+     * @param cExits     the number of scopes to exit on the jump
+     * @param hConst1    the first argument value if it's a constant; null otherwise
+     * @param hConst2    the second argument value if it's a constant; null otherwise
+     */
+    private Jump_Int64(Op opGeneric, int nArg1, int nArg2, int ofJmp, int cExits,
+                       ObjectHandle hConst1, ObjectHandle hConst2)
+        {
+        super(opGeneric);
+
+        f_nOp      = opGeneric.getOpCode();
+        f_nArg1    = nArg1;
+        f_nArg2    = nArg2;
+        f_ofJmp    = ofJmp;
+        f_cExits   = cExits;
+        f_hConst1  = hConst1;
+        f_hConst2  = hConst2;
+        f_clzInt64 = getInt64Composition();
+        }
+
+    /**
+     * Create a quickened op for the specified generic op if the arguments are suitable.
+     *
+     * @param frame      the current frame
+     * @param opGeneric  the generic JMP_* op
+     * @param nArg1      the first argument index
+     * @param nArg2      the second argument index
+     * @param ofJmp      the relative jump address
+     * @param cExits     the number of scopes to exit on the jump
+     *
+     * @return the quickened op or null
+     */
+    public static Op create(Frame frame, Op opGeneric, int nArg1, int nArg2, int ofJmp, int cExits)
+        {
+        return isInt64(frame, nArg1, nArg2)
+                ? new Jump_Int64(opGeneric, nArg1, nArg2, ofJmp, cExits,
+                        getConstantHandle(frame, nArg1), getConstantHandle(frame, nArg2))
+                : null;
+        }
+
+    @Override
+    public int process(Frame frame, int iPC)
+        {
+        ObjectHandle    h1  = getInt64Handle(frame, f_nArg1, f_hConst1);
+        ObjectHandle    h2  = getInt64Handle(frame, f_nArg2, f_hConst2);
+        TypeComposition clz = f_clzInt64;
+
+        if (isInt64Value(h1, clz) && isInt64Value(h2, clz))
+            {
+            long    l1 = getInt64Value(frame, f_nArg1, h1);
+            long    l2 = getInt64Value(frame, f_nArg2, h2);
+            boolean f  = switch (f_nOp)
+                {
+                case OP_JMP_EQ  -> l1 == l2;
+                case OP_JMP_NEQ -> l1 != l2;
+                case OP_JMP_LT  -> l1 <  l2;
+                case OP_JMP_LTE -> l1 <= l2;
+                case OP_JMP_GT  -> l1 >  l2;
+                case OP_JMP_GTE -> l1 >= l2;
+                default         -> throw new IllegalStateException();
+                };
+
+            if (f_nArg1 == A_STACK || f_nArg2 == A_STACK)
+                {
+                frame.dropStack();
+                }
+
+            return f ? jump(frame, iPC + f_ofJmp, f_cExits) : iPC + 1;
+            }
+
+        return deoptimize(frame, iPC);
+        }
+
+    private final int             f_nOp;
+    private final int             f_nArg1;
+    private final int             f_nArg2;
+    private final int             f_ofJmp;
+    private final int             f_cExits;
+    private final ObjectHandle    f_hConst1;
+    private final ObjectHandle    f_hConst2;
+    private final TypeComposition f_clzInt64;
+    }
@@ -84,6 +84,12 @@ public class L_Get
             frame.introducePropertyVar(m_nRetValue, A_THIS, m_nPropId);
             }
 
+        ObjectHandle hValue = getFieldDirect(hTarget, constProperty);
+        if (hValue != null)
+            {
+            return frame.assignValue(m_nRetValue, hValue);
+            }
+
         return hTarget.getTemplate().getPropertyValue(frame, hTarget, constProperty, m_nRetValue);
         }
 
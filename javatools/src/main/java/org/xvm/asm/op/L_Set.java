@@ -82,6 +82,11 @@ public class L_Set
 
             PropertyConstant idProp = (PropertyConstant) frame.getConstant(m_nPropId);
 
+            if (!isDeferred(hValue) && setFieldDirect(hTarget, idProp, hValue))
+                {
+                return R_NEXT;
+                }
+
             return isDeferred(hValue)
                     ? hValue.proceed(frame, frameCaller ->
                         hTarget.getTemplate().
@@ -50,9 +50,21 @@ public class Move
         return OP_MOV;
         }
 
+    @Override
+    protected Op createQuickenedOp(Frame frame)
+        {
+        return Move_Int64.create(frame, this, m_nFromValue, m_nToValue);
+        }
+
     @Override
     public int process(Frame frame, int iPC)
         {
+        Op opQuick = quicken(frame, iPC);
+        if (opQuick != null)
+            {
+            return opQuick.process(frame, iPC);
+            }
+
         try
             {
             int nFrom = m_nFromValue;
@@ -0,0 +1,92 @@
+package org.xvm.asm.op;
+
+
+import org.xvm.asm.Op;
+import org.xvm.asm.OpQuickened;
+
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.TypeComposition;
+
+
+/**
+ * A quickened MOV op for an Int64 value. Unlike the generic op, it moves an unboxed value without
+ * boxing it.
+ */
+public class Move_Int64
+        extends OpQuickened
+    {
+    /**
+     * Construct a quickened op.
+     *
+     * @param opGeneric  the generic op
+     * @param nFrom      the source argument index
+     * @param nTo        the destination index
+     * @param hConst     the source value if it's a constant; null otherwise
+     */
+    private Move_Int64(Op opGeneric, int nFrom, int nTo, ObjectHandle hConst)
+        {
+        super(opGeneric);
+
+        f_nFrom    = nFrom;
+        f_nTo      = nTo;
+        f_hConst   = hConst;
+        f_clzInt64 = getInt64Composition();
+        }
+
+    /**
+     * Create a quickened op for the specified generic op if the source is suitable.
+     *
+     * @param frame      the current frame
+     * @param opGeneric  the generic MOV op
+     * @param nFrom      the source argument index
+     * @param nTo        the destination index
+     *
+     * @return the quickened op or null
+     */
+    public static Op create(Frame frame, Op opGeneric, int nFrom, int nTo)
+        {
+        return isInt64(frame, nFrom)
+                ? new Move_Int64(opGeneric, nFrom, nTo, getConstantHandle(frame, nFrom))
+                : null;
+        }
+
+    @Override
+    public int process(Frame frame, int iPC)
+        {
+        int             nFrom  = f_nFrom;
+        int             nTo    = f_nTo;
+        ObjectHandle    hValue = getInt64Handle(frame, nFrom, f_hConst);
+        TypeComposition clz    = f_clzInt64;
+
+        if (isInt64Value(hValue, clz))
+            {
+            if (frame.isNextRegister(nTo))
+                {
+                frame.introduceVarCopy(nTo, nFrom);
+                }
+
+            long lValue = getInt64Value(frame, nFrom, hValue);
+            if (nFrom == A_STACK)
+                {
+                frame.dropStack();
+                }
+
+            if (hValue == Frame.UNBOXED)
+                {
+                return frame.storeUnboxedInt64(nTo, lValue)
+                        ? R_NEXT
+                        : frame.assignValue(nTo, new JavaLong(clz, lValue));
+                }
+            return frame.assignValue(nTo, hValue);
+            }
+
+        return deoptimize(frame, iPC);
+        }
+
+    private final int             f_nFrom;
+    private final int             f_nTo;
+    private final ObjectHandle    f_hConst;
+    private final TypeComposition f_clzInt64;
+    }
@@ -108,6 +108,15 @@ public class P_Get
                     }
                 }
 
+            if (!isDeferred(hTarget))
+                {
+                ObjectHandle hValue = getFieldDirect(hTarget, constProperty);
+                if (hValue != null)
+                    {
+                    return frame.assignValue(m_nRetValue, hValue);
+                    }
+                }
+
             return isDeferred(hTarget)
                     ? hTarget.proceed(frame, frameCaller ->
                         {
@@ -97,6 +97,11 @@ public class P_Set
                 return new Utils.GetArguments(ahArg, stepNext).doNext(frame);
                 }
 
+            if (setFieldDirect(ahArg[0], idProp, ahArg[1]))
+                {
+                return R_NEXT;
+                }
+
             return ahArg[0].getTemplate().setPropertyValue(
                 frame, ahArg[0], idProp, ahArg[1]);
             }
@@ -19,19 +19,19 @@ public class BuildRepository
     // ----- ModuleRepository API ------------------------------------------------------------------
 
     @Override
-    public Set<String> getModuleNames()
+    public synchronized Set<String> getModuleNames()
         {
         return Collections.unmodifiableSet(modulesByName.keySet());
         }
 
     @Override
-    public ModuleStructure loadModule(String sModule)
+    public synchronized ModuleStructure loadModule(String sModule)
         {
         return modulesByName.get(sModule);
         }
 
     @Override
-    public void storeModule(ModuleStructure module)
+    public synchronized void storeModule(ModuleStructure module)
         {
         assert module != null;
         modulesByName.put(module.getIdentityConstant().getName(), module);
@@ -43,7 +43,7 @@ public class BuildRepository
     /**
      * Copy all the modules from a specified BuildRepository.
      */
-    public void storeAll(BuildRepository repoThat)
+    public synchronized void storeAll(BuildRepository repoThat)
         {
         modulesByName.putAll(repoThat.modulesByName);
         }
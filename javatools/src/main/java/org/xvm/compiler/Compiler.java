@@ -1,6 +1,8 @@
 package org.xvm.compiler;
 
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.xvm.asm.ConstantPool;
 import org.xvm.asm.ErrorList;
 import org.xvm.asm.ErrorListener;
@@ -101,6 +103,27 @@ public class Compiler
         return getStage().compareTo(stage) >= 0;
         }
 
+    /**
+     * Specify the fork-join pool to use for generating the code of the classes and methods in
+     * parallel.
+     *
+     * @param poolFork  the fork-join pool, or null to compile on the calling thread
+     */
+    public void setForkJoinPool(ForkJoinPool poolFork)
+        {
+        m_poolFork = poolFork;
+        }
+
+    /**
+     * Specify the profiler to record the cost of the compilation stages with.
+     *
+     * @param profiler  the profiler, or null to not record anything
+     */
+    public void setProfiler(CompilerProfiler profiler)
+        {
+        m_profiler = profiler;
+        }
+
     /**
      * @return true if the compiler has decided to abort the process
      */
@@ -132,7 +155,7 @@ public class Compiler
             {
             setStage(Stage.Registering);
 
-            StageMgr mgr = new StageMgr(m_stmtModule, Stage.Registered, m_errs);
+            StageMgr mgr = new StageMgr(m_stmtModule, Stage.Registered, m_errs, null, m_profiler);
             if (!mgr.processComplete())
                 {
                 if (m_errs.hasSeriousErrors())
@@ -216,7 +239,7 @@ public class Compiler
                 {
                 // first time through: resolve starting from the module, and recurse down
                 setStage(Stage.Resolving);
-                m_mgr = new StageMgr(m_stmtModule, Stage.Resolved, m_errs);
+                m_mgr = new StageMgr(m_stmtModule, Stage.Resolved, m_errs, null, m_profiler);
                 }
 
             if (fLastAttempt)
@@ -266,7 +289,7 @@ public class Compiler
                 {
                 // first time through: resolve starting from the module, and recurse down
                 setStage(Stage.Validating);
-                m_mgr = new StageMgr(m_stmtModule, Stage.Validated, m_errs);
+                m_mgr = new StageMgr(m_stmtModule, Stage.Validated, m_errs, null, m_profiler);
                 }
 
             if (fLastAttempt)
@@ -316,7 +339,8 @@ public class Compiler
                 {
                 // first time through: resolve starting from the module, and recurse down
                 setStage(Stage.Emitting);
-                m_mgr = new StageMgr(m_stmtModule, Stage.Emitted, m_errs);
+                m_mgr = new StageMgr(m_stmtModule, Stage.Emitted, m_errs, m_poolFork, m_profiler);
+                m_mgr.markReleaseEmitted();
                 }
 
             if (fLastAttempt)
@@ -447,6 +471,16 @@ public class Compiler
      */
     private StageMgr m_mgr;
 
+    /**
+     * The optional fork-join pool to emit the classes and methods on.
+     */
+    private ForkJoinPool m_poolFork;
+
+    /**
+     * The optional profiler to record the cost of the compilation stages with.
+     */
+    private CompilerProfiler m_profiler;
+
 
     // ----- inner class: Stage enumeration --------------------------------------------------------
 
@@ -0,0 +1,401 @@
+package org.xvm.compiler;
+
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+
+/**
+ * Collects the cost of the compilation phases per module and per top-level class.
+ * <p/>
+ * The cost is attributed to the innermost open {@link Scope} on the current thread: opening a
+ * scope for a different class suspends the enclosing one, so each cost is counted exactly once
+ * (the module-level numbers cover only the work that is not attributed to any of its classes).
+ * For every scope the profiler records the wall-clock time, the CPU time and the number of bytes
+ * allocated by the current thread, the number of nodes that had to be revisited, and the number of
+ * TypeInfos built. When the compilation runs on multiple threads, the wall-clock times of the
+ * classes processed in parallel overlap.
+ * <p/>
+ * Every scope is also emitted as an "org.xvm.CompilerPhase" JFR event (with the CPU time and the
+ * allocations of the scope itself), so a flight recording shows the phases on the timeline of each
+ * thread.
+ */
+public class CompilerProfiler
+    {
+    /**
+     * Construct a profiler.
+     */
+    public CompilerProfiler()
+        {
+        ThreadMXBean beanThreads = ManagementFactory.getThreadMXBean();
+        f_beanThreads = beanThreads.isCurrentThreadCpuTimeSupported() ? beanThreads : null;
+        f_beanAlloc   = beanThreads instanceof com.sun.management.ThreadMXBean beanAlloc
+                && beanAlloc.isThreadAllocatedMemorySupported()
+                    ? beanAlloc
+                    : null;
+        }
+
+
+    // ----- CompilerProfiler API ------------------------------------------------------------------
+
+    /**
+     * Start attributing the work done by the current thread to the specified module, class and
+     * phase.
+     *
+     * @param sModule   the module name
+     * @param sClass    the top-level class name (with the names of the enclosing packages), or
+     *                  null for the module itself
+     * @param sPhase    the phase name
+     * @param fRevisit  true iff the work is a revisit of a node that could not be completed before
+     *
+     * @return the scope to close when the work is done, or null if the work is already attributed
+     *         to the same module, class and phase
+     */
+    public Scope enter(String sModule, String sClass, String sPhase, boolean fRevisit)
+        {
+        Key   key   = new Key(sModule, sClass == null ? "" : sClass, sPhase);
+        Scope outer = s_tloScope.get();
+        Stats stats = outer != null && outer.f_stats.f_key.equals(key)
+                ? outer.f_stats
+                : f_mapStats.computeIfAbsent(key, Stats::new);
+        if (fRevisit)
+            {
+            synchronized (stats)
+                {
+                stats.m_cRevisits++;
+                }
+            }
+        return outer != null && stats == outer.f_stats ? null : new Scope(stats, outer);
+        }
+
+    /**
+     * Record that a TypeInfo has been built by the current thread.
+     */
+    public static void countTypeInfo()
+        {
+        Scope scope = s_tloScope.get();
+        if (scope != null)
+            {
+            scope.m_cTypeInfos++;
+            }
+        }
+
+    /**
+     * @return the collected statistics, one entry per module, class and phase, in no particular
+     *         order
+     */
+    public List<Stats> getStats()
+        {
+        return new ArrayList<>(f_mapStats.values());
+        }
+
+    /**
+     * Produce the report of the collected statistics as tab-separated text, most expensive first.
+     *
+     * @return the report lines, starting with the header
+     */
+    public List<String> report()
+        {
+        List<Stats> listStats = getStats();
+        listStats.sort(Comparator.comparingLong(Stats::getWallNanos).reversed()
+                .thenComparing(Stats::toString));
+
+        List<String> listLines = new ArrayList<>(listStats.size() + 1);
+        listLines.add("module\tclass\tphase\twall-ms\tcpu-ms\talloc-kb\trevisits\ttypeinfos");
+        for (Stats stats : listStats)
+            {
+            listLines.add(stats.f_key.sModule() + '\t' + stats.f_key.sClass() + '\t'
+                    + stats.f_key.sPhase()  + '\t' + millis(stats.getWallNanos()) + '\t'
+                    + millis(stats.getCpuNanos()) + '\t' + (stats.getAllocatedBytes() / 1024) + '\t'
+                    + stats.getRevisitCount() + '\t' + stats.getTypeInfoCount());
+            }
+        return listLines;
+        }
+
+    @Override
+    public String toString()
+        {
+        return "CompilerProfiler{entries=" + f_mapStats.size() + '}';
+        }
+
+
+    // ----- internal ------------------------------------------------------------------------------
+
+    private static String millis(long cNanos)
+        {
+        return String.format("%.3f", cNanos / 1_000_000.0);
+        }
+
+    private long cpuNanos()
+        {
+        return f_beanThreads == null ? 0 : f_beanThreads.getCurrentThreadCpuTime();
+        }
+
+    private long allocatedBytes()
+        {
+        return f_beanAlloc == null ? 0 : f_beanAlloc.getCurrentThreadAllocatedBytes();
+        }
+
+
+    // ----- Scope ---------------------------------------------------------------------------------
+
+    /**
+     * The work attributed to a module, class and phase by the current thread.
+     */
+    public class Scope
+            implements AutoCloseable
+        {
+        private Scope(Stats stats, Scope outer)
+            {
+            f_stats = stats;
+            f_outer = outer;
+
+            f_event.module    = stats.f_key.sModule();
+            f_event.className = stats.f_key.sClass();
+            f_event.phase     = stats.f_key.sPhase();
+            f_event.begin();
+
+            if (outer != null)
+                {
+                outer.suspend();
+                }
+            s_tloScope.set(this);
+            resume();
+            }
+
+        @Override
+        public void close()
+            {
+            suspend();
+            s_tloScope.set(f_outer);
+            if (f_outer != null)
+                {
+                f_outer.resume();
+                }
+
+            f_event.cpuTime        = m_cCpuNanos;
+            f_event.bytesAllocated = m_cbAllocated;
+            f_event.typeInfos      = m_cTypeInfos;
+            f_event.commit();
+            }
+
+        /**
+         * Stop the clock and add the cost so far to the statistics.
+         */
+        private void suspend()
+            {
+            long cWall  = System.nanoTime() - m_lWallStart;
+            long cCpu   = cpuNanos()        - m_lCpuStart;
+            long cAlloc = allocatedBytes()  - m_lAllocStart;
+            int  cInfos = m_cTypeInfos      - m_cTypeInfosStart;
+
+            m_cCpuNanos   += cCpu;
+            m_cbAllocated += cAlloc;
+
+            Stats stats = f_stats;
+            synchronized (stats)
+                {
+                stats.m_cWallNanos  += cWall;
+                stats.m_cCpuNanos   += cCpu;
+                stats.m_cbAllocated += cAlloc;
+                stats.m_cTypeInfos  += cInfos;
+                }
+            }
+
+        /**
+         * Restart the clock.
+         */
+        private void resume()
+            {
+            m_lWallStart      = System.nanoTime();
+            m_lCpuStart       = cpuNanos();
+            m_lAllocStart     = allocatedBytes();
+            m_cTypeInfosStart = m_cTypeInfos;
+            }
+
+        private final Stats      f_stats;
+        private final Scope      f_outer;
+        private final PhaseEvent f_event = new PhaseEvent();
+        private long m_lWallStart;
+        private long m_lCpuStart;
+        private long m_lAllocStart;
+        private long m_cCpuNanos;
+        private long m_cbAllocated;
+        private int  m_cTypeInfos;
+        private int  m_cTypeInfosStart;
+        }
+
+
+    // ----- Stats ---------------------------------------------------------------------------------
+
+    /**
+     * The cost accumulated for a module, class and phase.
+     */
+    public static class Stats
+        {
+        private Stats(Key key)
+            {
+            f_key = key;
+            }
+
+        /**
+         * @return the module name
+         */
+        public String getModule()
+            {
+            return f_key.sModule();
+            }
+
+        /**
+         * @return the top-level class name, or an empty string for the module itself
+         */
+        public String getClassName()
+            {
+            return f_key.sClass();
+            }
+
+        /**
+         * @return the phase name
+         */
+        public String getPhase()
+            {
+            return f_key.sPhase();
+            }
+
+        /**
+         * @return the wall-clock time in nanoseconds
+         */
+        public synchronized long getWallNanos()
+            {
+            return m_cWallNanos;
+            }
+
+        /**
+         * @return the CPU time in nanoseconds
+         */
+        public synchronized long getCpuNanos()
+            {
+            return m_cCpuNanos;
+            }
+
+        /**
+         * @return the number of bytes allocated
+         */
+        public synchronized long getAllocatedBytes()
+            {
+            return m_cbAllocated;
+            }
+
+        /**
+         * @return the number of the nodes that had to be revisited
+         */
+        public synchronized int getRevisitCount()
+            {
+            return m_cRevisits;
+            }
+
+        /**
+         * @return the number of the TypeInfos built
+         */
+        public synchronized int getTypeInfoCount()
+            {
+            return m_cTypeInfos;
+            }
+
+        @Override
+        public String toString()
+            {
+            return f_key.sModule() + '/' + f_key.sClass() + '/' + f_key.sPhase();
+            }
+
+        private final Key f_key;
+        private long m_cWallNanos;
+        private long m_cCpuNanos;
+        private long m_cbAllocated;
+        private int  m_cRevisits;
+        private int  m_cTypeInfos;
+        }
+
+    /**
+     * The key of the statistics.
+     */
+    private record Key(String sModule, String sClass, String sPhase)
+        {
+        }
+
+
+    // ----- JFR -----------------------------------------------------------------------------------
+
+    @Name(EVENT_NAME)
+    @Label("Compiler Phase")
+    @Category("XVM")
+    @Description("A compilation phase of a module or a top-level class")
+    @StackTrace(false)
+    static class PhaseEvent
+            extends Event
+        {
+        @Label("Module")
+        String module;
+
+        @Label("Class")
+        String className;
+
+        @Label("Phase")
+        String phase;
+
+        @Label("CPU Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long cpuTime;
+
+        @Label("Bytes Allocated")
+        @DataAmount
+        long bytesAllocated;
+
+        @Label("TypeInfos Built")
+        int typeInfos;
+        }
+
+
+    // ----- constants and data fields -------------------------------------------------------------
+
+    /**
+     * The name of the JFR event emitted for every profiler scope.
+     */
+    public static final String EVENT_NAME = "org.xvm.CompilerPhase";
+
+    /**
+     * The innermost open scope of the current thread.
+     */
+    private static final ThreadLocal<Scope> s_tloScope = new ThreadLocal<>();
+
+    /**
+     * The statistics keyed by the module, class and phase.
+     */
+    private final Map<Key, Stats> f_mapStats = new ConcurrentHashMap<>();
+
+    /**
+     * The thread bean to measure the CPU time with, or null if not supported.
+     */
+    private final ThreadMXBean f_beanThreads;
+
+    /**
+     * The thread bean to measure the allocations with, or null if not supported.
+     */
+    private final com.sun.management.ThreadMXBean f_beanAlloc;
+    }
@@ -796,6 +796,15 @@ public abstract class AstNode
         {
         }
 
+    /**
+     * Called once this node and all of the nodes under it have been emitted. A node can use this
+     * opportunity to let go of the parts of its subtree (and anything that subtree holds onto, such
+     * as the validation contexts) that no longer serve any purpose.
+     */
+    protected void releaseEmitted()
+        {
+        }
+
     /**
      * Helper to update the line number in the code to the line number on which this AstNode began.
      *
@@ -1052,6 +1052,21 @@ public class MethodDeclarationStatement
         compileBody(mgr, method, errs);
         }
 
+    @Override
+    protected void releaseEmitted()
+        {
+        // the ops and the BinaryAST have been written into the MethodStructure, so the validated
+        // body is no longer needed; it is replaced by an empty block that spans the same source
+        StatementBlock block = body;
+        if (block != null && !block.stmts.isEmpty())
+            {
+            StatementBlock blockEmpty = new StatementBlock(Collections.emptyList(),
+                    block.source, block.getStartPosition(), block.getEndPosition());
+            blockEmpty.setStage(Compiler.Stage.Emitted);
+            body = adopt(blockEmpty);
+            }
+        }
+
     protected void compileBody(StageMgr mgr, MethodStructure method, ErrorListener errs)
         {
         if (body != null && !body.compileMethod(method.createCode(), errs))
@@ -5,15 +5,21 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 import java.util.function.Predicate;
 
 import org.xvm.asm.Component;
+import org.xvm.asm.ConstantPool;
 import org.xvm.asm.ErrorListener;
 
 import org.xvm.asm.constants.IdentityConstant;
 
 import org.xvm.compiler.Compiler;
 import org.xvm.compiler.Compiler.Stage;
+import org.xvm.compiler.CompilerProfiler;
+import org.xvm.compiler.Token;
 
 import org.xvm.compiler.ast.AstNode.ChildIterator;
 
@@ -22,6 +28,16 @@ import org.xvm.util.Severity;
 
 /**
  * A Stage Manager is used to shepherd the AST nodes through their various stages.
+ * <p/>
+ * If a fork-join pool is provided, the Emitted stage for the classes and the methods declared
+ * directly within a class body is processed on the pool, each subtree by its own (forked) Stage
+ * Manager. The nodes that the forked managers could not complete are merged back in the order of
+ * the declarations, so the subsequent passes happen in a deterministic order. (The Validated stage
+ * is not split up, because the validation of one class modifies the structures that the validation
+ * of the other classes reads.)
+ * <p/>
+ * If a profiler is provided, the work is attributed to the module and the top-level class that the
+ * nodes being processed belong to.
  */
 public class StageMgr
     {
@@ -35,12 +51,47 @@ public class StageMgr
      */
     public StageMgr(AstNode node, Stage stageTarget, ErrorListener errs)
         {
+        this(node, stageTarget, errs, null);
+        }
+
+    /**
+     * Construct a Stage Manager that will progress the specified node (and any under it) to the
+     * specified target stage, processing independent subtrees in parallel.
+     *
+     * @param node         the node to process
+     * @param stageTarget  the target stage
+     * @param errs         the optional error list to log to; must be thread-safe if the pool is
+     *                     specified
+     * @param poolFork     the optional fork-join pool to process the independent subtrees on
+     */
+    public StageMgr(AstNode node, Stage stageTarget, ErrorListener errs, ForkJoinPool poolFork)
+        {
+        this(node, stageTarget, errs, poolFork, null);
+        }
+
+    /**
+     * Construct a Stage Manager that will progress the specified node (and any under it) to the
+     * specified target stage, processing independent subtrees in parallel and recording the cost
+     * of the processing.
+     *
+     * @param node         the node to process
+     * @param stageTarget  the target stage
+     * @param errs         the optional error list to log to; must be thread-safe if the pool is
+     *                     specified
+     * @param poolFork     the optional fork-join pool to process the independent subtrees on
+     * @param profiler     the optional profiler to record the cost of the processing with
+     */
+    public StageMgr(AstNode node, Stage stageTarget, ErrorListener errs, ForkJoinPool poolFork,
+                    CompilerProfiler profiler)
+        {
         assert node != null;
         assert stageTarget != null && stageTarget.isTargetable();
 
         m_listRevisit = Collections.singletonList(node);
         m_target      = stageTarget;
         m_errs        = errs == null ? ErrorListener.BLACKHOLE : errs;
+        f_poolFork    = poolFork;
+        f_profiler    = profiler;
         }
 
     /**
@@ -59,6 +110,23 @@ public class StageMgr
         m_listRevisit = list;
         m_target      = stageTarget;
         m_errs        = errs == null ? ErrorListener.BLACKHOLE : errs;
+        f_poolFork    = null;
+        f_profiler    = null;
+        }
+
+    /**
+     * Construct a Stage Manager for a subtree forked off by the specified manager.
+     *
+     * @param mgrParent  the forking manager
+     */
+    private StageMgr(StageMgr mgrParent)
+        {
+        m_target          = mgrParent.m_target;
+        m_errs            = mgrParent.m_errs;
+        m_fLastAttempt    = mgrParent.m_fLastAttempt;
+        m_fReleaseEmitted = mgrParent.m_fReleaseEmitted;
+        f_poolFork        = mgrParent.f_poolFork;
+        f_profiler        = mgrParent.f_profiler;
         }
 
     /**
@@ -86,9 +154,13 @@ public class StageMgr
 
         if (m_listRevisit != null)
             {
+            boolean fRevisit = m_cPasses++ > 0;
             for (AstNode node : takeRevisitList())
                 {
-                processInternal(node);
+                try (var ignore = profile(node, fRevisit))
+                    {
+                    processInternal(node);
+                    }
                 if (getErrorListener().isAbortDesired())
                     {
                     return false;
@@ -161,6 +233,17 @@ public class StageMgr
         m_fLastAttempt = true;
         }
 
+    /**
+     * Indicate that the nodes may release their subtrees once they have been emitted (see
+     * {@link AstNode#releaseEmitted()}). This is only safe for a manager that drives the emission of
+     * a whole module, since the nodes that are emitted while validating an enclosing expression
+     * (such as anonymous inner classes) may still be copied and re-validated.
+     */
+    public void markReleaseEmitted()
+        {
+        m_fReleaseEmitted = true;
+        }
+
     /**
      * @return this Stage Manager's error list
      */
@@ -182,7 +265,7 @@ public class StageMgr
         boolean fDone      = true;
         AstNode nodePrev   = m_cur;
         byte    nFlagsPrev = m_nFlags;
-        try
+        try (var ignore = node instanceof TypeCompositionStatement ? profile(node, false) : null)
             {
             m_cur    = node;
             m_nFlags = 0;
@@ -242,6 +325,12 @@ public class StageMgr
                 else
                     {
                     markComplete();
+
+                    // nothing under the node is pending, so its emitted subtree can be released
+                    if (fDone && m_fReleaseEmitted && stageTarget == Stage.Emitted)
+                        {
+                        node.releaseEmitted();
+                        }
                     }
                 }
             }
@@ -364,14 +453,31 @@ public class StageMgr
             // mark this as having visited its children
             m_nFlags = (byte) (m_nFlags | VISITED_KIDS);
 
+            List<ForkJoinTask<StageMgr>> listForks = null;
             while (iter.hasNext())
                 {
                 AstNode nodeChild = iter.next();
                 if (exclude == null || !exclude.test(nodeChild))
                     {
-                    fDone &= processInternal(nodeChild);
+                    if (isForkable(node, nodeChild))
+                        {
+                        if (listForks == null)
+                            {
+                            listForks = new ArrayList<>();
+                            }
+                        listForks.add(fork(nodeChild));
+                        }
+                    else
+                        {
+                        fDone &= processInternal(nodeChild);
+                        }
                     }
                 }
+
+            if (listForks != null)
+                {
+                fDone &= join(listForks);
+                }
             }
         finally
             {
@@ -380,6 +486,136 @@ public class StageMgr
         return fDone;
         }
 
+    /**
+     * Determine if the specified child node can be processed in parallel with its siblings.
+     *
+     * @param node       the node whose children are being processed
+     * @param nodeChild  the child node
+     *
+     * @return true iff the child should be processed by a forked Stage Manager
+     */
+    private boolean isForkable(AstNode node, AstNode nodeChild)
+        {
+        if (f_poolFork == null)
+            {
+            return false;
+            }
+
+        // only the class bodies are split up; everything below a method (lambdas, anonymous
+        // classes) is created within the method's own structure by the thread processing it
+        return m_target == Stage.Emitted
+                && node instanceof StatementBlock && node.getParent() instanceof TypeCompositionStatement
+                && (nodeChild instanceof TypeCompositionStatement
+                 || nodeChild instanceof MethodDeclarationStatement);
+        }
+
+    /**
+     * Start processing the specified node on the fork-join pool.
+     *
+     * @param node  the node to process
+     *
+     * @return the task that yields the Stage Manager that processed the node
+     */
+    private ForkJoinTask<StageMgr> fork(AstNode node)
+        {
+        StageMgr     mgr  = new StageMgr(this);
+        ConstantPool pool = ConstantPool.getCurrentPool();
+
+        ForkJoinTask<StageMgr> task = ForkJoinTask.adapt(() ->
+            {
+            try (var ignorePool    = ConstantPool.withPool(pool);
+                 var ignoreProfile = mgr.profile(node, false))
+                {
+                mgr.processInternal(node);
+                }
+            return mgr;
+            });
+
+        if (ForkJoinTask.getPool() == f_poolFork)
+            {
+            task.fork();
+            }
+        else
+            {
+            f_poolFork.execute(task);
+            }
+        return task;
+        }
+
+    /**
+     * Wait for the forked tasks to complete and collect the nodes that they could not complete.
+     *
+     * @param listForks  the forked tasks in the order of the nodes
+     *
+     * @return true iff all the forked nodes have been completed
+     */
+    private boolean join(List<ForkJoinTask<StageMgr>> listForks)
+        {
+        boolean fDone = true;
+        for (ForkJoinTask<StageMgr> task : listForks)
+            {
+            StageMgr mgr = task.join();
+            if (mgr.m_listRevisit != null)
+                {
+                List<AstNode> list = m_listRevisit;
+                if (list == null)
+                    {
+                    list = new ArrayList<>();
+                    m_listRevisit = list;
+                    }
+                list.addAll(mgr.m_listRevisit);
+                fDone = false;
+                }
+            }
+        return fDone;
+        }
+
+    /**
+     * Start attributing the work done by the current thread to the module and the top-level class
+     * that the specified node belongs to.
+     *
+     * @param node      the node about to be processed
+     * @param fRevisit  true iff the node is being revisited
+     *
+     * @return the profiler scope to close after the node has been processed, or null if there is
+     *         nothing to close
+     */
+    private CompilerProfiler.Scope profile(AstNode node, boolean fRevisit)
+        {
+        CompilerProfiler profiler = f_profiler;
+        if (profiler == null)
+            {
+            return null;
+            }
+
+        // the top-level class is the outermost class under the module and its packages
+        String sModule = null;
+        String sClass  = null;
+        for (AstNode nodeCur = node; nodeCur != null && sModule == null; nodeCur = nodeCur.getParent())
+            {
+            if (nodeCur instanceof TypeCompositionStatement stmt)
+                {
+                Token.Id id = stmt.getCategory().getId();
+                if (id == Token.Id.MODULE)
+                    {
+                    sModule = stmt.getName();
+                    }
+                else if (id == Token.Id.PACKAGE)
+                    {
+                    sClass = sClass == null ? stmt.getName() : stmt.getName() + '.' + sClass;
+                    }
+                else
+                    {
+                    sClass = stmt.getName();
+                    }
+                }
+            }
+
+        return sModule == null
+                ? null
+                : profiler.enter(sModule, sClass, m_target.name(), fRevisit);
+        }
+
     /**
      * @return true once processChildren() has been invoked
      */
@@ -486,11 +722,32 @@ public class StageMgr
      */
     private boolean m_fLastAttempt;
 
+    /**
+     * True iff the nodes may release their subtrees once they have been emitted.
+     */
+    private boolean m_fReleaseEmitted;
+
     /**
      * Error list to log processing errors to.
      */
     private final ErrorListener m_errs;
 
+    /**
+     * The fork-join pool to process the independent subtrees on, or null to process everything on
+     * the calling thread.
+     */
+    private final ForkJoinPool f_poolFork;
+
+    /**
+     * The profiler to record the cost of the processing with, or null.
+     */
+    private final CompilerProfiler f_profiler;
+
+    /**
+     * The number of the {@link #processComplete} passes so far.
+     */
+    private int m_cPasses;
+
     /**
      * The current node being processed if processing is occurring.
      */
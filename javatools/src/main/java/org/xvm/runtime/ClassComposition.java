@@ -466,6 +466,32 @@ public class ClassComposition
                 : CallChain.createPropertyCallChain(aBody);
         }
 
+    @Override
+    public FieldInfo getDirectField(PropertyConstant idProp, boolean fSet)
+        {
+        if (!f_template.isDirectFieldAccessAllowed())
+            {
+            return null;
+            }
+
+        // this logic mirrors the ClassTemplate's getPropertyValue() and setPropertyValue()
+        if (!fSet || !isStruct())
+            {
+            CallChain chain = fSet
+                    ? getPropertySetterChain(idProp)
+                    : getPropertyGetterChain(idProp);
+            if (chain == null || chain.isNative() || !(chain.isField() || isStruct()))
+                {
+                return null;
+                }
+            }
+
+        FieldInfo field = getFieldInfo(idProp);
+        return field == null || field.isTransient() || field.isInflated() || isInjected(idProp)
+                ? null
+                : field;
+        }
+
     @Override
     public Map<Object, FieldInfo> getFieldLayout()
         {
@@ -378,6 +378,20 @@ public abstract class ClassTemplate
         {
         ObjectHandle hStruct = createStruct(frame, clazz);
 
+        if (hStruct instanceof GenericHandle hGeneric)
+            {
+            Container      container = frame.f_context.f_container;
+            ObjectHandle[] aFields   = hGeneric.getFields();
+            container.getMetrics().recordAllocation(aFields == null ? 0 : aFields.length);
+
+            ObjectHeap heap = container.getObjectHeap();
+            if (heap != null && !heap.allocate(hGeneric))
+                {
+                return frame.raiseException(xException.outOfMemory(frame,
+                        "Container heap limit exceeded: " + heap.getByteCount() + " bytes"));
+                }
+            }
+
         if (hParent != null)
             {
             // strictly speaking a static child doesn't need to hold the parent's ref,
@@ -741,6 +755,44 @@ public abstract class ClassTemplate
 
     // ----- property operations -------------------------------------------------------------------
 
+    /**
+     * @return true iff this template uses GenericHandles and doesn't customize any of the
+     *         property or field access methods, so the fields of its objects could be accessed
+     *         directly (see {@link TypeComposition#getDirectField})
+     */
+    public boolean isDirectFieldAccessAllowed()
+        {
+        Boolean FAllowed = m_FDirectFieldAccess;
+        if (FAllowed == null)
+            {
+            m_FDirectFieldAccess = FAllowed = isGenericHandle() && !overridesFieldAccess();
+            }
+        return FAllowed;
+        }
+
+    /**
+     * @return true iff this template's class overrides any of the property or field access methods
+     */
+    private boolean overridesFieldAccess()
+        {
+        Class<?> clz = getClass();
+        try
+            {
+            return clz.getMethod("getPropertyValue", Frame.class, ObjectHandle.class,
+                            PropertyConstant.class, int.class).getDeclaringClass() != ClassTemplate.class
+                || clz.getMethod("getFieldValue", Frame.class, ObjectHandle.class,
+                            PropertyConstant.class, int.class).getDeclaringClass() != ClassTemplate.class
+                || clz.getMethod("setPropertyValue", Frame.class, ObjectHandle.class,
+                            PropertyConstant.class, ObjectHandle.class).getDeclaringClass() != ClassTemplate.class
+                || clz.getMethod("setFieldValue", Frame.class, ObjectHandle.class,
+                            PropertyConstant.class, ObjectHandle.class).getDeclaringClass() != ClassTemplate.class;
+            }
+        catch (NoSuchMethodException e)
+            {
+            return true;
+            }
+        }
+
     /**
      * Return the implicit field names for this template. These are fields which are not declared,
      * but are required by the runtime.
@@ -2724,6 +2776,11 @@ public abstract class ClassTemplate
      */
     protected ClassTemplate m_templateSuper;
 
+    /**
+     * Cached result of {@link #isDirectFieldAccessAllowed()}.
+     */
+    private Boolean m_FDirectFieldAccess;
+
     /**
      * The implicit field names of this template. Generally speaking, this should be an array of
      * Object (NestedIdentity | String), but at the moment all implicit fields are not composites.
@@ -45,6 +45,7 @@ import org.xvm.runtime.template.collections.xArray.Mutability;
 import org.xvm.runtime.template.reflect.xModule;
 import org.xvm.runtime.template.reflect.xPackage;
 
+import org.xvm.runtime.template._native.temporal.xLocalClock;
 import org.xvm.runtime.template._native.temporal.xNanosTimer;
 import org.xvm.util.concurrent.ConcurrentWeakHasherMap;
 
@@ -61,6 +62,7 @@ public abstract class Container
         f_parent   = containerParent;
         f_heap     = new ConstHeap(this);
         f_idModule = idModule;
+        f_cpuShare = new CpuShare(containerParent == null ? null : containerParent.f_cpuShare);
 
         // don't register the native container
         if (containerParent != null)
@@ -139,6 +141,59 @@ public abstract class Container
         return f_setServices;
         }
 
+    /**
+     * @return the resource usage counters of this container
+     */
+    public ContainerMetrics getMetrics()
+        {
+        return f_metrics;
+        }
+
+    /**
+     * @return the CPU allocation of this container
+     */
+    public CpuShare getCpuShare()
+        {
+        return f_cpuShare;
+        }
+
+    /**
+     * @return the memory ceiling of this container's objects; zero if the container's objects are
+     *         not accounted for (see {@link #getObjectHeap})
+     */
+    public long getBytesReserved()
+        {
+        ObjectHeap heap = getObjectHeap();
+        return heap == null ? 0 : heap.getByteLimit();
+        }
+
+    /**
+     * Note: the heap doesn't track which objects are still in use, so this is the storage the
+     * container's objects have required since the container has started, which is the upper
+     * bound of the storage they currently hold.
+     *
+     * @return the number of bytes allocated for this container's objects; zero if the
+     *         container's objects are not accounted for (see {@link #getObjectHeap})
+     */
+    public long getBytesAllocated()
+        {
+        ObjectHeap heap = getObjectHeap();
+        return heap == null ? 0 : heap.getByteCount();
+        }
+
+    /**
+     * @return the total number of requests pending for the services of this container
+     */
+    public int getBacklogDepth()
+        {
+        int cDepth = 0;
+        for (ServiceContext service : f_setServices)
+            {
+            cDepth += service.getBacklogDepth();
+            }
+        return cDepth;
+        }
+
     /**
      * Schedule processing of the specified ServiceContext.
      *
@@ -146,14 +201,39 @@ public abstract class Container
      */
     public void schedule(ServiceContext service)
         {
-        // TODO: add a container level fair scheduling queue and submit the service there. The
-        // container should then follow a similar pattern and push processing of its fair scheduling
-        // queue to its parent container which eventually pushes to the runtime. Thus, there is a
-        // hierarchy of fairness. For now though we just skip over all of this and push the
-        // processing directly to the top level runtime.
+        // the fairness across the containers is maintained by the scheduler based on the
+        // containers' CPU shares (see CpuShare); the quotas are enforced here, by deferring the
+        // processing of a throttled container until it has paid its debt
 
         f_pendingWorkCount.incrementAndGet();
-        f_runtime.submitService(() ->
+
+        long cThrottle = f_cpuShare.getThrottleMillis();
+        if (cThrottle > 0)
+            {
+            xLocalClock.TIMER.schedule(new TimerWheel.Task()
+                {
+                @Override
+                public void run()
+                    {
+                    submit(service);
+                    }
+                }, cThrottle);
+            }
+        else
+            {
+            submit(service);
+            }
+        }
+
+    /**
+     * Submit the processing of the specified ServiceContext to the runtime. The caller must have
+     * incremented the pending work count.
+     *
+     * @param service the ServiceContext to process
+     */
+    private void submit(ServiceContext service)
+        {
+        f_runtime.submitService(service, () ->
             {
             try
                 {
@@ -261,6 +341,15 @@ public abstract class Container
         return f_heap.ensureConstHandle(frame, constValue);
         }
 
+    /**
+     * @return the heap that accounts for this container's objects, or null if the objects are not
+     *         accounted for
+     */
+    public ObjectHeap getObjectHeap()
+        {
+        return null;
+        }
+
     /**
      * @return a ClassTemplate for the specified type
      */
@@ -798,6 +887,11 @@ public abstract class Container
      */
     protected final ModuleConstant f_idModule;
 
+    /**
+     * The CPU allocation.
+     */
+    protected final CpuShare f_cpuShare;
+
     /**
      * The service context for the container itself.
      */
@@ -825,6 +919,11 @@ public abstract class Container
      */
     private final Set<ServiceContext> f_setServices = Collections.newSetFromMap(new ConcurrentWeakHasherMap<>());
 
+    /**
+     * The resource usage counters.
+     */
+    private final ContainerMetrics f_metrics = new ContainerMetrics();
+
     /**
      * A cache of "instantiate-able" ClassCompositions keyed by the "inception type".
      *
@@ -0,0 +1,98 @@
+package org.xvm.runtime;
+
+
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Resource usage counters of a Container.
+ * <p/>
+ * The counters are updated by all the services of the container concurrently, so they are
+ * striped ({@link LongAdder}) to keep the cost of recording on the execution and allocation
+ * paths negligible; reading a counter sums the stripes and is therefore more expensive, but the
+ * counters are only read by the management surfaces (the ContainerControl, JMX and JFR).
+ */
+public class ContainerMetrics
+    {
+    /**
+     * Record an execution slice of a fiber.
+     *
+     * @param cOps    the number of ops executed
+     * @param cNanos  the time spent executing the ops
+     */
+    public void recordExecution(int cOps, long cNanos)
+        {
+        if (cOps > 0)
+            {
+            f_adderOps.add(cOps);
+            }
+        f_adderCpuNanos.add(cNanos);
+        }
+
+    /**
+     * Record an object allocation.
+     *
+     * @param cFields  the number of fields the object has
+     */
+    public void recordAllocation(int cFields)
+        {
+        f_adderObjects.increment();
+        f_adderBytes.add(ObjectHeap.getByteSize(cFields));
+        }
+
+    /**
+     * @return the number of ops executed by the container's services
+     */
+    public long getOpCount()
+        {
+        return f_adderOps.sum();
+        }
+
+    /**
+     * @return the time the container's services have spent executing, in nanoseconds
+     */
+    public long getCpuNanos()
+        {
+        return f_adderCpuNanos.sum();
+        }
+
+    /**
+     * @return the number of objects constructed within the container
+     */
+    public long getAllocatedObjectCount()
+        {
+        return f_adderObjects.sum();
+        }
+
+    /**
+     * @return the estimated number of bytes allocated for the objects constructed within the
+     *         container
+     */
+    public long getAllocatedByteCount()
+        {
+        return f_adderBytes.sum();
+        }
+
+
+    // ----- data fields ---------------------------------------------------------------------------
+
+    /**
+     * The number of ops executed.
+     */
+    private final LongAdder f_adderOps = new LongAdder();
+
+    /**
+     * The execution time in nanoseconds.
+     */
+    private final LongAdder f_adderCpuNanos = new LongAdder();
+
+    /**
+     * The number of allocated objects.
+     */
+    private final LongAdder f_adderObjects = new LongAdder();
+
+    /**
+     * The number of allocated bytes.
+     */
+    private final LongAdder f_adderBytes = new LongAdder();
+    }
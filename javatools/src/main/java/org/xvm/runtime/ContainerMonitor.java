@@ -0,0 +1,299 @@
+package org.xvm.runtime;
+
+
+import java.lang.management.ManagementFactory;
+
+import java.util.Set;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+
+/**
+ * Publishes the {@link ContainerMetrics} of a Runtime's containers to the JVM monitoring tools:
+ * <ul>
+ *   <li>as a JMX MXBean named "org.xvm:type=ContainerMonitor,runtime=&lt;n&gt;";</li>
+ *   <li>as a periodic JFR event "org.xvm.ContainerStatistics", emitted for every container once
+ *       a second while a flight recording is running.</li>
+ * </ul>
+ * The monitor is turned off by default; it is enabled by the "xvm.monitor" system property.
+ */
+public class ContainerMonitor
+        implements ContainerMonitorMXBean
+    {
+    private ContainerMonitor(Runtime runtime)
+        {
+        f_runtime = runtime;
+        }
+
+    /**
+     * Start monitoring the specified runtime if the monitoring is enabled.
+     *
+     * @param runtime  the runtime to monitor
+     *
+     * @return the monitor or null if the monitoring is disabled
+     */
+    public static ContainerMonitor start(Runtime runtime)
+        {
+        if (!ENABLED)
+            {
+            return null;
+            }
+
+        ContainerMonitor monitor = new ContainerMonitor(runtime);
+        try
+            {
+            ObjectName  name   = new ObjectName("org.xvm:type=ContainerMonitor,runtime=" +
+                                        s_cRuntimes.getAndIncrement());
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(monitor, name);
+            monitor.m_name = name;
+            }
+        catch (JMException e)
+            {
+            System.err.println("Failed to register the container monitor: " + e);
+            }
+
+        FlightRecorder.addPeriodicEvent(ContainerStatisticsEvent.class, monitor.f_hookJfr);
+        return monitor;
+        }
+
+    /**
+     * Stop monitoring.
+     */
+    public void stop()
+        {
+        FlightRecorder.removePeriodicEvent(f_hookJfr);
+
+        ObjectName name = m_name;
+        if (name != null)
+            {
+            m_name = null;
+            try
+                {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+                }
+            catch (JMException ignore) {}
+            }
+        }
+
+
+    // ----- ContainerMonitorMXBean ----------------------------------------------------------------
+
+    @Override
+    public ContainerStats[] getContainers()
+        {
+        Set<Container>   setContainers = f_runtime.containers();
+        ContainerStats[] aStats        = new ContainerStats[setContainers.size()];
+        int              i             = 0;
+        for (Container container : setContainers)
+            {
+            aStats[i++] = new ContainerStats(container);
+            }
+        return aStats;
+        }
+
+    @Override
+    public int getContainerCount()
+        {
+        return f_runtime.containers().size();
+        }
+
+
+    // ----- JFR -----------------------------------------------------------------------------------
+
+    /**
+     * Emit the statistics events for all the containers.
+     */
+    private void emitEvents()
+        {
+        for (Container container : f_runtime.containers())
+            {
+            ContainerMetrics         metrics = container.getMetrics();
+            ContainerStatisticsEvent event   = new ContainerStatisticsEvent();
+
+            event.module           = container.getModule().getName();
+            event.opCount          = metrics.getOpCount();
+            event.cpuTime          = metrics.getCpuNanos();
+            event.objectsAllocated = metrics.getAllocatedObjectCount();
+            event.bytesAllocated   = metrics.getAllocatedByteCount();
+            event.serviceCount     = container.getServices().size();
+            event.backlogDepth     = container.getBacklogDepth();
+            event.commit();
+            }
+        }
+
+    @Name("org.xvm.ContainerStatistics")
+    @Label("Container Statistics")
+    @Category("XVM")
+    @Description("Resource usage of an XVM container")
+    @Period("1 s")
+    @StackTrace(false)
+    static class ContainerStatisticsEvent
+            extends Event
+        {
+        @Label("Module")
+        String module;
+
+        @Label("Ops Executed")
+        long opCount;
+
+        @Label("CPU Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long cpuTime;
+
+        @Label("Objects Allocated")
+        long objectsAllocated;
+
+        @Label("Bytes Allocated")
+        @DataAmount
+        long bytesAllocated;
+
+        @Label("Services")
+        int serviceCount;
+
+        @Label("Backlog Depth")
+        int backlogDepth;
+        }
+
+
+    // ----- ContainerStats ------------------------------------------------------------------------
+
+    /**
+     * A snapshot of a container's statistics; exposed via JMX as a CompositeData.
+     */
+    public static class ContainerStats
+        {
+        ContainerStats(Container container)
+            {
+            ContainerMetrics metrics = container.getMetrics();
+            ObjectHeap       heap    = container.getObjectHeap();
+
+            f_sModule      = container.getModule().getName();
+            f_cOps         = metrics.getOpCount();
+            f_cCpuNanos    = metrics.getCpuNanos();
+            f_cObjects     = metrics.getAllocatedObjectCount();
+            f_cbAllocated  = metrics.getAllocatedByteCount();
+            f_cbHeap       = heap == null ? -1 : heap.getByteCount();
+            f_cServices    = container.getServices().size();
+            f_cBacklog     = container.getBacklogDepth();
+            }
+
+        /**
+         * @return the name of the container's main module
+         */
+        public String getModule()
+            {
+            return f_sModule;
+            }
+
+        /**
+         * @return the number of ops executed by the container's services
+         */
+        public long getOpCount()
+            {
+            return f_cOps;
+            }
+
+        /**
+         * @return the execution time of the container's services in nanoseconds
+         */
+        public long getCpuTimeNanos()
+            {
+            return f_cCpuNanos;
+            }
+
+        /**
+         * @return the number of objects constructed within the container
+         */
+        public long getObjectsAllocated()
+            {
+            return f_cObjects;
+            }
+
+        /**
+         * @return the estimated number of bytes allocated within the container since it was
+         *         created
+         */
+        public long getBytesAllocated()
+            {
+            return f_cbAllocated;
+            }
+
+        /**
+         * @return the number of bytes accounted for by the container's heap; -1 if the container
+         *         has no heap
+         */
+        public long getHeapBytes()
+            {
+            return f_cbHeap;
+            }
+
+        /**
+         * @return the number of live services in the container
+         */
+        public int getServiceCount()
+            {
+            return f_cServices;
+            }
+
+        /**
+         * @return the number of requests pending for the container's services
+         */
+        public int getBacklogDepth()
+            {
+            return f_cBacklog;
+            }
+
+        private final String f_sModule;
+        private final long   f_cOps;
+        private final long   f_cCpuNanos;
+        private final long   f_cObjects;
+        private final long   f_cbAllocated;
+        private final long   f_cbHeap;
+        private final int    f_cServices;
+        private final int    f_cBacklog;
+        }
+
+
+    // ----- constants and data fields -------------------------------------------------------------
+
+    /**
+     * True iff the monitoring is enabled.
+     */
+    private static final boolean ENABLED = Boolean.getBoolean("xvm.monitor");
+
+    /**
+     * The number of monitored runtimes.
+     */
+    private static final AtomicInteger s_cRuntimes = new AtomicInteger();
+
+    /**
+     * The monitored runtime.
+     */
+    private final Runtime f_runtime;
+
+    /**
+     * The JFR periodic event hook.
+     */
+    private final Runnable f_hookJfr = this::emitEvents;
+
+    /**
+     * The registered MBean name.
+     */
+    private volatile ObjectName m_name;
+    }
@@ -0,0 +1,21 @@
+package org.xvm.runtime;
+
+
+import org.xvm.runtime.ContainerMonitor.ContainerStats;
+
+
+/**
+ * The JMX management interface of the {@link ContainerMonitor}.
+ */
+public interface ContainerMonitorMXBean
+    {
+    /**
+     * @return the statistics of all the containers of the runtime
+     */
+    ContainerStats[] getContainers();
+
+    /**
+     * @return the number of containers in the runtime
+     */
+    int getContainerCount();
+    }
@@ -0,0 +1,172 @@
+package org.xvm.runtime;
+
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * A pool of nested containers that were prepared ahead of time.
+ * <p/>
+ * A prepared container has its module linked, all its injections resolved by the resource
+ * provider, and its main service started; it has not executed any code of its own. When a module
+ * is linked for the same parent container, module bytes, repository and resource provider that a
+ * prepared container was created for, the prepared container is handed out instead of creating a
+ * new one.
+ * <p/>
+ * The containers are not recycled after use, since their state can't be reliably reset; instead,
+ * the linked structure of a killed container is returned to the {@link ModuleLinkCache}, which
+ * makes preparing the replacement container cheap.
+ */
+public class ContainerPool
+    {
+    /**
+     * Add a prepared container to the pool.
+     *
+     * @param container  the container; must have a {@link NestedContainer#getLinkKey() link key}
+     */
+    public synchronized void offer(NestedContainer container)
+        {
+        ModuleLinkCache.Key keyLink = container.getLinkKey();
+        assert keyLink != null;
+
+        f_mapReady.computeIfAbsent(new Key(keyLink, container.f_hProvider), k -> new ArrayDeque<>())
+                  .addLast(container);
+        m_cReady++;
+        }
+
+    /**
+     * Take a prepared container from the pool.
+     *
+     * @param keyLink    the link key
+     * @param hProvider  the resource provider
+     *
+     * @return a prepared container or null if none is available
+     */
+    public synchronized NestedContainer take(ModuleLinkCache.Key keyLink, ObjectHandle hProvider)
+        {
+        Key                    key        = new Key(keyLink, hProvider);
+        Deque<NestedContainer> dequeReady = f_mapReady.get(key);
+        if (dequeReady == null)
+            {
+            return null;
+            }
+
+        NestedContainer container = dequeReady.pollFirst();
+        if (dequeReady.isEmpty())
+            {
+            f_mapReady.remove(key);
+            }
+        m_cReady--;
+        m_cTaken++;
+        return container;
+        }
+
+    /**
+     * Remove all the prepared containers nested in the specified container from the pool and shut
+     * down their services; the removed containers will never be used.
+     *
+     * @param containerParent  the parent container
+     *
+     * @return the removed containers
+     */
+    public List<NestedContainer> drain(Container containerParent)
+        {
+        List<NestedContainer> listDrained = remove(containerParent);
+
+        // the main service of a prepared container has been started, but has never run anything
+        for (NestedContainer container : listDrained)
+            {
+            ServiceContext ctx = container.getServiceContext();
+            if (ctx != null)
+                {
+                ctx.shutdown(null);
+                }
+            }
+        return listDrained;
+        }
+
+    /**
+     * Remove all the prepared containers nested in the specified container from the pool.
+     *
+     * @param containerParent  the parent container
+     *
+     * @return the removed containers
+     */
+    private synchronized List<NestedContainer> remove(Container containerParent)
+        {
+        List<NestedContainer> listRemoved = new ArrayList<>();
+        for (Iterator<Map.Entry<Key, Deque<NestedContainer>>> iter = f_mapReady.entrySet().iterator();
+                iter.hasNext(); )
+            {
+            Map.Entry<Key, Deque<NestedContainer>> entry = iter.next();
+            if (entry.getKey().keyLink.containerParent() == containerParent)
+                {
+                listRemoved.addAll(entry.getValue());
+                iter.remove();
+                }
+            }
+        m_cReady -= listRemoved.size();
+        return listRemoved;
+        }
+
+    /**
+     * @return the number of prepared containers in the pool
+     */
+    public synchronized int getReadyCount()
+        {
+        return m_cReady;
+        }
+
+    @Override
+    public synchronized String toString()
+        {
+        return "ContainerPool{ready=" + m_cReady + ", taken=" + m_cTaken + '}';
+        }
+
+
+    // ----- Key -----------------------------------------------------------------------------------
+
+    /**
+     * The pool key: the link key and the resource provider (compared by identity).
+     */
+    private record Key(ModuleLinkCache.Key keyLink, ObjectHandle hProvider)
+        {
+        @Override
+        public boolean equals(Object obj)
+            {
+            return obj instanceof Key that
+                    && this.hProvider == that.hProvider
+                    && this.keyLink.equals(that.keyLink);
+            }
+
+        @Override
+        public int hashCode()
+            {
+            return keyLink.hashCode() ^ System.identityHashCode(hProvider);
+            }
+        }
+
+
+    // ----- data fields ---------------------------------------------------------------------------
+
+    /**
+     * The prepared containers.
+     */
+    private final Map<Key, Deque<NestedContainer>> f_mapReady = new HashMap<>();
+
+    /**
+     * The number of prepared containers.
+     */
+    private int m_cReady;
+
+    /**
+     * The number of handed out containers.
+     */
+    private long m_cTaken;
+    }
@@ -0,0 +1,419 @@
+package org.xvm.runtime;
+
+
+import java.util.Set;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * The CPU allocation of a Container.
+ * <p/>
+ * The allocation consists of two parts:
+ * <ul>
+ *   <li>the <i>shares</i> determine the container's portion of the CPU relative to the other
+ *       containers when there is a backlog: the {@link Scheduler} keeps running a container's
+ *       tasks until its <i>virtual runtime</i> (the execution time divided by the container's
+ *       weight) advances by a quantum, and then switches to the container with the least virtual
+ *       runtime; the shares also scale the container's execution slices, so the containers with
+ *       fewer shares yield to the waiting work sooner;</li>
+ *   <li>the optional <i>quota</i> is a hard limit on the execution time of the container (and all
+ *       the containers nested within it) in every {@link #PERIOD_NANOS period}; a container that
+ *       has used up its quota is not scheduled until the period that pays its debt.</li>
+ * </ul>
+ * The shares of a new container are inherited from its parent; the quota is not.
+ * <p/>
+ * As in the Linux CFS, a container that is created or wakes up after being idle doesn't keep (or
+ * start with) a virtual runtime that is far behind the containers that have been running all
+ * along, as that would let it monopolize the CPU until it catches up; instead, its virtual runtime
+ * is brought up to the minimum virtual runtime of the runnable containers.
+ */
+public class CpuShare
+    {
+    /**
+     * Construct a CPU allocation.
+     *
+     * @param parent  the allocation of the parent container (optional)
+     */
+    public CpuShare(CpuShare parent)
+        {
+        f_parent  = parent;
+        m_nShares = parent == null ? DEFAULT_SHARES : parent.m_nShares;
+
+        if (parent == null)
+            {
+            f_root        = this;
+            f_setRunnable = ConcurrentHashMap.newKeySet();
+            }
+        else
+            {
+            f_root        = parent.f_root;
+            f_setRunnable = null;
+            f_atomicVirtual.set(f_root.getMinVirtualRuntime());
+            }
+        }
+
+
+    // ----- configuration -------------------------------------------------------------------------
+
+    /**
+     * @return the number of shares
+     */
+    public int getShares()
+        {
+        return m_nShares;
+        }
+
+    /**
+     * Set the number of shares.
+     *
+     * @param nShares  the number of shares; clamped to the [{@link #MIN_SHARES},
+     *                 {@link #MAX_SHARES}] range
+     */
+    public void setShares(int nShares)
+        {
+        m_nShares = Math.max(MIN_SHARES, Math.min(MAX_SHARES, nShares));
+        }
+
+    /**
+     * @return the scheduling priority: the probability that this container runs instead of a
+     *         container with the default priority (0.5) when both are backlogged
+     */
+    public double getPriority()
+        {
+        int nShares = m_nShares;
+        return (double) nShares / (nShares + DEFAULT_SHARES);
+        }
+
+    /**
+     * Set the scheduling priority.
+     *
+     * @param dPriority  the probability that this container runs instead of a container with the
+     *                   default priority (0.5) when both are backlogged
+     */
+    public void setPriority(double dPriority)
+        {
+        // p = s / (s + d)  =>  s = d * p / (1 - p)
+        setShares(dPriority >= 1.0
+                ? MAX_SHARES
+                : dPriority > 0.0
+                    ? (int) Math.min(MAX_SHARES,
+                            Math.round(DEFAULT_SHARES * dPriority / (1.0 - dPriority)))
+                    : MIN_SHARES);
+        }
+
+    /**
+     * @return the quota: the execution time allowed per period in nanoseconds; zero if unlimited
+     */
+    public long getQuotaNanos()
+        {
+        return m_cQuotaNanos;
+        }
+
+    /**
+     * Set the quota as a rate.
+     *
+     * @param dRate  the number of hardware threads worth of the CPU time the container may use
+     *               (for example, 0.25 allows a quarter of a single thread); zero or negative to
+     *               remove the limit
+     */
+    public void setQuotaRate(double dRate)
+        {
+        synchronized (this)
+            {
+            m_cQuotaNanos = dRate > 0.0 ? Math.max(1L, (long) (dRate * PERIOD_NANOS)) : 0L;
+            m_ldtPeriod   = System.nanoTime();
+            f_atomicUsed.set(0L);
+            }
+        }
+
+
+    // ----- accounting ----------------------------------------------------------------------------
+
+    /**
+     * Charge the container for an execution slice.
+     *
+     * @param cNanos  the duration of the slice
+     */
+    public void charge(long cNanos)
+        {
+        f_atomicVirtual.addAndGet(cNanos * DEFAULT_SHARES / m_nShares);
+
+        CpuShare share = this;
+        do
+            {
+            if (share.m_cQuotaNanos > 0)
+                {
+                share.f_atomicUsed.addAndGet(cNanos);
+                }
+            share = share.f_parent;
+            }
+        while (share != null);
+        }
+
+    /**
+     * Record that a task has been submitted for the container. If the container had no tasks,
+     * it becomes runnable, and its virtual runtime is brought up to the minimum virtual runtime of
+     * the other runnable containers.
+     */
+    public void taskSubmitted()
+        {
+        if (f_atomicTasks.getAndIncrement() == 0)
+            {
+            f_atomicVirtual.accumulateAndGet(f_root.getMinVirtualRuntime(), Math::max);
+            f_root.f_setRunnable.add(this);
+            }
+        }
+
+    /**
+     * Record that a task submitted for the container has completed. If the container has no more
+     * tasks, it becomes idle.
+     */
+    public void taskCompleted()
+        {
+        if (f_atomicTasks.decrementAndGet() == 0)
+            {
+            Set<CpuShare> setRunnable = f_root.f_setRunnable;
+
+            // account for this container's virtual runtime while it's still runnable, so the
+            // minimum keeps up even if the last runnable container goes idle
+            f_root.getMinVirtualRuntime();
+            setRunnable.remove(this);
+
+            // a task could have been submitted concurrently
+            if (f_atomicTasks.get() > 0)
+                {
+                setRunnable.add(this);
+                }
+            }
+        }
+
+    /**
+     * @return the virtual runtime: the sum of all the charged slices, each scaled by the
+     *         ratio of the {@link #DEFAULT_SHARES default} to the actual shares
+     */
+    public long getVirtualRuntime()
+        {
+        return f_atomicVirtual.get();
+        }
+
+    /**
+     * @return the length of the execution slice after which a fiber should yield if there is
+     *         any other work waiting
+     */
+    public long getSliceNanos()
+        {
+        return Math.max(MIN_SLICE_NANOS,
+               Math.min(MAX_SLICE_NANOS, BASE_SLICE_NANOS / DEFAULT_SHARES * m_nShares));
+        }
+
+    /**
+     * @return the length of the execution slice after which a fiber must yield regardless of
+     *         whether there is any other work waiting
+     */
+    public long getMaxSliceNanos()
+        {
+        long     ldtNow = System.nanoTime();
+        long     cSlice = MAX_SLICE_NANOS;
+        CpuShare share  = this;
+        do
+            {
+            long cQuota = share.m_cQuotaNanos;
+            if (cQuota > 0)
+                {
+                cSlice = Math.min(cSlice, Math.max(MIN_SLICE_NANOS, cQuota - share.getUsed(ldtNow)));
+                }
+            share = share.f_parent;
+            }
+        while (share != null);
+
+        return cSlice;
+        }
+
+    /**
+     * @return the time (in milliseconds) until this container may run again; zero if the
+     *         container is not throttled
+     */
+    public long getThrottleMillis()
+        {
+        long     ldtNow = System.nanoTime();
+        long     cDelay = 0L;
+        CpuShare share  = this;
+        do
+            {
+            long cQuota = share.m_cQuotaNanos;
+            if (cQuota > 0)
+                {
+                long cUsed = share.getUsed(ldtNow);
+                if (cUsed >= cQuota)
+                    {
+                    // the number of periods it takes to pay the debt
+                    long cPeriods = cUsed / cQuota;
+                    long cNanos   = share.m_ldtPeriod + cPeriods * PERIOD_NANOS - ldtNow;
+                    cDelay = Math.max(cDelay, TimeUnit.NANOSECONDS.toMillis(cNanos) + 1);
+                    }
+                }
+            share = share.f_parent;
+            }
+        while (share != null);
+
+        return cDelay;
+        }
+
+    /**
+     * Compute the minimum virtual runtime of the runnable containers; the result never decreases.
+     * Note: this must be called on the root allocation.
+     *
+     * @return the minimum virtual runtime
+     */
+    private long getMinVirtualRuntime()
+        {
+        long lMin = Long.MAX_VALUE;
+        for (CpuShare share : f_setRunnable)
+            {
+            lMin = Math.min(lMin, share.getVirtualRuntime());
+            }
+        return lMin == Long.MAX_VALUE
+                ? f_atomicMinVirtual.get()
+                : updateMinVirtualRuntime(lMin);
+        }
+
+    /**
+     * Advance the minimum virtual runtime if the specified value is higher.
+     * Note: this must be called on the root allocation.
+     *
+     * @return the minimum virtual runtime
+     */
+    private long updateMinVirtualRuntime(long lVirtual)
+        {
+        AtomicLong atomicMin = f_atomicMinVirtual;
+        return lVirtual > atomicMin.get()
+                ? atomicMin.accumulateAndGet(lVirtual, Math::max)
+                : atomicMin.get();
+        }
+
+    /**
+     * Obtain the execution time used in the current period, rolling the period over (and paying
+     * the debt from the previous periods) if necessary.
+     *
+     * @param ldtNow  the current time (System.nanoTime)
+     *
+     * @return the execution time used in the current period
+     */
+    private long getUsed(long ldtNow)
+        {
+        long ldtPeriod = m_ldtPeriod;
+        long cPeriods  = (ldtNow - ldtPeriod) / PERIOD_NANOS;
+        if (cPeriods > 0)
+            {
+            synchronized (this)
+                {
+                ldtPeriod = m_ldtPeriod;
+                cPeriods  = (ldtNow - ldtPeriod) / PERIOD_NANOS;
+                if (cPeriods > 0)
+                    {
+                    // every elapsed period pays for a quota worth of the usage
+                    long cQuota = Math.max(1L, m_cQuotaNanos);
+                    long cPaid  = cPeriods > Long.MAX_VALUE / cQuota
+                            ? Long.MAX_VALUE
+                            : cPeriods * cQuota;
+                    f_atomicUsed.getAndUpdate(cUsed -> Math.max(0L, cUsed - cPaid));
+                    m_ldtPeriod = ldtPeriod + cPeriods * PERIOD_NANOS;
+                    }
+                }
+            }
+        return f_atomicUsed.get();
+        }
+
+
+    // ----- constants and data fields -------------------------------------------------------------
+
+    /**
+     * The default number of shares.
+     */
+    public static final int DEFAULT_SHARES = 1024;
+
+    /**
+     * The minimum number of shares.
+     */
+    public static final int MIN_SHARES = 2;
+
+    /**
+     * The maximum number of shares.
+     */
+    public static final int MAX_SHARES = 262_144;
+
+    /**
+     * The quota period.
+     */
+    public static final long PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * The execution slice for the default number of shares.
+     */
+    public static final long BASE_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(4);
+
+    /**
+     * The shortest execution slice.
+     */
+    public static final long MIN_SLICE_NANOS = TimeUnit.MICROSECONDS.toNanos(500);
+
+    /**
+     * The longest execution slice.
+     */
+    public static final long MAX_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * The allocation of the parent container.
+     */
+    private final CpuShare f_parent;
+
+    /**
+     * The allocation of the root container, which tracks the runnable containers.
+     */
+    private final CpuShare f_root;
+
+    /**
+     * The allocations of the runnable containers; only used by the root allocation.
+     */
+    private final Set<CpuShare> f_setRunnable;
+
+    /**
+     * The minimum virtual runtime of the runnable containers; only used by the root allocation.
+     */
+    private final AtomicLong f_atomicMinVirtual = new AtomicLong();
+
+    /**
+     * The number of the container's tasks that have been submitted, but have not completed.
+     */
+    private final AtomicInteger f_atomicTasks = new AtomicInteger();
+
+    /**
+     * The number of shares.
+     */
+    private volatile int m_nShares;
+
+    /**
+     * The quota per period in nanoseconds; zero if unlimited.
+     */
+    private volatile long m_cQuotaNanos;
+
+    /**
+     * The virtual runtime.
+     */
+    private final AtomicLong f_atomicVirtual = new AtomicLong();
+
+    /**
+     * The execution time used in the current period (including the debt from the previous ones).
+     */
+    private final AtomicLong f_atomicUsed = new AtomicLong();
+
+    /**
+     * The start of the current period (System.nanoTime).
+     */
+    private volatile long m_ldtPeriod = System.nanoTime();
+    }
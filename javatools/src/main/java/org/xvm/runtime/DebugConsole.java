@@ -97,7 +97,7 @@ public final class DebugConsole
         Op[] aop = frame.f_aOp;
         for (int i = iPC, c = aop.length; i < c; i++)
             {
-            if (aop[i] instanceof Nop)
+            if (aop[i].ensureOp() instanceof Nop)
                 {
                 // stop at the first possibility (most likely in this frame)
                 m_frame    = frame;
@@ -1955,7 +1955,7 @@ public final class DebugConsole
             String  sVar = info == null ? "" : info.getName();
             if (!sVar.isEmpty())
                 {
-                addVar(0, sVar, sVar, frame.f_ahVar[i], listVars, mapExpand);
+                addVar(0, sVar, sVar, frame.getRegister(i), listVars, mapExpand);
                 }
             }
 
@@ -24,6 +24,8 @@ import org.xvm.runtime.template.xNullable;
 
 import org.xvm.runtime.template._native.reflect.xRTFunction.FunctionHandle;
 
+import org.xvm.runtime.template._native.temporal.xLocalClock;
+
 
 /**
  * The Fiber represents a single execution thread for a give ServiceContext.
@@ -88,6 +90,7 @@ public class Fiber
 
         m_hTimeout   = hTimeout;
         m_ldtTimeout = ldtTimeout;
+        scheduleTimeout();
         }
 
     /**
@@ -105,6 +108,37 @@ public class Fiber
     public void clearTimeout()
         {
         m_ldtTimeout = 0L;
+        cancelTimeout();
+        }
+
+    /**
+     * Schedule a service wake-up for this fiber's timeout (if any) on the timer wheel, replacing
+     * the previously scheduled one.
+     */
+    protected synchronized void scheduleTimeout()
+        {
+        cancelTimeout();
+
+        long ldtTimeout = m_ldtTimeout;
+        if (ldtTimeout > 0)
+            {
+            long cDelay = ldtTimeout - f_context.f_container.currentTimeMillis();
+
+            xLocalClock.TIMER.schedule(m_taskTimeout = new TimeoutTask(), Math.max(1, cDelay));
+            }
+        }
+
+    /**
+     * Cancel the scheduled service wake-up for this fiber's timeout (if any).
+     */
+    protected synchronized void cancelTimeout()
+        {
+        TimeoutTask task = m_taskTimeout;
+        if (task != null)
+            {
+            task.cancel();
+            m_taskTimeout = null;
+            }
         }
 
     /**
@@ -183,6 +217,8 @@ public class Fiber
                 long cNanos = f_context.f_container.nanoTime() - m_nanoStarted;
                 m_nanoStarted = 0;
                 f_context.m_cRuntimeNanos += cNanos;
+                f_context.f_container.getMetrics().recordExecution(cOps, cNanos);
+                f_context.f_container.getCpuShare().charge(cNanos);
                 m_frame = f_context.getCurrentFrame();
                 m_cOps += cOps;
                 break;
@@ -380,6 +416,7 @@ public class Fiber
     public void onResponse()
         {
         m_fResponded = true;
+        f_context.signalFiber(this);
         }
 
     /**
@@ -621,6 +658,38 @@ public class Fiber
             }
         }
 
+    /**
+     * The timer wheel task that wakes up the service when the fiber's timeout expires, so the
+     * waiting fiber could be resumed with a TimedOut exception.
+     */
+    protected class TimeoutTask
+            extends TimerWheel.Task
+        {
+        @Override
+        public void run()
+            {
+            synchronized (Fiber.this)
+                {
+                if (m_taskTimeout != this)
+                    {
+                    // superseded or canceled
+                    return;
+                    }
+                m_taskTimeout = null;
+
+                if (m_ldtTimeout > 0 && !isTimedOut())
+                    {
+                    // the time may be frozen by the debugger; check again later
+                    scheduleTimeout();
+                    return;
+                    }
+                }
+
+            f_context.signalFiber(Fiber.this);
+            f_context.ensureScheduled(true); // don't use this thread - schedule async
+            }
+        }
+
 
     // ----- data fields ---------------------------------------------------------------------------
 
@@ -688,6 +757,11 @@ public class Fiber
      */
     private long m_ldtTimeout;
 
+    /**
+     * The timer wheel task for the timeout (optional).
+     */
+    private TimeoutTask m_taskTimeout;
+
     /**
      * Metrics: the total number of ops this fiber has executed.
      */
@@ -731,6 +805,28 @@ public class Fiber
      */
     private Frame m_frameBlocker;
 
+    /**
+     * FiberQueue support: the frame this fiber is suspended at while in the queue.
+     */
+    Frame m_frameQueued;
+
+    /**
+     * FiberQueue support: the links within the queue's "ready", "deferred" or "waiting" list.
+     */
+    Fiber m_fiberQueuePrev;
+    Fiber m_fiberQueueNext;
+
+    /**
+     * FiberQueue support: true iff the fiber is in the queue's "deferred" list.
+     */
+    boolean m_fQueueDeferred;
+
+    /**
+     * FiberQueue support: true iff the fiber is in the queue's "waiting" list; read by the
+     * responding threads.
+     */
+    volatile boolean m_fQueueWaiting;
+
     /**
      * The counter used to create fibers ids.
      */
@@ -1,23 +1,65 @@
 package org.xvm.runtime;
 
 
+import java.util.LinkedHashSet;
+import java.util.Queue;
+import java.util.Set;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
 import org.xvm.runtime.Fiber.FiberStatus;
 
 
 /**
  * {@link FiberQueue} represents a queue-like data structure holding all pending Fibers and
  * facilitating a quick selection algorithm for the scheduler.
+ * <p/>
+ * The suspended fibers are kept in three intrusive lists (linked via the fibers themselves):
+ * <ul>
+ *   <li/>"ready" - new fibers and waiting fibers that have been responded to or have timed out;
+ *   <li/>"deferred" - ready fibers that are blocked by the service's synchronicity;
+ *   <li/>"waiting" - fibers waiting for a response.
+ * </ul>
+ * A waiting fiber is moved to the "ready" list when it's {@link #signal signaled} (which can
+ * happen on any thread) and the signal is processed on the service thread. A ready fiber that
+ * cannot run is moved to the "deferred" list, and is only looked at again after something that
+ * could unblock it has changed: the service's synchronicity or the set of the waiting fibers that
+ * are not concurrent safe. As a result, checking for readiness only needs to look at the head of
+ * the "ready" list, and selecting the next fiber looks at each blocked fiber once per change.
  */
 public class FiberQueue
     {
     private final ServiceContext f_context;
 
-    // a circular array
-    private Frame[] m_aFrame = new Frame[16];
+    /**
+     * The ready fibers, in the order of arrival.
+     */
+    private final FiberList f_listReady = new FiberList();
+
+    /**
+     * The ready fibers that are blocked by the service's synchronicity, in the order of arrival.
+     */
+    private final FiberList f_listDeferred = new FiberList();
+
+    /**
+     * True iff the "deferred" fibers may have become unblocked and need to be re-evaluated.
+     */
+    private boolean m_fDeferredStale;
+
+    /**
+     * The fibers waiting for a response.
+     */
+    private final FiberList f_listWaiting = new FiberList();
 
-    private int m_ixHead = -1; // head
-    private int m_ixTail = 0;  // past the tail - insertion point
-    private int m_cSize  = 0;
+    /**
+     * The waiting fibers that are not concurrent safe.
+     */
+    private final Set<Fiber> f_setUnsafe = new LinkedHashSet<>();
+
+    /**
+     * The fibers that may have become ready; populated on any thread.
+     */
+    private final Queue<Fiber> f_queueSignal = new ConcurrentLinkedQueue<>();
 
     public FiberQueue(ServiceContext ctx)
         {
@@ -26,27 +68,56 @@ public class FiberQueue
 
     public void add(Frame frame)
         {
-        Frame[] aFrame = ensureCapacity(++m_cSize);
+        Fiber fiber = frame.f_fiber;
 
-        int iInsert = m_ixTail;
+        assert fiber.m_frameQueued == null;
+        fiber.m_frameQueued = frame;
 
-        if (aFrame[iInsert] != null)
+        if (fiber.getStatus() == FiberStatus.Waiting)
             {
-            compact();
-            iInsert = m_ixTail;
+            if (!frame.isSafeStack())
+                {
+                f_setUnsafe.add(fiber);
+                }
+
+            // publish the "waiting" flag before checking for readiness, so a concurrent response
+            // is either seen here or signaled
+            fiber.m_fQueueWaiting = true;
+            if (!fiber.isReady())
+                {
+                f_listWaiting.add(fiber);
+                return;
+                }
+            fiber.m_fQueueWaiting = false;
             }
-        aFrame[iInsert] = frame;
 
-        if (m_ixHead < 0)
+        f_listReady.add(fiber);
+        }
+
+    /**
+     * Notify the queue that the specified fiber may have become ready. This method can be called
+     * on any thread.
+     */
+    public void signal(Fiber fiber)
+        {
+        if (fiber.m_fQueueWaiting)
             {
-            m_ixHead = iInsert;
+            f_queueSignal.add(fiber);
             }
-        m_ixTail = (iInsert + 1) % aFrame.length;
+        }
+
+    /**
+     * Notify the queue that the service's synchronicity (or its synchronization owner) has
+     * changed, so the deferred fibers need to be re-evaluated.
+     */
+    public void onSynchronicityChange()
+        {
+        m_fDeferredStale = true;
         }
 
     public boolean isEmpty()
         {
-        return m_cSize == 0;
+        return size() == 0;
         }
 
     /**
@@ -54,29 +125,28 @@ public class FiberQueue
      */
     public boolean isReady()
         {
-        if (m_cSize == 0)
+        // the pending signals are processed on the service thread, but their presence means the
+        // service needs to run
+        if (!f_queueSignal.isEmpty())
             {
-            return false;
+            return true;
             }
 
-        int cFrames = m_aFrame.length;
-        int ixHead  = m_ixHead;
-        for (int i = 0; i < cFrames; i++)
+        // the blocked fibers are moved off the "ready" list by getReady(), so only the head needs
+        // to be checked; if it's blocked, but not alone, the service needs to run to find out
+        Fiber fiber = f_listReady.m_head;
+        if (fiber != null &&
+                (fiber.m_fiberQueueNext != null || checkPriority(fiber.m_frameQueued) >= 0))
             {
-            int ix = (i + ixHead) % cFrames;
-
-            int iPriority = checkPriority(ix);
-            if (iPriority >= 0)
-                {
-                return true;
-                }
+            return true;
             }
-        return false;
+
+        return m_fDeferredStale && f_listDeferred.m_head != null;
         }
 
     public int size()
         {
-        return m_cSize;
+        return f_listReady.m_cSize + f_listDeferred.m_cSize + f_listWaiting.m_cSize;
         }
 
     /**
@@ -84,24 +154,34 @@ public class FiberQueue
      */
     public Frame getReady()
         {
-        if (m_cSize == 0)
+        processSignals();
+
+        FiberList listReady    = f_listReady;
+        FiberList listDeferred = f_listDeferred;
+        if (m_fDeferredStale)
             {
-            return null;
+            // the deferred fibers have arrived before the ones on the "ready" list
+            m_fDeferredStale = false;
+            for (Fiber fiber = listDeferred.m_tail; fiber != null; fiber = listDeferred.m_tail)
+                {
+                fiber.m_fQueueDeferred = false;
+                listDeferred.remove(fiber);
+                listReady.addFirst(fiber);
+                }
             }
 
-        int cFrames = m_aFrame.length;
-        int ixHead  = m_ixHead;
-        for (int i = 0; i < cFrames; i++)
+        Fiber fiber;
+        while ((fiber = listReady.m_head) != null)
             {
-            int ix = (i + ixHead) % cFrames;
-
-            int iPriority = checkPriority(ix);
-            if (iPriority >= 0)
+            if (checkPriority(fiber.m_frameQueued) >= 0)
                 {
-                return remove(ix);
+                return remove(fiber);
                 }
-            }
 
+            listReady.remove(fiber);
+            listDeferred.add(fiber);
+            fiber.m_fQueueDeferred = true;
+            }
         return null;
         }
 
@@ -110,23 +190,16 @@ public class FiberQueue
      */
     public Frame getAny()
         {
-        if (m_cSize == 0)
-            {
-            return null;
-            }
-
-        int cFrames = m_aFrame.length;
-        int ixHead  = m_ixHead;
-        for (int i = 0; i < cFrames; i++)
+        Fiber fiber = f_listReady.m_head;
+        if (fiber == null)
             {
-            int ix = (i + ixHead) % cFrames;
-
-            if (m_aFrame[ix] != null)
+            fiber = f_listDeferred.m_head;
+            if (fiber == null)
                 {
-                return remove(ix);
+                fiber = f_listWaiting.m_head;
                 }
             }
-        return null;
+        return fiber == null ? null : remove(fiber);
         }
 
     /**
@@ -134,39 +207,36 @@ public class FiberQueue
      */
     public String reportStatus()
         {
-        if (m_cSize == 0)
+        if (isEmpty())
             {
             return "";
             }
 
         StringBuilder sb = new StringBuilder();
-        int cFrames = m_aFrame.length;
-        int ixHead  = m_ixHead;
-        for (int i = 0; i < cFrames; i++)
+        for (FiberList list : new FiberList[] {f_listReady, f_listDeferred, f_listWaiting})
             {
-            int ix = (i + ixHead) % cFrames;
-
-            int iPriority = checkPriority(ix);
-            if (iPriority == -1)
+            for (Fiber fiber = list.m_head; fiber != null; fiber = fiber.m_fiberQueueNext)
                 {
-                Frame frame = m_aFrame[ix];
-                if (sb.isEmpty())
+                Frame frame = fiber.m_frameQueued;
+                if (checkPriority(frame) == -1)
                     {
-                    sb.append(frame.f_context);
-                    }
-                sb.append("\nframe=")
-                  .append(frame);
+                    if (sb.isEmpty())
+                        {
+                        sb.append(frame.f_context);
+                        }
+                    sb.append("\nframe=")
+                      .append(frame);
 
-                Fiber fiber = frame.f_fiber;
-                switch (fiber.getStatus())
-                    {
-                    case Waiting:
-                        sb.append(" waiting");
-                        break;
+                    switch (fiber.getStatus())
+                        {
+                        case Waiting:
+                            sb.append(" waiting");
+                            break;
 
-                    case Initial:
-                        sb.append(" new");
-                        break;
+                        case Initial:
+                            sb.append(" new");
+                            break;
+                        }
                     }
                 }
             }
@@ -174,7 +244,24 @@ public class FiberQueue
         }
 
     /**
-     * Calculate the priority of the fiber at the specified index.
+     * Move the signaled fibers that have become ready from the "waiting" to the "ready" list.
+     */
+    private void processSignals()
+        {
+        Fiber fiber;
+        while ((fiber = f_queueSignal.poll()) != null)
+            {
+            if (fiber.m_fQueueWaiting && fiber.isReady())
+                {
+                fiber.m_fQueueWaiting = false;
+                f_listWaiting.remove(fiber);
+                f_listReady.add(fiber);
+                }
+            }
+        }
+
+    /**
+     * Calculate the priority of the specified frame.
      * The return values are:
      * <ul>
      *   <li/>[2]  running
@@ -182,17 +269,10 @@ public class FiberQueue
      *   <li/>[0]  initial new
      *   <li/>[-1] not ready
      *   <li/>[-2] blocked
-     *   <li/>[-3] empty
      * </ul>
      */
-    private int checkPriority(int ix)
+    private int checkPriority(Frame frame)
         {
-        Frame frame = m_aFrame[ix];
-        if (frame == null)
-            {
-            return -3;
-            }
-
         Fiber fiber = frame.f_fiber;
         switch (fiber.getStatus())
             {
@@ -256,27 +336,16 @@ public class FiberQueue
      */
     private boolean isAnyNonConcurrentWaiting(Fiber fiberCandidate)
         {
-        Frame[] aFrame      = m_aFrame;
-        Fiber   fiberCaller = fiberCandidate.getCaller();
-
-        for (Frame frame : aFrame)
+        Set<Fiber> setUnsafe = f_setUnsafe;
+        if (!setUnsafe.isEmpty())
             {
-            if (frame == null)
-                {
-                continue;
-                }
-
-            Fiber fiber = frame.f_fiber;
-            if (fiber != fiberCandidate)
+            Fiber fiberCaller = fiberCandidate.getCaller();
+            for (Fiber fiber : setUnsafe)
                 {
-                if (fiber.getStatus() == FiberStatus.Waiting)
+                if (fiber != fiberCandidate &&
+                        (fiberCaller == null || !fiberCaller.isContinuationOf(fiber)))
                     {
-                    if (frame.isSafeStack() ||
-                        fiberCaller != null && fiberCaller.isContinuationOf(fiber))
-                        {
-                        continue;
-                        }
-                    fiberCandidate.setBlocker(frame);
+                    fiberCandidate.setBlocker(fiber.m_frameQueued);
                     return true;
                     }
                 }
@@ -285,98 +354,116 @@ public class FiberQueue
         return false;
         }
 
-    private Frame remove(int ix)
+    private Frame remove(Fiber fiber)
         {
-        Frame frame = m_aFrame[ix];
+        Frame frame = fiber.m_frameQueued;
 
         assert frame != null;
 
-        m_aFrame[ix] = null;
-
-        if (--m_cSize > 0)
+        if (fiber.m_fQueueWaiting)
             {
-            // move the head if necessary
-            if (ix == m_ixHead)
-                {
-                int cCapacity = m_aFrame.length;
-                do
-                    {
-                    ix = (ix + 1) % cCapacity;
-                    }
-                while (m_aFrame[ix] == null);
-
-                m_ixHead = ix;
-                }
+            fiber.m_fQueueWaiting = false;
+            f_listWaiting.remove(fiber);
+            }
+        else if (fiber.m_fQueueDeferred)
+            {
+            fiber.m_fQueueDeferred = false;
+            f_listDeferred.remove(fiber);
             }
         else
             {
-            m_ixHead = -1;
-            m_ixTail = 0;
+            f_listReady.remove(fiber);
             }
+
+        if (f_setUnsafe.remove(fiber))
+            {
+            // one less fiber that could block the deferred ones
+            m_fDeferredStale = true;
+            }
+
+        fiber.m_frameQueued = null;
         return frame;
         }
 
-    private Frame[] ensureCapacity(int cCapacity)
+    public String toString()
         {
-        Frame[] aFrame = m_aFrame;
-        int     cOld   = aFrame.length;
-        if (cCapacity > cOld)
+        return "size=" + size();
+        }
+
+
+    // ----- FiberList -----------------------------------------------------------------------------
+
+    /**
+     * A doubly-linked list of fibers that uses the links embedded into the fibers.
+     */
+    private static class FiberList
+        {
+        void add(Fiber fiber)
             {
-            int     cNew = Math.max(cCapacity, cOld + (cOld >> 2)); // 1.25
-            Frame[] aNew = new Frame[cNew];
+            Fiber tail = m_tail;
 
-            assert m_ixHead == m_ixTail;
-            if (m_ixHead == 0)
+            fiber.m_fiberQueuePrev = tail;
+            fiber.m_fiberQueueNext = null;
+            if (tail == null)
                 {
-                System.arraycopy(aFrame, 0, aNew, 0, cOld);
+                m_head = fiber;
                 }
             else
                 {
-                // copy and re-arrange
-                int cHead = cOld - m_ixHead;
-                System.arraycopy(aFrame, m_ixHead, aNew, 0,     cHead);
-                System.arraycopy(aFrame, 0       , aNew, cHead, m_ixHead);
-                m_ixHead = 0;
-                m_ixTail = cOld;
+                tail.m_fiberQueueNext = fiber;
                 }
-            m_aFrame = aFrame = aNew;
+            m_tail = fiber;
+            m_cSize++;
             }
-        return aFrame;
-        }
 
-    // move all the not-empty spaces toward the head
-    private void compact()
-        {
-        Frame[] aFrame  = m_aFrame;
-        int     cFrames = aFrame.length;
-
-        assert aFrame[m_ixHead] != null;
+        void addFirst(Fiber fiber)
+            {
+            Fiber head = m_head;
 
-        int iFrom = (m_ixHead + 1) % cFrames;
-        int iTo   = iFrom;
+            fiber.m_fiberQueuePrev = null;
+            fiber.m_fiberQueueNext = head;
+            if (head == null)
+                {
+                m_tail = fiber;
+                }
+            else
+                {
+                head.m_fiberQueuePrev = fiber;
+                }
+            m_head = fiber;
+            m_cSize++;
+            }
 
-        for (int i = 1; i < cFrames; i++)
+        void remove(Fiber fiber)
             {
-            Frame frame = aFrame[iFrom];
-            if (frame != null)
+            Fiber prev = fiber.m_fiberQueuePrev;
+            Fiber next = fiber.m_fiberQueueNext;
+
+            if (prev == null)
                 {
-                if (iFrom != iTo)
-                    {
-                    assert aFrame[iTo] == null;
-                    aFrame[iTo] = frame;
-                    aFrame[iFrom] = null;
-                    }
-                iTo = (iTo + 1) % cFrames;
+                m_head = next;
+                }
+            else
+                {
+                prev.m_fiberQueueNext = next;
                 }
-            iFrom = (iFrom + 1) % cFrames;
-            }
 
-        assert aFrame[iTo] == null;
-        m_ixTail = iTo;
-        }
+            if (next == null)
+                {
+                m_tail = prev;
+                }
+            else
+                {
+                next.m_fiberQueuePrev = prev;
+                }
 
-    public String toString()
-        {
-        return "size=" + m_cSize;
+            fiber.m_fiberQueuePrev = null;
+            fiber.m_fiberQueueNext = null;
+            m_cSize--;
+            }
+
+        Fiber m_head;
+        Fiber m_tail;
+        int   m_cSize;
         }
     }
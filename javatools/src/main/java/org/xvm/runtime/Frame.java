@@ -15,6 +15,7 @@ import org.xvm.asm.Constants.Access;
 import org.xvm.asm.GenericTypeResolver;
 import org.xvm.asm.MethodStructure;
 import org.xvm.asm.Op;
+import org.xvm.asm.OpFused;
 import org.xvm.asm.PackageStructure;
 import org.xvm.asm.Parameter;
 
@@ -32,6 +33,7 @@ import org.xvm.asm.constants.TypeParameterConstant;
 import org.xvm.runtime.ObjectHandle.DeferredCallHandle;
 import org.xvm.runtime.ObjectHandle.DeferredSingletonHandle;
 import org.xvm.runtime.ObjectHandle.ExceptionHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
 import org.xvm.runtime.ObjectHandle.NativeFutureHandle;
 import org.xvm.runtime.ServiceContext.Synchronicity;
 
@@ -46,6 +48,8 @@ import org.xvm.runtime.template.annotations.xFutureVar.FutureTupleHandle;
 import org.xvm.runtime.template.collections.xTuple;
 import org.xvm.runtime.template.collections.xTuple.TupleHandle;
 
+import org.xvm.runtime.template.numbers.xInt64;
+
 import org.xvm.runtime.template.reflect.xRef.RefHandle;
 
 import org.xvm.runtime.template._native.reflect.xRTFunction;
@@ -68,6 +72,7 @@ public class Frame
 
     public final ObjectHandle[]     f_ahVar;        // arguments/local var registers
     public final VarInfo[]          f_aInfo;        // optional info for var registers
+    private long[]                  m_alVar;        // unboxed Int64 values (see UNBOXED)
 
     protected final int             f_iReturn;      // an index for a single return value;
     protected final int[]           f_aiReturn;     // indexes for multiple return values
@@ -95,6 +100,7 @@ public class Frame
     public  int                     m_nChainDepth;  // this frame's depth in the call chain
 
     private ObjectHandle            m_hStackTop;    // the top of the local stack
+    private long                    m_lStackTop;    // the stack top value if it's UNBOXED
     private Deque<ObjectHandle>     m_stack;        // a remainder of the stack
 
     public DebugConsole.DebugStash  m_debug;        // a field that the debugger can stash stuff in
@@ -807,14 +813,15 @@ public class Frame
     public int pushStack(ObjectHandle hValue)
         {
         assert hValue != null && !(hValue instanceof DeferredCallHandle);
-        if (m_hStackTop != null)
+        ObjectHandle hTop = m_hStackTop;
+        if (hTop != null)
             {
             Deque<ObjectHandle> stack = m_stack;
             if (stack == null)
                 {
                 stack = m_stack = new ArrayDeque<>();
                 }
-            stack.push(m_hStackTop);
+            stack.push(hTop == UNBOXED ? boxStackTop() : hTop);
             }
         m_hStackTop = hValue;
         return Op.R_NEXT;
@@ -830,11 +837,12 @@ public class Frame
         ObjectHandle hValue = m_hStackTop;
         assert hValue != null;
 
-        Deque<ObjectHandle> stack = m_stack;
-        m_hStackTop = stack == null || stack.isEmpty()
-                ? null
-                : stack.pop();
+        if (hValue == UNBOXED)
+            {
+            hValue = boxStackTop();
+            }
 
+        dropStack();
         return hValue;
         }
 
@@ -844,10 +852,37 @@ public class Frame
      * @return a value at the top of the stack
      */
     public ObjectHandle peekStack()
+        {
+        ObjectHandle hValue = m_hStackTop;
+        return hValue == UNBOXED
+                ? m_hStackTop = boxStackTop()
+                : hValue;
+        }
+
+    /**
+     * Peek at the top of the local stack "as is", which could be the {@link #UNBOXED} marker.
+     * This method is meant to be used only by the {@link org.xvm.asm.OpQuickened quickened} ops.
+     *
+     * @return the top of the stack
+     */
+    public ObjectHandle peekStackUnboxed()
         {
         return m_hStackTop;
         }
 
+    /**
+     * Remove the value from the top of the local stack without boxing it. This method is meant
+     * to be used only by the {@link org.xvm.asm.OpQuickened quickened} ops, after they have read
+     * the value using {@link #peekStackUnboxed}.
+     */
+    public void dropStack()
+        {
+        Deque<ObjectHandle> stack = m_stack;
+        m_hStackTop = stack == null || stack.isEmpty()
+                ? null
+                : stack.pop();
+        }
+
     /**
      * Assign a specified register on this frame.
      *
@@ -1635,6 +1670,11 @@ public class Frame
         if (iArg >= 0)
             {
             ObjectHandle hValue = f_ahVar[iArg];
+            if (hValue == UNBOXED)
+                {
+                return boxRegister(iArg);
+                }
+
             if (hValue == null)
                 {
                 // there is a possibility this method introduced a default value at the subclass
@@ -1718,7 +1758,7 @@ public class Frame
             throws ExceptionHandle.WrapperException
         {
         ObjectHandle hValue = iArg >= 0
-                ? f_ahVar[iArg]
+                ? getRegister(iArg)
                 : iArg <= Op.CONSTANT_OFFSET
                         ? getConstHandle(iArg)
                         : getPredefinedArgument(iArg);
@@ -2068,6 +2108,144 @@ public class Frame
         return true;
         }
 
+    /**
+     * Replace an op at the specified address. Since the op array is shared by all frames for the
+     * same function, the replacement op must be semantically equivalent to the original one.
+     * If the op at the specified address is an {@link OpFused fused} op, the op is replaced within
+     * the fused op.
+     *
+     * @param iPC    the op address
+     * @param opOld  the op that is expected to be at the specified address
+     * @param opNew  the replacement op
+     *
+     * @return true iff the op has been replaced
+     */
+    public boolean replaceOp(int iPC, Op opOld, Op opNew)
+        {
+        Op[] aOp = f_aOp;
+        Op   op  = aOp[iPC];
+        if (op == opOld)
+            {
+            // a concurrent replacement is benign: the ops are equivalent
+            aOp[iPC] = opNew;
+            return true;
+            }
+        return op instanceof OpFused opFused && opFused.replaceFirst(opOld, opNew);
+        }
+
+
+    // ----- unboxed registers ---------------------------------------------------------------------
+
+    /**
+     * Store an Int64 value into the specified register without allocating a handle for it. This
+     * is only allowed for the local stack and for standard (not dynamic) local variable registers
+     * that are known to accept Int64 values; the value gets boxed if and when it's read by
+     * anything but a {@link org.xvm.asm.OpQuickened quickened} op.
+     * <p/>
+     * The parameter registers are never unboxed: the caller owns the argument array and may hand
+     * it to another frame (e.g. the constructor arguments are bound to the "finally" function),
+     * which would see the {@link #UNBOXED} marker without the value it stands for.
+     *
+     * @param nVar    the register index
+     * @param lValue  the Int64 value
+     *
+     * @return true iff the value has been stored; false if the register cannot hold an unboxed
+     *         value, in which case the caller should use {@link #assignValue}
+     */
+    public boolean storeUnboxedInt64(int nVar, long lValue)
+        {
+        if (nVar == Op.A_STACK)
+            {
+            pushStack(UNBOXED);
+            m_lStackTop = lValue;
+            return true;
+            }
+
+        MethodStructure function = f_function;
+        if (nVar < 0 || function == null || nVar < function.getParamCount())
+            {
+            return false;
+            }
+
+        VarInfo info = getVarInfo(nVar);
+        if (info == null || info.isDynamicVar() || !info.isInt64Compatible())
+            {
+            return false;
+            }
+
+        long[] alVar = m_alVar;
+        if (alVar == null)
+            {
+            alVar = m_alVar = new long[f_ahVar.length];
+            }
+        alVar[nVar]   = lValue;
+        f_ahVar[nVar] = UNBOXED;
+        return true;
+        }
+
+    /**
+     * Retrieve an unboxed Int64 value. This method should only be called if the register (or the
+     * top of the local stack) holds the {@link #UNBOXED} marker.
+     *
+     * @param nVar  the register index or {@link Op#A_STACK}
+     *
+     * @return the Int64 value
+     */
+    public long getUnboxedInt64(int nVar)
+        {
+        return nVar == Op.A_STACK ? m_lStackTop : m_alVar[nVar];
+        }
+
+    /**
+     * Retrieve the content of the specified register, boxing an unboxed value if necessary. Unlike
+     * {@link #getArgument}, this method returns the register content "as is", which could be null,
+     * the {@link ObjectHandle#DEFAULT} marker or a RefHandle for a dynamic var.
+     *
+     * @param nVar  the register index
+     *
+     * @return the register content
+     */
+    public ObjectHandle getRegister(int nVar)
+        {
+        ObjectHandle hValue = f_ahVar[nVar];
+        return hValue == UNBOXED ? boxRegister(nVar) : hValue;
+        }
+
+    /**
+     * Box the unboxed Int64 value held by the specified register. The boxed value replaces the
+     * marker, so any subsequent reads use the same handle.
+     */
+    private ObjectHandle boxRegister(int nVar)
+        {
+        return f_ahVar[nVar] = new JavaLong(xInt64.INSTANCE.getCanonicalClass(), m_alVar[nVar]);
+        }
+
+    /**
+     * Box the unboxed Int64 value held by the top of the local stack.
+     */
+    private ObjectHandle boxStackTop()
+        {
+        return new JavaLong(xInt64.INSTANCE.getCanonicalClass(), m_lStackTop);
+        }
+
+    /**
+     * A marker placed into a register that holds an unboxed Int64 value.
+     */
+    public static final ObjectHandle UNBOXED = new ObjectHandle(null)
+        {
+        @Override
+        public TypeConstant getType()
+            {
+            return null;
+            }
+
+        @Override
+        public String toString()
+            {
+            return "<unboxed>";
+            }
+        };
+
 
     // ----- GenericTypeResolver interface ---------------------------------------------------------
 
@@ -2642,6 +2820,7 @@ public class Frame
         private VarTypeResolver m_resolver;
         private int             m_nTargetId; // an id of the target used to resolve this VarInfo's type
         private RefHandle       m_ref;       // an "active" reference to this register
+        private int             m_nInt64;    // 1 if the type accepts Int64, -1 if not, 0 if unknown
 
         /**
          * Construct an unnamed VarInfo based on the specified type.
@@ -2766,6 +2945,26 @@ public class Frame
             return (m_nStyle & FUTURE_HANDLE) != 0;
             }
 
+        /**
+         * @return true iff any Int64 value can be assigned to the register without a type check
+         */
+        public boolean isInt64Compatible()
+            {
+            int nInt64 = m_nInt64;
+            if (nInt64 == 0)
+                {
+                TypeConstant type = getType();
+                if (isDynamicType())
+                    {
+                    // the dynamic types are not cached
+                    return false;
+                    }
+
+                nInt64 = m_nInt64 = xInt64.INSTANCE.getCanonicalType().isA(type) ? 1 : -1;
+                }
+            return nInt64 > 0;
+            }
+
         public RefHandle getRef()
             {
             return m_ref;
@@ -0,0 +1,257 @@
+package org.xvm.runtime;
+
+
+import java.lang.ref.WeakReference;
+
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * A small polymorphic inline cache embedded into an op. The cache maps up to {@link #MAX_ENTRIES}
+ * keys (typically a {@link TypeComposition} or a {@link Container}) to a piece of resolved info
+ * (e.g. a {@link CallChain} or a {@link org.xvm.asm.MethodStructure}) and is probed by identity,
+ * without any hashing.
+ * <p/>
+ * Ops are shared by all services and, in the case of the shared modules, by all containers, so the
+ * cache is accessed concurrently. The entries array is never modified in place; instead, a new
+ * array is published on every change, which makes the reads lock-free. A racing update may lose an
+ * entry, which simply causes a subsequent miss.
+ * <p/>
+ * Both keys and values are held weakly (the same way the {@link ServiceContext#getOpInfo} info is),
+ * so the cache never prevents a container from being collected.
+ * <p/>
+ * Once the number of distinct keys exceeds {@link #MAX_ENTRIES}, the cache becomes "megamorphic";
+ * it drops all the entries and the caller is expected to use a slower, service-local storage
+ * instead.
+ */
+public class InlineCache
+    {
+    /**
+     * Find a cached value for the specified key.
+     *
+     * @param key  the key (compared by identity)
+     *
+     * @return the cached value or null if none
+     */
+    public Object get(Object key)
+        {
+        for (Entry entry : m_aEntry)
+            {
+            if (entry.get() == key)
+                {
+                Object value = entry.getValue(0);
+                if (value != null)
+                    {
+                    if (COLLECT_STATS)
+                        {
+                        s_cHits.increment();
+                        }
+                    return value;
+                    }
+                break;
+                }
+            }
+
+        if (COLLECT_STATS)
+            {
+            s_cMisses.increment();
+            }
+        return null;
+        }
+
+    /**
+     * Find all the values cached together for the specified key by {@link #put(Object, Object...)}.
+     * Since an entry is never modified, the values are guaranteed to have been stored together.
+     *
+     * @param key  the key (compared by identity)
+     *
+     * @return the cached values or null if none (or if any of them has been collected)
+     */
+    public Object[] getValues(Object key)
+        {
+        for (Entry entry : m_aEntry)
+            {
+            if (entry.get() == key)
+                {
+                WeakReference<Object>[] aRef   = entry.f_aRefValue;
+                int                     cRefs  = aRef.length;
+                Object[]                aValue = new Object[cRefs];
+                for (int i = 0; i < cRefs; i++)
+                    {
+                    if ((aValue[i] = aRef[i].get()) == null)
+                        {
+                        return null;
+                        }
+                    }
+                return aValue;
+                }
+            }
+        return null;
+        }
+
+    /**
+     * Store the values for the specified key as a single entry. Any entries for the keys that
+     * have been collected are purged.
+     *
+     * @param key     the key (compared by identity)
+     * @param aValue  the values to cache; the first one is returned by {@link #get}
+     */
+    public void put(Object key, Object... aValue)
+        {
+        assert key != null && aValue.length > 0;
+
+        if (m_fMegamorphic)
+            {
+            return;
+            }
+
+        Entry[] aOld = m_aEntry;
+        int     cOld = aOld.length;
+        Entry[] aNew = new Entry[cOld + 1];
+        int     cNew = 0;
+
+        for (Entry entry : aOld)
+            {
+            Object keyOld = entry.get();
+            if (keyOld != null && keyOld != key && entry.isAlive())
+                {
+                aNew[cNew++] = entry;
+                }
+            }
+
+        if (cNew == MAX_ENTRIES)
+            {
+            m_fMegamorphic = true;
+            m_aEntry       = NO_ENTRIES;
+            if (COLLECT_STATS)
+                {
+                s_cMegamorphic.increment();
+                }
+            return;
+            }
+
+        aNew[cNew++] = new Entry(key, aValue);
+        if (cNew < aNew.length)
+            {
+            Entry[] aTrim = new Entry[cNew];
+            System.arraycopy(aNew, 0, aTrim, 0, cNew);
+            aNew = aTrim;
+            }
+        m_aEntry = aNew;
+        }
+
+    /**
+     * @return true iff this cache has seen more than {@link #MAX_ENTRIES} distinct keys and
+     *         doesn't hold any entries anymore
+     */
+    public boolean isMegamorphic()
+        {
+        return m_fMegamorphic;
+        }
+
+    /**
+     * @return the number of currently cached entries
+     */
+    public int size()
+        {
+        return m_aEntry.length;
+        }
+
+    /**
+     * @return a human-readable summary of the cache statistics across all the inline caches
+     *         (only available when "xvm.inlineCache.stats" system property is set)
+     */
+    public static String getStatistics()
+        {
+        return COLLECT_STATS
+                ? "InlineCache{hits=" + s_cHits.sum() + ", misses=" + s_cMisses.sum() +
+                  ", megamorphic=" + s_cMegamorphic.sum() + '}'
+                : "InlineCache{statistics disabled}";
+        }
+
+    @Override
+    public String toString()
+        {
+        return m_fMegamorphic
+                ? "InlineCache{megamorphic}"
+                : "InlineCache{size=" + size() + '}';
+        }
+
+
+    // ----- Entry ---------------------------------------------------------------------------------
+
+    /**
+     * A cache entry is a weak reference to the key that also holds weak references to the values.
+     */
+    private static final class Entry
+            extends WeakReference<Object>
+        {
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        Entry(Object key, Object[] aValue)
+            {
+            super(key);
+
+            // generic array creation is not allowed; the array never escapes this entry
+            WeakReference<Object>[] aRef = new WeakReference[aValue.length];
+            for (int i = 0, c = aValue.length; i < c; i++)
+                {
+                aRef[i] = new WeakReference<>(aValue[i]);
+                }
+            f_aRefValue = aRef;
+            }
+
+        /**
+         * @return the value at the specified index or null if it has been collected
+         */
+        Object getValue(int i)
+            {
+            return f_aRefValue[i].get();
+            }
+
+        /**
+         * @return true iff none of the values has been collected
+         */
+        boolean isAlive()
+            {
+            for (WeakReference<Object> ref : f_aRefValue)
+                {
+                if (ref.get() == null)
+                    {
+                    return false;
+                    }
+                }
+            return true;
+            }
+
+        private final WeakReference<Object>[] f_aRefValue;
+        }
+
+
+    // ----- constants and fields ------------------------------------------------------------------
+
+    /**
+     * The maximum number of distinct keys before the cache becomes megamorphic.
+     */
+    public static final int MAX_ENTRIES = 4;
+
+    /**
+     * Indicates whether the hit/miss statistics should be collected.
+     */
+    private static final boolean COLLECT_STATS = Boolean.getBoolean("xvm.inlineCache.stats");
+
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private static final LongAdder s_cHits        = new LongAdder();
+    private static final LongAdder s_cMisses      = new LongAdder();
+    private static final LongAdder s_cMegamorphic = new LongAdder();
+
+    /**
+     * The cache entries; never modified in place.
+     */
+    private volatile Entry[] m_aEntry = NO_ENTRIES;
+
+    /**
+     * Set to true once the cache has seen too many distinct keys.
+     */
+    private volatile boolean m_fMegamorphic;
+    }
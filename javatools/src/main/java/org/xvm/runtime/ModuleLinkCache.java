@@ -0,0 +1,351 @@
+package org.xvm.runtime;
+
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.FileStructure;
+
+import org.xvm.util.Hasher;
+import org.xvm.util.WeakHasherMap;
+
+
+/**
+ * A cache of linked FileStructures for nested containers.
+ * <p/>
+ * Linking a module for a nested container is expensive: the module is merged with the system
+ * modules into a new FileStructure, the dependent modules are loaded and merged, and then, as the
+ * container runs, the TypeInfos and call chains for all the types it uses are built in the new
+ * ConstantPool. When the same module is repeatedly loaded into short-lived containers, all that
+ * work can be reused.
+ * <p/>
+ * A linked FileStructure can't be used by more than one container at a time, since the constants
+ * of its pool hold the container-specific run-time state (e.g. the singleton values). Instead, the
+ * structure is leased: when a container that was created from a cache entry is killed, the
+ * run-time state of its constants and ops is {@link FileStructure#resetRuntimeState() reset}, and
+ * the structure, with all its warmed TypeInfos, is returned to the cache to be {@link #take taken}
+ * by the next container for the same module bytes, parent container and repository.
+ * <p/>
+ * The idle structures are evicted in the least-recently-used order to keep the estimated size of
+ * the cache within a memory budget, which is specified (in bytes) by the "xvm.linkCache.budget"
+ * system property; zero turns the cache off.
+ */
+public class ModuleLinkCache
+    {
+    /**
+     * Construct a cache with the default budget.
+     */
+    public ModuleLinkCache()
+        {
+        this(Long.getLong("xvm.linkCache.budget", DEFAULT_BUDGET));
+        }
+
+    /**
+     * Construct a cache with the specified budget.
+     *
+     * @param cbBudget  the maximum estimated size of the idle structures in bytes
+     */
+    public ModuleLinkCache(long cbBudget)
+        {
+        f_cbBudget = cbBudget;
+        }
+
+
+    // ----- ModuleLinkCache API -------------------------------------------------------------------
+
+    /**
+     * @return true iff the cache is enabled
+     */
+    public boolean isEnabled()
+        {
+        return f_cbBudget > 0;
+        }
+
+    /**
+     * Record the content hash of a FileStructure that was loaded from the specified bytes, so the
+     * hash doesn't need to be computed by serializing the structure.
+     *
+     * @param file        the file structure
+     * @param abContents  the bytes the structure was loaded from
+     */
+    public void recordContents(FileStructure file, byte[] abContents)
+        {
+        if (isEnabled())
+            {
+            String sHash = hash(abContents);
+            synchronized (f_mapHashes)
+                {
+                f_mapHashes.put(file, sHash);
+                }
+            }
+        }
+
+    /**
+     * Create a cache key for linking the specified (not yet linked) module file.
+     *
+     * @param containerParent  the container that links the module
+     * @param file             the module's file structure
+     * @param oRepository      the repository used for linking (compared by identity)
+     *
+     * @return the key or null if the cache is disabled or the hash can't be computed
+     */
+    public Key makeKey(Container containerParent, FileStructure file, Object oRepository)
+        {
+        if (!isEnabled())
+            {
+            return null;
+            }
+
+        String sHash;
+        synchronized (f_mapHashes)
+            {
+            sHash = f_mapHashes.get(file);
+            }
+
+        if (sHash == null)
+            {
+            try
+                {
+                MessageDigest digest = MessageDigest.getInstance(DIGEST);
+                file.writeTo(new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+                sHash = HexFormat.of().formatHex(digest.digest());
+                }
+            catch (IOException | NoSuchAlgorithmException e)
+                {
+                return null;
+                }
+
+            synchronized (f_mapHashes)
+                {
+                f_mapHashes.put(file, sHash);
+                }
+            }
+
+        return new Key(containerParent, sHash, oRepository);
+        }
+
+    /**
+     * Take an idle linked structure for the specified key.
+     *
+     * @param key  the key
+     *
+     * @return a linked file structure or null if none is available
+     */
+    public synchronized FileStructure take(Key key)
+        {
+        Entry entry = f_mapEntries.get(key);
+        if (entry == null || entry.dequeIdle.isEmpty())
+            {
+            m_cMisses++;
+            return null;
+            }
+
+        FileStructure file = entry.dequeIdle.pollFirst();
+        m_cbIdle -= entry.cbSize;
+        if (entry.dequeIdle.isEmpty())
+            {
+            f_mapEntries.remove(key);
+            }
+        m_cHits++;
+        return file;
+        }
+
+    /**
+     * Return a linked structure that is no longer used by its container to the cache.
+     *
+     * @param key   the key the structure was linked for
+     * @param file  the linked file structure
+     */
+    public void release(Key key, FileStructure file)
+        {
+        if (!isEnabled())
+            {
+            return;
+            }
+
+        file.resetRuntimeState();
+
+        ConstantPool pool = file.getConstantPool();
+
+        long cbSize = pool.size() * CONSTANT_SIZE;
+        synchronized (this)
+            {
+            Entry entry = f_mapEntries.computeIfAbsent(key, k -> new Entry(cbSize));
+            entry.dequeIdle.addFirst(file);
+            m_cbIdle += cbSize;
+
+            // evict the least recently used structures
+            for (Iterator<Entry> iter = f_mapEntries.values().iterator();
+                    m_cbIdle > f_cbBudget && iter.hasNext(); )
+                {
+                Entry entryLRU = iter.next();
+                while (m_cbIdle > f_cbBudget && !entryLRU.dequeIdle.isEmpty())
+                    {
+                    entryLRU.dequeIdle.pollLast();
+                    m_cbIdle -= entryLRU.cbSize;
+                    m_cEvictions++;
+                    }
+                if (entryLRU.dequeIdle.isEmpty())
+                    {
+                    iter.remove();
+                    }
+                }
+            }
+        }
+
+    /**
+     * Discard all the structures linked by the specified container.
+     *
+     * @param containerParent  the (dead) container
+     */
+    public synchronized void purge(Container containerParent)
+        {
+        for (Iterator<Map.Entry<Key, Entry>> iter = f_mapEntries.entrySet().iterator();
+                iter.hasNext(); )
+            {
+            Map.Entry<Key, Entry> entry = iter.next();
+            if (entry.getKey().containerParent == containerParent)
+                {
+                m_cbIdle -= entry.getValue().cbSize * entry.getValue().dequeIdle.size();
+                iter.remove();
+                }
+            }
+        }
+
+    /**
+     * @return the estimated size of the idle structures
+     */
+    public synchronized long getIdleByteCount()
+        {
+        return m_cbIdle;
+        }
+
+    @Override
+    public synchronized String toString()
+        {
+        return "ModuleLinkCache{hits=" + m_cHits + ", misses=" + m_cMisses +
+                ", evictions=" + m_cEvictions + ", idleBytes=" + m_cbIdle + '}';
+        }
+
+    /**
+     * @return the hex representation of the content hash of the specified bytes
+     */
+    private static String hash(byte[] ab)
+        {
+        try
+            {
+            return HexFormat.of().formatHex(MessageDigest.getInstance(DIGEST).digest(ab));
+            }
+        catch (NoSuchAlgorithmException e)
+            {
+            throw new IllegalStateException(e);
+            }
+        }
+
+
+    // ----- Key and Entry -------------------------------------------------------------------------
+
+    /**
+     * The cache key: the module content hash, the linking container and the repository.
+     *
+     * @param containerParent  the container that links the module
+     * @param sHash            the module's content hash
+     * @param oRepository      the repository (compared by identity)
+     */
+    public record Key(Container containerParent, String sHash, Object oRepository)
+        {
+        @Override
+        public boolean equals(Object obj)
+            {
+            return obj instanceof Key that
+                    && this.containerParent == that.containerParent
+                    && this.oRepository     == that.oRepository
+                    && this.sHash.equals(that.sHash);
+            }
+
+        @Override
+        public int hashCode()
+            {
+            return sHash.hashCode() ^ System.identityHashCode(containerParent);
+            }
+        }
+
+    /**
+     * The idle structures for a key.
+     */
+    private static class Entry
+        {
+        Entry(long cbSize)
+            {
+            this.cbSize = cbSize;
+            }
+
+        /**
+         * The estimated size of a structure.
+         */
+        final long cbSize;
+
+        /**
+         * The idle structures; the most recently released first.
+         */
+        final Deque<FileStructure> dequeIdle = new ArrayDeque<>();
+        }
+
+
+    // ----- constants and data fields -------------------------------------------------------------
+
+    /**
+     * The content hash algorithm.
+     */
+    private static final String DIGEST = "SHA-256";
+
+    /**
+     * The default budget.
+     */
+    private static final long DEFAULT_BUDGET = 256L * 1024 * 1024;
+
+    /**
+     * The estimated size of a constant together with the structures and TypeInfos that refer to
+     * it.
+     */
+    private static final long CONSTANT_SIZE = 512;
+
+    /**
+     * The budget.
+     */
+    private final long f_cbBudget;
+
+    /**
+     * The content hashes of the loaded file structures.
+     */
+    private final Map<FileStructure, String> f_mapHashes = new WeakHasherMap<>(Hasher.identity());
+
+    /**
+     * The entries in the least-recently-used order.
+     */
+    private final LinkedHashMap<Key, Entry> f_mapEntries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The estimated size of the idle structures.
+     */
+    private long m_cbIdle;
+
+    /**
+     * Statistics.
+     */
+    private long m_cHits;
+    private long m_cMisses;
+    private long m_cEvictions;
+    }
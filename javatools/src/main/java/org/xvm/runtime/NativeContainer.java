@@ -110,6 +110,8 @@ public class NativeContainer
 
     private ConstantPool loadNativeTemplates()
         {
+        f_repository.preloadModules(List.of(ECSTASY_MODULE, TURTLE_MODULE, NATIVE_MODULE));
+
         ModuleStructure moduleRoot   = f_repository.loadModule(ECSTASY_MODULE);
         ModuleStructure moduleTurtle = f_repository.loadModule(TURTLE_MODULE);
         ModuleStructure moduleNative = f_repository.loadModule(NATIVE_MODULE);
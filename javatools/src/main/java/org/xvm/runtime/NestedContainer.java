@@ -43,8 +43,9 @@ public class NestedContainer
         {
         super(containerParent.f_runtime, containerParent, idModule);
 
-        f_hProvider  = hProvider;
-        f_listShared = listShared;
+        f_hProvider   = hProvider;
+        f_listShared  = listShared;
+        f_heapObjects = ObjectHeap.create();
         }
 
 
@@ -63,6 +64,23 @@ public class NestedContainer
         return setInjections;
         }
 
+    /**
+     * @return the key of the {@link ModuleLinkCache} entry this container's module was linked for;
+     *         null if the linked module is not cacheable
+     */
+    public ModuleLinkCache.Key getLinkKey()
+        {
+        return m_keyLink;
+        }
+
+    /**
+     * Specify the key of the {@link ModuleLinkCache} entry this container's module was linked for.
+     */
+    public void setLinkKey(ModuleLinkCache.Key key)
+        {
+        m_keyLink = key;
+        }
+
     /**
      * Add a natural resource supplier for an injection.
      *
@@ -146,6 +164,12 @@ public class NestedContainer
                 : supplier.supply(frame, hOpts);
         }
 
+    @Override
+    public ObjectHeap getObjectHeap()
+        {
+        return f_heapObjects;
+        }
+
     @Override
     public boolean isShared(ModuleConstant idModule)
         {
@@ -172,4 +196,14 @@ public class NestedContainer
      * (See annotations.InjectRef and mgmt.ResourceProvider.DynamicResource natural sources.)
      */
     private final Map<InjectionKey, InjectionSupplier> f_mapResources = new HashMap<>();
+
+    /**
+     * The heap of objects allocated by this container (optional).
+     */
+    private final ObjectHeap f_heapObjects;
+
+    /**
+     * The link cache key (optional).
+     */
+    private ModuleLinkCache.Key m_keyLink;
     }
\ No newline at end of file
@@ -11,6 +11,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.xvm.asm.Constant;
+import org.xvm.asm.ConstantPool;
 import org.xvm.asm.Constants;
 import org.xvm.asm.Op;
 
@@ -274,6 +275,38 @@ public abstract class ObjectHandle
         return true;
         }
 
+    /**
+     * Remember that an "isShared" check, which has started with a null "visited" map, has
+     * succeeded. Since a single non-shared object fails the entire check, all the visited immutable
+     * objects are known to be shared with the specified container's type system, so the subsequent
+     * checks against the same type system don't need to walk their object graphs again.
+     *
+     * @param container   the "receiving" container
+     * @param mapVisited  the identity hash map of visited objects
+     */
+    protected static void markShared(Container container, Map<ObjectHandle, Boolean> mapVisited)
+        {
+        ConstantPool pool = container.getConstantPool();
+        for (ObjectHandle hValue : mapVisited.keySet())
+            {
+            if (!hValue.isMutable())
+                {
+                hValue.setSharedPool(pool);
+                }
+            }
+        }
+
+    /**
+     * Remember that the content of this immutable handle is shared with the type system
+     * represented by the specified ConstantPool. Only the handles that walk their object graphs
+     * in {@link #isShared} need to remember it.
+     *
+     * @param pool  the ConstantPool of the "receiving" container
+     */
+    protected void setSharedPool(ConstantPool pool)
+        {
+        }
+
     /**
      * @return true iff the handle is a non-constant object for which all method invocations
      *         and properties access need to be proxied across service boundaries
@@ -683,35 +716,58 @@ public abstract class ObjectHandle
         @Override
         public boolean isShared(Container container, Map<ObjectHandle, Boolean> mapVisited)
             {
+            ConstantPool pool = container.getConstantPool();
             TypeConstant type = getType();
-            if (!type.isShared(container.getConstantPool()))
+            if (!type.isShared(pool))
                 {
                 return false;
                 }
 
-            if (isService())
+            if (isService() || m_oSharedPool == pool.getIdentityToken())
                 {
                 return true;
                 }
 
-            if (mapVisited == null)
+            boolean fTop = mapVisited == null;
+            if (fTop)
                 {
                 mapVisited = new IdentityHashMap<>();
                 }
 
-            if (mapVisited.put(this, Boolean.TRUE) != null ||
-                    areShared(m_aFields, container, mapVisited))
+            if (mapVisited.put(this, Boolean.TRUE) != null)
+                {
+                return true;
+                }
+
+            if (areShared(m_aFields, container, mapVisited))
                 {
+                if (fTop)
+                    {
+                    markShared(container, mapVisited);
+                    }
                 return true;
                 }
             return false;
             }
 
+        @Override
+        protected void setSharedPool(ConstantPool pool)
+            {
+            m_oSharedPool = pool.getIdentityToken();
+            }
+
         /**
          * The array of field values indexed according to the ClassComposition's field layout.
          */
         private final ObjectHandle[] m_aFields;
 
+        /**
+         * The identity token of the type system (see {@link ConstantPool#getIdentityToken}) that all
+         * the field values of this immutable object are known to be shared with (optional); unlike
+         * the ConstantPool itself, the token doesn't keep a dead container's type system reachable.
+         */
+        private Object m_oSharedPool;
+
         /**
          * The "m_owner" field is most commonly not set, unless this object is a service, a module,
          * was injected or explicitly "masked as".
@@ -0,0 +1,214 @@
+package org.xvm.runtime;
+
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.xvm.runtime.ObjectHandle.GenericHandle;
+
+import org.xvm.util.ShallowSizeOf;
+
+
+/**
+ * The allocation budget of a nested Container.
+ * <p/>
+ * Every object constructed within a container that has a heap, as well as every array and string
+ * created by the container's services, is accounted for by the heap, which enforces the
+ * container's memory ceiling. The heap is just a counter: the handles remain regular Java objects
+ * that are reclaimed by the JVM's collector, and the heap doesn't track which of them are still
+ * reachable. As a result, the counted storage is never released, and the limit applies to all the
+ * storage the container has allocated over its lifetime.
+ * <p/>
+ * The objects constructed by a {@link ClassTemplate} are accounted for before the construction,
+ * which fails with an "OutOfMemory" exception if the limit is exceeded. The arrays and strings are
+ * created by the native code that has no way to fail the allocation; their storage is always
+ * accounted for, and the heap records that the limit has been exceeded, which is reported to the
+ * container's code by the service's {@link ServiceContext#execute execution loop}.
+ * <p/>
+ * Killing the container {@link #close() closes} the heap, which simply drops the counter.
+ * <p/>
+ * Object heaps are turned off by default; they are enabled by specifying the limit (in bytes) via
+ * the "xvm.containerHeap.hardLimit" system property.
+ */
+public class ObjectHeap
+    {
+    /**
+     * Create an object heap with the specified limit.
+     *
+     * @param cbLimit  the maximum allowable byte size
+     */
+    public ObjectHeap(long cbLimit)
+        {
+        f_cbLimit = cbLimit;
+        }
+
+    /**
+     * @return a new object heap if the container heaps are enabled; null otherwise
+     */
+    public static ObjectHeap create()
+        {
+        return HARD_LIMIT <= 0 ? null : new ObjectHeap(HARD_LIMIT);
+        }
+
+    /**
+     * @return the heap of the container the current thread executes on behalf of; null if the
+     *         container heaps are disabled or the container doesn't have a heap
+     */
+    public static ObjectHeap current()
+        {
+        if (HARD_LIMIT <= 0)
+            {
+            return null;
+            }
+
+        ServiceContext ctx = ServiceContext.getCurrentContext();
+        return ctx == null ? null : ctx.f_container.getObjectHeap();
+        }
+
+
+    // ----- ObjectHeap API ------------------------------------------------------------------------
+
+    /**
+     * Account for a newly created object.
+     *
+     * @param hStruct  the struct handle of the new object
+     *
+     * @return false iff the allocation would exceed the heap's limit
+     */
+    public boolean allocate(GenericHandle hStruct)
+        {
+        ObjectHandle[] aFields = hStruct.getFields();
+        return aFields == null || allocate(getByteSize(aFields.length));
+        }
+
+    /**
+     * Account for the specified number of bytes unless that would exceed the limit.
+     *
+     * @param cb  the storage size in bytes
+     *
+     * @return false iff the allocation would exceed the heap's limit
+     */
+    public boolean allocate(long cb)
+        {
+        if (m_fClosed)
+            {
+            // the container is being torn down
+            return true;
+            }
+
+        AtomicLong atomicBytes = f_atomicBytes;
+        while (true)
+            {
+            long cbOld = atomicBytes.get();
+            long cbNew = cbOld + cb;
+            if (cbNew > f_cbLimit)
+                {
+                return false;
+                }
+            if (atomicBytes.compareAndSet(cbOld, cbNew))
+                {
+                return true;
+                }
+            }
+        }
+
+    /**
+     * Account for the storage of an already existing object. Unlike the {@link #allocate
+     * allocation}, this always succeeds; if the heap's limit is exceeded, the heap records that
+     * fact, which is reported by the next call to {@link #checkExceeded}.
+     *
+     * @param cb  the storage size in bytes
+     */
+    public void charge(long cb)
+        {
+        if (!m_fClosed && f_atomicBytes.addAndGet(cb) > f_cbLimit)
+            {
+            m_fExceeded = true;
+            }
+        }
+
+    /**
+     * Check whether any {@link #charge charged} storage has exceeded the limit since the last
+     * call to this method.
+     *
+     * @return true iff the limit has been exceeded
+     */
+    public boolean checkExceeded()
+        {
+        if (m_fExceeded)
+            {
+            m_fExceeded = false;
+            return true;
+            }
+        return false;
+        }
+
+    /**
+     * @return the number of bytes accounted for by this heap
+     */
+    public long getByteCount()
+        {
+        return f_atomicBytes.get();
+        }
+
+    /**
+     * @return the maximum number of bytes this heap can account for
+     */
+    public long getByteLimit()
+        {
+        return f_cbLimit;
+        }
+
+    /**
+     * Tear down the heap; any objects that are created after this call are not accounted for.
+     */
+    public void close()
+        {
+        m_fClosed = true;
+        f_atomicBytes.set(0);
+        }
+
+    /**
+     * Estimate the storage size of an object.
+     *
+     * @param cFields  the number of the object's fields
+     *
+     * @return the estimated size of the object and its field array in bytes
+     */
+    public static long getByteSize(int cFields)
+        {
+        return OBJECT_SIZE + ShallowSizeOf.arrayOf(Object.class, cFields);
+        }
+
+
+    // ----- constants and data fields -------------------------------------------------------------
+
+    /**
+     * The limit for the nested container heaps; zero or negative if the heaps are disabled.
+     */
+    private static final long HARD_LIMIT = Long.getLong("xvm.containerHeap.hardLimit", 0L);
+
+    /**
+     * The estimated size of a GenericHandle itself.
+     */
+    private static final long OBJECT_SIZE = ShallowSizeOf.instanceOf(GenericHandle.class);
+
+    /**
+     * The maximum allowable byte size.
+     */
+    private final long f_cbLimit;
+
+    /**
+     * The number of bytes accounted for.
+     */
+    private final AtomicLong f_atomicBytes = new AtomicLong();
+
+    /**
+     * True iff the heap has been closed.
+     */
+    private volatile boolean m_fClosed;
+
+    /**
+     * True iff some charged storage has exceeded the limit.
+     */
+    private volatile boolean m_fExceeded;
+    }
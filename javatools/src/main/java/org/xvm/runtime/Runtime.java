@@ -30,18 +30,7 @@ public class Runtime
             parallelism = java.lang.Runtime.getRuntime().availableProcessors();
             }
 
-        ThreadGroup groupXVM = new ThreadGroup("XVM");
-        ThreadFactory factoryXVM = r ->
-            {
-            Thread thread = new Thread(groupXVM, r);
-            thread.setDaemon(true);
-            thread.setName("XvmWorker@" + thread.hashCode());
-            return thread;
-            };
-
-        // TODO: replace with a fair scheduling based ExecutorService
-        f_executorXVM = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.SECONDS,
-                new ConcurrentLinkedBlockingQueue<>(), factoryXVM);
+        f_executorXVM = new Scheduler("XvmWorker", parallelism, new ThreadGroup("XVM"));
 
         ThreadGroup groupIO = new ThreadGroup("IO");
         ThreadFactory factoryIO = r ->
@@ -54,6 +43,8 @@ public class Runtime
 
         f_executorIO = new ThreadPoolExecutor(parallelism, 1024, 0, TimeUnit.SECONDS,
                 new ConcurrentLinkedBlockingQueue<>(), factoryIO);
+
+        f_monitor = ContainerMonitor.start(this);
         }
 
     public void start()
@@ -61,7 +52,7 @@ public class Runtime
         }
 
     /**
-     * Register the specified container (used only for debugging)
+     * Register the specified container (used for debugging and monitoring)
      */
     public void registerContainer(Container container)
         {
@@ -72,7 +63,18 @@ public class Runtime
         }
 
     /**
-     * @return a set of Container objects (used only for debugging)
+     * Unregister the specified (dead) container.
+     */
+    public void unregisterContainer(Container container)
+        {
+        synchronized (f_containers)
+            {
+            f_containers.remove(container);
+            }
+        }
+
+    /**
+     * @return a set of Container objects (used for debugging and monitoring)
      */
     public Set<Container> containers()
         {
@@ -97,14 +99,31 @@ public class Runtime
         return null;
         }
 
+    /**
+     * @return the cache of the linked modules for nested containers
+     */
+    public ModuleLinkCache getLinkCache()
+        {
+        return f_cacheLink;
+        }
+
+    /**
+     * @return the pool of the prepared nested containers
+     */
+    public ContainerPool getContainerPool()
+        {
+        return f_poolContainers;
+        }
+
     /**
      * Submit ServiceContext work for eventual processing by the runtime.
      *
-     * @param task the task to process
+     * @param service the service the work is for
+     * @param task    the task to process
      */
-    protected void submitService(Runnable task)
+    protected void submitService(ServiceContext service, Runnable task)
         {
-        f_executorXVM.submit(task);
+        f_executorXVM.submit(task, service);
         m_lastXvmSubmitNanos = System.nanoTime();
         }
 
@@ -130,6 +149,11 @@ public class Runtime
         {
         f_executorIO .shutdown();
         f_executorXVM.shutdown();
+
+        if (f_monitor != null)
+            {
+            f_monitor.stop();
+            }
         }
 
     public boolean isIdle()
@@ -153,9 +177,9 @@ public class Runtime
     // ----- constants and fields ------------------------------------------------------------------
 
     /**
-     * The executor for XVM services.
+     * The scheduler for XVM services.
      */
-    public final ThreadPoolExecutor f_executorXVM;
+    public final Scheduler f_executorXVM;
 
     /**
      * The executor for XVM services.
@@ -163,10 +187,25 @@ public class Runtime
     public final ThreadPoolExecutor f_executorIO;
 
     /**
-     * The set of containers (stored as a Map with no values); used only for debugging.
+     * The set of containers (stored as a Map with no values); used for debugging and monitoring.
      */
     private final Map<Container, Object> f_containers = new WeakHashMap<>();
 
+    /**
+     * The container monitor; null if the monitoring is disabled.
+     */
+    private final ContainerMonitor f_monitor;
+
+    /**
+     * The cache of the linked modules for nested containers.
+     */
+    private final ModuleLinkCache f_cacheLink = new ModuleLinkCache();
+
+    /**
+     * The pool of the prepared nested containers.
+     */
+    private final ContainerPool f_poolContainers = new ContainerPool();
+
     /**
      * A unique id producer.
      */
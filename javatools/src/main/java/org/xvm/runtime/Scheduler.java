@@ -0,0 +1,473 @@
+package org.xvm.runtime;
+
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import java.util.concurrent.locks.LockSupport;
+
+
+/**
+ * A work-stealing scheduler for the ServiceContext processing.
+ * <p/>
+ * Every worker thread owns a deque of tasks; the tasks are taken from the head of the deque by the
+ * owner and from the tail by the idle workers that "steal" them. Since there is no single shared
+ * queue, the workers don't contend on a common lock.
+ * <p/>
+ * A task submitted for a service is placed into the deque of the worker that last ran that service
+ * (the "affinity"), so the service's frames and handles are likely to still be in that worker's
+ * CPU caches. If that worker is busy and another worker is idle, the idle worker is woken up, so it
+ * can steal the task.
+ * <p/>
+ * To maintain fairness across containers, a worker keeps running the tasks of the same
+ * container until that container's virtual runtime (see {@link CpuShare}) advances by a
+ * {@link #QUANTUM_NANOS quantum}; at that point, if its deque holds any tasks of other containers,
+ * it runs the task of the container with the least virtual runtime next. Since the virtual runtime
+ * advances slower for the containers with more shares, they get proportionally longer turns. The
+ * scheduler also tells the {@link CpuShare} when a container becomes runnable or idle, so a
+ * container that wakes up doesn't get to run based on a stale virtual runtime.
+ */
+public class Scheduler
+        implements Executor
+    {
+    /**
+     * Construct and start the scheduler.
+     *
+     * @param sName     the name prefix for the worker threads
+     * @param cWorkers  the number of worker threads
+     * @param group     the thread group for the worker threads
+     */
+    public Scheduler(String sName, int cWorkers, ThreadGroup group)
+        {
+        assert cWorkers > 0;
+
+        Worker[] aWorker = new Worker[cWorkers];
+        for (int i = 0; i < cWorkers; i++)
+            {
+            Worker worker = aWorker[i] = new Worker(group, i);
+            worker.setDaemon(true);
+            worker.setName(sName + '@' + worker.hashCode());
+            }
+        f_aWorker = aWorker;
+
+        for (Worker worker : aWorker)
+            {
+            worker.start();
+            }
+        }
+
+    /**
+     * Submit a task for the specified service.
+     *
+     * @param task     the task to run
+     * @param service  the service the task is for (optional)
+     */
+    public void submit(Runnable task, ServiceContext service)
+        {
+        if (m_fShutdown)
+            {
+            throw new RejectedExecutionException("Scheduler is shut down");
+            }
+
+        Worker[] aWorker = f_aWorker;
+        Worker   worker  = null;
+        if (service != null)
+            {
+            int iWorker = service.m_iWorker;
+            if (iWorker >= 0)
+                {
+                worker = aWorker[iWorker];
+                }
+            }
+
+        if (worker == null)
+            {
+            worker = Thread.currentThread() instanceof Worker workerCurrent &&
+                     workerCurrent.getScheduler() == this
+                    ? workerCurrent
+                    : aWorker[Math.floorMod(m_nNext++, aWorker.length)];
+            }
+
+        Task taskNew = new Task(task, service);
+        if (taskNew.f_container != null)
+            {
+            taskNew.f_container.getCpuShare().taskSubmitted();
+            }
+        worker.f_deque.offerLast(taskNew);
+
+        if (worker.m_fParked)
+            {
+            LockSupport.unpark(worker);
+            }
+        else if (f_cIdle.get() > 0)
+            {
+            // the target worker is busy; let an idle one steal the task
+            wakeIdleWorker();
+            }
+        }
+
+    @Override
+    public void execute(Runnable task)
+        {
+        submit(task, null);
+        }
+
+    /**
+     * Check whether there are any tasks waiting for a worker. This is used by the running services
+     * to decide whether they should yield at the end of their execution slices.
+     *
+     * @return true iff all the workers are busy and there are some tasks waiting
+     */
+    public boolean isBacklogged()
+        {
+        return f_cIdle.get() == 0 && hasWork();
+        }
+
+    /**
+     * @return the number of workers that are currently running tasks
+     */
+    public int getActiveCount()
+        {
+        return f_cActive.get();
+        }
+
+    /**
+     * @return the number of worker threads
+     */
+    public int getWorkerCount()
+        {
+        return f_aWorker.length;
+        }
+
+    /**
+     * Initiate an orderly shutdown: the tasks that are already submitted are run, but no new tasks
+     * are accepted.
+     */
+    public void shutdown()
+        {
+        m_fShutdown = true;
+        for (Worker worker : f_aWorker)
+            {
+            LockSupport.unpark(worker);
+            }
+        }
+
+    /**
+     * @return true iff the scheduler has been shut down
+     */
+    public boolean isShutdown()
+        {
+        return m_fShutdown;
+        }
+
+    /**
+     * Wake up one of the idle workers (if any).
+     */
+    private void wakeIdleWorker()
+        {
+        for (Worker worker : f_aWorker)
+            {
+            if (worker.m_fParked)
+                {
+                LockSupport.unpark(worker);
+                return;
+                }
+            }
+        }
+
+    /**
+     * @return true iff any worker has a task to run
+     */
+    private boolean hasWork()
+        {
+        for (Worker worker : f_aWorker)
+            {
+            if (!worker.f_deque.isEmpty())
+                {
+                return true;
+                }
+            }
+        return false;
+        }
+
+
+    // ----- Task ----------------------------------------------------------------------------------
+
+    /**
+     * A submitted task.
+     */
+    private static final class Task
+        {
+        Task(Runnable runnable, ServiceContext service)
+            {
+            f_runnable  = runnable;
+            f_service   = service;
+            f_container = service == null ? null : service.f_container;
+            }
+
+        final Runnable       f_runnable;
+        final ServiceContext f_service;
+        final Container      f_container;
+        }
+
+
+    // ----- Worker --------------------------------------------------------------------------------
+
+    /**
+     * A worker thread.
+     */
+    private final class Worker
+            extends Thread
+        {
+        Worker(ThreadGroup group, int nIndex)
+            {
+            super(group, (Runnable) null);
+
+            f_nIndex = nIndex;
+            }
+
+        Scheduler getScheduler()
+            {
+            return Scheduler.this;
+            }
+
+        @Override
+        public void run()
+            {
+            while (true)
+                {
+                Task task = pollLocal();
+                if (task == null)
+                    {
+                    task = steal();
+                    }
+
+                if (task == null)
+                    {
+                    if (m_fShutdown && !hasWork())
+                        {
+                        return;
+                        }
+                    idle();
+                    continue;
+                    }
+
+                ServiceContext service = task.f_service;
+                if (service != null)
+                    {
+                    service.m_iWorker = f_nIndex;
+                    }
+
+                f_cActive.incrementAndGet();
+                try
+                    {
+                    task.f_runnable.run();
+                    }
+                catch (Throwable e)
+                    {
+                    // must not happen; the tasks are expected to handle their own exceptions
+                    System.err.println("Unhandled exception in " + getName());
+                    e.printStackTrace(System.err);
+                    }
+                finally
+                    {
+                    f_cActive.decrementAndGet();
+
+                    Container container = task.f_container;
+                    if (container != null)
+                        {
+                        container.getCpuShare().taskCompleted();
+                        }
+                    }
+                }
+            }
+
+        /**
+         * @return the next task from this worker's deque or null
+         */
+        private Task pollLocal()
+            {
+            ConcurrentLinkedDeque<Task> deque = f_deque;
+
+            Task task = deque.pollFirst();
+            if (task == null)
+                {
+                return null;
+                }
+
+            Container container = task.f_container;
+            if (container == null)
+                {
+                return task;
+                }
+
+            long lVirtual = container.getCpuShare().getVirtualRuntime();
+            if (container != m_containerLast)
+                {
+                m_containerLast = container;
+                m_lVirtualStart  = lVirtual;
+                return task;
+                }
+
+            if (lVirtual - m_lVirtualStart < QUANTUM_NANOS)
+                {
+                return task;
+                }
+
+            // the current container has used up its quantum; give the container with the least
+            // virtual runtime a chance
+            Task taskNext    = null;
+            long lVirtualMin = Long.MAX_VALUE;
+            int  cScan       = 0;
+            for (Task taskOther : deque)
+                {
+                Container containerOther = taskOther.f_container;
+                if (containerOther != null && containerOther != container)
+                    {
+                    long lVirtualOther = containerOther.getCpuShare().getVirtualRuntime();
+                    if (lVirtualOther < lVirtualMin)
+                        {
+                        taskNext    = taskOther;
+                        lVirtualMin = lVirtualOther;
+                        }
+                    }
+
+                if (++cScan >= SCAN_LIMIT)
+                    {
+                    break;
+                    }
+                }
+
+            if (taskNext != null && deque.removeFirstOccurrence(taskNext))
+                {
+                deque.offerLast(task);
+                m_containerLast = taskNext.f_container;
+                m_lVirtualStart  = lVirtualMin;
+                return taskNext;
+                }
+
+            m_lVirtualStart = lVirtual;
+            return task;
+            }
+
+        /**
+         * @return a task stolen from another worker's deque or null
+         */
+        private Task steal()
+            {
+            Worker[] aWorker = f_aWorker;
+            int      cWorker = aWorker.length;
+            int      iStart  = ThreadLocalRandom.current().nextInt(cWorker);
+            for (int i = 0; i < cWorker; i++)
+                {
+                Worker victim = aWorker[(iStart + i) % cWorker];
+                if (victim != this)
+                    {
+                    Task task = victim.f_deque.pollLast();
+                    if (task != null)
+                        {
+                        return task;
+                        }
+                    }
+                }
+            return null;
+            }
+
+        /**
+         * Park this worker until there is some work.
+         */
+        private void idle()
+            {
+            m_fParked = true;
+            f_cIdle.incrementAndGet();
+            try
+                {
+                // re-check after publishing the "parked" flag, so a concurrent submission is
+                // either seen here or unparks this worker
+                if (!hasWork() && !m_fShutdown)
+                    {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                    }
+                }
+            finally
+                {
+                f_cIdle.decrementAndGet();
+                m_fParked = false;
+                }
+            }
+
+        /**
+         * The index of this worker.
+         */
+        private final int f_nIndex;
+
+        /**
+         * The tasks.
+         */
+        private final ConcurrentLinkedDeque<Task> f_deque = new ConcurrentLinkedDeque<>();
+
+        /**
+         * True while the worker is (about to be) parked.
+         */
+        private volatile boolean m_fParked;
+
+        /**
+         * The container of the last task run by this worker.
+         */
+        private Container m_containerLast;
+
+        /**
+         * The virtual runtime of the last container at the time this worker switched to it.
+         */
+        private long m_lVirtualStart;
+        }
+
+
+    // ----- constants and fields ------------------------------------------------------------------
+
+    /**
+     * The virtual runtime a container gets to run for on a worker in a row before the worker gives
+     * other containers a chance.
+     */
+    public static final long QUANTUM_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    /**
+     * The maximum number of tasks to look at when searching for a task of a different container.
+     */
+    private static final int SCAN_LIMIT = 64;
+
+    /**
+     * The maximum park time for an idle worker; this is a safety net only.
+     */
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * The workers.
+     */
+    private final Worker[] f_aWorker;
+
+    /**
+     * The number of currently active workers.
+     */
+    private final AtomicInteger f_cActive = new AtomicInteger();
+
+    /**
+     * The number of currently idle workers.
+     */
+    private final AtomicInteger f_cIdle = new AtomicInteger();
+
+    /**
+     * The round-robin counter for the tasks without an affinity (a benign race).
+     */
+    private int m_nNext;
+
+    /**
+     * The shutdown flag.
+     */
+    private volatile boolean m_fShutdown;
+    }
@@ -10,13 +10,10 @@ import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
-import java.util.TimerTask;
 import java.util.WeakHashMap;
 
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentSkipListSet;
 
 import java.util.function.Supplier;
@@ -64,6 +61,7 @@ import org.xvm.runtime.template._native.reflect.xRTFunction.NativeFunctionHandle
 
 import org.xvm.runtime.template._native.temporal.xLocalClock;
 
+import org.xvm.util.concurrent.MpscChunkedQueue;
 import org.xvm.util.concurrent.VarHandles;
 
 
@@ -164,6 +162,7 @@ public class ServiceContext
         {
         m_fiberSyncOwner = fiber;
         m_synchronicity  = synchronicity;
+        f_queueSuspended.onSynchronicityChange();
         }
 
     /**
@@ -453,6 +452,8 @@ public class ServiceContext
         // more work, so we must reschedule on their behalf. Note if we're wrong and the contention
         // doesn't represent new work then the scheduled task will be a no-op and just come back here
         // to release again, and is thus safe.
+        // Note that the wake-ups for the fiber timeouts are not handled here; they are scheduled on
+        // the timer wheel by the fibers themselves (see Fiber.scheduleTimeout).
 
         long lLockPreState = m_lLockScheduling; // read lock state prior to isContended check
         if (isContended() || !SCHEDULING_LOCK_HANDLE.compareAndSet(this, lLockPreState, 0L))
@@ -460,24 +461,6 @@ public class ServiceContext
             // we've detected service or lock contention, reschedule
             f_container.schedule(this);
             }
-        else if (!f_setFibers.isEmpty())
-            {
-            // make sure to wake up for the nearest timeout
-            long ldtTimeout = Long.MAX_VALUE;
-            for (Fiber fiber : f_setFibers)
-                {
-                long ldtTimeoutFiber = fiber.getTimeoutStamp();
-                if (ldtTimeoutFiber > 0)
-                    {
-                    ldtTimeout = Math.min(ldtTimeout, ldtTimeoutFiber);
-                    }
-                }
-
-            if (ldtTimeout != Long.MAX_VALUE)
-                {
-                f_wakeUpScheduler.schedule(ldtTimeout);
-                }
-            }
         }
 
     /**
@@ -495,12 +478,20 @@ public class ServiceContext
         return isOverwhelmed();
         }
 
+    /**
+     * @return the number of requests pending for this service
+     */
+    public int getBacklogDepth()
+        {
+        return f_queueMsg.size() + f_queueSuspended.size();
+        }
+
     /**
      * @return true if the service has too many outstanding messages
      */
     public boolean isOverwhelmed()
         {
-        return f_queueMsg.size() + f_queueSuspended.size() > QUEUE_THRESHOLD;
+        return getBacklogDepth() > QUEUE_THRESHOLD;
         }
 
     /**
@@ -517,11 +508,18 @@ public class ServiceContext
      */
     private void processResponses()
         {
-        Response response;
-        while ((response = f_queueResponse.poll()) != null)
-            {
-            response.run();
-            }
+        f_queueResponse.drain(Response::run);
+        }
+
+    /**
+     * Notify the service that the specified waiting fiber may be ready to resume. This method can
+     * be called on any thread.
+     *
+     * @param fiber  the fiber that has been responded to or has timed out
+     */
+    protected void signalFiber(Fiber fiber)
+        {
+        f_queueSuspended.signal(fiber);
         }
 
     /**
@@ -539,11 +537,7 @@ public class ServiceContext
         // pickup all the messages, but keep them in the "initial" state
         FiberQueue qFiber = f_queueSuspended;
 
-        Message message;
-        while ((message = f_queueMsg.poll()) != null)
-            {
-            qFiber.add(message.createFrame(this));
-            }
+        f_queueMsg.drain(message -> qFiber.add(message.createFrame(this)));
 
         // allow initial timeouts to be processed always, since they won't run any natural code
         // TODO: return ?f_queueSuspended.getInitialTimeout();
@@ -616,8 +610,13 @@ public class ServiceContext
                 throw new IllegalStateException();
             }
 
-        Op[] aOp  = frame.f_aOp;
-        int  cOps = 0;
+        Op[]       aOp      = frame.f_aOp;
+        int        cOps     = 0;
+        CpuShare   share    = f_container.getCpuShare();
+        long       ldtStart = System.nanoTime();
+        long       cSlice   = share.getSliceNanos();
+        long       cMax     = share.getMaxSliceNanos();
+        ObjectHeap heap     = f_container.getObjectHeap();
 
     nextOp:
         while (true)
@@ -626,10 +625,26 @@ public class ServiceContext
                 {
                 frame.m_iPC = iPC;
 
-                if (++cOps > 1_000_000 && !isDebuggerActive())
+                if ((++cOps & SLICE_CHECK_MASK) == 0 && !isDebuggerActive())
                     {
-                    fiber.setStatus(FiberStatus.Paused, cOps);
-                    return frame;
+                    // yield if the slice is over and there is other work waiting, or if the
+                    // maximum slice (limited by the container's quota) is over
+                    long cElapsed = System.nanoTime() - ldtStart;
+                    if (cElapsed >= cMax ||
+                            cElapsed >= cSlice && f_container.f_runtime.f_executorXVM.isBacklogged())
+                        {
+                        fiber.setStatus(FiberStatus.Paused, cOps);
+                        return frame;
+                        }
+
+                    // the arrays and strings can't fail their allocations, so the container's
+                    // heap limit being exceeded by them is reported here
+                    if (heap != null && heap.checkExceeded())
+                        {
+                        iPC = frame.raiseException(xException.outOfMemory(frame,
+                                "Container heap limit exceeded: " + heap.getByteCount() + " bytes"));
+                        continue;
+                        }
                     }
 
                 try
@@ -809,7 +824,8 @@ public class ServiceContext
                     return frame;
 
                 case Op.R_BLOCK:
-                    frame.m_iPC = iPCLast + 1;
+                    // the blocking op may not be the one at iPCLast if it was a part of a fused op
+                    frame.m_iPC++;
                     fiber.setStatus(FiberStatus.Waiting, cOps);
                     return frame;
 
@@ -916,6 +932,7 @@ public class ServiceContext
         {
         Fiber fiber = new Fiber(this, msg);
         f_setFibers.add(fiber);
+        fiber.scheduleTimeout();
         return fiber;
         }
 
@@ -934,6 +951,7 @@ public class ServiceContext
             // should it be an exception?
             m_fiberSyncOwner = null;
             m_synchronicity  = Synchronicity.Concurrent;
+            f_queueSuspended.onSynchronicityChange();
             }
 
         if (fiber.hasPendingRequests())
@@ -943,6 +961,7 @@ public class ServiceContext
         else
             {
             f_setFibers.remove(fiber);
+            fiber.cancelTimeout();
             }
         }
 
@@ -961,11 +980,7 @@ public class ServiceContext
             FiberQueue qFiber = f_queueSuspended;
 
             // process all outstanding messages
-            Message message;
-            while ((message = f_queueMsg.poll()) != null)
-                {
-                qFiber.add(message.createFrame(this));
-                }
+            f_queueMsg.drain(message -> qFiber.add(message.createFrame(this)));
 
             Set<Fiber> setFibers = f_setFibers;
             Fiber      fiberThis = frame == null ? null : frame.f_fiber;
@@ -983,6 +998,7 @@ public class ServiceContext
                     execute(frameNext);
 
                     setFibers.remove(fiber);
+                    fiber.cancelTimeout();
                     }
                 }
 
@@ -2260,45 +2276,6 @@ public class ServiceContext
             }
         }
 
-    /**
-     * The wake-up scheduler.
-     */
-    protected class WakeUpScheduler
-        {
-        protected void schedule(long ldtWakeUp)
-            {
-            long ldtNow = f_container.currentTimeMillis();
-            if (f_ldtScheduled > 0)
-                {
-                if (ldtNow <= f_ldtScheduled && f_ldtScheduled <= ldtWakeUp)
-                    {
-                    // the current wake up covers the new one; nothing to do
-                    return;
-                    }
-
-                if (ldtNow < f_ldtScheduled)
-                    {
-                    m_taskCurrent.cancel();
-                    }
-                }
-
-            f_ldtScheduled = ldtWakeUp;
-            m_taskCurrent  = new TimerTask()
-                {
-                public void run()
-                    {
-                    ensureScheduled(true); // don't use this thread - schedule async
-                    }
-                };
-
-            xLocalClock.TIMER.schedule(m_taskCurrent, Math.max(1, ldtWakeUp - ldtNow));
-            }
-
-        private long      f_ldtScheduled; // when
-        private TimerTask m_taskCurrent;  // what
-        }
-
-
     // ----- constants and fields ------------------------------------------------------------------
 
     /**
@@ -2311,6 +2288,12 @@ public class ServiceContext
      */
     public static final int QUEUE_THRESHOLD = 256;
 
+    /**
+     * The mask for the number of ops between the checks for the end of an execution slice (the
+     * checks are made every 1024 ops).
+     */
+    private static final int SLICE_CHECK_MASK = 0x3FF;
+
     /**
      * The container's ConstantPool.
      */
@@ -2359,12 +2342,12 @@ public class ServiceContext
     /**
      * The queue of incoming messages.
      */
-    private final Queue<Message> f_queueMsg = new ConcurrentLinkedQueue<>();
+    private final MpscChunkedQueue<Message> f_queueMsg = new MpscChunkedQueue<>();
 
     /**
      * The queue of message responses.
      */
-    private final Queue<Response> f_queueResponse = new ConcurrentLinkedQueue<>();
+    private final MpscChunkedQueue<Response> f_queueResponse = new MpscChunkedQueue<>();
 
     /**
      * The set of active fibers. It can be [read] accessed by outside threads.
@@ -2403,6 +2386,12 @@ public class ServiceContext
      */
     volatile long m_lLockScheduling;
 
+    /**
+     * The index of the {@link Scheduler} worker that last processed this context (-1 if none);
+     * used as a scheduling affinity hint only.
+     */
+    int m_iWorker = -1;
+
     /**
      * The current service status. Must be the same names as in natural Service.StatusIndicator.
      */
@@ -2442,9 +2431,4 @@ public class ServiceContext
      * A "service-local" cache for service callbacks.
      */
     private Map<Long, WeakCallback.Callback> m_mapCallbacks;
-
-    /**
-     * A wake-up scheduler to process registered timeouts.
-     */
-    private final WakeUpScheduler f_wakeUpScheduler = new WakeUpScheduler();
     }
\ No newline at end of file
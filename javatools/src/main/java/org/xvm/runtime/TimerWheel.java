@@ -0,0 +1,359 @@
+package org.xvm.runtime;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * A hashed timer wheel. Unlike {@link java.util.Timer}, which keeps its tasks in a binary heap,
+ * the timer wheel has O(1) costs for scheduling and canceling a task, which matters when there are
+ * tens of thousands of pending timeouts that are almost always canceled before they expire.
+ * <p/>
+ * The wheel consists of a power-of-two number of buckets, each representing one "tick". A task is
+ * placed into the bucket for its deadline tick; a task due more than one wheel rotation away
+ * stays in its bucket until its round comes. The expired tasks are collected in a batch and run
+ * on the wheel's thread outside of the wheel's lock, so they are expected to be short (for
+ * example, just scheduling a service).
+ * <p/>
+ * The wheel's thread doesn't wake up for empty ticks; it sleeps until the nearest non-empty bucket
+ * (within one rotation) or until a task with an earlier deadline is scheduled.
+ */
+public class TimerWheel
+    {
+    /**
+     * Construct and start a timer wheel with a one millisecond tick.
+     *
+     * @param sName  the name of the wheel's thread
+     */
+    public TimerWheel(String sName)
+        {
+        this(sName, 1, 1024);
+        }
+
+    /**
+     * Construct and start a timer wheel.
+     *
+     * @param sName        the name of the wheel's thread
+     * @param cTickMillis  the tick duration in milliseconds
+     * @param cBuckets     the number of buckets (rounded up to a power of two)
+     */
+    public TimerWheel(String sName, long cTickMillis, int cBuckets)
+        {
+        assert cTickMillis > 0 && cBuckets > 0;
+
+        int cSize = Integer.highestOneBit(Math.max(cBuckets - 1, 1)) << 1;
+
+        Task[] aBucket = new Task[cSize];
+        for (int i = 0; i < cSize; i++)
+            {
+            aBucket[i] = new Bucket();
+            }
+
+        f_aBucket     = aBucket;
+        f_nMask       = cSize - 1;
+        f_cTickNanos  = TimeUnit.MILLISECONDS.toNanos(cTickMillis);
+        f_cTickMillis = cTickMillis;
+        f_lStart      = System.nanoTime();
+
+        Thread thread = new Thread(this::run, sName);
+        thread.setDaemon(true);
+        thread.start();
+        }
+
+    /**
+     * Schedule the specified task to run after the specified delay. A task can only be scheduled
+     * once.
+     *
+     * @param task          the task
+     * @param cDelayMillis  the delay in milliseconds
+     */
+    public void schedule(Task task, long cDelayMillis)
+        {
+        if (cDelayMillis < 0)
+            {
+            throw new IllegalArgumentException("Negative delay: " + cDelayMillis);
+            }
+
+        long cTicks = (cDelayMillis + f_cTickMillis - 1) / f_cTickMillis;
+        synchronized (this)
+            {
+            if (task.m_nState != Task.STATE_NEW)
+                {
+                throw new IllegalStateException("Task already scheduled or canceled");
+                }
+
+            // the current tick is always processed, so make sure the task doesn't fire early
+            long nDeadline = currentTick() + Math.max(cTicks, 1);
+
+            task.m_nDeadline = nDeadline;
+            task.m_wheel     = this;
+            task.m_nState    = Task.STATE_SCHEDULED;
+            task.linkBefore(f_aBucket[(int) nDeadline & f_nMask]);
+            m_cTasks++;
+
+            if (nDeadline < m_nTickWake)
+                {
+                notify();
+                }
+            }
+        }
+
+    /**
+     * @return the number of currently scheduled tasks
+     */
+    public synchronized int getTaskCount()
+        {
+        return m_cTasks;
+        }
+
+    /**
+     * @return the current tick
+     */
+    private long currentTick()
+        {
+        return (System.nanoTime() - f_lStart) / f_cTickNanos;
+        }
+
+    /**
+     * The wheel's thread loop.
+     */
+    private void run()
+        {
+        List<Task> listExpired = new ArrayList<>();
+        while (true)
+            {
+            try
+                {
+                collectExpired(listExpired);
+                }
+            catch (InterruptedException e)
+                {
+                return;
+                }
+
+            for (Task task : listExpired)
+                {
+                try
+                    {
+                    task.run();
+                    }
+                catch (Throwable e)
+                    {
+                    System.err.println("Unhandled exception in a timer task: " + e);
+                    e.printStackTrace(System.err);
+                    }
+                }
+            listExpired.clear();
+            }
+        }
+
+    /**
+     * Wait for some tasks to expire and collect them.
+     *
+     * @param listExpired  the list to add the expired tasks to
+     */
+    private synchronized void collectExpired(List<Task> listExpired)
+            throws InterruptedException
+        {
+        Task[] aBucket = f_aBucket;
+        int    cBucket = aBucket.length;
+
+        while (true)
+            {
+            long nNow = currentTick();
+            long nTick = m_nTickDone + 1;
+
+            // process all the ticks up to the current one; after a long pause there is no need to
+            // visit any bucket more than once
+            long nLast = Math.min(nNow, nTick + cBucket - 1);
+            for (; nTick <= nLast; nTick++)
+                {
+                Task head = aBucket[(int) nTick & f_nMask];
+                for (Task task = head.m_next; task != head; )
+                    {
+                    Task next = task.m_next;
+                    if (task.m_nDeadline <= nNow)
+                        {
+                        task.unlink();
+                        task.m_nState = Task.STATE_DONE;
+                        m_cTasks--;
+                        listExpired.add(task);
+                        }
+                    task = next;
+                    }
+                }
+            m_nTickDone = nNow;
+
+            if (!listExpired.isEmpty())
+                {
+                return;
+                }
+
+            // find the nearest non-empty bucket within one rotation
+            long nWake = Long.MAX_VALUE;
+            if (m_cTasks > 0)
+                {
+                for (long n = nNow + 1, nEnd = nNow + cBucket; n <= nEnd; n++)
+                    {
+                    Task head = aBucket[(int) n & f_nMask];
+                    if (head.m_next != head)
+                        {
+                        nWake = n;
+                        break;
+                        }
+                    }
+                }
+
+            m_nTickWake = nWake;
+            if (nWake == Long.MAX_VALUE)
+                {
+                wait();
+                }
+            else
+                {
+                long cNanos = nWake * f_cTickNanos - (System.nanoTime() - f_lStart);
+                if (cNanos > 0)
+                    {
+                    TimeUnit.NANOSECONDS.timedWait(this, cNanos);
+                    }
+                }
+            m_nTickWake = Long.MIN_VALUE;
+            }
+        }
+
+
+    // ----- Task ----------------------------------------------------------------------------------
+
+    /**
+     * A task that can be scheduled on the timer wheel.
+     */
+    public abstract static class Task
+            implements Runnable
+        {
+        /**
+         * Cancel the task.
+         *
+         * @return true iff the task was scheduled and this call has prevented it from running
+         */
+        public boolean cancel()
+            {
+            TimerWheel wheel = m_wheel;
+            if (wheel == null)
+                {
+                m_nState = STATE_DONE;
+                return false;
+                }
+
+            synchronized (wheel)
+                {
+                if (m_nState == STATE_SCHEDULED)
+                    {
+                    unlink();
+                    m_nState = STATE_DONE;
+                    wheel.m_cTasks--;
+                    return true;
+                    }
+                m_nState = STATE_DONE;
+                return false;
+                }
+            }
+
+        /**
+         * @return true iff the task is scheduled and has not run or been canceled yet
+         */
+        public boolean isScheduled()
+            {
+            return m_nState == STATE_SCHEDULED;
+            }
+
+        private void linkBefore(Task head)
+            {
+            Task prev = head.m_prev;
+            m_prev      = prev;
+            m_next      = head;
+            prev.m_next = this;
+            head.m_prev = this;
+            }
+
+        private void unlink()
+            {
+            m_prev.m_next = m_next;
+            m_next.m_prev = m_prev;
+            m_prev = m_next = null;
+            }
+
+        private static final int STATE_NEW       = 0;
+        private static final int STATE_SCHEDULED = 1;
+        private static final int STATE_DONE      = 2;
+
+        private volatile int        m_nState;
+        private volatile TimerWheel m_wheel;
+        private long                m_nDeadline;
+        private Task                m_prev;
+        private Task                m_next;
+        }
+
+    /**
+     * A sentinel head of a bucket's circular list.
+     */
+    private static final class Bucket
+            extends Task
+        {
+        Bucket()
+            {
+            // an empty circular list consists of just the head
+            Task head = this;
+            head.m_prev = head;
+            head.m_next = head;
+            }
+
+        @Override
+        public void run()
+            {
+            throw new IllegalStateException();
+            }
+        }
+
+
+    // ----- fields --------------------------------------------------------------------------------
+
+    /**
+     * The buckets; each is a sentinel head of a circular doubly-linked list.
+     */
+    private final Task[] f_aBucket;
+
+    /**
+     * The mask to compute a bucket index from a tick.
+     */
+    private final int f_nMask;
+
+    /**
+     * The tick duration.
+     */
+    private final long f_cTickNanos;
+    private final long f_cTickMillis;
+
+    /**
+     * The time (System.nanoTime) of the tick zero.
+     */
+    private final long f_lStart;
+
+    /**
+     * The last processed tick.
+     */
+    private long m_nTickDone = -1;
+
+    /**
+     * The tick the wheel's thread is going to wake up at (Long.MAX_VALUE if it waits for a task to
+     * be scheduled); Long.MIN_VALUE if the thread is not waiting.
+     */
+    private long m_nTickWake = Long.MIN_VALUE;
+
+    /**
+     * The number of scheduled tasks.
+     */
+    private int m_cTasks;
+    }
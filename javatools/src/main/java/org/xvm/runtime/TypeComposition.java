@@ -195,6 +195,20 @@ public interface TypeComposition
         return getTemplate().getFieldValue(frame, hTarget, idProp, iReturn);
         }
 
+    /**
+     * Find the field that a property "get" or "set" operation could access directly on a
+     * GenericHandle of this composition, bypassing the property call chain resolution.
+     *
+     * @param idProp  the property id
+     * @param fSet    true for the "set" operation; false for the "get"
+     *
+     * @return the field info or null if the property must be accessed via the template
+     */
+    default ClassComposition.FieldInfo getDirectField(PropertyConstant idProp, boolean fSet)
+        {
+        return null;
+        }
+
     /**
      * Set a field value.
      *
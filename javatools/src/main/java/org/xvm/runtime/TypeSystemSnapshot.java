@@ -0,0 +1,246 @@
+package org.xvm.runtime;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.xvm.asm.Constant;
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.ErrorListener;
+
+import org.xvm.asm.constants.TypeConstant;
+
+
+/**
+ * A snapshot of the warmed-up type system of a Runtime.
+ * <p/>
+ * Most of the start-up cost of an application is spent computing the TypeInfos for the types it
+ * uses. The TypeInfos themselves (as well as the call chains and templates built from them) are
+ * graphs of run-time objects that can't be meaningfully persisted. What can be persisted is the
+ * knowledge of <i>which</i> types get used: the snapshot records the pool positions of all the
+ * types that had a TypeInfo at the time the snapshot was taken, and on the subsequent runs, the
+ * TypeInfos for those types are computed in parallel in the background, ahead of the application
+ * asking for them.
+ * <p/>
+ * Only the constants that exist right after the pools are linked are recorded; their positions are
+ * determined by the content of the linked modules. To detect that any of the modules has changed,
+ * the snapshot also records the size of each pool after linking and the value of every recorded
+ * type; a snapshot that doesn't match the linked pools is ignored in its entirety.
+ */
+public class TypeSystemSnapshot
+    {
+    /**
+     * Construct a snapshot for the specified linked pools.
+     *
+     * @param apool     the pools (in the order that is the same for every run)
+     * @param acLinked  the number of constants in each of the pools right after linking
+     */
+    public TypeSystemSnapshot(ConstantPool[] apool, int[] acLinked)
+        {
+        assert apool.length == acLinked.length;
+
+        f_apool    = apool;
+        f_acLinked = acLinked;
+        }
+
+
+    // ----- TypeSystemSnapshot API ----------------------------------------------------------------
+
+    /**
+     * Load the snapshot from the specified file and start computing the TypeInfos for the recorded
+     * types in the background.
+     *
+     * @param file  the snapshot file
+     *
+     * @return the number of types to be warmed up; -1 if the file doesn't exist or doesn't match
+     *         the linked pools
+     */
+    public int warmUp(File file)
+            throws IOException
+        {
+        List<List<TypeConstant>> listTypes = read(file);
+        if (listTypes == null)
+            {
+            return -1;
+            }
+
+        ConstantPool[] apool  = f_apool;
+        int            cTypes = 0;
+        for (int iPool = 0, cPools = apool.length; iPool < cPools; iPool++)
+            {
+            ConstantPool       pool     = apool[iPool];
+            List<TypeConstant> listType = listTypes.get(iPool);
+            for (TypeConstant type : listType)
+                {
+                WARMER.execute(() ->
+                    {
+                    try (var ignore = ConstantPool.withPool(pool))
+                        {
+                        type.ensureTypeInfo(ErrorListener.BLACKHOLE);
+                        }
+                    catch (RuntimeException ignore)
+                        {
+                        // the application will run into the same problem and report it
+                        }
+                    });
+                }
+            cTypes += listType.size();
+            }
+        return cTypes;
+        }
+
+    /**
+     * Read the types recorded by the specified snapshot file.
+     *
+     * @param file  the snapshot file
+     *
+     * @return the recorded types for each of the pools; null if the file doesn't exist or doesn't
+     *         match the linked pools
+     */
+    List<List<TypeConstant>> read(File file)
+            throws IOException
+        {
+        if (!file.exists())
+            {
+            return null;
+            }
+
+        ConstantPool[] apool = f_apool;
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file))))
+            {
+            if (in.readInt() != MAGIC || in.readInt() != apool.length)
+                {
+                return null;
+                }
+
+            List<List<TypeConstant>> listTypes = new ArrayList<>(apool.length);
+            for (int iPool = 0, cPools = apool.length; iPool < cPools; iPool++)
+                {
+                ConstantPool pool    = apool[iPool];
+                int          cLinked = f_acLinked[iPool];
+                if (in.readInt() != cLinked)
+                    {
+                    return null;
+                    }
+
+                int                cEntries = in.readInt();
+                List<TypeConstant> listType = new ArrayList<>(cEntries);
+                for (int i = 0; i < cEntries; i++)
+                    {
+                    int    iConst = in.readInt();
+                    String sType  = in.readUTF();
+                    if (iConst < 0 || iConst >= cLinked
+                            || !(pool.getConstant(iConst) instanceof TypeConstant type)
+                            || !type.getValueString().equals(sType))
+                        {
+                        return null;
+                        }
+                    listType.add(type);
+                    }
+                listTypes.add(listType);
+                }
+            return listTypes;
+            }
+        }
+
+    /**
+     * Save the snapshot of the types that currently have TypeInfos into the specified file.
+     *
+     * @param file  the snapshot file
+     *
+     * @return the number of recorded types
+     */
+    public int save(File file)
+            throws IOException
+        {
+        ConstantPool[] apool    = f_apool;
+        int            cTypes   = 0;
+        File           fileTemp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(fileTemp))))
+            {
+            out.writeInt(MAGIC);
+            out.writeInt(apool.length);
+
+            for (int iPool = 0, cPools = apool.length; iPool < cPools; iPool++)
+                {
+                ConstantPool  pool    = apool[iPool];
+                int           cLinked = f_acLinked[iPool];
+                List<Integer> listIx  = new ArrayList<>();
+                List<String>  listVal = new ArrayList<>();
+                for (int iConst = 0; iConst < cLinked; iConst++)
+                    {
+                    Constant constant = pool.getConstant(iConst);
+                    if (constant instanceof TypeConstant type && type.hasTypeInfo())
+                        {
+                        String sType = type.getValueString();
+                        if (sType.length() <= MAX_VALUE_LENGTH)
+                            {
+                            listIx.add(iConst);
+                            listVal.add(sType);
+                            }
+                        }
+                    }
+
+                out.writeInt(cLinked);
+                out.writeInt(listIx.size());
+                for (int i = 0, c = listIx.size(); i < c; i++)
+                    {
+                    out.writeInt(listIx.get(i));
+                    out.writeUTF(listVal.get(i));
+                    }
+                cTypes += listIx.size();
+                }
+            }
+
+        if (!fileTemp.renameTo(file))
+            {
+            file.delete();
+            if (!fileTemp.renameTo(file))
+                {
+                throw new IOException("Failed to replace the snapshot file " + file);
+                }
+            }
+        return cTypes;
+        }
+
+
+    // ----- constants and data fields -------------------------------------------------------------
+
+    /**
+     * The snapshot file format identifier.
+     */
+    private static final int MAGIC = 0x58545353; // "XTSS"
+
+    /**
+     * The longest type value that is recorded (the UTF encoding is limited to 64K bytes).
+     */
+    private static final int MAX_VALUE_LENGTH = 8192;
+
+    /**
+     * The executor used to compute the TypeInfos.
+     */
+    private static final ForkJoinPool WARMER = ForkJoinPool.commonPool();
+
+    /**
+     * The linked pools.
+     */
+    private final ConstantPool[] f_apool;
+
+    /**
+     * The number of constants in each of the pools right after linking.
+     */
+    private final int[] f_acLinked;
+    }
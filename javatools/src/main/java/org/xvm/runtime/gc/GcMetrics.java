@@ -0,0 +1,220 @@
+package org.xvm.runtime.gc;
+
+/**
+ * Collection statistics for a {@link GcSpace}.
+ * <p>
+ * The pauses are recorded in a histogram with power-of-two microsecond buckets, i.e. the bucket {@code i}
+ * counts the pauses in the {@code [2^(i-1), 2^i)} microsecond range (and bucket {@code 0} the sub-microsecond
+ * ones).
+ */
+public class GcMetrics
+    {
+    /**
+     * Record a young generation collection.
+     *
+     * @param cNanos     the pause time
+     * @param cbPromoted the number of bytes promoted to the old generation
+     */
+    public void recordYoung(long cNanos, long cbPromoted)
+        {
+        ++m_cYoung;
+        m_cbPromoted += cbPromoted;
+        recordPause(cNanos);
+        }
+
+    /**
+     * Record an incremental step of an old generation collection.
+     *
+     * @param cNanos the pause time (zero if the step was a part of another recorded pause)
+     */
+    public void recordIncrement(long cNanos)
+        {
+        ++m_cIncrements;
+        if (cNanos > 0)
+            {
+            recordPause(cNanos);
+            }
+        }
+
+    /**
+     * Record the completion of an old generation collection.
+     *
+     * @param cbFreed the number of bytes freed by the collection
+     */
+    public void recordOld(long cbFreed)
+        {
+        ++m_cOld;
+        m_cbFreedOld += cbFreed;
+        }
+
+    /**
+     * Record a stop-the-world full collection.
+     *
+     * @param cNanos the pause time
+     */
+    public void recordFull(long cNanos)
+        {
+        ++m_cFull;
+        recordPause(cNanos);
+        }
+
+    /**
+     * @return the number of young generation collections
+     */
+    public long getYoungCollectionCount()
+        {
+        return m_cYoung;
+        }
+
+    /**
+     * @return the number of completed old generation collections
+     */
+    public long getOldCollectionCount()
+        {
+        return m_cOld;
+        }
+
+    /**
+     * @return the number of old generation increments
+     */
+    public long getIncrementCount()
+        {
+        return m_cIncrements;
+        }
+
+    /**
+     * @return the number of stop-the-world full collections
+     */
+    public long getFullCollectionCount()
+        {
+        return m_cFull;
+        }
+
+    /**
+     * @return the total number of bytes promoted to the old generation
+     */
+    public long getPromotedBytes()
+        {
+        return m_cbPromoted;
+        }
+
+    /**
+     * @return the total number of bytes freed by the old generation collections
+     */
+    public long getFreedOldBytes()
+        {
+        return m_cbFreedOld;
+        }
+
+    /**
+     * @return the longest recorded pause in nanoseconds
+     */
+    public long getMaxPauseNanos()
+        {
+        return m_cMaxPauseNanos;
+        }
+
+    /**
+     * @return the sum of all recorded pauses in nanoseconds
+     */
+    public long getTotalPauseNanos()
+        {
+        return m_cTotalPauseNanos;
+        }
+
+    /**
+     * @return a copy of the pause histogram
+     */
+    public long[] getPauseHistogram()
+        {
+        return m_acPauses.clone();
+        }
+
+    /**
+     * Record a pause.
+     *
+     * @param cNanos the pause time
+     */
+    protected void recordPause(long cNanos)
+        {
+        long cMicros = cNanos / 1000;
+        int  iBucket = Math.min(64 - Long.numberOfLeadingZeros(cMicros), m_acPauses.length - 1);
+        ++m_acPauses[iBucket];
+
+        m_cTotalPauseNanos += cNanos;
+        m_cMaxPauseNanos    = Math.max(m_cMaxPauseNanos, cNanos);
+        }
+
+    @Override
+    public String toString()
+        {
+        StringBuilder sb = new StringBuilder()
+            .append("young=").append(m_cYoung)
+            .append(", old=").append(m_cOld)
+            .append(", increments=").append(m_cIncrements)
+            .append(", full=").append(m_cFull)
+            .append(", promoted=").append(m_cbPromoted)
+            .append(", maxPause=").append(m_cMaxPauseNanos / 1000).append("us")
+            .append(", pauses={");
+
+        boolean fFirst = true;
+        for (int i = 0; i < m_acPauses.length; ++i)
+            {
+            if (m_acPauses[i] != 0)
+                {
+                if (!fFirst)
+                    {
+                    sb.append(", ");
+                    }
+                sb.append('<').append(1L << i).append("us=").append(m_acPauses[i]);
+                fFirst = false;
+                }
+            }
+        return sb.append('}').toString();
+        }
+
+    /**
+     * The pause histogram.
+     */
+    private final long[] m_acPauses = new long[32];
+
+    /**
+     * The number of young generation collections.
+     */
+    private long m_cYoung;
+
+    /**
+     * The number of completed old generation collections.
+     */
+    private long m_cOld;
+
+    /**
+     * The number of old generation increments.
+     */
+    private long m_cIncrements;
+
+    /**
+     * The number of full collections.
+     */
+    private long m_cFull;
+
+    /**
+     * The number of bytes promoted to the old generation.
+     */
+    private long m_cbPromoted;
+
+    /**
+     * The number of bytes freed by the old generation collections.
+     */
+    private long m_cbFreedOld;
+
+    /**
+     * The longest pause.
+     */
+    private long m_cMaxPauseNanos;
+
+    /**
+     * The total pause time.
+     */
+    private long m_cTotalPauseNanos;
+    }
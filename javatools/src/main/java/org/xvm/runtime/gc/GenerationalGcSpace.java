@@ -0,0 +1,1145 @@
+package org.xvm.runtime.gc;
+
+
+import org.xvm.util.LongMuterator;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A generational collector with a copying young generation and an incrementally collected old generation.
+ * <p>
+ * New objects are bump-allocated in the nursery. Once the nursery is full, the reachable young objects are copied
+ * into the other nursery semi-space, and those that have survived {@link #TENURE_AGE} collections are promoted to
+ * the old generation. As the young objects move, their addresses change; the roots are updated via
+ * {@link LongMuterator#set}, and the old objects referring to young ones are found via the remembered set maintained
+ * by the {@link #setField write barrier}.
+ * <p>
+ * The old generation is collected by an incremental mark-and-sweep, which is advanced by a bounded step after every
+ * young collection. While marking, the write barrier shades both the overwritten and the stored references, so the
+ * mutator cannot hide an object from the marker; the marking completes with a short re-scan of the roots and the
+ * young generation, after which the old generation is swept incrementally.
+ * <p>
+ * The collection statistics are available via {@link #getMetrics()}.
+ */
+public class GenerationalGcSpace<V>
+        implements GcSpace
+    {
+    /**
+     * Construct a {@link GenerationalGcSpace}.
+     *
+     * @param accessor        the accessor of accessing the contents of an object
+     * @param clearedListener a function to invoke with a pointer to a weak-ref once it's been cleared
+     */
+    public GenerationalGcSpace(ObjectManager<V> accessor, LongConsumer clearedListener)
+        {
+        this(accessor, clearedListener, Long.MAX_VALUE, Long.MAX_VALUE, DEFAULT_NURSERY_SIZE);
+        }
+
+    /**
+     * Construct a {@link GenerationalGcSpace} with limits.
+     *
+     * @param accessor        the accessor of accessing the contents of an object
+     * @param clearedListener a function to invoke with a pointer to a weak-ref once it's been cleared
+     * @param cbLimitSoft     the byte size to try to stay within
+     * @param cbLimitHard     the maximum allowable byte size
+     * @param cNursery        the number of objects the nursery can hold
+     */
+    @SuppressWarnings("unchecked")
+    public GenerationalGcSpace(ObjectManager<V> accessor,
+                               LongConsumer clearedListener,
+                               long cbLimitSoft,
+                               long cbLimitHard,
+                               int cNursery)
+        {
+        if (cNursery <= 0)
+            {
+            throw new IllegalArgumentException("nursery size must be positive");
+            }
+
+        f_accessor = accessor;
+        f_clearedListener = clearedListener;
+        f_cbLimitSoft = cbLimitSoft;
+        f_cbLimitHard = cbLimitHard;
+
+        m_aYoung = (V[]) new Object[cNursery];
+        m_aYoungSpare = (V[]) new Object[cNursery];
+        m_alForward = new long[cNursery];
+
+        for (int i = 0; i < m_anFreeSlots.length; ++i)
+            {
+            m_anFreeSlots[i] = m_anFreeSlots.length - 1 - i;
+            }
+        m_nTopFree = m_anFreeSlots.length - 1;
+        }
+
+    @Override
+    public long allocate(int cFields)
+            throws OutOfMemoryError
+        {
+        if (getByteCount() > f_cbLimitHard)
+            {
+            gc();
+            if (getByteCount() > f_cbLimitHard)
+                {
+                throw new OutOfMemoryError("hard limit exceeded");
+                }
+            }
+
+        if (m_nYoungTop == m_aYoung.length)
+            {
+            collectYoung(false);
+            if (m_nYoungTop == m_aYoung.length)
+                {
+                // every young object has survived and stayed young
+                collectYoung(true);
+                }
+            }
+
+        V resource = f_accessor.allocate(cFields);
+        f_accessor.setHeader(resource, 0L);
+        setFieldCount(resource, cFields);
+        m_cbYoung += f_accessor.getByteSize(resource);
+
+        int slot = m_nYoungTop++;
+        m_aYoung[slot] = resource;
+        return youngAddress(slot);
+        }
+
+    @Override
+    public long allocateWeak(int cFields)
+            throws OutOfMemoryError
+        {
+        if (cFields == 0)
+            {
+            throw new IllegalArgumentException("weak-refs must have at least one field");
+            }
+
+        long address = allocate(cFields);
+        setHeaderBit(ensure(address), WEAK_MASK, true);
+        return address;
+        }
+
+    @Override
+    public boolean isValid(long address)
+        {
+        if (!isLocal(address))
+            {
+            return false;
+            }
+
+        int slot = slot(address);
+        if (isYoung(address))
+            {
+            return slot < m_nYoungTop && m_aYoung[slot] != null;
+            }
+        return slot < m_aOld.length && m_aOld[slot] != null;
+        }
+
+    @Override
+    public long getField(long address, int index)
+            throws SegFault
+        {
+        return f_accessor.getField(ensure(address), index);
+        }
+
+    @Override
+    public void setField(long address, int index, long handle)
+            throws SegFault
+        {
+        V o = ensure(address);
+
+        if (m_nPhase == PHASE_MARKING)
+            {
+            // shade both the overwritten and the new referent, so that neither the snapshot nor the
+            // newly created references can be hidden from the marker
+            shade(f_accessor.getField(o, index));
+            shade(handle);
+            }
+
+        if (isYoung(handle) && !isYoung(address))
+            {
+            remember(o, address);
+            }
+
+        f_accessor.setField(o, index, handle);
+        }
+
+    @Override
+    public void addRoot(Supplier<? extends LongMuterator> root)
+        {
+        f_setRoots.add(root);
+        }
+
+    @Override
+    public void removeRoot(Supplier<? extends LongMuterator> root)
+        {
+        f_setRoots.remove(root);
+        }
+
+    @Override
+    public long getByteCount()
+        {
+        return m_cbYoung + m_cbOld;
+        }
+
+    /**
+     * Perform a full stop-the-world collection: promote all the reachable young objects and collect the old
+     * generation to completion.
+     */
+    @Override
+    public void gc()
+        {
+        long ldtStart = System.nanoTime();
+
+        collectYoung(true);
+
+        // finish the collection in progress (if any) and then collect everything that has become unreachable since
+        // it has started
+        if (m_nPhase != PHASE_IDLE)
+            {
+            stepOld(Integer.MAX_VALUE);
+            }
+        startMarking();
+        stepOld(Integer.MAX_VALUE);
+
+        f_metrics.recordFull(System.nanoTime() - ldtStart);
+        }
+
+    /**
+     * @return the collection statistics
+     */
+    public GcMetrics getMetrics()
+        {
+        return f_metrics;
+        }
+
+    /**
+     * @return the number of bytes held by the young generation
+     */
+    public long getYoungByteCount()
+        {
+        return m_cbYoung;
+        }
+
+    /**
+     * @return the number of bytes held by the old generation
+     */
+    public long getOldByteCount()
+        {
+        return m_cbOld;
+        }
+
+
+    // ----- young generation ----------------------------------------------------------------------
+
+    /**
+     * Copy the reachable young objects into the other semi-space (or promote them) and then advance the old
+     * generation collection.
+     *
+     * @param fTenureAll if {@code true}, promote all the reachable young objects
+     */
+    private void collectYoung(boolean fTenureAll)
+        {
+        long ldtStart = System.nanoTime();
+
+        V[]    aFrom = m_aYoung;
+        int    cFrom = m_nYoungTop;
+        long[] alFwd = m_alForward;
+
+        if (m_nPhase == PHASE_MARKING)
+            {
+            // the young objects (dead or alive) may hold the only references to the old objects that are reachable
+            // from the marking snapshot
+            for (int i = 0; i < cFrom; ++i)
+                {
+                shadeFields(aFrom[i]);
+                }
+            }
+
+        m_fTenureAll = fTenureAll;
+        m_nToTop = 0;
+        m_cbSurvivors = 0;
+        m_cbPromotedNow = 0;
+        m_cPromoted = 0;
+        m_cWeakPending = 0;
+
+        // roots
+        for (var root : f_setRoots)
+            {
+            for (var liter = root.get(); liter.hasNext(); )
+                {
+                long address = liter.nextLong();
+                if (isYoung(address))
+                    {
+                    liter.set(evacuate(address));
+                    }
+                }
+            }
+
+        // remembered old objects
+        long[] alRemembered = m_alRemembered;
+        int    cRemembered = m_cRemembered;
+        m_alRemembered = new long[Math.max(16, cRemembered)];
+        m_cRemembered = 0;
+        for (int i = 0; i < cRemembered; ++i)
+            {
+            long address = alRemembered[i];
+            V o = m_aOld[slot(address)];
+            if (o != null && getHeaderBit(o, REMEMBERED_MASK))
+                {
+                setHeaderBit(o, REMEMBERED_MASK, false);
+                scanYoungRefs(o, address);
+                }
+            }
+
+        // transitive closure over the copied and promoted objects
+        V[] aTo = m_aYoungSpare;
+        int iScanTo = 0;
+        int iScanPromoted = 0;
+        while (iScanTo < m_nToTop || iScanPromoted < m_cPromoted)
+            {
+            while (iScanTo < m_nToTop)
+                {
+                scanYoungRefs(aTo[iScanTo], youngAddress(iScanTo));
+                ++iScanTo;
+                }
+            while (iScanPromoted < m_cPromoted)
+                {
+                long address = m_alPromoted[iScanPromoted++];
+                scanYoungRefs(m_aOld[slot(address)], address);
+                }
+            }
+
+        // weak referents were not traced; forward or clear them
+        long[] anNotify = null;
+        int    cNotify = 0;
+        for (int i = 0; i < m_cWeakPending; ++i)
+            {
+            long address = m_alWeakPending[i];
+            V    weak = isYoung(address) ? aTo[slot(address)] : m_aOld[slot(address)];
+            long pReferent = f_accessor.getField(weak, WEAK_REFERENT_FIELD);
+            if (isYoung(pReferent))
+                {
+                long pForward = alFwd[slot(pReferent)];
+                f_accessor.setField(weak, WEAK_REFERENT_FIELD, pForward);
+                if (pForward == NULL)
+                    {
+                    if (hasNotifier(weak))
+                        {
+                        anNotify = push(anNotify, cNotify++, address);
+                        }
+                    }
+                else if (isYoung(pForward) && !isYoung(address))
+                    {
+                    remember(weak, address);
+                    }
+                }
+            }
+
+        // free the dead young objects
+        for (int i = 0; i < cFrom; ++i)
+            {
+            if (alFwd[i] == NULL)
+                {
+                f_accessor.free(aFrom[i]);
+                }
+            aFrom[i] = null;
+            alFwd[i] = NULL;
+            }
+
+        m_aYoung = aTo;
+        m_aYoungSpare = aFrom;
+        m_nYoungTop = m_nToTop;
+        m_cbYoung = m_cbSurvivors;
+
+        notifyCleared(anNotify, cNotify);
+
+        // advance the old generation collection as a part of the same pause
+        if (m_nPhase == PHASE_IDLE && !fTenureAll && (m_cbOld > m_cbOldThreshold || getByteCount() > f_cbLimitSoft))
+            {
+            startMarking();
+            }
+        if (m_nPhase != PHASE_IDLE && !fTenureAll)
+            {
+            stepOld(Math.max(INCREMENT_MIN, m_aYoung.length));
+            f_metrics.recordIncrement(0);
+            }
+
+        f_metrics.recordYoung(System.nanoTime() - ldtStart, m_cbPromotedNow);
+        }
+
+    /**
+     * Copy or promote a young object that is reachable.
+     *
+     * @param address the object's young generation address
+     * @return the object's new address
+     */
+    private long evacuate(long address)
+        {
+        int  slot = slot(address);
+        long pForward = m_alForward[slot];
+        if (pForward != NULL)
+            {
+            return pForward;
+            }
+
+        V o = m_aYoung[slot];
+        if (o == null)
+            {
+            throw new SegFault();
+            }
+
+        int nAge = getAge(o) + 1;
+
+        long cb = f_accessor.getByteSize(o);
+        if (m_fTenureAll || nAge >= TENURE_AGE || m_nToTop == m_aYoungSpare.length)
+            {
+            int slotOld = allocateOldSlot();
+            m_aOld[slotOld] = o;
+            m_cbOld += cb;
+            m_cbPromotedNow += cb;
+
+            // the promoted objects are considered live by the old generation collection in progress, but their
+            // references still need to be traced
+            setHeaderBit(o, MARKER_MASK, m_fMarker);
+            pForward = oldAddress(slotOld);
+            if (m_nPhase == PHASE_MARKING)
+                {
+                m_alGray = push(m_alGray, m_cGray++, pForward);
+                }
+            if (getHeaderBit(o, WEAK_MASK))
+                {
+                m_alWeakOld = push(m_alWeakOld, m_cWeakOld++, pForward);
+                }
+            m_alPromoted = push(m_alPromoted, m_cPromoted++, pForward);
+            }
+        else
+            {
+            setAge(o, nAge);
+            int slotTo = m_nToTop++;
+            m_aYoungSpare[slotTo] = o;
+            m_cbSurvivors += cb;
+            pForward = youngAddress(slotTo);
+            }
+
+        m_alForward[slot] = pForward;
+        return pForward;
+        }
+
+    /**
+     * Evacuate the young objects referred to by the specified (already evacuated or old) object and update the
+     * references.
+     *
+     * @param o       the object
+     * @param address the object's address
+     */
+    private void scanYoungRefs(V o, long address)
+        {
+        boolean fWeak = getHeaderBit(o, WEAK_MASK);
+        boolean fYoungRefs = false;
+        for (int i = fWeak ? 1 : 0, c = getFieldCount(o); i < c; ++i)
+            {
+            long pField = f_accessor.getField(o, i);
+            if (isYoung(pField))
+                {
+                pField = evacuate(pField);
+                f_accessor.setField(o, i, pField);
+                fYoungRefs |= isYoung(pField);
+                }
+            }
+
+        if (fWeak)
+            {
+            m_alWeakPending = push(m_alWeakPending, m_cWeakPending++, address);
+            }
+
+        if (fYoungRefs && !isYoung(address))
+            {
+            remember(o, address);
+            }
+        }
+
+    /**
+     * Add an old object to the remembered set.
+     *
+     * @param o       the old object
+     * @param address the object's address
+     */
+    private void remember(V o, long address)
+        {
+        if (!getHeaderBit(o, REMEMBERED_MASK))
+            {
+            setHeaderBit(o, REMEMBERED_MASK, true);
+            m_alRemembered = push(m_alRemembered, m_cRemembered++, address);
+            }
+        }
+
+
+    // ----- old generation ------------------------------------------------------------------------
+
+    /**
+     * Start an old generation collection cycle.
+     */
+    private void startMarking()
+        {
+        // flipping the marker makes all the old objects unmarked
+        m_fMarker = !m_fMarker;
+        m_nPhase = PHASE_MARKING;
+        m_cGray = 0;
+
+        shadeRoots();
+        }
+
+    /**
+     * Perform a bounded amount of the old generation collection work.
+     *
+     * @param cBudget the number of objects to trace or slots to sweep
+     */
+    private void stepOld(int cBudget)
+        {
+        if (m_nPhase == PHASE_MARKING)
+            {
+            cBudget = mark(cBudget);
+            if (m_cGray == 0)
+                {
+                finishMarking();
+                }
+            }
+
+        if (m_nPhase == PHASE_SWEEPING && cBudget > 0)
+            {
+            sweep(cBudget);
+            }
+        }
+
+    /**
+     * Trace the gray objects.
+     *
+     * @param cBudget the maximum number of objects to trace
+     * @return the remaining budget
+     */
+    private int mark(int cBudget)
+        {
+        while (m_cGray > 0 && cBudget > 0)
+            {
+            V o = m_aOld[slot(m_alGray[--m_cGray])];
+            if (o != null)
+                {
+                shadeFields(o);
+                }
+            --cBudget;
+            }
+        return cBudget;
+        }
+
+    /**
+     * Complete the marking: re-scan the roots and the young generation, trace everything that remains, and clear the
+     * weak-refs to the unmarked objects.
+     */
+    private void finishMarking()
+        {
+        shadeRoots();
+        for (int i = 0; i < m_nYoungTop; ++i)
+            {
+            shadeFields(m_aYoung[i]);
+            }
+        mark(Integer.MAX_VALUE);
+
+        long[] anNotify = null;
+        int    cNotify = 0;
+
+        // old weak-refs; drop the entries for the objects that are about to be swept
+        int cWeakOld = 0;
+        for (int i = 0; i < m_cWeakOld; ++i)
+            {
+            long address = m_alWeakOld[i];
+            V weak = m_aOld[slot(address)];
+            if (weak != null && getHeaderBit(weak, WEAK_MASK) && getHeaderBit(weak, MARKER_MASK) == m_fMarker)
+                {
+                if (clearIfUnmarked(weak) && hasNotifier(weak))
+                    {
+                    anNotify = push(anNotify, cNotify++, address);
+                    }
+                m_alWeakOld[cWeakOld++] = address;
+                }
+            }
+        m_cWeakOld = cWeakOld;
+
+        // young weak-refs to old objects
+        for (int i = 0; i < m_nYoungTop; ++i)
+            {
+            V weak = m_aYoung[i];
+            if (getHeaderBit(weak, WEAK_MASK) && clearIfUnmarked(weak) && hasNotifier(weak))
+                {
+                anNotify = push(anNotify, cNotify++, youngAddress(i));
+                }
+            }
+
+        m_nPhase = PHASE_SWEEPING;
+        m_nSweep = 0;
+        m_cbFreedNow = 0;
+
+        notifyCleared(anNotify, cNotify);
+        }
+
+    /**
+     * Clear the referent of the specified weak-ref if it's an unmarked old object.
+     *
+     * @param weak the weak-ref
+     * @return {@code true} if the referent has been cleared
+     */
+    private boolean clearIfUnmarked(V weak)
+        {
+        long pReferent = f_accessor.getField(weak, WEAK_REFERENT_FIELD);
+        if (isLocal(pReferent) && !isYoung(pReferent))
+            {
+            V referent = m_aOld[slot(pReferent)];
+            if (referent == null || getHeaderBit(referent, MARKER_MASK) != m_fMarker)
+                {
+                f_accessor.setField(weak, WEAK_REFERENT_FIELD, NULL);
+                return true;
+                }
+            }
+        return false;
+        }
+
+    /**
+     * Free the unmarked old objects.
+     *
+     * @param cBudget the maximum number of slots to sweep
+     */
+    private void sweep(int cBudget)
+        {
+        V[] aOld = m_aOld;
+        int nSweep = m_nSweep;
+        for (int nEnd = (int) Math.min(aOld.length, (long) nSweep + cBudget); nSweep < nEnd; ++nSweep)
+            {
+            V o = aOld[nSweep];
+            if (o != null && getHeaderBit(o, MARKER_MASK) != m_fMarker)
+                {
+                long cb = f_accessor.getByteSize(o);
+                aOld[nSweep] = null;
+                m_anFreeSlots = push(m_anFreeSlots, ++m_nTopFree, nSweep);
+                m_cbOld -= cb;
+                m_cbFreedNow += cb;
+                f_accessor.free(o);
+                }
+            }
+        m_nSweep = nSweep;
+
+        if (nSweep == aOld.length)
+            {
+            m_nPhase = PHASE_IDLE;
+            m_cbOldThreshold = Math.max(m_cbOld * 2, MIN_OLD_THRESHOLD);
+            f_metrics.recordOld(m_cbFreedNow);
+            }
+        }
+
+    /**
+     * Shade the old objects directly referred to by the roots.
+     */
+    private void shadeRoots()
+        {
+        for (var root : f_setRoots)
+            {
+            for (var liter = root.get(); liter.hasNext(); )
+                {
+                shade(liter.nextLong());
+                }
+            }
+        }
+
+    /**
+     * Shade the old objects directly referred to by the specified object.
+     *
+     * @param o the object
+     */
+    private void shadeFields(V o)
+        {
+        for (int i = getHeaderBit(o, WEAK_MASK) ? 1 : 0, c = getFieldCount(o); i < c; ++i)
+            {
+            shade(f_accessor.getField(o, i));
+            }
+        }
+
+    /**
+     * Mark the specified object as reachable and schedule its references to be traced, unless it's not an old
+     * object or has already been marked.
+     *
+     * @param address the object address
+     */
+    private void shade(long address)
+        {
+        if (isLocal(address) && !isYoung(address))
+            {
+            V o = m_aOld[slot(address)];
+            if (o != null && getHeaderBit(o, MARKER_MASK) != m_fMarker)
+                {
+                setHeaderBit(o, MARKER_MASK, m_fMarker);
+                m_alGray = push(m_alGray, m_cGray++, address);
+                }
+            }
+        }
+
+    /**
+     * @return a free old generation slot
+     */
+    private int allocateOldSlot()
+        {
+        if (m_nTopFree < 0)
+            {
+            int cOld = m_aOld.length;
+            int cNew = cOld * 2;
+            if (cNew < 0)
+                {
+                throw new OutOfMemoryError("maximum object count exceeded");
+                }
+
+            @SuppressWarnings("unchecked")
+            V[] aNew = (V[]) new Object[cNew];
+            System.arraycopy(m_aOld, 0, aNew, 0, cOld);
+            m_aOld = aNew;
+
+            int[] anFree = new int[cNew];
+            for (int i = 0, c = cNew - cOld; i < c; ++i)
+                {
+                anFree[i] = cNew - 1 - i;
+                }
+            m_anFreeSlots = anFree;
+            m_nTopFree = cNew - cOld - 1;
+            }
+
+        return m_anFreeSlots[m_nTopFree--];
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Tests if the address is valid and if so return the storage object.
+     *
+     * @param address the address of the object
+     * @return the object
+     * @throws SegFault if the address is invalid
+     */
+    private V ensure(long address)
+            throws SegFault
+        {
+        if (address == NULL)
+            {
+            throw new NullPointerException();
+            }
+        else if (!isValid(address))
+            {
+            throw new SegFault();
+            }
+
+        return isYoung(address) ? m_aYoung[slot(address)] : m_aOld[slot(address)];
+        }
+
+    /**
+     * Notify the listener of the cleared weak-refs.
+     *
+     * @param anNotify the weak-ref addresses
+     * @param cNotify  the number of addresses
+     */
+    private void notifyCleared(long[] anNotify, int cNotify)
+        {
+        for (int i = 0; i < cNotify; ++i)
+            {
+            f_clearedListener.accept(anNotify[i]);
+            }
+        }
+
+    /**
+     * @return {@code true} iff the weak-ref has a notifier
+     */
+    private boolean hasNotifier(V weak)
+        {
+        return getFieldCount(weak) > WEAK_NOTIFIER_FIELD && f_accessor.getField(weak, WEAK_NOTIFIER_FIELD) != NULL;
+        }
+
+    /**
+     * Push a value on an array based stack, growing it as necessary.
+     *
+     * @param al    the array (could be {@code null})
+     * @param index the index to store the value at
+     * @param value the value
+     * @return the (potentially new) array
+     */
+    private static long[] push(long[] al, int index, long value)
+        {
+        if (al == null)
+            {
+            al = new long[16];
+            }
+        else if (index == al.length)
+            {
+            long[] alNew = new long[index * 2];
+            System.arraycopy(al, 0, alNew, 0, index);
+            al = alNew;
+            }
+        al[index] = value;
+        return al;
+        }
+
+    /**
+     * Push a value on an array based stack, growing it as necessary.
+     *
+     * @param an    the array
+     * @param index the index to store the value at
+     * @param value the value
+     * @return the (potentially new) array
+     */
+    private static int[] push(int[] an, int index, int value)
+        {
+        if (index == an.length)
+            {
+            int[] anNew = new int[index * 2];
+            System.arraycopy(an, 0, anNew, 0, index);
+            an = anNew;
+            }
+        an[index] = value;
+        return an;
+        }
+
+    /**
+     * @return the address of a young generation slot
+     */
+    private static long youngAddress(int slot)
+        {
+        return (((long) slot) << 32) | YOUNG_BIT | 1L;
+        }
+
+    /**
+     * @return the address of an old generation slot
+     */
+    private static long oldAddress(int slot)
+        {
+        return (((long) slot) << 32) | 1L;
+        }
+
+    /**
+     * @return the slot for a given address
+     */
+    private static int slot(long address)
+        {
+        return (int) (address >>> 32);
+        }
+
+    /**
+     * @return {@code true} if the address represents a local address
+     */
+    private static boolean isLocal(long address)
+        {
+        return (address & 1) == 1;
+        }
+
+    /**
+     * @return {@code true} if the address represents a local young generation address
+     */
+    private static boolean isYoung(long address)
+        {
+        return (address & (YOUNG_BIT | 1L)) == (YOUNG_BIT | 1L);
+        }
+
+    /**
+     * Get a single bit from the header.
+     */
+    private boolean getHeaderBit(V o, long mask)
+        {
+        return (f_accessor.getHeader(o) & mask) != 0;
+        }
+
+    /**
+     * Set a single bit in the header.
+     */
+    private void setHeaderBit(V o, long mask, boolean value)
+        {
+        long header = f_accessor.getHeader(o);
+        f_accessor.setHeader(o, value ? header | mask : header & ~mask);
+        }
+
+    /**
+     * @return the number of fields contained in the object
+     */
+    private int getFieldCount(V o)
+        {
+        return (int) ((f_accessor.getHeader(o) & FIELD_COUNT_MASK) >>> FIELD_COUNT_SHIFT);
+        }
+
+    /**
+     * Set the field count for an object.
+     */
+    private void setFieldCount(V o, int cFields)
+        {
+        if (cFields < 0 || cFields > (FIELD_COUNT_MASK >> FIELD_COUNT_SHIFT))
+            {
+            throw new IllegalArgumentException();
+            }
+
+        f_accessor.setHeader(o, (f_accessor.getHeader(o) & ~FIELD_COUNT_MASK) | ((long) cFields << FIELD_COUNT_SHIFT));
+        }
+
+    /**
+     * @return the number of young collections the object has survived
+     */
+    private int getAge(V o)
+        {
+        return (int) ((f_accessor.getHeader(o) & AGE_MASK) >>> AGE_SHIFT);
+        }
+
+    /**
+     * Set the number of young collections the object has survived.
+     */
+    private void setAge(V o, int nAge)
+        {
+        f_accessor.setHeader(o, (f_accessor.getHeader(o) & ~AGE_MASK) | ((long) nAge << AGE_SHIFT));
+        }
+
+
+    // ----- constants and fields ------------------------------------------------------------------
+
+    /**
+     * The bit in the address indicating a young generation object.
+     */
+    static final long YOUNG_BIT = 0x2;
+
+    /**
+     * The bit-mask in the header used to mark the old object as being reachable.
+     */
+    static final long MARKER_MASK = 0x1;
+
+    /**
+     * The bit-mask in the header used to indicate if the object represents a "weak" ref which requires special
+     * handling.
+     */
+    static final long WEAK_MASK = 0x2;
+
+    /**
+     * The bit-mask in the header encoding the field count.
+     */
+    static final long FIELD_COUNT_MASK = 0xFFC;
+
+    /**
+     * The right shift of the post masked {@link #FIELD_COUNT_MASK} to obtain the field count.
+     */
+    static final int FIELD_COUNT_SHIFT = 2;
+
+    /**
+     * The bit-mask in the header used to indicate that the old object is in the remembered set.
+     */
+    static final long REMEMBERED_MASK = 0x1000;
+
+    /**
+     * The bit-mask in the header encoding the young object's age.
+     */
+    static final long AGE_MASK = 0xE000;
+
+    /**
+     * The right shift of the post masked {@link #AGE_MASK} to obtain the age.
+     */
+    static final int AGE_SHIFT = 13;
+
+    /**
+     * The number of young collections an object needs to survive to get promoted.
+     */
+    public static final int TENURE_AGE = 2;
+
+    /**
+     * The default number of objects the nursery can hold.
+     */
+    public static final int DEFAULT_NURSERY_SIZE = 16 * 1024;
+
+    /**
+     * The minimum amount of old generation work performed after a young collection.
+     */
+    static final int INCREMENT_MIN = 1024;
+
+    /**
+     * The minimum old generation size that starts an old collection.
+     */
+    static final long MIN_OLD_THRESHOLD = 1024 * 1024;
+
+    static final int PHASE_IDLE = 0;
+    static final int PHASE_MARKING = 1;
+    static final int PHASE_SWEEPING = 2;
+
+    /**
+     * The means by which we access an objects storage.
+     */
+    final ObjectManager<V> f_accessor;
+
+    /**
+     * The listener to notify when weak-refs become clearable
+     */
+    final LongConsumer f_clearedListener;
+
+    /**
+     * The size in bytes we will try to stay below.
+     */
+    final long f_cbLimitSoft;
+
+    /**
+     * The maximum size (in bytes) we can grow to.
+     */
+    final long f_cbLimitHard;
+
+    /**
+     * The "gc" roots for this space.
+     */
+    final Set<Supplier<? extends LongMuterator>> f_setRoots = new HashSet<>();
+
+    /**
+     * The collection statistics.
+     */
+    final GcMetrics f_metrics = new GcMetrics();
+
+    // young generation
+
+    /**
+     * The nursery semi-space the objects are allocated in.
+     */
+    V[] m_aYoung;
+
+    /**
+     * The nursery semi-space the survivors are copied into.
+     */
+    V[] m_aYoungSpare;
+
+    /**
+     * The index of the next free slot in {@link #m_aYoung}.
+     */
+    int m_nYoungTop;
+
+    /**
+     * The amount of memory retained by the young generation.
+     */
+    long m_cbYoung;
+
+    /**
+     * The forwarding addresses during a young collection, indexed by the young slot.
+     */
+    final long[] m_alForward;
+
+    /**
+     * The index of the next free slot in {@link #m_aYoungSpare} during a young collection.
+     */
+    int m_nToTop;
+
+    /**
+     * Indicates that all the survivors of the current young collection are promoted.
+     */
+    boolean m_fTenureAll;
+
+    /**
+     * The size of the survivors of the current young collection.
+     */
+    long m_cbSurvivors;
+
+    /**
+     * The size of the objects promoted by the current young collection.
+     */
+    long m_cbPromotedNow;
+
+    /**
+     * The addresses of the objects promoted by the current young collection.
+     */
+    long[] m_alPromoted;
+
+    /**
+     * The number of entries in {@link #m_alPromoted}.
+     */
+    int m_cPromoted;
+
+    /**
+     * The addresses of the weak-refs encountered by the current young collection.
+     */
+    long[] m_alWeakPending;
+
+    /**
+     * The number of entries in {@link #m_alWeakPending}.
+     */
+    int m_cWeakPending;
+
+    /**
+     * The old objects that may refer to young objects.
+     */
+    long[] m_alRemembered = new long[16];
+
+    /**
+     * The number of entries in {@link #m_alRemembered}.
+     */
+    int m_cRemembered;
+
+    // old generation
+
+    /**
+     * References to the old objects, based on their {@link #slot(long)} address.
+     */
+    @SuppressWarnings("unchecked")
+    V[] m_aOld = (V[]) new Object[1024];
+
+    /**
+     * The slots available in {@link #m_aOld}.
+     */
+    int[] m_anFreeSlots = new int[m_aOld.length];
+
+    /**
+     * The index of the top element in {@link #m_anFreeSlots}.
+     */
+    int m_nTopFree;
+
+    /**
+     * The amount of memory retained by the old generation.
+     */
+    long m_cbOld;
+
+    /**
+     * The old generation size that starts the next old collection.
+     */
+    long m_cbOldThreshold = MIN_OLD_THRESHOLD;
+
+    /**
+     * The old weak-refs.
+     */
+    long[] m_alWeakOld;
+
+    /**
+     * The number of entries in {@link #m_alWeakOld}.
+     */
+    int m_cWeakOld;
+
+    /**
+     * The old collection phase.
+     */
+    int m_nPhase = PHASE_IDLE;
+
+    /**
+     * The marker value of the reachable old objects for the current (or last) old collection.
+     */
+    boolean m_fMarker;
+
+    /**
+     * The addresses of the marked, but not yet traced old objects.
+     */
+    long[] m_alGray = new long[16];
+
+    /**
+     * The number of entries in {@link #m_alGray}.
+     */
+    int m_cGray;
+
+    /**
+     * The next old slot to sweep.
+     */
+    int m_nSweep;
+
+    /**
+     * The number of bytes freed by the current old collection.
+     */
+    long m_cbFreedNow;
+    }
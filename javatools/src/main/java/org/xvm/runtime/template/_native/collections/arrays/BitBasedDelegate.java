@@ -17,6 +17,8 @@ import org.xvm.runtime.template.collections.xArray.Mutability;
 
 import org.xvm.runtime.template.numbers.xInt64;
 
+import org.xvm.util.ShallowSizeOf;
+
 
 /**
  * A base class for native ArrayDelegate implementations based on bit arrays.
@@ -46,6 +48,12 @@ public abstract class BitBasedDelegate
         return new BitArrayHandle(getCanonicalClass(), ab, cSize, mutability);
         }
 
+    @Override
+    public long getStorageSize(int cCapacity)
+        {
+        return ShallowSizeOf.arrayOf(byte.class, storage(cCapacity));
+        }
+
 
     // ----- RTDelegate API ------------------------------------------------------------------------
 
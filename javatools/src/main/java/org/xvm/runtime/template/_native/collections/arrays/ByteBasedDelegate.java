@@ -21,6 +21,8 @@ import org.xvm.runtime.template.collections.xArray.Mutability;
 
 import org.xvm.runtime.template.numbers.xInt64;
 
+import org.xvm.util.ShallowSizeOf;
+
 
 /**
  * A base class for native ArrayDelegate implementations based on byte arrays.
@@ -51,6 +53,12 @@ public abstract class ByteBasedDelegate
         return makeHandle(ab, cSize, mutability);
         }
 
+    @Override
+    public long getStorageSize(int cCapacity)
+        {
+        return ShallowSizeOf.arrayOf(byte.class, cCapacity);
+        }
+
 
     // ----- RTDelegate API ------------------------------------------------------------------------
 
@@ -22,6 +22,7 @@ import org.xvm.runtime.template.collections.xArray.Mutability;
 import org.xvm.runtime.template.numbers.xInt64;
 
 import org.xvm.util.Handy;
+import org.xvm.util.ShallowSizeOf;
 
 
 /**
@@ -58,6 +59,12 @@ public abstract class LongBasedDelegate
         return makeHandle(alValue, cSize, mutability);
         }
 
+    @Override
+    public long getStorageSize(int cCapacity)
+        {
+        return ShallowSizeOf.arrayOf(long.class, storage(cCapacity));
+        }
+
 
     // ----- RTDelegate API ------------------------------------------------------------------------
 
@@ -24,6 +24,8 @@ import org.xvm.runtime.template.numbers.xInt64;
 
 import org.xvm.runtime.template._native.collections.arrays.LongBasedDelegate.LongArrayHandle;
 
+import org.xvm.util.ShallowSizeOf;
+
 
 /**
  * The abstract base for RTDelegate<Int128> and RTDelegate<UInt128> implementations.
@@ -56,6 +58,12 @@ public abstract class LongLongDelegate
         return new LongArrayHandle(getCanonicalClass(), alValue, cSize, mutability);
         }
 
+    @Override
+    public long getStorageSize(int cCapacity)
+        {
+        return ShallowSizeOf.arrayOf(long.class, 2 * cCapacity);
+        }
+
 
     // ----- RTDelegate API ------------------------------------------------------------------------
 
@@ -24,6 +24,8 @@ import org.xvm.runtime.template.numbers.xInt64;
 
 import org.xvm.runtime.template.text.xChar;
 
+import org.xvm.util.ShallowSizeOf;
+
 
 /**
  * Native RTDelegate<Char> implementation.
@@ -70,6 +72,12 @@ public class xRTCharDelegate
         return new CharArrayHandle(getCanonicalClass(), ach, cSize, mutability);
         }
 
+    @Override
+    public long getStorageSize(int cCapacity)
+        {
+        return ShallowSizeOf.arrayOf(char.class, cCapacity);
+        }
+
 
     // ----- RTDelegate API ------------------------------------------------------------------------
 
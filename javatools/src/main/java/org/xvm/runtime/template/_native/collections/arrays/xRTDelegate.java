@@ -35,6 +35,8 @@ import org.xvm.runtime.template.collections.xArray.Mutability;
 
 import org.xvm.runtime.template.numbers.xInt64;
 
+import org.xvm.util.ShallowSizeOf;
+
 
 /**
  * The native RTDelegate<Object> implementation.
@@ -191,6 +193,18 @@ public class xRTDelegate
         return new GenericArrayDelegate(clzDelegate, ahValue, cSize, mutability);
         }
 
+    /**
+     * Estimate the storage size of a delegate of this type.
+     *
+     * @param cCapacity  the delegate's capacity
+     *
+     * @return the estimated size of the delegate's storage in bytes
+     */
+    public long getStorageSize(int cCapacity)
+        {
+        return ShallowSizeOf.arrayOf(ObjectHandle.class, cCapacity);
+        }
+
     @Override
     public int invokeNativeGet(Frame frame, String sPropName, ObjectHandle hTarget, int iReturn)
         {
@@ -903,6 +917,13 @@ public class xRTDelegate
         {
         protected ObjectHandle[] m_ahValue;
 
+        /**
+         * The identity token of the type system (see {@link ConstantPool#getIdentityToken}) that all
+         * the elements of this immutable array are known to be shared with (optional); unlike the
+         * ConstantPool itself, the token doesn't keep a dead container's type system reachable.
+         */
+        private Object m_oSharedPool;
+
         /**
          * Construct an array with specified content and mutability.
          */
@@ -954,13 +975,38 @@ public class xRTDelegate
             {
             // despite the shared array type, the individual elements could be narrower
             // and need to be checked
-            if (mapVisited == null)
+            ConstantPool pool = container.getConstantPool();
+            if (m_oSharedPool == pool.getIdentityToken())
+                {
+                return true;
+                }
+
+            boolean fTop = mapVisited == null;
+            if (fTop)
                 {
                 mapVisited = new IdentityHashMap<>();
                 }
 
-            return mapVisited.put(this, Boolean.TRUE) != null ||
-                   areShared(m_ahValue, container, mapVisited);
+            if (mapVisited.put(this, Boolean.TRUE) != null)
+                {
+                return true;
+                }
+
+            if (areShared(m_ahValue, container, mapVisited))
+                {
+                if (fTop)
+                    {
+                    markShared(container, mapVisited);
+                    }
+                return true;
+                }
+            return false;
+            }
+
+        @Override
+        protected void setSharedPool(ConstantPool pool)
+            {
+            m_oSharedPool = pool.getIdentityToken();
             }
 
         @Override
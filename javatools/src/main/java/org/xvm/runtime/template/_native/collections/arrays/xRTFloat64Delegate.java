@@ -22,6 +22,8 @@ import org.xvm.runtime.template.numbers.BaseBinaryFP.FloatHandle;
 import org.xvm.runtime.template.numbers.xFloat64;
 import org.xvm.runtime.template.numbers.xInt64;
 
+import org.xvm.util.ShallowSizeOf;
+
 
 /**
  * Native RTDelegate<Float64> implementation.
@@ -68,6 +70,12 @@ public class xRTFloat64Delegate
         return makeHandle(adValue, cSize, mutability);
         }
 
+    @Override
+    public long getStorageSize(int cCapacity)
+        {
+        return ShallowSizeOf.arrayOf(double.class, cCapacity);
+        }
+
 
     // ----- RTDelegate API ------------------------------------------------------------------------
 
@@ -22,6 +22,8 @@ import org.xvm.runtime.template.numbers.xInt64;
 
 import org.xvm.runtime.template._native.collections.arrays.BitBasedDelegate.BitArrayHandle;
 
+import org.xvm.util.ShallowSizeOf;
+
 
 /**
  * Native RTDelegate<Nibble> implementation.
@@ -82,6 +84,12 @@ public class xRTNibbleDelegate
         return new NibbleArrayHandle(getCanonicalClass(), ab, cSize, mutability);
         }
 
+    @Override
+    public long getStorageSize(int cCapacity)
+        {
+        return ShallowSizeOf.arrayOf(byte.class, storage(cCapacity));
+        }
+
     @Override
     protected int extractArrayValueImpl(Frame frame, DelegateHandle hTarget, long lIndex, int iReturn)
         {
@@ -1,6 +1,9 @@
 package org.xvm.runtime.template._native.mgmt;
 
 
+import java.math.BigDecimal;
+import java.math.MathContext;
+
 import org.xvm.asm.ClassStructure;
 import org.xvm.asm.ConstantPool;
 import org.xvm.asm.MethodStructure;
@@ -14,17 +17,28 @@ import org.xvm.asm.constants.TypeConstant;
 import org.xvm.runtime.CallChain;
 import org.xvm.runtime.Container;
 import org.xvm.runtime.Frame;
+import org.xvm.runtime.ModuleLinkCache;
 import org.xvm.runtime.NestedContainer;
 import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.ObjectHandle.GenericHandle;
+import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.ObjectHeap;
 import org.xvm.runtime.ServiceContext;
 import org.xvm.runtime.TypeComposition;
 
+import org.xvm.runtime.template.xException;
 import org.xvm.runtime.template.xNullable;
 import org.xvm.runtime.template.xService.ServiceHandle;
 
 import org.xvm.runtime.template.collections.xTuple;
 import org.xvm.runtime.template.collections.xTuple.TupleHandle;
 
+import org.xvm.runtime.template.numbers.BaseDecFP.DecimalHandle;
+import org.xvm.runtime.template.numbers.LongLong;
+import org.xvm.runtime.template.numbers.xInt128;
+import org.xvm.runtime.template.numbers.xDec64;
+import org.xvm.runtime.template.numbers.xInt64;
+
 import org.xvm.runtime.template.text.xString.StringHandle;
 
 import org.xvm.runtime.template._native.xRTServiceControl;
@@ -32,6 +46,11 @@ import org.xvm.runtime.template._native.xRTServiceControl;
 import org.xvm.runtime.template._native.reflect.xRTFunction;
 import org.xvm.runtime.template._native.reflect.xRTFunction.FunctionHandle;
 
+import org.xvm.runtime.template._native.temporal.xNanosTimer;
+
+import org.xvm.type.Decimal;
+import org.xvm.type.Decimal64;
+
 
 /**
  * Native implementation of _native.mgmt.ContainerControl class.
@@ -61,9 +80,19 @@ public class xContainerControl
 
         markNativeProperty("mainService");
         markNativeProperty("innerTypeSystem");
+        markNativeProperty("serviceCount");
+        markNativeProperty("opsExecuted");
+        markNativeProperty("objectsAllocated");
+        markNativeProperty("backlogDepth");
+        markNativeProperty("bytesReserved");
+        markNativeProperty("bytesAllocated");
+        markNativeProperty("schedulingPriority");
 
-        markNativeMethod("invoke", null, null);
-        markNativeMethod("kill",   VOID, VOID);
+        m_clzDuration = f_container.getTemplate("temporal.Duration").getCanonicalClass();
+
+        markNativeMethod("invoke",       null, null);
+        markNativeMethod("kill",         VOID, VOID);
+        markNativeMethod("limitThreads", null, VOID);
 
         invalidateTypeInfo();
         }
@@ -82,11 +111,90 @@ public class xContainerControl
 
             case "innerTypeSystem":
                 return getPropertyTypeSystem(frame, container, iReturn);
+
+            case "serviceCount":
+                return frame.assignValue(iReturn,
+                        xInt64.makeHandle(container.getServices().size()));
+
+            case "opsExecuted":
+                return frame.assignValue(iReturn,
+                        xInt64.makeHandle(container.getMetrics().getOpCount()));
+
+            case "objectsAllocated":
+                return frame.assignValue(iReturn,
+                        xInt64.makeHandle(container.getMetrics().getAllocatedObjectCount()));
+
+            case "cpuTime":
+                return frame.assignValue(iReturn,
+                        makeDuration(container.getMetrics().getCpuNanos()));
+
+            case "backlogDepth":
+                return frame.assignValue(iReturn,
+                        xInt64.makeHandle(container.getBacklogDepth()));
+
+            case "schedulingPriority":
+                return frame.assignValue(iReturn, xDec64.INSTANCE.makeHandle(new Decimal64(
+                        new BigDecimal(container.getCpuShare().getPriority(), MathContext.DECIMAL64))));
+
+            case "bytesReserved":
+                return frame.assignValue(iReturn,
+                        xInt64.makeHandle(container.getBytesReserved()));
+
+            case "bytesAllocated":
+                return frame.assignValue(iReturn,
+                        xInt64.makeHandle(container.getBytesAllocated()));
             }
 
         return super.invokeNativeGet(frame, sPropName, hTarget, iReturn);
         }
 
+    @Override
+    public int invokeNativeSet(Frame frame, ObjectHandle hTarget, String sPropName,
+                               ObjectHandle hValue)
+        {
+        Container container = ((ControlHandle) hTarget).f_container;
+        switch (sPropName)
+            {
+            case "schedulingPriority":
+                {
+                Decimal decPriority = ((DecimalHandle) hValue).getValue();
+                if (!decPriority.isFinite())
+                    {
+                    return frame.raiseException(xException.illegalArgument(frame,
+                            "Invalid priority: " + decPriority));
+                    }
+                container.getCpuShare().setPriority(decPriority.toBigDecimal().doubleValue());
+                return Op.R_NEXT;
+                }
+            }
+
+        return super.invokeNativeSet(frame, hTarget, sPropName, hValue);
+        }
+
+    @Override
+    public int invokeNative1(Frame frame, MethodStructure method, ObjectHandle hTarget,
+                             ObjectHandle hArg, int iReturn)
+        {
+        switch (method.getName())
+            {
+            case "limitThreads":
+                {
+                // the thread limit is enforced as a CPU quota: a container may use up to "max"
+                // threads worth of the CPU time in every quota period
+                long cMax = ((JavaLong) hArg).getValue();
+                if (cMax <= 0)
+                    {
+                    return frame.raiseException(xException.illegalArgument(frame,
+                            "Invalid thread count: " + cMax));
+                    }
+                ((ControlHandle) hTarget).f_container.getCpuShare().setQuotaRate(cMax);
+                return Op.R_NEXT;
+                }
+            }
+
+        return super.invokeNative1(frame, method, hTarget, hArg, iReturn);
+        }
+
     @Override
     public int invokeNativeN(Frame frame, MethodStructure method, ObjectHandle hTarget,
                              ObjectHandle[] ahArg, int iReturn)
@@ -164,11 +272,11 @@ public class xContainerControl
             switch (closeResourceProvider(frame, container.f_hProvider))
                 {
                 case Op.R_NEXT:
-                    return completeKill(frame, iReturn);
+                    return completeKill(frame, container, iReturn);
 
                 case Op.R_CALL:
                     frame.m_frameNext.addContinuation(
-                        frameCaller -> completeKill(frameCaller, iReturn));
+                        frameCaller -> completeKill(frameCaller, container, iReturn));
                     return Op.R_CALL;
 
                 case Op.R_EXCEPTION:
@@ -195,12 +303,47 @@ public class xContainerControl
         return chain.invoke(frame, hProvider, ahVars, Op.A_IGNORE);
         }
 
-    private int completeKill(Frame frame, int iReturn)
+    private int completeKill(Frame frame, NestedContainer container, int iReturn)
         {
+        discard(container);
+
         // Note: the caller is async; we must return the Tuple()
         return frame.assignValue(iReturn, xTuple.H_VOID);
         }
 
+    /**
+     * Release the resources held by a dead (or never used) container, returning its linked
+     * module to the cache unless the container still has some pending work.
+     *
+     * @param container  the container to discard
+     */
+    public void discard(NestedContainer container)
+        {
+        ObjectHeap heap = container.getObjectHeap();
+        if (heap != null)
+            {
+            heap.close();
+            }
+
+        // the containers prepared by this container will never be used
+        for (NestedContainer containerPrepared :
+                container.f_runtime.getContainerPool().drain(container))
+            {
+            discard(containerPrepared);
+            }
+
+        ModuleLinkCache cache = container.f_runtime.getLinkCache();
+        cache.purge(container);
+
+        ModuleLinkCache.Key key = container.getLinkKey();
+        if (key != null && container.getBacklogDepth() == 0)
+            {
+            container.setLinkKey(null);
+            container.f_runtime.unregisterContainer(container);
+            cache.release(key, container.getConstantPool().getFileStructure());
+            }
+        }
+
     /**
      * Native implementation of "innerTypeSystem.get()"
      */
@@ -224,6 +367,21 @@ public class xContainerControl
         }
 
 
+    /**
+     * @return an Ecstasy Duration for the specified number of nanoseconds
+     */
+    protected ObjectHandle makeDuration(long cNanos)
+        {
+        GenericHandle hDuration = new GenericHandle(m_clzDuration);
+        LongLong      llPicos   = new LongLong(cNanos).mul(xNanosTimer.PICOS_PER_NANO_LL);
+
+        hDuration.setField(null, "picoseconds", xInt128.INSTANCE.makeHandle(llPicos));
+        hDuration.makeImmutable();
+
+        return hDuration;
+        }
+
+
     // ----- ObjectHandle --------------------------------------------------------------------------
 
     public ObjectHandle makeHandle(Container container)
@@ -254,4 +412,5 @@ public class xContainerControl
         }
 
     private TypeComposition m_clzControl;
+    private TypeComposition m_clzDuration;
     }
\ No newline at end of file
@@ -6,6 +6,7 @@ import java.io.IOException;
 
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.xvm.asm.ClassStructure;
@@ -20,7 +21,9 @@ import org.xvm.asm.constants.TypeConstant;
 
 import org.xvm.runtime.CallChain;
 import org.xvm.runtime.Container;
+import org.xvm.runtime.ContainerPool;
 import org.xvm.runtime.Frame;
+import org.xvm.runtime.ModuleLinkCache;
 import org.xvm.runtime.ObjectHandle;
 import org.xvm.runtime.ObjectHandle.ExceptionHandle;
 import org.xvm.runtime.NestedContainer;
@@ -33,6 +36,8 @@ import org.xvm.runtime.template.xService;
 import org.xvm.runtime.template.collections.xArray;
 import org.xvm.runtime.template.collections.xArray.ArrayHandle;
 
+import org.xvm.runtime.template.numbers.xInt64;
+
 import org.xvm.runtime.template.text.xString;
 import org.xvm.runtime.template.text.xString.StringHandle;
 
@@ -73,6 +78,8 @@ public class xContainerLinker
         markNativeMethod("collectInjectionsImpl", null, null);
         markNativeMethod("loadFileTemplate", BYTES, null);
         markNativeMethod("resolveAndLink", null, null);
+        markNativeMethod("prepareContainer", null, VOID);
+        markNativeMethod("discardPreparedContainers", VOID, null);
 
         invalidateTypeInfo();
         }
@@ -113,6 +120,8 @@ public class xContainerLinker
                     byte[]        abContents = xRTUInt8Delegate.getBytes((ByteArrayHandle) hContents.m_hDelegate);
                     FileStructure struct = new FileStructure(new ByteArrayInputStream(abContents));
 
+                    f_container.f_runtime.getLinkCache().recordContents(struct, abContents);
+
                     return frame.assignValue(iReturn, xRTFileTemplate.makeHandle(frame.f_context.f_container, struct));
                     }
                 catch (IOException e)
@@ -133,6 +142,12 @@ public class xContainerLinker
             {
             case "resolveAndLink":
                 return invokeResolveAndLink(frame, ahArg, iReturn);
+
+            case "prepareContainer":
+                return invokePrepareContainer(frame, ahArg, iReturn);
+
+            case "discardPreparedContainers":
+                return invokeDiscardPreparedContainers(frame, iReturn);
             }
 
         return super.invokeNativeN(frame, method, hTarget, ahArg, iReturn);
@@ -225,7 +240,6 @@ public class xContainerLinker
             }
 
         Container      container = frame.f_fiber.getCallingContainer();
-        FileStructure  file      = hModule.getComponent().getFileStructure();
         ObjectHandle[] ahShared;
         ObjectHandle[] ahAdditional;
         try
@@ -242,17 +256,111 @@ public class xContainerLinker
             return frame.raiseException(e);
             }
 
+        return resolveAndLink(frame, container, hModule, hRepo, hProvider,
+                ahShared, ahAdditional, false, iReturn);
+        }
+
+    /**
+     * Native implementation of <code><pre>
+     *   void prepareContainer(
+     *      ModuleTemplate    primaryModule, ModuleRepository? repository,
+     *      ResourceProvider  provider)
+     * </pre></code>
+     */
+    private int invokePrepareContainer(Frame frame, ObjectHandle[] ahArg, int iReturn)
+        {
+        ComponentTemplateHandle hModule   = (ComponentTemplateHandle) ahArg[0];
+        ObjectHandle            hRepo     = ahArg[1]; // mgmt.ModuleRepository
+        ObjectHandle            hProvider = ahArg[2]; // mgmt.ResourceProvider
+
+        if (!hProvider.isService())
+            {
+            return frame.raiseException(
+                xException.illegalArgument(frame, "ResourceProvider must be a service"));
+            }
+
+        Container container = frame.f_fiber.getCallingContainer();
+        if (!container.f_runtime.getLinkCache().isEnabled() ||
+                hModule.getComponent().getFileStructure().isLinked())
+            {
+            return frame.raiseException(
+                xException.unsupported(frame, "The module cannot be prepared"));
+            }
+
+        return resolveAndLink(frame, container, hModule, hRepo, hProvider,
+                Utils.OBJECTS_NONE, Utils.OBJECTS_NONE, true, iReturn);
+        }
+
+    /**
+     * Native implementation of "Int discardPreparedContainers()".
+     */
+    private int invokeDiscardPreparedContainers(Frame frame, int iReturn)
+        {
+        Container             container = frame.f_fiber.getCallingContainer();
+        List<NestedContainer> listDrained =
+                container.f_runtime.getContainerPool().drain(container);
+
+        for (NestedContainer containerPrepared : listDrained)
+            {
+            xContainerControl.INSTANCE.discard(containerPrepared);
+            }
+        return frame.assignValue(iReturn, xInt64.makeHandle(listDrained.size()));
+        }
+
+    /**
+     * Resolve and link the specified module into a new nested container.
+     *
+     * @param fPrepare  if true, the new container is placed into the {@link ContainerPool} rather
+     *                  than returned
+     */
+    private int resolveAndLink(Frame frame, Container container, ComponentTemplateHandle hModule,
+                               ObjectHandle hRepo, ObjectHandle hProvider,
+                               ObjectHandle[] ahShared, ObjectHandle[] ahAdditional,
+                               boolean fPrepare, int iReturn)
+        {
+        FileStructure file = hModule.getComponent().getFileStructure();
+
+        // only a module that is linked against nothing but the repository can be reused
+        ModuleLinkCache.Key key = null;
+        if (ahShared.length == 0 && ahAdditional.length == 0 && !file.isLinked())
+            {
+            ModuleLinkCache cache = container.f_runtime.getLinkCache();
+
+            key = cache.makeKey(container, file, hRepo);
+            if (key != null)
+                {
+                if (!fPrepare)
+                    {
+                    NestedContainer containerPrepared =
+                            container.f_runtime.getContainerPool().take(key, hProvider);
+                    if (containerPrepared != null)
+                        {
+                        return frame.assignValue(iReturn,
+                                xContainerControl.INSTANCE.makeHandle(containerPrepared));
+                        }
+                    }
+
+                FileStructure fileLinked = cache.take(key);
+                if (fileLinked != null)
+                    {
+                    return completeResolveAndLink(frame, container, fileLinked.getModule(),
+                            hProvider, key, fPrepare, iReturn);
+                    }
+                }
+            }
+
+        ModuleLinkCache.Key keyLink = key;
         switch (xRTFileTemplate.INSTANCE.invokeResolve(frame, file, hRepo,
                     ahShared, ahAdditional, Op.A_STACK))
             {
             case Op.R_NEXT:
                 return completeResolveAndLink(frame, container, popModule(frame),
-                        hProvider, iReturn);
+                        hProvider, keyLink, fPrepare, iReturn);
 
             case Op.R_CALL:
                 Frame.Continuation stepNext = frameCaller ->
                     completeResolveAndLink(frameCaller, container, popModule(frameCaller),
-                        hProvider, iReturn);
+                        hProvider, keyLink, fPrepare, iReturn);
                 frame.m_frameNext.addContinuation(stepNext);
                 return Op.R_CALL;
 
@@ -274,19 +382,32 @@ public class xContainerLinker
         }
 
     private int completeResolveAndLink(Frame frame, Container container,
-                                       ModuleStructure moduleApp, ObjectHandle hProvider, int iReturn)
+                                       ModuleStructure moduleApp, ObjectHandle hProvider,
+                                       ModuleLinkCache.Key keyLink, boolean fPrepare,
+                                       int iReturn)
         {
         NestedContainer containerNested = new NestedContainer(container,
                 moduleApp.getIdentityConstant(), hProvider, Collections.emptyList());
-        return new CollectResources(containerNested, iReturn).doNext(frame);
+        containerNested.setLinkKey(keyLink);
+        return new CollectResources(containerNested, fPrepare, iReturn).doNext(frame);
         }
 
     public static class CollectResources
                 implements Frame.Continuation
         {
         public CollectResources(NestedContainer container, int iReturn)
+            {
+            this(container, false, iReturn);
+            }
+
+        /**
+         * @param fPrepare  if true, the container is started and placed into the
+         *                  {@link ContainerPool} rather than returned
+         */
+        public CollectResources(NestedContainer container, boolean fPrepare, int iReturn)
             {
             this.container = container;
+            this.fPrepare  = fPrepare;
             this.aKeys     = container.collectInjections().toArray(InjectionKey.NO_INJECTIONS);
             this.hProvider = container.f_hProvider;
             this.iReturn   = iReturn;
@@ -341,11 +462,19 @@ public class xContainerLinker
                     }
                 }
 
+            if (fPrepare)
+                {
+                container.ensureServiceContext();
+                container.f_runtime.getContainerPool().offer(container);
+                return Op.R_NEXT;
+                }
+
             return frameCaller.assignValue(iReturn,
                 xContainerControl.INSTANCE.makeHandle(container));
             }
 
         private final NestedContainer container;
+        private final boolean         fPrepare;
         private final InjectionKey[]  aKeys;
         private final ObjectHandle    hProvider;
         private final int             iReturn;
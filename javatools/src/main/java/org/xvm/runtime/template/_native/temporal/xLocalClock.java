@@ -1,9 +1,6 @@
 package org.xvm.runtime.template._native.temporal;
 
 
-import java.util.Timer;
-import java.util.TimerTask;
-
 import org.xvm.asm.ClassStructure;
 import org.xvm.asm.ConstantPool;
 import org.xvm.asm.MethodStructure;
@@ -16,6 +13,7 @@ import org.xvm.runtime.Frame;
 import org.xvm.runtime.ObjectHandle;
 import org.xvm.runtime.ObjectHandle.GenericHandle;
 import org.xvm.runtime.ServiceContext;
+import org.xvm.runtime.TimerWheel;
 import org.xvm.runtime.TypeComposition;
 import org.xvm.runtime.Utils;
 import org.xvm.runtime.WeakCallback;
@@ -279,7 +277,7 @@ public class xLocalClock
             }
 
         /**
-         * Called when the alarm is triggered by the Java timer.
+         * Called when the alarm is triggered by the timer wheel.
          */
         public void run()
             {
@@ -329,10 +327,10 @@ public class xLocalClock
             }
 
         /**
-         * A TimerTask that is scheduled on the Java timer and is used to trigger the alarm.
+         * A task that is scheduled on the timer wheel and is used to trigger the alarm.
          */
         protected static class Trigger
-                extends TimerTask
+                extends TimerWheel.Task
             {
             protected Trigger(Alarm alarm)
                 {
@@ -357,7 +355,10 @@ public class xLocalClock
 
     // ----- constants and fields ------------------------------------------------------------------
 
-    public static Timer TIMER = new Timer("ecstasy:LocalClock", true);
+    /**
+     * The timer wheel shared by the clocks, the timers and the fiber timeouts.
+     */
+    public static final TimerWheel TIMER = new TimerWheel("ecstasy:LocalClock");
 
     /**
      * Cached Time class.
@@ -1,8 +1,6 @@
 package org.xvm.runtime.template._native.temporal;
 
 
-import java.util.TimerTask;
-
 import org.xvm.asm.ClassStructure;
 import org.xvm.asm.MethodStructure;
 import org.xvm.asm.Op;
@@ -15,6 +13,7 @@ import org.xvm.runtime.Frame;
 import org.xvm.runtime.ObjectHandle;
 import org.xvm.runtime.ObjectHandle.GenericHandle;
 import org.xvm.runtime.ServiceContext;
+import org.xvm.runtime.TimerWheel;
 import org.xvm.runtime.TypeComposition;
 import org.xvm.runtime.Utils;
 import org.xvm.runtime.WeakCallback;
@@ -131,7 +130,7 @@ public class xNanosTimer
     public ObjectHandle ensureTimer(Frame frame, ObjectHandle hOpts)
         {
         // quite intentionally the NanoTimer service always belongs to the native container, holding
-        // onto Alarm objects that are registered with Java's Timer (xLocalClock.TIMER);
+        // onto Alarm objects that are registered with the timer wheel (xLocalClock.TIMER);
         // in turn, the Alarm holds a user-supplied function via a WeakRef, allowing the
         // corresponding container to be shut down and garbage collected
         return createServiceHandle(
@@ -155,7 +154,7 @@ public class xNanosTimer
     private int invokeSchedule(Frame frame, TimerHandle hTimer, GenericHandle hDuration,
                                FunctionHandle hAlarm, BooleanHandle hKeepAlive, int iReturn)
         {
-        // Java's Timer uses millisecond scheduling, but we're given duration in picoseconds
+        // the timer wheel uses millisecond scheduling, but we're given duration in picoseconds
         LongLongHandle llPicos = (LongLongHandle) hDuration.getField(frame, "picoseconds");
         long           cNanos  = Math.max(0, llPicos.getValue().divUnsigned(PICOS_PER_NANO).getLowValue());
 
@@ -413,7 +412,7 @@ public class xNanosTimer
                 }
 
             /**
-             * Called when the alarm is triggered by the Java timer.
+             * Called when the alarm is triggered by the timer wheel.
              */
             public void run()
                 {
@@ -508,10 +507,10 @@ public class xNanosTimer
                 }
 
             /**
-             * A TimerTask that is scheduled on the Java timer and is used to trigger the alarm.
+             * A task that is scheduled on the timer wheel and is used to trigger the alarm.
              */
             protected static class Trigger
-                    extends TimerTask
+                    extends TimerWheel.Task
                 {
                 protected Trigger(Alarm alarm)
                     {
@@ -25,6 +25,7 @@ import org.xvm.runtime.ObjectHandle;
 import org.xvm.runtime.ObjectHandle.ExceptionHandle;
 import org.xvm.runtime.ObjectHandle.GenericHandle;
 import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.ObjectHeap;
 import org.xvm.runtime.TypeComposition;
 import org.xvm.runtime.ClassTemplate;
 import org.xvm.runtime.Utils;
@@ -53,6 +54,7 @@ import org.xvm.runtime.template._native.collections.arrays.xRTViewToBit;
 import org.xvm.runtime.template._native.reflect.xRTFunction.FunctionHandle;
 
 import org.xvm.util.Handy;
+import org.xvm.util.ShallowSizeOf;
 
 
 /**
@@ -954,6 +956,7 @@ public class xArray
     public static ArrayHandle makeBitArrayHandle(byte[] abValue, int cBits, Mutability mutability)
         {
         DelegateHandle hDelegate = xRTBitDelegate.INSTANCE.makeHandle(abValue, cBits, mutability);
+        charge(hDelegate, ShallowSizeOf.arrayOf(byte.class, abValue.length));
         return new ArrayHandle(BIT_ARRAY_CLZ, hDelegate, mutability);
         }
 
@@ -963,6 +966,7 @@ public class xArray
     public static ArrayHandle makeBooleanArrayHandle(byte[] abValue, int cBits, Mutability mutability)
         {
         DelegateHandle hDelegate = xRTBooleanDelegate.INSTANCE.makeHandle(abValue, cBits, mutability);
+        charge(hDelegate, ShallowSizeOf.arrayOf(byte.class, abValue.length));
         return new ArrayHandle(BOOLEAN_ARRAY_CLZ, hDelegate, mutability);
         }
 
@@ -976,6 +980,7 @@ public class xArray
             return ensureEmptyByteArray();
             }
         DelegateHandle hDelegate = xRTUInt8Delegate.INSTANCE.makeHandle(abValue, abValue.length, mutability);
+        charge(hDelegate, ShallowSizeOf.arrayOf(byte.class, abValue.length));
         return new ArrayHandle(BYTE_ARRAY_CLZ, hDelegate, mutability);
         }
 
@@ -999,6 +1004,7 @@ public class xArray
     public static ArrayHandle makeCharArrayHandle(char[] achValue, Mutability mutability)
         {
         DelegateHandle hDelegate = xRTCharDelegate.INSTANCE.makeHandle(achValue, mutability);
+        charge(hDelegate, ShallowSizeOf.arrayOf(char.class, achValue.length));
         return new ArrayHandle(CHAR_ARRAY_CLZ, hDelegate, mutability);
         }
 
@@ -1035,8 +1041,28 @@ public class xArray
             {
             cCapacity = ahValue.length;
             }
-        return templateDelegate.createDelegate(
-                clzArray.getContainer(), typeElement, cCapacity, ahValue, mutability);
+        return charge(templateDelegate.createDelegate(
+                clzArray.getContainer(), typeElement, cCapacity, ahValue, mutability),
+                templateDelegate.getStorageSize(cCapacity));
+        }
+
+    /**
+     * Account for the storage of a newly created delegate in the heap of the current container
+     * (if any). Note that only the capacity the array is created with is accounted for.
+     *
+     * @param hDelegate  the delegate
+     * @param cb         the estimated storage size in bytes
+     *
+     * @return the delegate
+     */
+    private static DelegateHandle charge(DelegateHandle hDelegate, long cb)
+        {
+        ObjectHeap heap = ObjectHeap.current();
+        if (heap != null)
+            {
+            heap.charge(cb);
+            }
+        return hDelegate;
         }
 
     public static class ArrayHandle
@@ -7,6 +7,7 @@ import java.util.Map;
 
 import org.xvm.asm.ClassStructure;
 import org.xvm.asm.Constant;
+import org.xvm.asm.ConstantPool;
 import org.xvm.asm.MethodStructure;
 import org.xvm.asm.Op;
 
@@ -764,6 +765,13 @@ public class xTuple
         {
         public ObjectHandle[] m_ahValue;
 
+        /**
+         * The identity token of the type system (see {@link ConstantPool#getIdentityToken}) that all
+         * the values of this immutable tuple are known to be shared with (optional); unlike the
+         * ConstantPool itself, the token doesn't keep a dead container's type system reachable.
+         */
+        private Object m_oSharedPool;
+
         protected TupleHandle(TypeComposition clazz, ObjectHandle[] ahValue, boolean fMutable)
             {
             super(clazz);
@@ -836,13 +844,38 @@ public class xTuple
         @Override
         public boolean isShared(Container container, Map<ObjectHandle, Boolean> mapVisited)
             {
-            if (mapVisited == null)
+            ConstantPool pool = container.getConstantPool();
+            if (m_oSharedPool == pool.getIdentityToken())
+                {
+                return true;
+                }
+
+            boolean fTop = mapVisited == null;
+            if (fTop)
                 {
                 mapVisited = new IdentityHashMap<>();
                 }
 
-            return mapVisited.put(this, Boolean.TRUE) != null ||
-                   areShared(m_ahValue, container, mapVisited);
+            if (mapVisited.put(this, Boolean.TRUE) != null)
+                {
+                return true;
+                }
+
+            if (areShared(m_ahValue, container, mapVisited))
+                {
+                if (fTop)
+                    {
+                    markShared(container, mapVisited);
+                    }
+                return true;
+                }
+            return false;
+            }
+
+        @Override
+        protected void setSharedPool(ConstantPool pool)
+            {
+            m_oSharedPool = pool.getIdentityToken();
             }
 
         @Override
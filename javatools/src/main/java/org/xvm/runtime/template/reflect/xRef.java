@@ -505,7 +505,7 @@ public class xRef
                 int   nVar     = hRef.m_iVar;
                 assert frameRef != null && nVar >= 0;
 
-                hValue = frameRef.f_ahVar[nVar];
+                hValue = frameRef.getRegister(nVar);
                 return hValue == null
                         ? frame.raiseException(xException.unassignedReference(frame))
                         : frame.assignValue(iReturn, hValue);
@@ -978,7 +978,7 @@ public class xRef
 
                 default:
                     {
-                    ObjectHandle hReferent = m_frame.f_ahVar[m_iVar];
+                    ObjectHandle hReferent = m_frame.getRegister(m_iVar);
                     if (hReferent != null)
                         {
                         fDone = hReferent.makeImmutable();
@@ -1124,7 +1124,7 @@ public class xRef
             {
             assert m_frame != null && m_iVar >= 0;
 
-            ObjectHandle hValue = m_frame.f_ahVar[m_iVar];
+            ObjectHandle hValue = m_frame.getRegister(m_iVar);
             m_frame = null;
             m_iVar  = REF_REFERENT;
             setReferent(hValue);
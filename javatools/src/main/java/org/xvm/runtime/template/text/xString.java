@@ -16,6 +16,7 @@ import org.xvm.runtime.Container;
 import org.xvm.runtime.Frame;
 import org.xvm.runtime.ObjectHandle;
 import org.xvm.runtime.ObjectHandle.JavaLong;
+import org.xvm.runtime.ObjectHeap;
 import org.xvm.runtime.TypeComposition;
 import org.xvm.runtime.Utils;
 
@@ -37,6 +38,7 @@ import org.xvm.runtime.template._native.collections.arrays.xRTDelegate.DelegateH
 import org.xvm.runtime.template._native.collections.arrays.xRTSlicingDelegate.SliceHandle;
 
 import org.xvm.util.Handy;
+import org.xvm.util.ShallowSizeOf;
 
 
 /**
@@ -445,9 +447,18 @@ public class xString
 
     public static StringHandle makeHandle(char[] achValue)
         {
-        return achValue.length == 0
-            ? EMPTY_STRING
-            : new StringHandle(INSTANCE.getCanonicalClass(), achValue);
+        if (achValue.length == 0)
+            {
+            return EMPTY_STRING;
+            }
+
+        StringHandle hString = new StringHandle(INSTANCE.getCanonicalClass(), achValue);
+        ObjectHeap   heap    = ObjectHeap.current();
+        if (heap != null)
+            {
+            heap.charge(STRING_SIZE + ShallowSizeOf.arrayOf(char.class, achValue.length));
+            }
+        return hString;
         }
 
 
@@ -489,4 +500,9 @@ public class xString
 
     private static ArrayHandle     EMPTY_STRING_ARRAY;
     private static MethodStructure METHOD_APPEND_TO;
+
+    /**
+     * The estimated size of a StringHandle itself.
+     */
+    private static final long STRING_SIZE = ShallowSizeOf.instanceOf(StringHandle.class);
     }
\ No newline at end of file
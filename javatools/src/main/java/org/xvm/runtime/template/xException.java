@@ -54,6 +54,7 @@ public class xException
             s_clzInvalidType                = f_container.getTemplate("reflect.InvalidType"           ).getCanonicalClass();
             s_clzNotImplemented             = f_container.getTemplate("NotImplemented"               ).getCanonicalClass();
             s_clzOutOfBounds                = f_container.getTemplate("OutOfBounds"                  ).getCanonicalClass();
+            s_clzOutOfMemory                = f_container.getTemplate("OutOfMemory"                  ).getCanonicalClass();
             s_clzReadOnly                   = f_container.getTemplate("ReadOnly"                     ).getCanonicalClass();
             s_clzSizeLimited                = f_container.getTemplate("collections.SizeLimited"      ).getCanonicalClass();
             s_clzTimedOut                   = f_container.getTemplate("TimedOut"                     ).getCanonicalClass();
@@ -217,6 +218,11 @@ public class xException
         return makeHandle(frame, s_clzSizeLimited, sMsg);
         }
 
+    public static ExceptionHandle outOfMemory(Frame frame, String sMsg)
+        {
+        return makeHandle(frame, s_clzOutOfMemory, sMsg);
+        }
+
     public static ExceptionHandle timedOut(Frame frame, String sMsg, ObjectHandle hTimeout)
         {
         ExceptionHandle hEx = makeHandle(frame, s_clzTimedOut, sMsg);
@@ -389,6 +395,7 @@ public class xException
     private static ClassComposition s_clzInvalidType;
     private static ClassComposition s_clzNotImplemented;
     private static ClassComposition s_clzOutOfBounds;
+    private static ClassComposition s_clzOutOfMemory;
     private static ClassComposition s_clzReadOnly;
     private static ClassComposition s_clzSizeLimited;
     private static ClassComposition s_clzTimedOut;
@@ -4,10 +4,22 @@ package org.xvm.tool;
 import java.io.File;
 import java.io.IOException;
 
+import java.nio.file.Files;
+
+import java.text.ParseException;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+
+import java.util.concurrent.ForkJoinPool;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
 
 import org.xvm.asm.ClassStructure;
 import org.xvm.asm.ConstantPool;
@@ -20,6 +32,7 @@ import org.xvm.asm.Version;
 
 import org.xvm.asm.constants.TypeConstant;
 
+import org.xvm.compiler.CompilerProfiler;
 import org.xvm.compiler.Token;
 
 import org.xvm.tool.ModuleInfo.Node;
@@ -94,6 +107,9 @@ import static org.xvm.util.Handy.resolveFile;
  * <li>{@code --nodoc} - (not implemented) do not include documentation in the compiled module</li>
  * <li>{@code --strict} - convert warnings to errors</li>
  * <li>{@code --nowarn} - suppress warnings</li>
+ * <li>{@code --profile} - report the cost of the compilation per module, class and phase, and
+ *     store the report ("xcc-profile.tsv") and a flight recording ("xcc-profile.jfr") in the
+ *     output directory</li>
  * <li>{@code -v} / {@code --verbose} - provide information about the work being done by the compilation process</li>
  * </ul>
  */
@@ -144,6 +160,31 @@ public class Compiler
 
     @Override
     protected void process()
+        {
+        if (!options().isProfiling())
+            {
+            compile();
+            return;
+            }
+
+        CompilerProfiler profiler  = new CompilerProfiler();
+        Recording        recording = startRecording();
+        m_profiler = profiler;
+        try
+            {
+            compile();
+            }
+        finally
+            {
+            m_profiler = null;
+            reportProfile(profiler, recording);
+            }
+        }
+
+    /**
+     * Select the modules that need to be compiled, compile them, and store the results.
+     */
+    protected void compile()
         {
         if (options().isShowVersion())
             {
@@ -251,7 +292,11 @@ public class Compiler
             {
             log(Severity.INFO, "Loading and parsing sources for module: "
                     + moduleInfo.getQualifiedModuleName());
-            Node node = moduleInfo.getSourceTree(this);
+            Node node;
+            try (var ignore = profile(moduleInfo.getQualifiedModuleName(), "Parsed"))
+                {
+                node = moduleInfo.getSourceTree(this);
+                }
 
             // short-circuit the compilation of any up-to-date modules
             if (fRebuild || !moduleInfo.isUpToDate())
@@ -262,12 +307,18 @@ public class Compiler
                     ++cSystemModules;
                     }
                 }
-            else if (verStamp != null && !verStamp.equals(moduleInfo.getModuleVersion()))
+            else
                 {
-                // recompile is not required, but the version stamp needs to be added
-                log(Severity.INFO, "Stamping version " + verStamp
-                        + " onto module: " + moduleInfo.getQualifiedModuleName());
-                addVersion(moduleInfo, verStamp);
+                // the parse tree of a module that is not being compiled is not needed
+                moduleInfo.releaseSourceTree();
+
+                if (verStamp != null && !verStamp.equals(moduleInfo.getModuleVersion()))
+                    {
+                    // recompile is not required, but the version stamp needs to be added
+                    log(Severity.INFO, "Stamping version " + verStamp
+                            + " onto module: " + moduleInfo.getQualifiedModuleName());
+                    addVersion(moduleInfo, verStamp);
+                    }
                 }
             }
         checkErrors();
@@ -317,9 +368,43 @@ public class Compiler
         validateExpressions(compilers);
         flushAndCheckErrors(allNodes);
 
-        log(Severity.INFO, "Generating code");
-        generateCode(compilers);
-        flushAndCheckErrors(allNodes);
+        // the code for the classes and methods can be generated on multiple threads; the
+        // expressions are validated on the calling thread, since the validation modifies the
+        // class structures that the other threads would be reading
+        int          cThreads = options().getThreadCount();
+        ForkJoinPool poolFork = cThreads > 1 ? new ForkJoinPool(cThreads) : null;
+        // while the code is generated on multiple threads, the TypeInfos for all the modules of
+        // this compilation are built under one lock
+        Object lockTypeInfo = poolFork == null ? null : new Object();
+        try
+            {
+            for (var compiler : compilers)
+                {
+                compiler.setForkJoinPool(poolFork);
+                compiler.getFileStructure().getConstantPool().setTypeInfoLock(lockTypeInfo);
+                }
+
+            log(Severity.INFO, "Generating code");
+            generateCode(compilers);
+            flushAndCheckErrors(allNodes);
+            }
+        finally
+            {
+            if (poolFork != null)
+                {
+                for (var compiler : compilers)
+                    {
+                    compiler.getFileStructure().getConstantPool().setTypeInfoLock(null);
+                    }
+                poolFork.shutdown();
+                }
+            }
+
+        // from now on, only the nodes refer to the source trees, so that each tree can be let go
+        // of as soon as its module is stored
+        mapTargets.clear();
+        mapCompilers.clear();
+        Arrays.fill(compilers, null);
 
         if (allNodes.length == 1)
             {
@@ -389,8 +474,10 @@ public class Compiler
                 continue;
                 }
 
-            var           compiler = new org.xvm.compiler.Compiler(node.type(), node.errs());
-            FileStructure struct   = compiler.generateInitialFileStructure();
+            var compiler = new org.xvm.compiler.Compiler(node.type(), node.errs());
+            compiler.setProfiler(m_profiler);
+
+            FileStructure struct = compiler.generateInitialFileStructure();
             if (struct == null)
                 {
                 return null;
@@ -589,12 +676,17 @@ public class Compiler
 
     /**
      * Emit the results of compilation.
+     * <p/>
+     * As soon as a module is stored, its errors are logged and its source tree is released, and
+     * the corresponding element of the passed array is set to null, since nothing can refer to the
+     * module's source text or ASTs anymore.
      */
     protected void emitModules(Node[] allNodes, ModuleRepository repoOutput)
         {
         Version version = options().getVersion();
-        for (Node nodeModule : allNodes)
+        for (int i = 0, c = allNodes.length; i < c; ++i)
             {
+            Node            nodeModule = allNodes[i];
             ModuleStructure module = (ModuleStructure) nodeModule.type().getComponent();
 
             assert !module.isFingerprint();
@@ -605,7 +697,7 @@ public class Compiler
 
             if (repoOutput != null)
                 {
-                try
+                try (var ignore = profile(module.getName(), "Stored"))
                     {
                     repoOutput.storeModule(module);
                     }
@@ -642,7 +734,7 @@ public class Compiler
                     }
 
                 FileStructure struct = module.getFileStructure();
-                try
+                try (var ignore = profile(module.getName(), "Stored"))
                     {
                     struct.writeTo(file);
                     }
@@ -653,9 +745,150 @@ public class Compiler
                             + file.getAbsolutePath() + "\"");
                     }
                 }
+
+            nodeModule.logErrors(this);
+            nodeModule.moduleInfo().releaseSourceTree();
+            allNodes[i] = null;
+            }
+        }
+
+
+    // ----- profiling -----------------------------------------------------------------------------
+
+    /**
+     * Start attributing the work done by the current thread to the specified module and phase, if
+     * the compilation is being profiled.
+     *
+     * @param sModule  the module name
+     * @param sPhase   the phase name
+     *
+     * @return the profiler scope to close when the work is done, or null
+     */
+    protected CompilerProfiler.Scope profile(String sModule, String sPhase)
+        {
+        CompilerProfiler profiler = m_profiler;
+        return profiler == null ? null : profiler.enter(sModule, null, sPhase, false);
+        }
+
+    /**
+     * Start a flight recording of the compilation, using the JDK "profile" settings plus the
+     * compiler phase events.
+     *
+     * @return the recording, or null if it could not be started
+     */
+    protected Recording startRecording()
+        {
+        try
+            {
+            Recording recording = new Recording(Configuration.getConfiguration("profile"));
+            recording.setName("xcc");
+            recording.enable(CompilerProfiler.EVENT_NAME);
+            recording.start();
+            return recording;
+            }
+        catch (IOException | ParseException | RuntimeException e)
+            {
+            log(Severity.WARNING, "Failed to start the flight recording: " + e);
+            return null;
+            }
+        }
+
+    /**
+     * Store the profile report and the flight recording, and print the summary of the report.
+     *
+     * @param profiler   the profiler that recorded the compilation
+     * @param recording  the flight recording of the compilation, or null
+     */
+    protected void reportProfile(CompilerProfiler profiler, Recording recording)
+        {
+        File dir = getProfileDirectory();
+        dir.mkdirs();
+
+        File fileReport = new File(dir, PROFILE_NAME + ".tsv");
+        try
+            {
+            Files.write(fileReport.toPath(), profiler.report());
+            }
+        catch (IOException e)
+            {
+            log(Severity.WARNING, "Failed to store the profile report " + fileReport + ": " + e);
+            }
+
+        if (recording != null)
+            {
+            File fileRecording = new File(dir, PROFILE_NAME + ".jfr");
+            try (recording)
+                {
+                recording.stop();
+                recording.dump(fileRecording.toPath());
+                }
+            catch (IOException | RuntimeException e)
+                {
+                log(Severity.WARNING, "Failed to store the flight recording " + fileRecording + ": " + e);
+                }
+            }
+
+        // summarize the cost per module and phase, and the most expensive classes
+        Map<String, long[]> mapPhases  = new TreeMap<>();
+        Map<String, long[]> mapClasses = new HashMap<>();
+        for (CompilerProfiler.Stats stats : profiler.getStats())
+            {
+            long[] alPhase = mapPhases.computeIfAbsent(stats.getModule() + ' ' + stats.getPhase(),
+                    k -> new long[5]);
+            addStats(alPhase, stats);
+
+            if (!stats.getClassName().isEmpty())
+                {
+                addStats(mapClasses.computeIfAbsent(stats.getModule() + ' ' + stats.getClassName(),
+                        k -> new long[5]), stats);
+                }
+            }
+
+        out("Compilation profile (wall ms, cpu ms, allocated KB, revisits, TypeInfos): " + fileReport);
+        mapPhases.forEach((sKey, al) -> out(formatStats(sKey, al)));
+
+        List<Map.Entry<String, long[]>> listClasses = new ArrayList<>(mapClasses.entrySet());
+        listClasses.sort((e1, e2) -> Long.compare(e2.getValue()[0], e1.getValue()[0]));
+        if (!listClasses.isEmpty())
+            {
+            out("Most expensive classes:");
+            for (Map.Entry<String, long[]> entry : listClasses.subList(0, Math.min(PROFILE_TOP, listClasses.size())))
+                {
+                out(formatStats(entry.getKey(), entry.getValue()));
+                }
             }
         }
 
+    /**
+     * @return the directory to store the profile report and the flight recording in
+     */
+    protected File getProfileDirectory()
+        {
+        File fileOut = options().getOutputLocation();
+        if (fileOut == null)
+            {
+            return new File(System.getProperty("user.dir"));
+            }
+        return isExplicitCompiledFile(fileOut.getName())
+                ? fileOut.getAbsoluteFile().getParentFile()
+                : fileOut;
+        }
+
+    private static void addStats(long[] al, CompilerProfiler.Stats stats)
+        {
+        al[0] += stats.getWallNanos();
+        al[1] += stats.getCpuNanos();
+        al[2] += stats.getAllocatedBytes();
+        al[3] += stats.getRevisitCount();
+        al[4] += stats.getTypeInfoCount();
+        }
+
+    private static String formatStats(String sKey, long[] al)
+        {
+        return String.format("  %-60s %10.1f %10.1f %12d %8d %8d", sKey,
+                al[0] / 1_000_000.0, al[1] / 1_000_000.0, al[2] / 1024, al[3], al[4]);
+        }
+
 
     // ----- text output and error handling --------------------------------------------------------
 
@@ -762,6 +995,8 @@ public class Compiler
             addOption("o" ,     null,          Form.File,   false, "File or directory to write output to");
             addOption(null,     "qualify",     Form.Name,   false, "Use full module name for the output file name");
             addOption(null,     "set-version", Form.String, false, "Specify the version to stamp onto the compiled module(s)");
+            addOption(null,     "threads",     Form.Int,    false, "Number of threads to generate code on (default 1)");
+            addOption(null,     "profile",     Form.Name,   false, "Record the cost of the compilation per module, class and phase");
             addOption(Trailing, null,          Form.File,   true,  "Source file name(s) and/or module location(s) to compile");
             }
 
@@ -817,6 +1052,23 @@ public class Compiler
             return sVersion == null ? null : new Version(sVersion);
             }
 
+        /**
+         * @return the number of threads to generate the code on
+         */
+        public int getThreadCount()
+            {
+            Integer cThreads = (Integer) values().get("threads");
+            return cThreads == null ? 1 : cThreads;
+            }
+
+        /**
+         * @return true if "profile" option is set
+         */
+        public boolean isProfiling()
+            {
+            return specified("profile");
+            }
+
         /**
          * @return true if "fully qualified module name in output file name" option is set
          */
@@ -851,6 +1103,11 @@ public class Compiler
                 strictLevel = Strictness.Suppressed;
                 }
 
+            if (getThreadCount() < 1)
+                {
+                log(Severity.ERROR, "The number of threads must be positive: " + getThreadCount());
+                }
+
             // validate the -L path of file(s)/dir(s)
             validateModulePath(getModulePath());
 
@@ -910,4 +1167,19 @@ public class Compiler
     protected ModuleInfo[]     prevModules;
     protected ModuleRepository prevLibs;
     protected ModuleRepository prevOutput;
+
+    /**
+     * The name of the profile report and flight recording files (without the extension).
+     */
+    protected static final String PROFILE_NAME = "xcc-profile";
+
+    /**
+     * The number of the most expensive classes to print in the profile summary.
+     */
+    protected static final int PROFILE_TOP = 20;
+
+    /**
+     * The profiler of the current compilation, or null if it is not being profiled.
+     */
+    private CompilerProfiler m_profiler;
     }
\ No newline at end of file
@@ -0,0 +1,414 @@
+package org.xvm.tool;
+
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import java.nio.file.attribute.PosixFilePermissions;
+
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import java.util.HexFormat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.xvm.tool.Launcher.Console;
+import org.xvm.tool.Launcher.LauncherException;
+
+
+/**
+ * A long-lived process that compiles modules on behalf of the build tools. The library modules,
+ * together with the TypeInfos computed for them, are kept in a {@link RepositoryCache} between the
+ * compilations, and the compilations run on an already warmed-up JVM.
+ * <p/>
+ * Usage: {@code CompilerDaemon <port-file> [<idle-minutes>]}
+ * <p/>
+ * The daemon listens on an ephemeral loopback port, and writes the port number and a randomly
+ * generated token into the port file (readable only by its owner). Each connection carries one
+ * request:
+ * <pre>
+ *   request:   UTF token, UTF command ("xcc" or "stop"), int argument count, UTF arguments
+ *   response:  the accept frame (byte 'A'), followed by any number of output frames (byte 'O' or
+ *              'E', int length, UTF-8 bytes of a line), followed by the exit frame (byte 'X', int
+ *              exit code); or, if the request is rejected, the protocol error frame (byte 'P',
+ *              int length, UTF-8 bytes of the reason)
+ * </pre>
+ * The accept frame is sent as soon as the request has been read, so a client can tell a daemon
+ * that accepted the request from a daemon that rejected it, or from another process that happens
+ * to listen on the published port, without waiting for the request to complete.
+ * The relative paths in the arguments are resolved against the working directory of the daemon,
+ * so the clients are expected to pass absolute paths. The daemon terminates after it has been
+ * idle for the specified number of minutes, or when it receives the "stop" command.
+ */
+public class CompilerDaemon
+    {
+    /**
+     * Construct a compiler daemon.
+     *
+     * @param filePort     the file to publish the port and the token in
+     * @param cIdleMillis  the idle time after which the daemon terminates
+     */
+    public CompilerDaemon(File filePort, long cIdleMillis)
+        {
+        byte[] abToken = new byte[16];
+        new SecureRandom().nextBytes(abToken);
+
+        f_filePort    = filePort;
+        f_cIdleMillis = cIdleMillis;
+        f_sToken      = HexFormat.of().formatHex(abToken);
+        }
+
+    /**
+     * Entry point from the OS.
+     *
+     * @param asArg  command line arguments
+     */
+    public static void main(String[] asArg)
+            throws IOException
+        {
+        if (asArg.length < 1)
+            {
+            System.err.println("Usage: CompilerDaemon <port-file> [<idle-minutes>]");
+            System.exit(1);
+            }
+
+        long cIdleMinutes = asArg.length > 1 ? Long.parseLong(asArg[1]) : DEFAULT_IDLE_MINUTES;
+        new CompilerDaemon(new File(asArg[0]), TimeUnit.MINUTES.toMillis(cIdleMinutes)).serve();
+        }
+
+
+    // ----- CompilerDaemon API --------------------------------------------------------------------
+
+    /**
+     * Serve the requests until the daemon is stopped or becomes idle.
+     */
+    public void serve()
+            throws IOException
+        {
+        ExecutorService executor = Executors.newCachedThreadPool(r ->
+            {
+            Thread thread = new Thread(r, "CompilerDaemon");
+            thread.setDaemon(true);
+            return thread;
+            });
+
+        try (ServerSocket socketServer = new ServerSocket(0, 50, InetAddress.getLoopbackAddress()))
+            {
+            socketServer.setSoTimeout((int) Math.min(f_cIdleMillis, IDLE_CHECK_MILLIS));
+            publish(socketServer.getLocalPort());
+
+            m_ldtActive = System.currentTimeMillis();
+            while (!m_fStopped)
+                {
+                Socket socket;
+                try
+                    {
+                    socket = socketServer.accept();
+                    }
+                catch (SocketTimeoutException e)
+                    {
+                    if (f_cActive.get() == 0
+                            && System.currentTimeMillis() - m_ldtActive > f_cIdleMillis)
+                        {
+                        break;
+                        }
+                    continue;
+                    }
+
+                f_cActive.incrementAndGet();
+                executor.execute(() ->
+                    {
+                    try (socket)
+                        {
+                        handle(socket);
+                        }
+                    catch (IOException e)
+                        {
+                        // the client went away; nothing to report it to
+                        }
+                    finally
+                        {
+                        m_ldtActive = System.currentTimeMillis();
+                        f_cActive.decrementAndGet();
+                        }
+                    });
+                }
+            }
+        finally
+            {
+            executor.shutdown();
+            unpublish();
+            }
+        }
+
+
+    // ----- internal ------------------------------------------------------------------------------
+
+    /**
+     * Write the port and the token into the port file.
+     */
+    protected void publish(int nPort)
+            throws IOException
+        {
+        File fileDir = f_filePort.getAbsoluteFile().getParentFile();
+        if (fileDir != null)
+            {
+            fileDir.mkdirs();
+            }
+
+        File fileTemp = new File(f_filePort.getPath() + ".tmp");
+        Files.writeString(fileTemp.toPath(), nPort + " " + f_sToken);
+        try
+            {
+            Files.setPosixFilePermissions(fileTemp.toPath(), PosixFilePermissions.fromString("rw-------"));
+            }
+        catch (UnsupportedOperationException e)
+            {
+            // not a POSIX file system
+            }
+        Files.move(fileTemp.toPath(), f_filePort.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+    /**
+     * Remove the port file, unless it has been replaced by another daemon.
+     */
+    protected void unpublish()
+        {
+        try
+            {
+            if (Files.readString(f_filePort.toPath()).endsWith(f_sToken))
+                {
+                Files.delete(f_filePort.toPath());
+                }
+            }
+        catch (IOException e)
+            {
+            // already gone
+            }
+        }
+
+    /**
+     * Process a single request.
+     */
+    protected void handle(Socket socket)
+            throws IOException
+        {
+        DataInputStream  in  = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        String sToken = in.readUTF();
+        if (!MessageDigest.isEqual(sToken.getBytes(StandardCharsets.UTF_8),
+                                   f_sToken.getBytes(StandardCharsets.UTF_8)))
+            {
+            reject(out, "Invalid token");
+            return;
+            }
+
+        String   sCmd  = in.readUTF();
+        String[] asArg = new String[in.readInt()];
+        for (int i = 0; i < asArg.length; i++)
+            {
+            asArg[i] = in.readUTF();
+            }
+
+        out.writeByte('A');
+        out.flush();
+
+        SocketConsole console = new SocketConsole(out);
+        int           nExit;
+        switch (sCmd)
+            {
+            case "xcc":
+                nExit = compile(asArg, console);
+                break;
+
+            case "stop":
+                m_fStopped = true;
+                nExit      = 0;
+                break;
+
+            default:
+                console.err("Command name \"" + sCmd + "\" is not supported");
+                nExit = 1;
+                break;
+            }
+
+        synchronized (console)
+            {
+            out.writeByte('X');
+            out.writeInt(nExit);
+            out.flush();
+            }
+        }
+
+    /**
+     * Reject a request by sending the protocol error frame.
+     *
+     * @param out      the stream to the client
+     * @param sReason  the reason of the rejection
+     */
+    protected void reject(DataOutputStream out, String sReason)
+            throws IOException
+        {
+        byte[] ab = sReason.getBytes(StandardCharsets.UTF_8);
+        out.writeByte('P');
+        out.writeInt(ab.length);
+        out.write(ab);
+        out.flush();
+        }
+
+    /**
+     * Run the compiler.
+     *
+     * @param asArg    the compiler command line arguments
+     * @param console  the console to report to
+     *
+     * @return the exit code
+     */
+    protected int compile(String[] asArg, Console console)
+        {
+        try
+            {
+            Compiler compiler = new Compiler(asArg, console);
+            compiler.setRepositoryCache(f_cacheRepos);
+            compiler.run();
+            return 0;
+            }
+        catch (LauncherException e)
+            {
+            return e.error ? -1 : 0;
+            }
+        catch (Throwable e)
+            {
+            StringWriter writer = new StringWriter();
+            e.printStackTrace(new PrintWriter(writer));
+            console.err(writer);
+            return -1;
+            }
+        }
+
+
+    // ----- SocketConsole -------------------------------------------------------------------------
+
+    /**
+     * A Console that sends the output to the client.
+     */
+    protected static class SocketConsole
+            implements Console
+        {
+        protected SocketConsole(DataOutputStream out)
+            {
+            f_out = out;
+            }
+
+        @Override
+        public void out(Object o)
+            {
+            send('O', o);
+            }
+
+        @Override
+        public void err(Object o)
+            {
+            send('E', o);
+            }
+
+        private synchronized void send(char chKind, Object o)
+            {
+            if (m_fBroken)
+                {
+                return;
+                }
+
+            byte[] ab = String.valueOf(o).getBytes(StandardCharsets.UTF_8);
+            try
+                {
+                f_out.writeByte(chKind);
+                f_out.writeInt(ab.length);
+                f_out.write(ab);
+                f_out.flush();
+                }
+            catch (IOException e)
+                {
+                m_fBroken = true;
+                }
+            }
+
+        private final DataOutputStream f_out;
+        private boolean m_fBroken;
+        }
+
+
+    // ----- constants and data fields -------------------------------------------------------------
+
+    /**
+     * The default number of idle minutes after which the daemon terminates.
+     */
+    public static final long DEFAULT_IDLE_MINUTES = 30;
+
+    /**
+     * How often to check whether the daemon has become idle.
+     */
+    private static final long IDLE_CHECK_MILLIS = 10_000;
+
+    /**
+     * The maximum number of the library repositories to keep.
+     */
+    private static final int MAX_CACHED_REPOS = Integer.getInteger("xvm.daemon.repos", 32);
+
+    /**
+     * The file to publish the port and the token in.
+     */
+    private final File f_filePort;
+
+    /**
+     * The idle time after which the daemon terminates.
+     */
+    private final long f_cIdleMillis;
+
+    /**
+     * The token that the clients must present.
+     */
+    private final String f_sToken;
+
+    /**
+     * The cache of the library repositories shared by the compilations.
+     */
+    private final RepositoryCache f_cacheRepos = new RepositoryCache(MAX_CACHED_REPOS);
+
+    /**
+     * The number of the requests being processed.
+     */
+    private final AtomicInteger f_cActive = new AtomicInteger();
+
+    /**
+     * The time the last request completed.
+     */
+    private volatile long m_ldtActive;
+
+    /**
+     * Set to true by the "stop" command.
+     */
+    private volatile boolean m_fStopped;
+    }
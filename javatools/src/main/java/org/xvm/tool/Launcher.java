@@ -145,7 +145,14 @@ public abstract class Launcher
         opts.validate();
         checkErrors();
 
-        process();
+        try
+            {
+            process();
+            }
+        finally
+            {
+            releaseRepositories();
+            }
 
         if (opts.isVerbose())
             {
@@ -1320,16 +1327,54 @@ public abstract class Launcher
 
         ModuleRepository[] repos = new ModuleRepository[path.size() + 1];
         repos[0] = makeBuildRepo();
-        for (int i = 0, c = path.size(); i < c; ++i)
+
+        RepositoryCache cache = m_cacheRepos;
+        if (cache == null)
+            {
+            for (int i = 0, c = path.size(); i < c; ++i)
+                {
+                File file = path.get(i);
+                repos[i + 1] = file.isDirectory()
+                    ? new DirRepository(file, true)
+                    : new FileRepository(file, true);
+                }
+            }
+        else
             {
-            File file = path.get(i);
-            repos[i + 1] = file.isDirectory()
-                ? new DirRepository(file, true)
-                : new FileRepository(file, true);
+            ModuleRepository[] reposLeased = cache.lease(path);
+            m_listLeased.add(reposLeased);
+            System.arraycopy(reposLeased, 0, repos, 1, reposLeased.length);
             }
         return new LinkedRepository(true, repos);
         }
 
+    /**
+     * Specify the cache to lease the library repositories from, which allows the library modules
+     * loaded by one launcher to be reused by the subsequent launchers running in the same process.
+     *
+     * @param cache  the repository cache, or null to always create new library repositories
+     */
+    public void setRepositoryCache(RepositoryCache cache)
+        {
+        m_cacheRepos = cache;
+        }
+
+    /**
+     * Return all the library repositories leased from the repository cache back to the cache.
+     */
+    protected void releaseRepositories()
+        {
+        RepositoryCache cache = m_cacheRepos;
+        if (cache != null)
+            {
+            for (ModuleRepository[] repos : m_listLeased)
+                {
+                cache.release(repos);
+                }
+            m_listLeased.clear();
+            }
+        }
+
     /**
      * Factory method for a BuildRepository.
      *
@@ -2023,4 +2068,14 @@ public abstract class Launcher
     protected int m_cSuspended;
 
     protected Map<File, ModuleInfo> moduleCache;
+
+    /**
+     * The cache to lease the library repositories from, or null.
+     */
+    private RepositoryCache m_cacheRepos;
+
+    /**
+     * The library repositories leased from the cache.
+     */
+    private final List<ModuleRepository[]> m_listLeased = new ArrayList<>();
     }
\ No newline at end of file
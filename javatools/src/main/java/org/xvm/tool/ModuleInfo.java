@@ -421,6 +421,10 @@ public class ModuleInfo
         }
 
     /**
+     * Note: the check is done for the module as a whole, since a module is always compiled from
+     * scratch; every compiler stage resolves the names against the entire module, and the
+     * structures emitted for one source file depend on the TypeInfos built from the others.
+     *
      * @return True if the module binary exists and is at least as up-to-date as all of the
      *         existent source and resource files and directories
      */
@@ -855,6 +859,15 @@ public class ModuleInfo
         return sourceNode;
         }
 
+    /**
+     * Let go of the source tree produced by {@link #getSourceTree}, together with the source text
+     * and the ASTs that it holds. A subsequent call to {@link #getSourceTree} loads the tree again.
+     */
+    public void releaseSourceTree()
+        {
+        sourceNode = null;
+        }
+
     /**
      * Represents either a module/package or a class source node.
      */
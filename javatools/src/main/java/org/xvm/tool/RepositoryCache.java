@@ -0,0 +1,254 @@
+package org.xvm.tool;
+
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.xvm.asm.DirRepository;
+import org.xvm.asm.FileRepository;
+import org.xvm.asm.ModuleRepository;
+
+
+/**
+ * A cache of the library repositories, shared by the launchers that run one after another in the
+ * same process (see {@link CompilerDaemon}).
+ * <p/>
+ * The modules loaded (and linked) by a launcher stay in the library repositories, together with
+ * the TypeInfos computed for them, so a subsequent launcher that leases the repositories for the
+ * same module path does not need to load, link and analyze the library modules again. Since the
+ * linking and the TypeInfo computation mutate the module structures, the repositories are leased
+ * to one launcher at a time; a concurrent launcher gets new repositories instead.
+ * <p/>
+ * The repositories are cached for the module path as a whole: a module linked against the modules
+ * of one path may be linked against different modules (of the same names) on another path, so no
+ * repository is ever shared by different paths. The repositories are discarded when any of the
+ * module files on their path change. The module files are never memory-mapped, so the cached
+ * modules don't keep the files open.
+ */
+public class RepositoryCache
+    {
+    /**
+     * Construct a repository cache.
+     *
+     * @param cMaxEntries  the maximum number of the module paths to keep the repositories for
+     */
+    public RepositoryCache(int cMaxEntries)
+        {
+        f_cMaxEntries = cMaxEntries;
+        }
+
+
+    // ----- RepositoryCache API -------------------------------------------------------------------
+
+    /**
+     * Lease the repositories for the specified module path.
+     *
+     * @param path  a previously validated path of module directories and/or files
+     *
+     * @return the repositories, one for each element of the path, which must be
+     *         {@link #release released} after use
+     */
+    public synchronized ModuleRepository[] lease(List<File> path)
+        {
+        Map<List<File>, Entry> mapEntries = f_mapEntries;
+
+        // discard the repositories whose module files have changed
+        mapEntries.values().removeIf(entry -> !entry.fLeased && !entry.sStamp.equals(stamp(entry.path)));
+
+        List<File> key   = canonicalPath(path);
+        Entry      entry = mapEntries.get(key);
+        if (entry == null)
+            {
+            entry = new Entry(key);
+            }
+        else if (entry.fLeased)
+            {
+            // in use by another launcher; don't cache
+            return makeRepositories(key);
+            }
+        else
+            {
+            ++m_cHits;
+            }
+
+        // (re-)inserting the entry makes it the most recently used one
+        mapEntries.remove(key);
+        mapEntries.put(key, entry);
+        entry.fLeased = true;
+
+        evict();
+        return entry.aRepo;
+        }
+
+    /**
+     * Release the repositories obtained by {@link #lease}.
+     *
+     * @param aRepo  the leased repositories
+     */
+    public synchronized void release(ModuleRepository[] aRepo)
+        {
+        for (Entry entry : f_mapEntries.values())
+            {
+            if (entry.aRepo == aRepo)
+                {
+                entry.fLeased = false;
+                }
+            }
+        evict();
+        }
+
+    /**
+     * @return the number of the leases served from the cache
+     */
+    public synchronized long getHitCount()
+        {
+        return m_cHits;
+        }
+
+    @Override
+    public synchronized String toString()
+        {
+        return "RepositoryCache{size=" + f_mapEntries.size() + ", hits=" + m_cHits + '}';
+        }
+
+
+    // ----- internal ------------------------------------------------------------------------------
+
+    /**
+     * Discard the least recently used repositories that are not leased, until the cache is within
+     * its size limit.
+     */
+    private void evict()
+        {
+        int cExcess = f_mapEntries.size() - f_cMaxEntries;
+        for (Iterator<Entry> iter = f_mapEntries.values().iterator(); cExcess > 0 && iter.hasNext(); )
+            {
+            if (!iter.next().fLeased)
+                {
+                iter.remove();
+                --cExcess;
+                }
+            }
+        }
+
+    /**
+     * Create the repositories for the specified module path.
+     *
+     * @param path  the module directories and/or files
+     *
+     * @return the new repositories, one for each element of the path
+     */
+    protected static ModuleRepository[] makeRepositories(List<File> path)
+        {
+        int                cRepos = path.size();
+        ModuleRepository[] aRepo  = new ModuleRepository[cRepos];
+        for (int i = 0; i < cRepos; ++i)
+            {
+            File file = path.get(i);
+            aRepo[i] = file.isDirectory()
+                    ? new DirRepository(file, true, false)
+                    : new FileRepository(file, true, false);
+            }
+        return aRepo;
+        }
+
+    /**
+     * @return the canonical form of the specified module path; the elements that can't be
+     *         canonicalized are made absolute instead
+     */
+    private static List<File> canonicalPath(List<File> path)
+        {
+        List<File> listCanonical = new ArrayList<>(path.size());
+        for (File file : path)
+            {
+            try
+                {
+                listCanonical.add(file.getCanonicalFile());
+                }
+            catch (IOException e)
+                {
+                listCanonical.add(file.getAbsoluteFile());
+                }
+            }
+        return listCanonical;
+        }
+
+    /**
+     * Compute a stamp that changes whenever any module file of the specified path changes.
+     *
+     * @param path  the module directories and/or files
+     *
+     * @return the stamp
+     */
+    private static String stamp(List<File> path)
+        {
+        StringBuilder sb = new StringBuilder();
+        for (File file : path)
+            {
+            File[] aFile = file.isDirectory()
+                    ? file.listFiles(DirRepository.ModulesOnly)
+                    : new File[] {file};
+
+            sb.append(file).append('[');
+            if (aFile != null)
+                {
+                Arrays.sort(aFile);
+                for (File fileModule : aFile)
+                    {
+                    sb.append(fileModule.getName())
+                      .append(':').append(fileModule.lastModified())
+                      .append(':').append(fileModule.length())
+                      .append(';');
+                    }
+                }
+            sb.append(']');
+            }
+        return sb.toString();
+        }
+
+
+    // ----- Entry ---------------------------------------------------------------------------------
+
+    /**
+     * The cached repositories for a module path.
+     */
+    private static class Entry
+        {
+        Entry(List<File> path)
+            {
+            this.path   = path;
+            this.sStamp = stamp(path);
+            this.aRepo  = makeRepositories(path);
+            }
+
+        final List<File>         path;
+        final String             sStamp;
+        final ModuleRepository[] aRepo;
+        boolean                  fLeased;
+        }
+
+
+    // ----- data fields ---------------------------------------------------------------------------
+
+    /**
+     * The maximum number of the module paths to keep the repositories for.
+     */
+    private final int f_cMaxEntries;
+
+    /**
+     * The cached repositories keyed by their canonical module path, in the order of their use.
+     */
+    private final Map<List<File>, Entry> f_mapEntries = new LinkedHashMap<>();
+
+    /**
+     * The number of the leases served from the cache.
+     */
+    private long m_cHits;
+    }
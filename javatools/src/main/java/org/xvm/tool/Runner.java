@@ -23,6 +23,7 @@ import org.xvm.asm.Version;
 import org.xvm.asm.constants.TypeConstant;
 
 import org.xvm.runtime.ObjectHandle;
+import org.xvm.runtime.TypeSystemSnapshot;
 import org.xvm.runtime.Utils;
 
 import org.xvm.runtime.template.text.xString;
@@ -333,6 +334,12 @@ public class Runner
             Connector connector = new Connector(repo);
             connector.loadModule(module.getName());
 
+            File fileSnapshot = options.getSnapshotFile();
+            if (fileSnapshot != null)
+                {
+                warmUp(connector.getSnapshot(), fileSnapshot);
+                }
+
             connector.start(options.getInjections());
 
             ConstantPool pool = connector.getConstantPool();
@@ -427,6 +434,45 @@ public class Runner
         }
 
 
+    /**
+     * Start warming up the type system using the specified snapshot file; if the file doesn't
+     * exist or is out of date, arrange for a new snapshot to be saved when the process exits.
+     */
+    private void warmUp(TypeSystemSnapshot snapshot, File fileSnapshot)
+        {
+        int cTypes;
+        try
+            {
+            cTypes = snapshot.warmUp(fileSnapshot);
+            }
+        catch (IOException e)
+            {
+            log(Severity.WARNING, "Failed to read the snapshot file " + fileSnapshot + " (" + e + ")");
+            cTypes = -1;
+            }
+
+        if (cTypes >= 0)
+            {
+            log(Severity.INFO, "Warming up " + cTypes + " types from " + fileSnapshot);
+            return;
+            }
+
+        log(Severity.INFO, "The snapshot " + fileSnapshot +
+                " is missing or out of date; it will be saved on exit");
+        java.lang.Runtime.getRuntime().addShutdownHook(new Thread(() ->
+            {
+            try
+                {
+                snapshot.save(fileSnapshot);
+                }
+            catch (IOException e)
+                {
+                System.err.println("Failed to save the snapshot file " + fileSnapshot + " (" + e + ")");
+                }
+            }, "SnapshotWriter"));
+        }
+
+
     // ----- text output and error handling --------------------------------------------------------
 
     @Override
@@ -482,6 +528,7 @@ public class Runner
             addOption("M",      "method",       Form.String, false, "Method name; defaults to \"run\"");
             addOption(null,     "no-recompile", Form.Name,   false, "Disable automatic compilation");
             addOption("o",      null,           Form.File,   false, "If compilation is necessary, the file or directory to write compiler output to");
+            addOption(null,     "snapshot",     Form.File,   false, "Type system snapshot file used to speed up the start-up; created on exit if missing or out of date");
             addOption(Trailing, null,           Form.File,   false, "Module file name (.xtc) to execute");
             addOption(ArgV,     null,           Form.AsIs,   true,  "Arguments to pass to the method");
             }
@@ -510,6 +557,14 @@ public class Runner
             return specified("no-recompile");
             }
 
+        /**
+         * @return the type system snapshot file, or null if none specified
+         */
+        public File getSnapshotFile()
+            {
+            return (File) values().get("snapshot");
+            }
+
         /**
          * @return the file to execute
          */
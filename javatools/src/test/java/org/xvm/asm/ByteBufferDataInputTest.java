@@ -0,0 +1,86 @@
+package org.xvm.asm;
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the ByteBufferDataInput.
+ */
+public class ByteBufferDataInputTest
+    {
+    @Test
+    public void testRead()
+            throws IOException
+        {
+        ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+        DataOutputStream      out      = new DataOutputStream(outBytes);
+        out.writeByte(-1);
+        out.writeShort(0xABCD);
+        out.writeInt(42);
+        out.writeLong(-7L);
+        out.writeUTF("héllo");
+        out.writeDouble(1.5);
+
+        ByteBufferDataInput in = new ByteBufferDataInput(ByteBuffer.wrap(outBytes.toByteArray()));
+        assertEquals(0xFF, in.readUnsignedByte());
+        assertEquals(0xABCD, in.readUnsignedShort());
+        assertEquals(42, in.readInt());
+        assertEquals(-7L, in.readLong());
+        assertEquals("héllo", in.readUTF());
+        assertEquals(1.5, in.readDouble(), 0.0);
+        assertThrows(EOFException.class, in::readByte);
+        }
+
+    @Test
+    public void testSlice()
+            throws IOException
+        {
+        byte[]              ab = {1, 2, 3, 4, 5, 6};
+        ByteBufferDataInput in = new ByteBufferDataInput(ByteBuffer.wrap(ab));
+        assertEquals(1, in.readByte());
+
+        ByteBuffer buf = in.slice(3);
+        assertEquals(3, buf.remaining());
+        assertEquals(2, buf.get());
+        assertEquals(5, in.readByte());
+
+        // the slice shares the content rather than copying it
+        ab[2] = 42;
+        assertEquals(42, new ByteBufferDataInput(buf).readByte());
+
+        assertThrows(EOFException.class, () -> in.slice(2));
+        }
+
+    @Test
+    public void testReadLine()
+            throws IOException
+        {
+        byte[] ab = "one\ntwo\r\nthree\r\rfour".getBytes(StandardCharsets.ISO_8859_1);
+
+        // the lines end the same way as for a DataInputStream: with '\n', '\r' or "\r\n"
+        ByteBufferDataInput in = new ByteBufferDataInput(ByteBuffer.wrap(ab));
+        for (String sLine : new String[] {"one", "two", "three", "", "four", null})
+            {
+            assertEquals(sLine, in.readLine());
+            }
+
+        // a line is not mixed up with the data that follows it
+        in = new ByteBufferDataInput(ByteBuffer.wrap(new byte[] {'a', '\r', 7}));
+        assertEquals("a", in.readLine());
+        assertEquals(7, in.readByte());
+        assertNull(in.readLine());
+        }
+    }
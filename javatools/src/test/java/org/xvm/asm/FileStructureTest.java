@@ -3,6 +3,7 @@ package org.xvm.asm;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 
@@ -27,6 +28,8 @@ import org.xvm.util.Severity;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import static org.xvm.util.Handy.byteArrayToHexDump;
@@ -105,6 +108,41 @@ public class FileStructureTest
         testFileStructure(file);
         }
 
+    @Test
+    public void testMappedFile()
+            throws IOException
+        {
+        FileStructure    structfile = new FileStructure("test.xtclang.org");
+        PackageStructure pkg        = structfile.getModule().createPackage(
+                Constants.Access.PUBLIC, "pkg", null);
+        pkg.createClass(Constants.Access.PUBLIC, Component.Format.CLASS, "Test", null);
+
+        File file = File.createTempFile("test", ".xtc");
+        try
+            {
+            structfile.writeTo(file);
+
+            // the deferred children of a mapped structure are slices of the mapping; the mapping
+            // is only used with the "xvm.mmap" opt-in, which the test run may or may not specify
+            FileStructure structMapped = FileStructure.load(file, true);
+            assertEquals(Boolean.getBoolean("xvm.mmap"), structMapped.isMapped());
+            assertFalse(FileStructure.load(file, false).isMapped());
+
+            // replacing the file releases the mapping, but keeps the structure intact
+            structfile.writeTo(file);
+            assertFalse(structMapped.isMapped());
+
+            Component pkgMapped = structMapped.getModule().getChild("pkg");
+            assertNotNull(pkgMapped);
+            assertNotNull(pkgMapped.getChild("Test"));
+            assertEquals(structfile.getModuleName(), new FileStructure(file).getModuleName());
+            }
+        finally
+            {
+            file.delete();
+            }
+        }
+
     public static FileStructure createFileStructure(String sCode)
         {
         Source                   source   = new Source(sCode);
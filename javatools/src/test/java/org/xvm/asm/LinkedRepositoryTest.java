@@ -0,0 +1,148 @@
+package org.xvm.asm;
+
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests of the LinkedRepository.
+ */
+public class LinkedRepositoryTest
+    {
+    @Test
+    public void testConcurrentPreload()
+            throws Exception
+        {
+        File dirLib = Files.createTempDirectory("lib").toFile();
+        File dirOut = Files.createTempDirectory("out").toFile();
+        try
+            {
+            List<String> listNames = new ArrayList<>();
+            for (int i = 0; i < MODULES; i++)
+                {
+                String        sName  = "m" + i + ".test.xtclang.org";
+                FileStructure struct = new FileStructure(sName);
+                struct.getModule().createPackage(Constants.Access.PUBLIC, "pkg", null);
+                struct.writeTo(new File(dirLib, "m" + i + ".xtc"));
+                listNames.add(sName);
+                }
+
+            CountingRepository repoOut = new CountingRepository(dirOut);
+            LinkedRepository   repo    = new LinkedRepository(true, repoOut,
+                                            new DirRepository(dirLib, true));
+
+            // every thread preloads all the modules (each in a different order) at the same time,
+            // and then loads them
+            CyclicBarrier   barrier  = new CyclicBarrier(THREADS);
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try
+                {
+                List<Future<List<ModuleStructure>>> listFutures = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++)
+                    {
+                    List<String> listOrder = new ArrayList<>(listNames);
+                    Collections.rotate(listOrder, i);
+                    listFutures.add(executor.submit(() ->
+                        {
+                        barrier.await();
+                        repo.preloadModules(listOrder);
+
+                        List<ModuleStructure> listModules = new ArrayList<>();
+                        for (String sName : listOrder)
+                            {
+                            listModules.add(repo.loadModule(sName));
+                            }
+                        return listModules;
+                        }));
+                    }
+
+                for (Future<List<ModuleStructure>> future : listFutures)
+                    {
+                    for (ModuleStructure module : future.get(1, TimeUnit.MINUTES))
+                        {
+                        assertNotNull(module);
+                        assertNotNull(module.getChild("pkg"));
+                        }
+                    }
+                }
+            finally
+                {
+                executor.shutdown();
+                }
+
+            // the read-through copy of each module is made exactly once
+            assertEquals(MODULES, repoOut.f_mapStores.size());
+            for (String sName : listNames)
+                {
+                assertEquals(1, repoOut.f_mapStores.get(sName).get(), sName);
+                }
+            assertEquals(MODULES, dirOut.listFiles(DirRepository.ModulesOnly).length);
+            }
+        finally
+            {
+            delete(dirLib);
+            delete(dirOut);
+            }
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    private static void delete(File dir)
+        {
+        for (File file : dir.listFiles())
+            {
+            file.delete();
+            }
+        assertTrue(dir.delete());
+        }
+
+    /**
+     * A writable DirRepository that counts the modules stored into it.
+     */
+    private static class CountingRepository
+            extends DirRepository
+        {
+        CountingRepository(File dir)
+            {
+            super(dir, false);
+            }
+
+        @Override
+        public synchronized void storeModule(ModuleStructure module)
+                throws IOException
+            {
+            f_mapStores.computeIfAbsent(module.getIdentityConstant().getName(),
+                    k -> new AtomicInteger()).incrementAndGet();
+            super.storeModule(module);
+            }
+
+        final Map<String, AtomicInteger> f_mapStores = new ConcurrentHashMap<>();
+        }
+
+    private static final int MODULES = 12;
+    private static final int THREADS = 8;
+    }
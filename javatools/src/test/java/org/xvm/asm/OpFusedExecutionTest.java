@@ -0,0 +1,296 @@
+package org.xvm.asm;
+
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.xvm.asm.op.Nop;
+
+import org.xvm.runtime.Frame;
+import org.xvm.runtime.ModuleRunner;
+import org.xvm.runtime.ServiceContext;
+import org.xvm.runtime.Utils;
+
+import org.xvm.runtime.template._native.reflect.xRTFunction.NativeFunctionHandle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests of the {@link OpFused} ops execution: every op sequence is executed by the actual
+ * dispatch loop of the {@link ServiceContext}, both as assembled and with its ops fused, and the
+ * two executions must be indistinguishable.
+ */
+@Tag("slow")
+public class OpFusedExecutionTest
+    {
+    @Test
+    public void testFallThrough()
+            throws Exception
+        {
+        assertEquivalent(step("a"), step("b"), step("c"), ret("d"));
+        }
+
+    @Test
+    public void testFirstOpJumps()
+            throws Exception
+        {
+        // the first op jumps over the second one
+        assertEquivalent(jump("a", 2), step("b"), ret("c"));
+
+        // the first op "jumps" to the next address, which is the same as a fall-through
+        assertEquivalent(jump("a", 1), step("b"), ret("c"));
+        }
+
+    @Test
+    public void testSecondOpJumps()
+            throws Exception
+        {
+        assertEquivalent(step("a"), jump("b", 3), step("c"), ret("d"));
+        }
+
+    @Test
+    public void testJumpToSecondOp()
+            throws Exception
+        {
+        // a jump into the middle of a fused sequence executes the second op alone
+        assertEquivalent(jump("a", 2), step("b"), step("c"), ret("d"));
+        }
+
+    @Test
+    public void testException()
+            throws Exception
+        {
+        assertEquivalent(fail("a"), step("b"), ret("c"));
+        assertEquivalent(step("a"), fail("b"), ret("c"));
+        }
+
+    @Test
+    public void testRunTimeError()
+            throws Exception
+        {
+        // a Java exception is turned into an Ecstasy exception by the dispatch loop
+        assertEquivalent(error("a"), step("b"), ret("c"));
+        assertEquivalent(step("a"), error("b"), ret("c"));
+        }
+
+    @Test
+    public void testBlock()
+            throws Exception
+        {
+        // the fiber resumes with the op that follows the blocking one, even if the blocking op was
+        // the second op of a fused pair
+        Trace trace = assertEquivalent(step("a"), block("b"), step("c"), ret("d"));
+        assertEquals(List.of("a@0", "b@1", "c@2", "d@3"), trace.events);
+
+        assertEquivalent(block("a"), step("b"), ret("c"));
+        }
+
+    @Test
+    public void testLine()
+            throws Exception
+        {
+        // the line op is skipped by the fused op, but the next op still sees its own address
+        Op[]  aOp   = {new Nop(1), step("a"), new Nop(1), block("b"), ret("c")};
+        Trace trace = new Trace();
+        assertEquals("returned", run(OpFused.fuse(aOp), trace));
+        assertEquals(List.of("a@1", "b@3", "c@4"), trace.events);
+        }
+
+    @Test
+    public void testReplaceFirst()
+            throws Exception
+        {
+        Op[]    aOp   = {step("a"), step("b"), ret("c")};
+        Op[]    aFuse = fuseAll(aOp);
+        OpFused fused = (OpFused) aFuse[0];
+
+        assertTrue(fused.replaceFirst(aOp[0], step("x")));
+
+        Trace trace = new Trace();
+        run(aFuse, trace);
+        assertEquals(List.of("x@0", "b@1", "c@2"), trace.events);
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Run the specified ops, first as they are and then with every op (but the last one) fused
+     * with the op that follows it, and compare the results.
+     *
+     * @return the trace of the run with the fused ops
+     */
+    private static Trace assertEquivalent(Op... aOp)
+            throws Exception
+        {
+        Trace  traceOrig = new Trace();
+        String sOrig     = run(aOp, traceOrig);
+
+        Trace  traceFuse = new Trace();
+        String sFuse     = run(fuseAll(aOp), traceFuse);
+
+        assertEquals(traceOrig.events, traceFuse.events);
+        assertEquals(sOrig, sFuse);
+        return traceFuse;
+        }
+
+    /**
+     * Produce a copy of the specified ops with every op but the last one fused with its successor.
+     */
+    private static Op[] fuseAll(Op[] aOp)
+        {
+        Op[] aFuse = aOp.clone();
+        for (int i = 0, c = aOp.length - 1; i < c; i++)
+            {
+            aFuse[i] = new OpFused(aOp[i], aFuse);
+            }
+        return aFuse;
+        }
+
+    /**
+     * Execute the specified ops in a native frame of a new fiber, using the actual service
+     * context dispatch loop.
+     *
+     * @return "returned" or "exception", depending on how the frame has completed
+     */
+    private static String run(Op[] aOp, Trace trace)
+            throws Exception
+        {
+        ServiceContext       context   = ModuleRunner.ensureServiceContext();
+        NativeFunctionHandle hFunction = new NativeFunctionHandle((frame, ahArg, iReturn) ->
+                frame.call(frame.createNativeFrame(aOp, Utils.OBJECTS_NONE, iReturn, null)));
+
+        s_trace = trace;
+        try
+            {
+            context.postRequest(null, hFunction, Utils.OBJECTS_NONE, 0).get(30, TimeUnit.SECONDS);
+            return "returned";
+            }
+        catch (ExecutionException e)
+            {
+            return "exception";
+            }
+        finally
+            {
+            s_trace = null;
+            }
+        }
+
+    private static Op step(String sName)
+        {
+        return new TestOp(sName, Op.R_NEXT);
+        }
+
+    private static Op jump(String sName, int iTarget)
+        {
+        return new TestOp(sName, iTarget);
+        }
+
+    private static Op ret(String sName)
+        {
+        return new TestOp(sName, Op.R_RETURN);
+        }
+
+    private static Op fail(String sName)
+        {
+        return new TestOp(sName, Op.R_EXCEPTION);
+        }
+
+    private static Op error(String sName)
+        {
+        return new TestOp(sName, R_ERROR);
+        }
+
+    private static Op block(String sName)
+        {
+        return new TestOp(sName, Op.R_BLOCK);
+        }
+
+    /**
+     * The record of the executed ops.
+     */
+    private static class Trace
+        {
+        final List<String> events  = Collections.synchronizedList(new ArrayList<>());
+        final Set<String>  blocked = Collections.synchronizedSet(new HashSet<>());
+        }
+
+    /**
+     * An op that records its execution (and the frame's program counter at that moment) and
+     * returns a predefined result.
+     */
+    private static class TestOp
+            extends Op
+        {
+        TestOp(String sName, int nResult)
+            {
+            f_sName   = sName;
+            f_nResult = nResult;
+            }
+
+        @Override
+        public int process(Frame frame, int iPC)
+            {
+            Trace trace = s_trace;
+            trace.events.add(f_sName + '@' + frame.m_iPC);
+
+            switch (f_nResult)
+                {
+                case R_EXCEPTION:
+                    return frame.raiseException(f_sName);
+
+                case R_ERROR:
+                    throw new IllegalStateException(f_sName);
+
+                case R_BLOCK:
+                    if (trace.blocked.add(f_sName))
+                        {
+                        // resume the fiber asynchronously, the same way a response does
+                        CompletableFuture.delayedExecutor(10, TimeUnit.MILLISECONDS).execute(() ->
+                            {
+                            frame.f_fiber.onResponse();
+                            frame.f_context.postRequest(null, new NativeFunctionHandle(
+                                    (frameNoOp, ahArg, iReturn) -> R_NEXT), Utils.OBJECTS_NONE, 0);
+                            });
+                        return R_BLOCK;
+                        }
+                    // the blocking op is not supposed to be executed again
+                    return frame.raiseException(f_sName + " is repeated");
+
+                default:
+                    return f_nResult;
+                }
+            }
+
+        @Override
+        public String toString()
+            {
+            return f_sName;
+            }
+
+        private final String f_sName;
+        private final int    f_nResult;
+        }
+
+    /**
+     * A pseudo result that makes the {@link TestOp} throw a Java exception.
+     */
+    private static final int R_ERROR = -1000;
+
+    /**
+     * The trace of the current run.
+     */
+    private static volatile Trace s_trace;
+    }
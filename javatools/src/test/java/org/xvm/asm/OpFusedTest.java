@@ -0,0 +1,124 @@
+package org.xvm.asm;
+
+
+import org.junit.jupiter.api.Test;
+
+import org.xvm.asm.op.Nop;
+
+import org.xvm.runtime.Frame;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests of the {@link OpFused} ops structure; their execution is tested by the
+ * {@link OpFusedExecutionTest}.
+ */
+public class OpFusedTest
+    {
+    @Test
+    public void testReplaceFirst()
+        {
+        Op[]    aOp   = {step("a"), step("b"), ret("c")};
+        Op[]    aFuse = fuseAll(aOp);
+        OpFused fused = (OpFused) aFuse[0];
+        Op      opNew = step("x");
+
+        assertTrue(!fused.replaceFirst(opNew, aOp[0]));
+        assertTrue(fused.replaceFirst(aOp[0], opNew));
+        assertSame(opNew, fused.getFirstOp());
+        }
+
+    @Test
+    public void testNothingToFuse()
+        {
+        Op[] aOp = {step("a"), step("b"), ret("c")};
+        assertSame(aOp, OpFused.fuse(aOp));
+
+        Op[] aFuse = fuseAll(aOp);
+        assertNotSame(aOp, aFuse);
+        }
+
+    @Test
+    public void testFuseLines()
+        {
+        Op   opLine = new Nop();
+        Op[] aOp    = {opLine, step("a"), opLine, step("b"), ret("c")};
+        Op[] aFuse  = OpFused.fuse(aOp);
+
+        // the assembled ops are never modified and the addresses never change
+        assertNotSame(aOp, aFuse);
+        assertEquals(aOp.length, aFuse.length);
+        for (int i = 0; i < aOp.length; i++)
+            {
+            Op op = aFuse[i];
+            if (aOp[i] == opLine)
+                {
+                assertTrue(op instanceof OpFused);
+                assertSame(opLine, ((OpFused) op).getFirstOp());
+                assertEquals(opLine.getOpCode(), op.getOpCode());
+                }
+            else
+                {
+                assertSame(aOp[i], op);
+                }
+            }
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Produce a copy of the specified ops with every op but the last one fused with its successor.
+     */
+    private static Op[] fuseAll(Op[] aOp)
+        {
+        Op[] aFuse = aOp.clone();
+        for (int i = 0, c = aOp.length - 1; i < c; i++)
+            {
+            aFuse[i] = new OpFused(aOp[i], aFuse);
+            }
+        return aFuse;
+        }
+
+    private static Op step(String sName)
+        {
+        return new TestOp(sName, Op.R_NEXT);
+        }
+
+    private static Op ret(String sName)
+        {
+        return new TestOp(sName, Op.R_RETURN);
+        }
+
+    /**
+     * An op that returns a predefined result.
+     */
+    private static class TestOp
+            extends Op
+        {
+        TestOp(String sName, int nResult)
+            {
+            f_sName   = sName;
+            f_nResult = nResult;
+            }
+
+        @Override
+        public int process(Frame frame, int iPC)
+            {
+            return f_nResult;
+            }
+
+        @Override
+        public String toString()
+            {
+            return f_sName;
+            }
+
+        private final String f_sName;
+        private final int    f_nResult;
+        }
+    }
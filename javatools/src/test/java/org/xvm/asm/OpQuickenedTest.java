@@ -0,0 +1,72 @@
+package org.xvm.asm;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import org.xvm.asm.op.GP_Add;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests of the op state used by the {@link OpQuickened quickened} ops.
+ */
+public class OpQuickenedTest
+    {
+    /**
+     * The "generic" mark is a run-time only state: it must not change the serialized form of the
+     * op, must not be read back, and must not disturb the rest of the op's structural info.
+     */
+    @Test
+    public void testGenericBitSerialization()
+            throws IOException
+        {
+        byte[] abOp = {(byte) Op.OP_GP_ADD, 0, 1, 2};
+
+        Op op = read(abOp);
+        op.initInfo(12345, 3, 2, 1);
+        assertFalse(op.isGeneric());
+
+        op.markGeneric();
+        assertTrue(op.isGeneric());
+        assertEquals(12345, op.getAddress());
+        assertEquals(3, op.getDepth());
+        assertEquals(2, op.getGuardDepth());
+        assertEquals(1, op.getGuardAllDepth());
+
+        byte[] abWritten = write(op);
+        assertArrayEquals(abOp, abWritten);
+
+        Op opRead = read(abWritten);
+        assertTrue(opRead instanceof GP_Add);
+        assertFalse(opRead.isGeneric());
+        assertArrayEquals(abOp, write(opRead));
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    private static Op read(byte[] ab)
+            throws IOException
+        {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(ab));
+        return Op.instantiate(in.readUnsignedByte(), in, null);
+        }
+
+    private static byte[] write(Op op)
+            throws IOException
+        {
+        ByteArrayOutputStream outBytes = new ByteArrayOutputStream();
+        op.write(new DataOutputStream(outBytes), null);
+        return outBytes.toByteArray();
+        }
+    }
@@ -0,0 +1,65 @@
+package org.xvm.compiler;
+
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the CompilerProfiler.
+ */
+public class CompilerProfilerTest
+    {
+    @Test
+    public void testAttribution()
+        {
+        CompilerProfiler profiler = new CompilerProfiler();
+        try (var scopeModule = profiler.enter("app", null, "Validated", false))
+            {
+            assertNotNull(scopeModule);
+            try (var scopeClass = profiler.enter("app", "pkg.Foo", "Validated", false))
+                {
+                assertNotNull(scopeClass);
+
+                // the same class is already being profiled
+                assertNull(profiler.enter("app", "pkg.Foo", "Validated", true));
+
+                CompilerProfiler.countTypeInfo();
+                CompilerProfiler.countTypeInfo();
+                }
+            CompilerProfiler.countTypeInfo();
+            }
+
+        // outside of any scope
+        CompilerProfiler.countTypeInfo();
+
+        List<CompilerProfiler.Stats> listStats = profiler.getStats();
+        assertEquals(2, listStats.size());
+        for (CompilerProfiler.Stats stats : listStats)
+            {
+            assertEquals("app", stats.getModule());
+            assertEquals("Validated", stats.getPhase());
+            assertTrue(stats.getWallNanos() >= 0);
+            if (stats.getClassName().isEmpty())
+                {
+                assertEquals(0, stats.getRevisitCount());
+                assertEquals(1, stats.getTypeInfoCount());
+                }
+            else
+                {
+                assertEquals("pkg.Foo", stats.getClassName());
+                assertEquals(1, stats.getRevisitCount());
+                assertEquals(2, stats.getTypeInfoCount());
+                }
+            }
+
+        List<String> listReport = profiler.report();
+        assertEquals(3, listReport.size());
+        assertTrue(listReport.get(0).startsWith("module\tclass\tphase"));
+        }
+    }
@@ -0,0 +1,130 @@
+package org.xvm.runtime;
+
+
+import org.junit.jupiter.api.Test;
+
+import org.xvm.asm.constants.TypeConstant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests of the {@link ContainerMetrics} and the container statistics derived from them.
+ */
+public class ContainerMetricsTest
+    {
+    @Test
+    public void testExecution()
+        {
+        ContainerMetrics metrics = new ContainerMetrics();
+        metrics.recordExecution(10, 1000);
+        metrics.recordExecution(0, 500);
+        metrics.recordExecution(5, 0);
+
+        assertEquals(15, metrics.getOpCount());
+        assertEquals(1500, metrics.getCpuNanos());
+        }
+
+    @Test
+    public void testAllocation()
+        {
+        ContainerMetrics metrics = new ContainerMetrics();
+        metrics.recordAllocation(0);
+        metrics.recordAllocation(3);
+
+        assertEquals(2, metrics.getAllocatedObjectCount());
+        assertEquals(ObjectHeap.getByteSize(0) + ObjectHeap.getByteSize(3),
+                metrics.getAllocatedByteCount());
+        }
+
+    @Test
+    public void testConcurrentRecording()
+            throws InterruptedException
+        {
+        ContainerMetrics metrics = new ContainerMetrics();
+        Thread[]         aThread = new Thread[4];
+        for (int i = 0; i < aThread.length; i++)
+            {
+            aThread[i] = new Thread(() ->
+                {
+                for (int j = 0; j < 1000; j++)
+                    {
+                    metrics.recordExecution(1, 1);
+                    metrics.recordAllocation(1);
+                    }
+                });
+            aThread[i].start();
+            }
+        for (Thread thread : aThread)
+            {
+            thread.join();
+            }
+
+        assertEquals(4000, metrics.getOpCount());
+        assertEquals(4000, metrics.getCpuNanos());
+        assertEquals(4000, metrics.getAllocatedObjectCount());
+        assertEquals(4000 * ObjectHeap.getByteSize(1), metrics.getAllocatedByteCount());
+        }
+
+    @Test
+    public void testBytesWithoutHeap()
+        {
+        // the allocations are counted, but the current footprint is not known
+        Container container = new TestContainer(null);
+        container.getMetrics().recordAllocation(10);
+
+        assertEquals(0, container.getBytesReserved());
+        assertEquals(0, container.getBytesAllocated());
+        }
+
+    @Test
+    public void testBytesWithHeap()
+        {
+        ObjectHeap heap      = new ObjectHeap(1000);
+        Container  container = new TestContainer(heap);
+        for (int i = 0; i < 4; i++)
+            {
+            assertTrue(heap.allocate(100));
+            }
+        assertEquals(1000, container.getBytesReserved());
+        assertEquals(400, container.getBytesAllocated());
+
+        // closing the heap drops the accounting, but not the ceiling
+        heap.close();
+        assertEquals(1000, container.getBytesReserved());
+        assertEquals(0, container.getBytesAllocated());
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * A container that is never used to run anything.
+     */
+    private static class TestContainer
+            extends Container
+        {
+        TestContainer(ObjectHeap heap)
+            {
+            super(null, null, null);
+
+            f_heapObjects = heap;
+            }
+
+        @Override
+        public ObjectHeap getObjectHeap()
+            {
+            return f_heapObjects;
+            }
+
+        @Override
+        public ObjectHandle getInjectable(Frame frame, String sName, TypeConstant type,
+                                          ObjectHandle hOpts)
+            {
+            return null;
+            }
+
+        private final ObjectHeap f_heapObjects;
+        }
+    }
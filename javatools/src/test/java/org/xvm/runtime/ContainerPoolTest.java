@@ -0,0 +1,171 @@
+package org.xvm.runtime;
+
+
+import java.lang.reflect.Field;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.xvm.asm.FileStructure;
+
+import org.xvm.asm.constants.ModuleConstant;
+import org.xvm.asm.constants.TypeConstant;
+
+import org.xvm.runtime.template.xService.ServiceHandle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests of the {@link ContainerPool}.
+ */
+public class ContainerPoolTest
+    {
+    @Test
+    public void testOfferAndTake()
+        {
+        ContainerPool       pool       = new ContainerPool();
+        ObjectHandle        hProvider  = new ObjectHandle.JavaLong(null, 0);
+        ModuleLinkCache.Key key        = new ModuleLinkCache.Key(new TestContainer(), "hash",
+                                                                 REPOSITORY);
+        NestedContainer     container1 = prepare(key, hProvider);
+        NestedContainer     container2 = prepare(key, hProvider);
+
+        pool.offer(container1);
+        pool.offer(container2);
+        assertEquals(2, pool.getReadyCount());
+
+        // the containers are handed out in the order they were prepared
+        assertSame(container1, pool.take(key, hProvider));
+        assertSame(container2, pool.take(key, hProvider));
+        assertNull(pool.take(key, hProvider));
+        assertEquals(0, pool.getReadyCount());
+        }
+
+    @Test
+    public void testKeyMismatch()
+        {
+        ContainerPool       pool      = new ContainerPool();
+        Container           parent    = new TestContainer();
+        ObjectHandle        hProvider = new ObjectHandle.JavaLong(null, 0);
+        ModuleLinkCache.Key key       = new ModuleLinkCache.Key(parent, "hash", REPOSITORY);
+
+        pool.offer(prepare(key, hProvider));
+
+        // an equal provider is not the same provider
+        assertNull(pool.take(key, new ObjectHandle.JavaLong(null, 0)));
+        assertNull(pool.take(new ModuleLinkCache.Key(parent, "other", REPOSITORY), hProvider));
+        assertNull(pool.take(new ModuleLinkCache.Key(parent, "hash", new Object()), hProvider));
+        assertEquals(1, pool.getReadyCount());
+        }
+
+    @Test
+    public void testDrainShutsDown()
+            throws ReflectiveOperationException
+        {
+        ContainerPool       pool      = new ContainerPool();
+        Container           parent    = new TestContainer();
+        ObjectHandle        hProvider = new ObjectHandle.JavaLong(null, 0);
+        ModuleLinkCache.Key key       = new ModuleLinkCache.Key(parent, "hash", REPOSITORY);
+        NestedContainer     container = prepare(key, hProvider);
+        ServiceContext      ctx       = start(container);
+
+        pool.offer(container);
+
+        ModuleLinkCache.Key keyKept       = new ModuleLinkCache.Key(new TestContainer(), "hash",
+                                                                    REPOSITORY);
+        NestedContainer     containerKept = prepare(keyKept, hProvider);
+        ServiceContext      ctxKept       = start(containerKept);
+
+        pool.offer(containerKept);
+
+        // only the containers prepared by the specified parent are drained
+        List<NestedContainer> listDrained = pool.drain(parent);
+        assertEquals(List.of(container), listDrained);
+        assertEquals(1, pool.getReadyCount());
+
+        // the drained container's service is gone; the other one is still running
+        assertNull(ctx.getService());
+        assertFalse(container.getServices().contains(ctx));
+        assertEquals(0, container.getBacklogDepth());
+
+        assertTrue(containerKept.getServices().contains(ctxKept));
+        assertSame(containerKept, pool.take(keyKept, hProvider));
+        }
+
+    @Test
+    public void testDrainUnstarted()
+        {
+        ContainerPool       pool      = new ContainerPool();
+        Container           parent    = new TestContainer();
+        ObjectHandle        hProvider = new ObjectHandle.JavaLong(null, 0);
+        ModuleLinkCache.Key key       = new ModuleLinkCache.Key(parent, "hash", REPOSITORY);
+
+        // a container which main service hasn't been started is drained as well
+        pool.offer(prepare(key, hProvider));
+        assertEquals(1, pool.drain(parent).size());
+        assertTrue(pool.drain(parent).isEmpty());
+        assertEquals(0, pool.getReadyCount());
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    private static NestedContainer prepare(ModuleLinkCache.Key key, ObjectHandle hProvider)
+        {
+        NestedContainer container = new NestedContainer(key.containerParent(), MODULE,
+                hProvider, Collections.emptyList());
+        container.setLinkKey(key);
+        return container;
+        }
+
+    /**
+     * Start the main service of the specified container the same way "ensureServiceContext" does,
+     * but without the service's Ecstasy class, which is not available to the test.
+     */
+    private static ServiceContext start(Container container)
+            throws ReflectiveOperationException
+        {
+        ServiceContext ctx = container.createServiceContext("test");
+        container.m_contextMain = ctx;
+
+        Class<?> clzUnsafe = Class.forName("sun.misc.Unsafe");
+        Field    field     = clzUnsafe.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        ctx.setService((ServiceHandle) clzUnsafe.getMethod("allocateInstance", Class.class)
+                .invoke(field.get(null), ServiceHandle.class));
+
+        assertTrue(container.getServices().contains(ctx));
+        return ctx;
+        }
+
+    /**
+     * A parent container that is never used to run anything.
+     */
+    private static class TestContainer
+            extends Container
+        {
+        TestContainer()
+            {
+            super(RUNTIME, null, MODULE);
+            }
+
+        @Override
+        public ObjectHandle getInjectable(Frame frame, String sName, TypeConstant type,
+                                          ObjectHandle hOpts)
+            {
+            return null;
+            }
+        }
+
+    private static final Runtime        RUNTIME    = new Runtime();
+    private static final ModuleConstant MODULE     =
+            new FileStructure("test.xtclang.org").getModule().getIdentityConstant();
+    private static final Object         REPOSITORY = new Object();
+    }
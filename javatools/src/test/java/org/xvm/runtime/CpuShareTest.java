@@ -0,0 +1,140 @@
+package org.xvm.runtime;
+
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link CpuShare}.
+ */
+public class CpuShareTest
+    {
+    @Test
+    public void testPriority()
+        {
+        CpuShare share = new CpuShare(null);
+        assertEquals(CpuShare.DEFAULT_SHARES, share.getShares());
+        assertEquals(0.5, share.getPriority(), 1e-9);
+
+        share.setPriority(0.8);
+        assertEquals(4 * CpuShare.DEFAULT_SHARES, share.getShares());
+        assertEquals(0.8, share.getPriority(), 1e-9);
+
+        share.setPriority(0.0);
+        assertEquals(CpuShare.MIN_SHARES, share.getShares());
+        share.setPriority(1.0);
+        assertEquals(CpuShare.MAX_SHARES, share.getShares());
+
+        // the shares are inherited
+        assertEquals(CpuShare.MAX_SHARES, new CpuShare(share).getShares());
+        }
+
+    @Test
+    public void testVirtualRuntime()
+        {
+        CpuShare shareLow  = new CpuShare(null);
+        CpuShare shareHigh = new CpuShare(null);
+        shareHigh.setShares(2 * CpuShare.DEFAULT_SHARES);
+
+        shareLow.charge(1_000_000);
+        shareHigh.charge(1_000_000);
+        assertEquals(1_000_000, shareLow.getVirtualRuntime());
+        assertEquals(500_000, shareHigh.getVirtualRuntime());
+
+        assertTrue(shareHigh.getSliceNanos() > shareLow.getSliceNanos());
+        }
+
+    @Test
+    public void testQuota()
+        {
+        CpuShare share = new CpuShare(null);
+        assertEquals(0, share.getThrottleMillis());
+        assertEquals(CpuShare.MAX_SLICE_NANOS, share.getMaxSliceNanos());
+
+        share.setQuotaRate(0.1);
+        long cQuota = share.getQuotaNanos();
+        assertEquals(CpuShare.PERIOD_NANOS / 10, cQuota);
+        assertTrue(share.getMaxSliceNanos() <= cQuota);
+
+        share.charge(cQuota / 2);
+        assertEquals(0, share.getThrottleMillis());
+
+        // an overrun of three quotas takes (up to) three periods to pay off
+        share.charge(cQuota * 3);
+        long cThrottle = share.getThrottleMillis();
+        assertTrue(cThrottle > 2 * CpuShare.PERIOD_NANOS / 1_000_000, "throttle=" + cThrottle);
+        assertTrue(cThrottle <= 3 * CpuShare.PERIOD_NANOS / 1_000_000 + 1, "throttle=" + cThrottle);
+
+        // the children's usage counts against the parent's quota
+        CpuShare shareChild = new CpuShare(share);
+        assertTrue(shareChild.getThrottleMillis() > 0);
+
+        share.setQuotaRate(0);
+        assertEquals(0, shareChild.getThrottleMillis());
+        }
+    
+
+    @Test
+    public void testLateJoiner()
+        {
+        CpuShare shareRoot = new CpuShare(null);
+        CpuShare shareOld  = new CpuShare(shareRoot);
+        shareOld.taskSubmitted();
+        shareOld.charge(50_000_000);
+
+        // a new container starts at the minimum virtual runtime of the runnable containers
+        CpuShare shareNew = new CpuShare(shareRoot);
+        assertEquals(shareOld.getVirtualRuntime(), shareNew.getVirtualRuntime());
+
+        // so picking the least virtual runtime alternates between the two rather than running the
+        // new container until it catches up
+        shareNew.taskSubmitted();
+        shareNew.charge(1_000_000);
+        assertTrue(shareOld.getVirtualRuntime() < shareNew.getVirtualRuntime());
+        shareNew.taskCompleted();
+        }
+
+    @Test
+    public void testWakeUp()
+        {
+        CpuShare shareRoot = new CpuShare(null);
+        CpuShare shareBusy = new CpuShare(shareRoot);
+        CpuShare shareIdle = new CpuShare(shareRoot);
+
+        shareBusy.taskSubmitted();
+        shareIdle.taskSubmitted();
+        shareIdle.charge(1_000_000);
+        shareIdle.taskCompleted();
+
+        // while the other container is idle, the busy one runs for a long time
+        shareBusy.charge(100_000_000);
+        assertEquals(1_000_000, shareIdle.getVirtualRuntime());
+
+        // the idle container is brought up to the busy one when it wakes up
+        shareIdle.taskSubmitted();
+        assertEquals(100_000_000, shareIdle.getVirtualRuntime());
+
+        // but a container that is ahead keeps its virtual runtime
+        shareIdle.charge(10_000_000);
+        shareBusy.charge(20_000_000);
+        shareBusy.taskCompleted();
+        shareBusy.taskSubmitted();
+        assertEquals(120_000_000, shareBusy.getVirtualRuntime());
+        assertEquals(110_000_000, shareIdle.getVirtualRuntime());
+        }
+
+    @Test
+    public void testMinimumNeverDecreases()
+        {
+        CpuShare shareRoot = new CpuShare(null);
+        CpuShare shareA    = new CpuShare(shareRoot);
+        shareA.taskSubmitted();
+        shareA.charge(10_000_000);
+        shareA.taskCompleted();
+
+        // all the containers are idle; a new one still doesn't start at zero
+        assertEquals(10_000_000, new CpuShare(shareRoot).getVirtualRuntime());
+        }
+    }
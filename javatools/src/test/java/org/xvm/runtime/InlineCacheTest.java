@@ -0,0 +1,132 @@
+package org.xvm.runtime;
+
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link InlineCache}.
+ */
+public class InlineCacheTest
+    {
+    @Test
+    public void testMonomorphic()
+        {
+        InlineCache cache = new InlineCache();
+        Object      key   = new Object();
+        Object      value = new Object();
+
+        assertNull(cache.get(key));
+
+        cache.put(key, value);
+        assertSame(value, cache.get(key));
+        assertNull(cache.get(new Object()));
+        assertEquals(1, cache.size());
+        }
+
+    @Test
+    public void testReplace()
+        {
+        InlineCache cache  = new InlineCache();
+        Object      key    = new Object();
+        Object      value1 = new Object();
+        Object      value2 = new Object();
+
+        cache.put(key, value1);
+        cache.put(key, value2);
+        assertSame(value2, cache.get(key));
+        assertEquals(1, cache.size());
+        }
+
+    @Test
+    public void testPolymorphic()
+        {
+        InlineCache cache  = new InlineCache();
+        Object[]    aKey   = new Object[InlineCache.MAX_ENTRIES];
+        Object[]    aValue = new Object[InlineCache.MAX_ENTRIES];
+
+        for (int i = 0; i < InlineCache.MAX_ENTRIES; i++)
+            {
+            cache.put(aKey[i] = new Object(), aValue[i] = new Object());
+            }
+
+        assertFalse(cache.isMegamorphic());
+        for (int i = 0; i < InlineCache.MAX_ENTRIES; i++)
+            {
+            assertSame(aValue[i], cache.get(aKey[i]));
+            }
+        }
+
+    @Test
+    public void testMegamorphic()
+        {
+        InlineCache cache = new InlineCache();
+        Object[]    aKey  = new Object[InlineCache.MAX_ENTRIES + 1];
+        Object      value = new Object();
+
+        for (int i = 0; i < aKey.length; i++)
+            {
+            cache.put(aKey[i] = new Object(), value);
+            }
+
+        assertTrue(cache.isMegamorphic());
+        assertEquals(0, cache.size());
+        assertNull(cache.get(aKey[0]));
+
+        // no more entries are accepted
+        cache.put(aKey[0], value);
+        assertNull(cache.get(aKey[0]));
+        }
+
+    @Test
+    public void testValues()
+        {
+        InlineCache cache  = new InlineCache();
+        Object      key    = new Object();
+        Object      value1 = new Object();
+        Object      value2 = new Object();
+
+        assertNull(cache.getValues(key));
+
+        cache.put(key, value1, value2);
+        assertSame(value1, cache.get(key));
+
+        Object[] aValue = cache.getValues(key);
+        assertEquals(2, aValue.length);
+        assertSame(value1, aValue[0]);
+        assertSame(value2, aValue[1]);
+
+        // a replacement swaps both values at once
+        Object value3 = new Object();
+        Object value4 = new Object();
+        cache.put(key, value3, value4);
+        aValue = cache.getValues(key);
+        assertSame(value3, aValue[0]);
+        assertSame(value4, aValue[1]);
+        assertEquals(1, cache.size());
+        }
+
+    @Test
+    public void testValuesMegamorphic()
+        {
+        InlineCache cache = new InlineCache();
+        Object[]    aKey  = new Object[InlineCache.MAX_ENTRIES + 1];
+        Object      value = new Object();
+
+        for (int i = 0; i < aKey.length; i++)
+            {
+            cache.put(aKey[i] = new Object(), value, value);
+            }
+
+        assertTrue(cache.isMegamorphic());
+        for (Object key : aKey)
+            {
+            assertNull(cache.getValues(key));
+            }
+        }
+    }
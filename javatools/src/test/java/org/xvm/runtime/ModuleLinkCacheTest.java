@@ -0,0 +1,192 @@
+package org.xvm.runtime;
+
+
+import java.lang.reflect.Field;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import org.xvm.asm.Constant;
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.Constants.Access;
+import org.xvm.asm.FileStructure;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.MethodStructure.Code;
+import org.xvm.asm.Op;
+import org.xvm.asm.OpQuickened;
+import org.xvm.asm.Parameter;
+
+import org.xvm.asm.op.JumpVal;
+import org.xvm.asm.op.JumpVal_N;
+import org.xvm.asm.op.Label;
+import org.xvm.asm.op.Nop;
+import org.xvm.asm.op.Return_0;
+
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+/**
+ * Tests of the {@link ModuleLinkCache}.
+ */
+public class ModuleLinkCacheTest
+    {
+    @Test
+    public void testTakeAndRelease()
+        {
+        ModuleLinkCache     cache = new ModuleLinkCache(Long.MAX_VALUE);
+        FileStructure       file  = new FileStructure("test.xtclang.org");
+        ModuleLinkCache.Key key   = makeKey(cache, file);
+
+        assertNull(cache.take(key));
+
+        cache.release(key, file);
+        assertSame(file, cache.take(key));
+        assertNull(cache.take(key));
+        }
+
+    @Test
+    public void testDisabled()
+        {
+        ModuleLinkCache cache = new ModuleLinkCache(0);
+        FileStructure   file  = new FileStructure("test.xtclang.org");
+
+        assertNull(cache.makeKey(null, file, REPOSITORY));
+        }
+
+    @Test
+    public void testOpStateIsReset()
+            throws ReflectiveOperationException
+        {
+        ModuleLinkCache     cache = new ModuleLinkCache(Long.MAX_VALUE);
+        FileStructure       file  = new FileStructure("test.xtclang.org");
+        ConstantPool        pool  = file.getConstantPool();
+        ModuleLinkCache.Key key   = makeKey(cache, file);
+
+        Constant  constCase = pool.ensureIntConstant(1);
+        Label     label     = new Label("case");
+        JumpVal   opJump    = new JumpVal(constCase, new Constant[] {constCase},
+                                          new Op[] {label}, label);
+        JumpVal_N opJumpN   = new JumpVal_N(new Constant[] {constCase, constCase}, 0L,
+                                          new Constant[] {pool.ensureArrayConstant(
+                                              pool.ensureArrayType(pool.typeInt64()),
+                                              new Constant[] {constCase, constCase})},
+                                          new Op[] {label}, label);
+
+        MethodStructure method = file.getModule().createMethod(true, Access.PUBLIC, null,
+                Parameter.NO_PARAMS, "test", Parameter.NO_PARAMS, true, false);
+        Code code = method.createCode();
+        code.add(new Nop());
+        code.add(opJump);
+        code.add(opJumpN);
+        code.add(label);
+        code.add(new Return_0());
+
+        // the run-time replaces the executable ops (e.g. by quickening them), which must not hide
+        // the underlying ops from the reset
+        Op[] aopExec = method.getOps();
+        aopExec[2] = new OpQuickened(opJumpN)
+            {
+            @Override
+            public int process(Frame frame, int iPC)
+                {
+                return deoptimize(frame, iPC);
+                }
+            };
+
+        // the same module is run by two containers in a row
+        for (int iRun = 0; iRun < 2; iRun++)
+            {
+            FileStructure fileLinked = iRun == 0 ? file : cache.take(key);
+            assertSame(file, fileLinked);
+
+            // each container leaves its own handles in the jump maps
+            ObjectHandle hCase = new ObjectHandle.JavaLong(null, 1);
+            set(opJump,  "m_ahCase",    new ObjectHandle[] {hCase});
+            set(opJump,  "m_mapJump",   Map.of(hCase, 0));
+            set(opJump,  "m_algorithm", get(JumpVal.class, "Algorithm", "NativeSimple"));
+            set(opJumpN, "m_aahCases",  new ObjectHandle[][] {{hCase, hCase}});
+            set(opJumpN, "m_algorithm", get(JumpVal_N.class, "Algorithm", "NativeSimple"));
+
+            cache.release(key, fileLinked);
+
+            // the next container must build its own jump maps
+            assertNull(get(opJump,  "m_ahCase"));
+            assertNull(get(opJump,  "m_mapJump"));
+            assertNull(get(opJump,  "m_algorithm"));
+            assertNull(get(opJumpN, "m_aahCases"));
+            assertNull(get(opJumpN, "m_algorithm"));
+            }
+
+        assertSame(file, cache.take(key));
+        assertNull(cache.take(key));
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    private static ModuleLinkCache.Key makeKey(ModuleLinkCache cache, FileStructure file)
+        {
+        cache.recordContents(file, new byte[] {1, 2, 3});
+
+        ModuleLinkCache.Key key = cache.makeKey(null, file, REPOSITORY);
+        assertNotNull(key);
+        return key;
+        }
+
+    private static void set(Op op, String sField, Object oValue)
+            throws ReflectiveOperationException
+        {
+        Field field = findField(op.getClass(), sField);
+        field.setAccessible(true);
+        field.set(op, oValue);
+        }
+
+    private static Object get(Op op, String sField)
+            throws ReflectiveOperationException
+        {
+        Field field = findField(op.getClass(), sField);
+        field.setAccessible(true);
+        return field.get(op);
+        }
+
+    private static Object get(Class<?> clzOuter, String sEnum, String sValue)
+        {
+        for (Class<?> clz = clzOuter; clz != null; clz = clz.getSuperclass())
+            {
+            for (Class<?> clzInner : clz.getDeclaredClasses())
+                {
+                if (clzInner.getSimpleName().equals(sEnum) && clzInner.isEnum())
+                    {
+                    for (Object o : clzInner.getEnumConstants())
+                        {
+                        if (((Enum<?>) o).name().equals(sValue))
+                            {
+                            return o;
+                            }
+                        }
+                    }
+                }
+            }
+        throw new AssertionError(sEnum + '.' + sValue);
+        }
+
+    private static Field findField(Class<?> clz, String sField)
+            throws NoSuchFieldException
+        {
+        for (; clz != null; clz = clz.getSuperclass())
+            {
+            try
+                {
+                return clz.getDeclaredField(sField);
+                }
+            catch (NoSuchFieldException ignore) {}
+            }
+        throw new NoSuchFieldException(sField);
+        }
+
+    private static final Object REPOSITORY = new Object();
+    }
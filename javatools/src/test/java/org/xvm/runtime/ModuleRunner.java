@@ -0,0 +1,239 @@
+package org.xvm.runtime;
+
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.file.Files;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xvm.api.Connector;
+
+import org.xvm.asm.DirRepository;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.ModuleStructure;
+import org.xvm.asm.MultiMethodStructure;
+
+import org.xvm.runtime.template._native.xTerminalConsole;
+
+import org.xvm.tool.Compiler;
+
+import org.xvm.util.ConsoleLog;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+
+/**
+ * A helper for the tests that need to run Ecstasy code: it compiles a test module from its source
+ * and runs it in-process, through the same Connector, container and service context as the
+ * launchers do.
+ * <p/>
+ * The Ecstasy library modules (and the native bridge) are compiled from the project sources into
+ * the "build/test-modules" directory the first time they are needed; since the compiler skips
+ * the modules that are up-to-date, only the first run of any test pays that cost. The tests that
+ * use this helper are therefore tagged as "slow".
+ */
+public final class ModuleRunner
+    {
+    private ModuleRunner()
+        {
+        }
+
+    /**
+     * Compile and run the specified module.
+     *
+     * @param sModule  the module name
+     * @param sSource  the module source
+     *
+     * @return the result of the run
+     */
+    public static synchronized Result run(String sModule, String sSource)
+            throws Exception
+        {
+        Connector connector = ensureConnector();
+
+        File dirModule = new File(s_dirBuild, sModule);
+        File fileSrc   = new File(dirModule, sModule + ".x");
+        dirModule.mkdirs();
+        Files.writeString(fileSrc.toPath(), sSource);
+        compile(dirModule, fileSrc);
+
+        connector.addModuleRepository(dirModule);
+        connector.loadModule(sModule);
+
+        ConsoleLog log     = xTerminalConsole.CONSOLE_LOG;
+        String     sMarker = "##### " + sModule + " #####";
+        synchronized (log)
+            {
+            log.log(sMarker.toCharArray(), true);
+            }
+
+        MainContainer container = connector.getContainer();
+        connector.start(null);
+        connector.invoke0("run");
+        connector.join();
+
+        List<String> listOutput = new ArrayList<>();
+        synchronized (log)
+            {
+            for (int i = log.size() - 1; i >= 0; --i)
+                {
+                String sLine = log.get(i);
+                if (sMarker.equals(sLine))
+                    {
+                    break;
+                    }
+                listOutput.add(0, sLine);
+                }
+            }
+        return new Result(listOutput, container,
+                (ModuleStructure) container.getModule().getComponent());
+        }
+
+    /**
+     * Obtain a service context of a started container. The tests can use it to run synthetic
+     * frames through the actual dispatch loop of the runtime.
+     *
+     * @return the service context of a container that has run an empty module
+     */
+    public static synchronized ServiceContext ensureServiceContext()
+            throws Exception
+        {
+        ServiceContext context = s_context;
+        if (context == null)
+            {
+            Result result = run("EmptyModule", """
+                    module EmptyModule {
+                        void run() {}
+                    }
+                    """);
+            s_context = context = result.container().ensureServiceContext();
+            }
+        return context;
+        }
+
+    /**
+     * The result of a module run.
+     *
+     * @param listOutput  the lines printed to the console by the module
+     * @param container   the container that ran the module
+     * @param module      the module structure used by the container
+     */
+    public record Result(List<String> listOutput, MainContainer container, ModuleStructure module)
+        {
+        /**
+         * Find the (only) method of the specified name at the module level.
+         *
+         * @param sName  the method name
+         *
+         * @return the method structure, with the ops as they are after the run
+         */
+        public MethodStructure findMethod(String sName)
+            {
+            MultiMethodStructure mms = (MultiMethodStructure) module.getChild(sName);
+            assertNotNull(mms, sName);
+            return mms.methods().iterator().next();
+            }
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Compile the library modules if necessary, and create the Connector for them.
+     */
+    private static Connector ensureConnector()
+            throws IOException
+        {
+        Connector connector = s_connector;
+        if (connector == null)
+            {
+            File dirRoot = findProjectRoot();
+            s_dirBuild = new File(dirRoot, "javatools/build/test-modules");
+
+            File dirLib = new File(s_dirBuild, "lib");
+            dirLib.mkdirs();
+
+            List<File> listSrc = new ArrayList<>();
+            listSrc.add(new File(dirRoot, "lib_ecstasy/src/main/x/ecstasy.x"));
+            listSrc.add(new File(dirRoot, "javatools_turtle/src/main/resources/mack.x"));
+            for (String sLib : LIBRARIES)
+                {
+                listSrc.add(new File(dirRoot, "lib_" + sLib + "/src/main/x/" + sLib + ".x"));
+                }
+            listSrc.add(new File(dirRoot, "javatools_bridge/src/main/x/_native.x"));
+            compile(dirLib, listSrc.toArray(new File[0]));
+
+            s_connector = connector = new Connector(new DirRepository(dirLib, true));
+            }
+        return connector;
+        }
+
+    /**
+     * Compile the specified modules into the specified directory.
+     */
+    private static void compile(File dirOut, File... aFileSrc)
+        {
+        List<String> listArgs = new ArrayList<>();
+        listArgs.add("-L");
+        listArgs.add(new File(s_dirBuild, "lib").getPath());
+        listArgs.add("-o");
+        listArgs.add(dirOut.getPath());
+        for (File fileSrc : aFileSrc)
+            {
+            listArgs.add(fileSrc.getPath());
+            }
+
+        try
+            {
+            new Compiler(listArgs.toArray(new String[0])).run();
+            }
+        catch (RuntimeException e)
+            {
+            fail("failed to compile " + List.of(aFileSrc), e);
+            }
+        }
+
+    /**
+     * @return the root directory of the project, which contains the Ecstasy library sources
+     */
+    private static File findProjectRoot()
+        {
+        for (File dir = new File(System.getProperty("user.dir")).getAbsoluteFile();
+                dir != null; dir = dir.getParentFile())
+            {
+            if (new File(dir, "lib_ecstasy").isDirectory())
+                {
+                return dir;
+                }
+            }
+
+        return fail("the project root is not found");
+        }
+
+    /**
+     * The library modules needed by the native bridge, in addition to the Ecstasy module.
+     */
+    private static final String[] LIBRARIES =
+        {
+        "aggregate", "collections", "crypto", "net", "json", "convert", "sec", "web",
+        };
+
+    /**
+     * The Connector shared by all the runs; each test module is added to its repositories.
+     */
+    private static Connector s_connector;
+
+    /**
+     * The service context returned by {@link #ensureServiceContext}.
+     */
+    private static ServiceContext s_context;
+
+    /**
+     * The directory for the compiled test modules.
+     */
+    private static File s_dirBuild;
+    }
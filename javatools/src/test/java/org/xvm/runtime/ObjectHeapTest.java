@@ -0,0 +1,115 @@
+package org.xvm.runtime;
+
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests of the {@link ObjectHeap}.
+ */
+public class ObjectHeapTest
+    {
+    @Test
+    public void testLimit()
+        {
+        ObjectHeap heap = new ObjectHeap(10 * SIZE);
+        for (int i = 0; i < 10; i++)
+            {
+            assertTrue(heap.allocate(SIZE));
+            }
+        assertEquals(10 * SIZE, heap.getByteCount());
+
+        // the failed allocation is not counted
+        assertFalse(heap.allocate(SIZE));
+        assertEquals(10 * SIZE, heap.getByteCount());
+
+        // but a smaller one may still fit
+        heap = new ObjectHeap(10 * SIZE);
+        assertTrue(heap.allocate(9 * SIZE));
+        assertFalse(heap.allocate(2 * SIZE));
+        assertTrue(heap.allocate(SIZE));
+        }
+
+    @Test
+    public void testCharge()
+        {
+        ObjectHeap heap = new ObjectHeap(2 * SIZE);
+        heap.charge(SIZE);
+        heap.charge(SIZE);
+        assertFalse(heap.checkExceeded());
+
+        // the charge always succeeds, but the excess is reported exactly once
+        heap.charge(SIZE);
+        assertEquals(3 * SIZE, heap.getByteCount());
+        assertTrue(heap.checkExceeded());
+        assertFalse(heap.checkExceeded());
+
+        // and no allocation fits anymore
+        assertFalse(heap.allocate(1));
+        }
+
+    @Test
+    public void testClose()
+        {
+        ObjectHeap heap = new ObjectHeap(SIZE);
+        assertTrue(heap.allocate(SIZE));
+
+        heap.close();
+        assertEquals(0, heap.getByteCount());
+
+        // a closed heap doesn't account for anything
+        assertTrue(heap.allocate(SIZE));
+        assertTrue(heap.allocate(10 * SIZE));
+        heap.charge(10 * SIZE);
+        assertEquals(0, heap.getByteCount());
+        assertFalse(heap.checkExceeded());
+        }
+
+    @Test
+    public void testConcurrentAllocations()
+            throws InterruptedException
+        {
+        int           cThreads = 4;
+        int           cLimit   = 100;
+        ObjectHeap    heap     = new ObjectHeap(cLimit * SIZE);
+        AtomicInteger cSuccess = new AtomicInteger();
+        Thread[]      aThread  = new Thread[cThreads];
+        for (int i = 0; i < cThreads; i++)
+            {
+            aThread[i] = new Thread(() ->
+                {
+                for (int j = 0; j < cLimit; j++)
+                    {
+                    if (heap.allocate(SIZE))
+                        {
+                        cSuccess.incrementAndGet();
+                        }
+                    }
+                });
+            aThread[i].start();
+            }
+        for (Thread thread : aThread)
+            {
+            thread.join();
+            }
+
+        // exactly the limit must have been reached
+        assertEquals(cLimit, cSuccess.get());
+        assertEquals(cLimit * SIZE, heap.getByteCount());
+        }
+
+    @Test
+    public void testObjectSize()
+        {
+        assertTrue(ObjectHeap.getByteSize(0) > 0);
+        assertTrue(ObjectHeap.getByteSize(10) > ObjectHeap.getByteSize(1));
+        }
+
+    private static final long SIZE = 64;
+    }
@@ -0,0 +1,177 @@
+package org.xvm.runtime;
+
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+import org.xvm.asm.OpFused;
+import org.xvm.asm.OpQuickened;
+
+import org.xvm.asm.op.GP_Int64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests of the {@link OpQuickened quickened} ops, run by the actual runtime.
+ */
+@Tag("slow")
+public class QuickeningTest
+    {
+    /**
+     * A call site that has been quickened for Int64 values must deoptimize back to the generic op
+     * once it sees other values, and produce the same results as the generic op.
+     */
+    @Test
+    public void testMixedCallSite()
+            throws Exception
+        {
+        ModuleRunner.Result result = ModuleRunner.run("QuickenMixed", """
+                module QuickenMixed {
+                    @Inject Console console;
+
+                    void run() {
+                        // quicken the op in "add" for Int64 values first
+                        for (Int i : 0 ..< 3) {
+                            console.print(add(i, 40));
+                        }
+                        console.print(add(Float64:1.5, Float64:2.25));
+                        console.print(add(Int32:7, Int32:8));
+                        console.print(add(Int:7, Int:8));
+                    }
+
+                    static <Num extends Number> Num add(Num n1, Num n2) {
+                        return n1 + n2;
+                    }
+                }
+                """);
+
+        assertEquals(List.of("40", "41", "42", "3.75", "15", "15"), result.listOutput());
+
+        List<Op> listOps = findOps(result.findMethod("add"), Op.OP_GP_ADD);
+        assertFalse(listOps.isEmpty());
+        for (Op op : listOps)
+            {
+            assertFalse(op instanceof OpQuickened, op::toString);
+            assertTrue(op.isGeneric(), op::toString);
+            }
+        }
+
+    /**
+     * The quickened Int64 arithmetic must wrap around exactly as the generic one (implemented by
+     * {@link org.xvm.runtime.template.numbers.xConstrainedInteger}) does.
+     */
+    @Test
+    public void testWrapping()
+            throws Exception
+        {
+        ModuleRunner.Result result = ModuleRunner.run("QuickenWrap", """
+                module QuickenWrap {
+                    @Inject Console console;
+
+                    void run() {
+                        Int[] values = [Int.MaxValue, Int.MinValue, -1, 3];
+
+                        // the ops in "add", "sub" and "mul" only ever see Int64 values, so they
+                        // stay quickened; the ops in the generic functions are made generic by
+                        // the Float64 values
+                        addGeneric(Float64:1.0, Float64:2.0);
+                        subGeneric(Float64:1.0, Float64:2.0);
+                        mulGeneric(Float64:1.0, Float64:2.0);
+                        for (Int n1 : values) {
+                            for (Int n2 : values) {
+                                String quick   = $"{add(n1, n2)} {sub(n1, n2)} {mul(n1, n2)}";
+                                String generic = $"{addGeneric(n1, n2)} {subGeneric(n1, n2)}";
+                                console.print($"{quick} {generic} {mulGeneric(n1, n2)}");
+                            }
+                        }
+                    }
+
+                    static Int add(Int n1, Int n2) {
+                        return n1 + n2;
+                    }
+
+                    static Int sub(Int n1, Int n2) {
+                        return n1 - n2;
+                    }
+
+                    static Int mul(Int n1, Int n2) {
+                        return n1 * n2;
+                    }
+
+                    static <Num extends Number> Num addGeneric(Num n1, Num n2) {
+                        return n1 + n2;
+                    }
+
+                    static <Num extends Number> Num subGeneric(Num n1, Num n2) {
+                        return n1 - n2;
+                    }
+
+                    static <Num extends Number> Num mulGeneric(Num n1, Num n2) {
+                        return n1 * n2;
+                    }
+                }
+                """);
+
+        long[]       al         = {Long.MAX_VALUE, Long.MIN_VALUE, -1, 3};
+        List<String> listExpect = new ArrayList<>();
+        for (long l1 : al)
+            {
+            for (long l2 : al)
+                {
+                String sCalc = (l1 + l2) + " " + (l1 - l2) + " " + (l1 * l2);
+                listExpect.add(sCalc + " " + sCalc);
+                }
+            }
+        assertEquals(listExpect, result.listOutput());
+
+        String[] asName = {"add", "sub", "mul"};
+        int[]    anOp   = {Op.OP_GP_ADD, Op.OP_GP_SUB, Op.OP_GP_MUL};
+        for (int i = 0; i < asName.length; i++)
+            {
+            List<Op> listOps = findOps(result.findMethod(asName[i]), anOp[i]);
+            assertFalse(listOps.isEmpty());
+            for (Op op : listOps)
+                {
+                assertTrue(op instanceof GP_Int64, op::toString);
+                }
+
+            listOps = findOps(result.findMethod(asName[i] + "Generic"), anOp[i]);
+            assertFalse(listOps.isEmpty());
+            for (Op op : listOps)
+                {
+                assertTrue(op.isGeneric(), op::toString);
+                }
+            }
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * @return the ops of the specified op code in the method, as they are after the run
+     */
+    private static List<Op> findOps(MethodStructure method, int nOp)
+        {
+        List<Op> listOps = new ArrayList<>();
+        for (Op op : method.getOps())
+            {
+            if (op instanceof OpFused opFused)
+                {
+                op = opFused.getFirstOp();
+                }
+            if (op.getOpCode() == nOp)
+                {
+                listOps.add(op);
+                }
+            }
+        return listOps;
+        }
+    }
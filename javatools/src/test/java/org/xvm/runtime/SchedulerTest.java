@@ -0,0 +1,88 @@
+package org.xvm.runtime;
+
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link Scheduler}.
+ */
+public class SchedulerTest
+    {
+    @Test
+    public void testRunAll()
+            throws InterruptedException
+        {
+        Scheduler      scheduler = new Scheduler("TestWorker", 4, new ThreadGroup("Test"));
+        int            cTasks    = 100_000;
+        CountDownLatch latch     = new CountDownLatch(cTasks);
+        AtomicInteger  cRun      = new AtomicInteger();
+
+        for (int i = 0; i < cTasks; i++)
+            {
+            scheduler.execute(() ->
+                {
+                cRun.incrementAndGet();
+                latch.countDown();
+                });
+            }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertEquals(cTasks, cRun.get());
+        scheduler.shutdown();
+        }
+
+    @Test
+    public void testResubmit()
+            throws InterruptedException
+        {
+        // "chatty" tasks that submit other tasks from the worker threads
+        Scheduler      scheduler = new Scheduler("TestWorker", 4, new ThreadGroup("Test"));
+        int            cChains   = 1_000;
+        int            cHops     = 100;
+        CountDownLatch latch     = new CountDownLatch(cChains);
+
+        for (int i = 0; i < cChains; i++)
+            {
+            scheduler.execute(new Runnable()
+                {
+                @Override
+                public void run()
+                    {
+                    if (++m_cHops == cHops)
+                        {
+                        latch.countDown();
+                        }
+                    else
+                        {
+                        scheduler.execute(this);
+                        }
+                    }
+
+                private int m_cHops;
+                });
+            }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        scheduler.shutdown();
+        }
+
+    @Test
+    public void testShutdown()
+        {
+        Scheduler scheduler = new Scheduler("TestWorker", 2, new ThreadGroup("Test"));
+
+        scheduler.shutdown();
+        assertTrue(scheduler.isShutdown());
+        assertThrows(java.util.concurrent.RejectedExecutionException.class,
+                () -> scheduler.execute(() -> {}));
+        }
+    }
@@ -0,0 +1,86 @@
+package org.xvm.runtime;
+
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link TimerWheel}.
+ */
+public class TimerWheelTest
+    {
+    @Test
+    public void testExpire()
+            throws InterruptedException
+        {
+        TimerWheel     wheel  = new TimerWheel("TestWheel", 1, 64);
+        int            cTasks = 1_000;
+        CountDownLatch latch  = new CountDownLatch(cTasks);
+        long           lStart = System.currentTimeMillis();
+
+        for (int i = 0; i < cTasks; i++)
+            {
+            // some of the delays span multiple rotations of the wheel
+            wheel.schedule(new Task(latch::countDown), i % 200);
+            }
+
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - lStart >= 199);
+        assertEquals(0, wheel.getTaskCount());
+        }
+
+    @Test
+    public void testCancel()
+            throws InterruptedException
+        {
+        TimerWheel     wheel  = new TimerWheel("TestWheel");
+        AtomicInteger  cRun   = new AtomicInteger();
+        int            cTasks = 10_000;
+        Task[]         aTask  = new Task[cTasks];
+
+        for (int i = 0; i < cTasks; i++)
+            {
+            wheel.schedule(aTask[i] = new Task(cRun::incrementAndGet), 50 + i % 100);
+            }
+
+        // cancel every other task
+        for (int i = 0; i < cTasks; i += 2)
+            {
+            assertTrue(aTask[i].cancel());
+            assertFalse(aTask[i].isScheduled());
+            }
+        assertEquals(cTasks / 2, wheel.getTaskCount());
+
+        CountDownLatch latch = new CountDownLatch(1);
+        wheel.schedule(new Task(latch::countDown), 200);
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+
+        assertEquals(cTasks / 2, cRun.get());
+        assertFalse(aTask[1].cancel()); // already run
+        }
+
+    private static class Task
+            extends TimerWheel.Task
+        {
+        Task(Runnable runnable)
+            {
+            f_runnable = runnable;
+            }
+
+        @Override
+        public void run()
+            {
+            f_runnable.run();
+            }
+
+        private final Runnable f_runnable;
+        }
+    }
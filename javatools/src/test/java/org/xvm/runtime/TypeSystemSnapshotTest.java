@@ -0,0 +1,193 @@
+package org.xvm.runtime;
+
+
+import java.io.File;
+import java.io.IOException;
+
+import java.lang.reflect.Field;
+
+import java.nio.file.Files;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.FileStructure;
+
+import org.xvm.asm.constants.TypeConstant;
+import org.xvm.asm.constants.TypeInfo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests of the {@link TypeSystemSnapshot}.
+ */
+public class TypeSystemSnapshotTest
+    {
+    @Test
+    public void testRoundTrip()
+            throws Exception
+        {
+        ConstantPool pool      = new FileStructure("test.xtclang.org").getConstantPool();
+        TypeConstant typeInt   = pool.typeInt64();
+        TypeConstant typeStr   = pool.typeString();
+        TypeConstant typeOther = pool.typeBoolean();
+        int          cLinked   = pool.size();
+
+        markComplete(typeInt);
+        markComplete(typeStr);
+
+        File file = createTempFile();
+        try
+            {
+            TypeSystemSnapshot snapshot = new TypeSystemSnapshot(
+                    new ConstantPool[] {pool}, new int[] {cLinked});
+            assertEquals(2, snapshot.save(file));
+            assertFalse(new File(file.getPath() + ".tmp").exists());
+
+            // only the types that had TypeInfos are recorded, in the pool order
+            List<List<TypeConstant>> listTypes = snapshot.read(file);
+            assertEquals(1, listTypes.size());
+            assertEquals(typeInt.getPosition() < typeStr.getPosition()
+                    ? List.of(typeInt, typeStr)
+                    : List.of(typeStr, typeInt), listTypes.get(0));
+            assertFalse(listTypes.get(0).contains(typeOther));
+
+            // the constants added after linking are never recorded
+            TypeConstant typeLate = pool.ensureArrayType(typeInt);
+            markComplete(typeLate);
+            assertEquals(2, snapshot.save(file));
+            assertEquals(2, snapshot.read(file).get(0).size());
+            }
+        finally
+            {
+            file.delete();
+            }
+        }
+
+    @Test
+    public void testNothingRecorded()
+            throws IOException
+        {
+        ConstantPool pool = new FileStructure("test.xtclang.org").getConstantPool();
+        pool.typeInt64();
+
+        File file = createTempFile();
+        try
+            {
+            TypeSystemSnapshot snapshot = new TypeSystemSnapshot(
+                    new ConstantPool[] {pool}, new int[] {pool.size()});
+            assertEquals(0, snapshot.save(file));
+            assertEquals(0, snapshot.warmUp(file));
+            }
+        finally
+            {
+            file.delete();
+            }
+        }
+
+    @Test
+    public void testMismatch()
+            throws Exception
+        {
+        ConstantPool pool1 = new FileStructure("test.xtclang.org").getConstantPool();
+        ConstantPool pool2 = new FileStructure("other.xtclang.org").getConstantPool();
+        markComplete(pool1.typeInt64());
+        markComplete(pool2.typeInt64());
+
+        int  cLinked1 = pool1.size();
+        int  cLinked2 = pool2.size();
+        File file     = createTempFile();
+        try
+            {
+            new TypeSystemSnapshot(new ConstantPool[] {pool1, pool2},
+                                   new int[]          {cLinked1, cLinked2}).save(file);
+
+            // a different number of pools
+            assertNull(new TypeSystemSnapshot(new ConstantPool[] {pool1},
+                    new int[] {cLinked1}).read(file));
+
+            // a different size of a linked pool
+            assertNull(new TypeSystemSnapshot(new ConstantPool[] {pool1, pool2},
+                    new int[] {cLinked1, cLinked2 + 1}).read(file));
+
+            // the same sizes, but different content (the same types created in a different order)
+            ConstantPool poolPrev = new FileStructure("test.xtclang.org").getConstantPool();
+            ConstantPool poolNext = new FileStructure("test.xtclang.org").getConstantPool();
+            markComplete(poolPrev.typeInt64());
+            poolPrev.typeChar();
+            poolNext.typeChar();
+            poolNext.typeInt64();
+            assertEquals(poolPrev.size(), poolNext.size());
+
+            new TypeSystemSnapshot(new ConstantPool[] {poolPrev},
+                                   new int[]          {poolPrev.size()}).save(file);
+            assertNull(new TypeSystemSnapshot(new ConstantPool[] {poolNext},
+                    new int[] {poolNext.size()}).read(file));
+
+            // a corrupted file
+            Files.write(file.toPath(), new byte[8]);
+            assertEquals(-1, new TypeSystemSnapshot(new ConstantPool[] {pool1, pool2},
+                    new int[] {cLinked1, cLinked2}).warmUp(file));
+            }
+        finally
+            {
+            file.delete();
+            }
+        }
+
+    @Test
+    public void testMissing()
+            throws IOException
+        {
+        ConstantPool pool = new FileStructure("test.xtclang.org").getConstantPool();
+        File         file = createTempFile();
+        file.delete();
+
+        TypeSystemSnapshot snapshot = new TypeSystemSnapshot(
+                new ConstantPool[] {pool}, new int[] {pool.size()});
+        assertNull(snapshot.read(file));
+        assertEquals(-1, snapshot.warmUp(file));
+        assertTrue(snapshot.save(file) >= 0);
+        assertTrue(file.delete());
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    private static File createTempFile()
+            throws IOException
+        {
+        return File.createTempFile("snapshot", ".xtss");
+        }
+
+    /**
+     * Give the specified type a complete TypeInfo. Computing a real one requires the Ecstasy
+     * module, which is not available to the test; the snapshot only checks the TypeInfo's progress.
+     */
+    private static void markComplete(TypeConstant type)
+            throws ReflectiveOperationException
+        {
+        Class<?> clzUnsafe = Class.forName("sun.misc.Unsafe");
+        Field    field     = clzUnsafe.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+
+        TypeInfo info = (TypeInfo) clzUnsafe.getMethod("allocateInstance", Class.class)
+                .invoke(field.get(null), TypeInfo.class);
+
+        Field fieldProgress = TypeInfo.class.getDeclaredField("f_progress");
+        fieldProgress.setAccessible(true);
+        fieldProgress.set(info, TypeInfo.Progress.Complete);
+
+        Field fieldInfo = TypeConstant.class.getDeclaredField("m_typeinfo");
+        fieldInfo.setAccessible(true);
+        fieldInfo.set(type, info);
+
+        assertTrue(type.hasTypeInfo());
+        }
+    }
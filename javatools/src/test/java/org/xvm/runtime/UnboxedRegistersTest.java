@@ -0,0 +1,418 @@
+package org.xvm.runtime;
+
+
+import java.lang.management.ManagementFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.xvm.asm.ConstantPool;
+import org.xvm.asm.MethodStructure;
+import org.xvm.asm.Op;
+import org.xvm.asm.OpFused;
+
+import org.xvm.asm.op.GP_Int64;
+import org.xvm.asm.op.IP_Int64;
+import org.xvm.asm.op.Move_Int64;
+
+import org.xvm.runtime.ObjectHandle.JavaLong;
+
+import org.xvm.runtime.template.numbers.xInt64;
+
+import org.xvm.runtime.template.xService;
+
+import org.xvm.runtime.template._native.reflect.xRTFunction.NativeFunctionHandle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests of the unboxed Int64 registers of the {@link Frame}, which are produced by the
+ * {@link org.xvm.asm.OpQuickened quickened} ops and must be boxed before anything else sees them.
+ */
+@Tag("slow")
+public class UnboxedRegistersTest
+    {
+    /**
+     * A constructor's arguments are bound to its "finally" function as is, so a parameter that
+     * has been modified by a quickened op must not be left unboxed.
+     */
+    @Test
+    public void testConstructorFinally()
+            throws Exception
+        {
+        ModuleRunner.Result result = ModuleRunner.run("UnboxedFinally", """
+                module UnboxedFinally {
+                    @Inject Console console;
+
+                    void run() {
+                        for (Int i : 0 ..< 3) {
+                            Counter counter = new Counter(i);
+                            console.print(counter.value);
+                        }
+                    }
+
+                    class Counter {
+                        construct(Int start) {
+                            value = start;
+
+                            // nothing reads the parameter after it's modified by the quickened
+                            // ops, so only the "finally" function would see its last value
+                            for (Int i : 0 ..< 3) {
+                                ++start;
+                            }
+                            start += 10;
+                        } finally {
+                            console.print($"finally {start}");
+                        }
+
+                        Int value;
+                    }
+                }
+                """);
+
+        assertEquals(List.of("finally 13", "0", "finally 14", "1", "finally 15", "2"),
+                result.listOutput());
+        }
+
+    /**
+     * The loops of the "intMath" benchmark keep their Int64 registers unboxed, and compute the
+     * same results as the generic ops.
+     */
+    @Test
+    public void testLoops()
+            throws Exception
+        {
+        ModuleRunner.Result result =
+                ModuleRunner.run("UnboxedLoops", LOOPS.formatted("UnboxedLoops"));
+
+        assertEquals(List.of(String.valueOf(sumLoop(1000)), String.valueOf(fibLoop(1000)),
+                String.valueOf(nestedLoop(100))), result.listOutput());
+
+        if (Op.QUICKEN_OPS)
+            {
+            assertTrue(hasOp(result.findMethod("sumLoop"), IP_Int64.class));
+            assertTrue(hasOp(result.findMethod("fibLoop"), Move_Int64.class));
+            assertTrue(hasOp(result.findMethod("fibLoop"), GP_Int64.class));
+            assertTrue(hasOp(result.findMethod("nestedLoop"), IP_Int64.class));
+            }
+        }
+
+    /**
+     * An unboxed value is boxed when it's read by anything other than a quickened op: a
+     * reference to the register, a lambda that captures it, an Object variable or a return.
+     */
+    @Test
+    public void testGenericReads()
+            throws Exception
+        {
+        ModuleRunner.Result result = ModuleRunner.run("UnboxedReads", """
+                module UnboxedReads {
+                    @Inject Console console;
+
+                    void run() {
+                        Int sum = 0;
+                        for (Int i = 0; i < 10; ++i) {
+                            sum += i;
+                        }
+
+                        Ref<Int> ref = &sum;
+                        console.print(ref.get());
+
+                        function Int() f = () -> sum * 2;
+                        console.print(f());
+
+                        Object o = sum;
+                        console.print(o);
+
+                        console.print(count(5));
+                    }
+
+                    static Int count(Int n) {
+                        Int c = 0;
+                        while (c < n) {
+                            c += 1;
+                        }
+                        return c;
+                    }
+                }
+                """);
+
+        assertEquals(List.of("45", "90", "45", "5"), result.listOutput());
+        }
+
+    /**
+     * Only the local stack and the standard registers of Int64 compatible types, which are not
+     * parameters, can hold unboxed values; the unboxed values are boxed on demand.
+     */
+    @Test
+    public void testFrame()
+            throws Exception
+        {
+        ModuleRunner.Result result = ModuleRunner.run("UnboxedFrame", """
+                module UnboxedFrame {
+                    void run() {}
+
+                    static Int locals(Int p) {
+                        Int    n = p;
+                        String s = "";
+                        return n;
+                    }
+                }
+                """);
+
+        MethodStructure method = result.findMethod("locals");
+        List<String>    listFailures = new ArrayList<>();
+
+        call(result, (frame, ahArg, iReturn) ->
+            {
+            ConstantPool   pool  = frame.poolContext();
+            ObjectHandle[] ahVar = Utils.ensureSize(
+                    new ObjectHandle[] {xInt64.makeHandle(1)}, method.getMaxVars());
+            Frame frameTest = frame.createFrame1(method, null, ahVar, Op.A_IGNORE);
+
+            frameTest.introduceResolvedVar(1, pool.typeInt64());
+            frameTest.introduceResolvedVar(2, pool.typeString());
+
+            check(listFailures, "param", !frameTest.storeUnboxedInt64(0, 7));
+            check(listFailures, "string", !frameTest.storeUnboxedInt64(2, 7));
+            check(listFailures, "store", frameTest.storeUnboxedInt64(1, 7));
+            check(listFailures, "unboxed", ahVar[1] == Frame.UNBOXED);
+            check(listFailures, "value", frameTest.getUnboxedInt64(1) == 7);
+
+            try
+                {
+                check(listFailures, "boxed",
+                        frameTest.getArgument(1) instanceof JavaLong hLong &&
+                        hLong.getValue() == 7 && ahVar[1] == hLong);
+                }
+            catch (ObjectHandle.ExceptionHandle.WrapperException e)
+                {
+                listFailures.add("boxed: " + e);
+                }
+
+            // an unboxed stack top is boxed when it's pushed down or popped by a generic op
+            check(listFailures, "push", frameTest.storeUnboxedInt64(Op.A_STACK, 8));
+            check(listFailures, "push", frameTest.storeUnboxedInt64(Op.A_STACK, 9));
+            check(listFailures, "top", frameTest.peekStackUnboxed() == Frame.UNBOXED &&
+                                       frameTest.getUnboxedInt64(Op.A_STACK) == 9);
+            check(listFailures, "pop", frameTest.popStack() instanceof JavaLong hLong &&
+                                       hLong.getValue() == 9);
+            check(listFailures, "pop", frameTest.popStack() instanceof JavaLong hLong &&
+                                       hLong.getValue() == 8);
+            check(listFailures, "empty", frameTest.peekStack() == null);
+            return Op.R_NEXT;
+            });
+
+        assertEquals(List.of(), listFailures);
+        }
+
+    /**
+     * The quickened loops of the "intMath" benchmark should not box anything per iteration. The
+     * numbers are printed, so the test can be run with "-Dxvm.quicken=false" to compare them with
+     * the generic ops.
+     */
+    @Test
+    public void testAllocations()
+            throws Exception
+        {
+        ModuleRunner.Result result =
+                ModuleRunner.run("UnboxedAllocs", LOOPS.formatted("UnboxedAllocs"));
+
+        // the loop body of "fibLoop" is a scope that introduces the "next" variable, so every
+        // iteration allocates a VarInfo for it (but boxes nothing)
+        checkAllocations(result, "sumLoop", 1_000_000, false, 1);
+        checkAllocations(result, "fibLoop", 1_000_000, false, 64);
+        checkAllocations(result, "nestedLoop", 1000, true, 1);
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Measure the bytes allocated per iteration by the specified loop function, and check that
+     * it's under the specified limit if the ops are quickened.
+     */
+    private static void checkAllocations(ModuleRunner.Result result, String sName, int cIters,
+                                         boolean fNested, int cbLimit)
+            throws Exception
+        {
+        // warm up, so all the ops are quickened (and the JIT has compiled the dispatch loop)
+        for (int i = 0; i < 3; i++)
+            {
+            callLoop(result, sName, cIters);
+            }
+
+        // the difference between the two runs excludes the cost of the call itself
+        long   cb1    = callLoop(result, sName, cIters);
+        long   cb2    = callLoop(result, sName, 2 * cIters);
+        long   cTotal = fNested ? 3L * cIters * cIters : cIters;
+        double dPer   = Math.max(0, cb2 - cb1) / (double) cTotal;
+
+        System.out.printf("%s: %.2f bytes allocated per iteration (quicken=%b)%n",
+                sName, dPer, Op.QUICKEN_OPS);
+        if (Op.QUICKEN_OPS)
+            {
+            assertTrue(dPer < cbLimit, () -> sName + " allocates " + dPer + " bytes per iteration");
+            }
+        }
+
+    /**
+     * Call the specified loop function and measure the bytes allocated by the call.
+     */
+    private static long callLoop(ModuleRunner.Result result, String sName, int cIters)
+            throws Exception
+        {
+        MethodStructure method = result.findMethod(sName);
+        long[]          acb    = new long[1];
+
+        call(result, (frame, ahArg, iReturn) ->
+            {
+            ObjectHandle[] ahVar = Utils.ensureSize(
+                    new ObjectHandle[] {xInt64.makeHandle(cIters)}, method.getMaxVars());
+            acb[0] = getAllocatedBytes();
+            return frame.call1(method, null, ahVar, iReturn);
+            });
+        return getAllocatedBytes() - acb[0];
+        }
+
+    /**
+     * Run the specified native function on the service context of the specified module run.
+     */
+    private static void call(ModuleRunner.Result result, xService.NativeOperation op)
+            throws Exception
+        {
+        ServiceContext context = result.container().ensureServiceContext();
+        context.postRequest(null, new NativeFunctionHandle(op), Utils.OBJECTS_NONE, 1)
+                .get(60, TimeUnit.SECONDS);
+        }
+
+    /**
+     * @return the number of bytes allocated so far by all the live threads
+     */
+    private static long getAllocatedBytes()
+        {
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        long cb = 0;
+        for (long cbThread : bean.getThreadAllocatedBytes(bean.getAllThreadIds()))
+            {
+            cb += Math.max(0, cbThread);
+            }
+        return cb;
+        }
+
+    private static void check(List<String> listFailures, String sName, boolean fOk)
+        {
+        if (!fOk)
+            {
+            listFailures.add(sName);
+            }
+        }
+
+    /**
+     * @return true iff the specified method has an op of the specified class, possibly fused
+     */
+    private static boolean hasOp(MethodStructure method, Class<? extends Op> clzOp)
+        {
+        for (Op op : method.getOps())
+            {
+            if (op instanceof OpFused opFused)
+                {
+                op = opFused.getFirstOp();
+                }
+            if (clzOp.isInstance(op))
+                {
+                return true;
+                }
+            }
+        return false;
+        }
+
+    private static long sumLoop(long cCount)
+        {
+        long lSum = 0;
+        for (long i = 0; i < cCount; ++i)
+            {
+            lSum += i;
+            }
+        return lSum;
+        }
+
+    private static long fibLoop(long cCount)
+        {
+        long lPrev = 0;
+        long lCurr = 1;
+        for (long i = 0; i < cCount; ++i)
+            {
+            long lNext = lPrev + lCurr;
+            lPrev = lCurr;
+            lCurr = lNext & 0xFFFFFF;
+            }
+        return lCurr;
+        }
+
+    private static long nestedLoop(long cCount)
+        {
+        long lSum = 0;
+        for (long i = 0; i < cCount; ++i)
+            {
+            for (long j = 0; j < cCount; ++j)
+                {
+                lSum += i * j - j;
+                }
+            }
+        return lSum;
+        }
+
+    /**
+     * The loops of the "manualTests/src/main/x/intMath.x" benchmark; the module name is a parameter.
+     */
+    private static final String LOOPS = """
+            module %s {
+                @Inject Console console;
+
+                void run() {
+                    console.print(sumLoop(1000));
+                    console.print(fibLoop(1000));
+                    console.print(nestedLoop(100));
+                }
+
+                static Int sumLoop(Int count) {
+                    Int sum = 0;
+                    for (Int i = 0; i < count; ++i) {
+                        sum += i;
+                    }
+                    return sum;
+                }
+
+                static Int fibLoop(Int count) {
+                    Int prev = 0;
+                    Int curr = 1;
+                    for (Int i = 0; i < count; ++i) {
+                        Int next = prev + curr;
+                        prev = curr;
+                        curr = next & 0xFFFFFF;
+                    }
+                    return curr;
+                }
+
+                static Int nestedLoop(Int count) {
+                    Int sum = 0;
+                    for (Int i = 0; i < count; ++i) {
+                        for (Int j = 0; j < count; ++j) {
+                            sum += i * j - j;
+                        }
+                    }
+                    return sum;
+                }
+            }
+            """;
+    }
@@ -0,0 +1,100 @@
+package org.xvm.runtime.gc;
+
+
+import org.xvm.util.LongMuterator;
+
+import java.util.function.LongConsumer;
+
+
+/**
+ * A benchmark comparing the {@link MarkAndSweepGcSpace} and the {@link GenerationalGcSpace} on a workload dominated by
+ * short-lived objects: a large long-lived structure is retained, while a stream of new objects is allocated with only a
+ * small window of them being reachable at any time.
+ * <p>
+ * Usage: {@code GcSpaceBenchmark [allocations] [long-lived objects] [window]}
+ */
+public class GcSpaceBenchmark
+    {
+    public static void main(String[] args)
+        {
+        int cAlloc = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int cRetained = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        int cWindow = args.length > 2 ? Integer.parseInt(args[2]) : 1_000;
+
+        LongConsumer cleared = l -> {};
+        for (int iRun = 0; iRun < 3; ++iRun)
+            {
+            run("mark-and-sweep",
+                new MarkAndSweepGcSpace<>(LongArrayObjectManager.INSTANCE, cleared, 64L << 20, Long.MAX_VALUE),
+                cAlloc, cRetained, cWindow);
+
+            GenerationalGcSpace<long[]> space = new GenerationalGcSpace<>(
+                LongArrayObjectManager.INSTANCE, cleared, 64L << 20, Long.MAX_VALUE,
+                GenerationalGcSpace.DEFAULT_NURSERY_SIZE);
+            run("generational", space, cAlloc, cRetained, cWindow);
+            System.out.println("    " + space.getMetrics());
+            }
+        }
+
+    /**
+     * Run the workload against the specified space.
+     */
+    private static void run(String sName, GcSpace space, int cAlloc, int cRetained, int cWindow)
+        {
+        long[] alRoots = new long[cWindow + 1];
+        space.addRoot(() -> new LongMuterator()
+            {
+            int i = -1;
+
+            @Override
+            public void set(long value)
+                {
+                alRoots[i] = value;
+                }
+
+            @Override
+            public long nextLong()
+                {
+                return alRoots[++i];
+                }
+
+            @Override
+            public boolean hasNext()
+                {
+                return i + 1 < alRoots.length;
+                }
+            });
+
+        // the long-lived structure: a list hanging off the last root
+        int iRetained = cWindow;
+        for (int i = 0; i < cRetained; ++i)
+            {
+            long p = space.allocate(2);
+            space.setField(p, 0, alRoots[iRetained]);
+            alRoots[iRetained] = p;
+            }
+        space.gc();
+
+        long cMaxPause = 0;
+        long ldtStart = System.nanoTime();
+        for (int i = 0; i < cAlloc; ++i)
+            {
+            long ldtAlloc = System.nanoTime();
+            long p = space.allocate(4);
+            cMaxPause = Math.max(cMaxPause, System.nanoTime() - ldtAlloc);
+
+            // refer to the long-lived structure, occasionally make it refer back, and replace the oldest object in
+            // the window
+            space.setField(p, 0, alRoots[iRetained]);
+            if (i % 100 == 0)
+                {
+                space.setField(alRoots[iRetained], 1, p);
+                }
+            alRoots[i % cWindow] = p;
+            }
+        long cNanos = System.nanoTime() - ldtStart;
+
+        System.out.printf("%-15s %,12d allocations/s, max pause %,8d us, final size %,d bytes%n",
+            sName, cAlloc * 1_000_000_000L / Math.max(1, cNanos), cMaxPause / 1000, space.getByteCount());
+        }
+    }
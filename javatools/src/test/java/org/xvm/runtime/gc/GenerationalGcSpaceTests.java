@@ -0,0 +1,355 @@
+package org.xvm.runtime.gc;
+
+
+import org.xvm.util.LongMuterator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Tests of the {@link GenerationalGcSpace}.
+ * <p>
+ * As the young objects move, the tests keep all the addresses they use in the {@link Roots}.
+ */
+public class GenerationalGcSpaceTests
+    {
+    GenerationalGcSpace<long[]> makeSpace(LongConsumer cleared, long capacity, int cNursery)
+        {
+        return new GenerationalGcSpace<>(LongArrayObjectManager.INSTANCE, cleared, capacity, capacity, cNursery);
+        }
+
+    /**
+     * A fixed number of root slots.
+     */
+    static class Roots
+        {
+        Roots(int c)
+            {
+            al = new long[c];
+            }
+
+        LongMuterator iterator()
+            {
+            return new LongMuterator()
+                {
+                int i = -1;
+
+                @Override
+                public void set(long value)
+                    {
+                    al[i] = value;
+                    }
+
+                @Override
+                public long nextLong()
+                    {
+                    return al[++i];
+                    }
+
+                @Override
+                public boolean hasNext()
+                    {
+                    return i + 1 < al.length;
+                    }
+                };
+            }
+
+        final long[] al;
+        }
+
+    @Test
+    public void shouldRetainReachablesAcrossCollections()
+        {
+        GenerationalGcSpace<long[]> space = makeSpace(l -> {}, Long.MAX_VALUE, 16);
+        Roots roots = new Roots(2);
+        space.addRoot(roots::iterator);
+
+        roots.al[0] = space.allocate(2);
+        roots.al[1] = space.allocate(2);
+        space.setField(roots.al[0], 0, roots.al[1]);
+        space.setField(roots.al[1], 1, space.allocate(0));
+
+        // churn through many young collections
+        for (int i = 0; i < 1000; ++i)
+            {
+            space.allocate(1);
+            }
+
+        assertTrue(space.getMetrics().getYoungCollectionCount() > 0);
+        assertTrue(space.isValid(roots.al[0]));
+        assertEquals(roots.al[1], space.getField(roots.al[0], 0));
+        assertTrue(space.isValid(space.getField(roots.al[1], 1)));
+
+        // the garbage has been collected
+        assertTrue(space.getByteCount() < 16 * 2 * LongArrayObjectManager.INSTANCE.getByteSize(new long[3]));
+        }
+
+    @Test
+    public void shouldTrackOldToYoungReferences()
+        {
+        GenerationalGcSpace<long[]> space = makeSpace(l -> {}, Long.MAX_VALUE, 16);
+        Roots roots = new Roots(1);
+        space.addRoot(roots::iterator);
+
+        roots.al[0] = space.allocate(1);
+        space.gc(); // promotes the root object
+        assertTrue(space.getOldByteCount() > 0);
+        assertEquals(0, space.getYoungByteCount());
+
+        // the only reference to the young object comes from the old one
+        space.setField(roots.al[0], 0, space.allocate(1));
+        for (int i = 0; i < 100; ++i)
+            {
+            space.allocate(1);
+            }
+
+        long pChild = space.getField(roots.al[0], 0);
+        assertTrue(space.isValid(pChild));
+        }
+
+    @Test
+    public void shouldCollectOldGarbageIncrementally()
+        {
+        GenerationalGcSpace<long[]> space = makeSpace(l -> {}, Long.MAX_VALUE, 64);
+        Roots roots = new Roots(1);
+        space.addRoot(roots::iterator);
+
+        // a linked list that keeps getting its head replaced; the tail becomes old garbage
+        roots.al[0] = space.allocate(1);
+        for (int i = 0; i < 200_000; ++i)
+            {
+            long p = space.allocate(1);
+            space.setField(p, 0, i % 100 == 0 ? GcSpace.NULL : roots.al[0]);
+            roots.al[0] = p;
+            }
+
+        GcMetrics metrics = space.getMetrics();
+        assertTrue(metrics.getOldCollectionCount() > 0);
+        assertTrue(metrics.getPromotedBytes() > 0);
+        assertEquals(0, metrics.getFullCollectionCount());
+
+        // verify the live list is intact
+        long p = roots.al[0];
+        int  c = 0;
+        while (p != GcSpace.NULL)
+            {
+            p = space.getField(p, 0);
+            ++c;
+            }
+        assertEquals(100, c);
+        }
+
+    @Test
+    public void shouldNotLoseObjectsMovedDuringMarking()
+        {
+        GenerationalGcSpace<long[]> space = makeSpace(l -> {}, Long.MAX_VALUE, 32);
+        int   cSlots = 64;
+        Roots roots = new Roots(cSlots);
+        space.addRoot(roots::iterator);
+
+        // each root holds a binary tree (field 2 holds the object's id); the mutator keeps moving subtrees
+        // around, which constantly hides old objects from the marker unless the write barrier works; the
+        // same operations are applied to a java model of the graph, which is compared with the space at the end
+        List<long[]> listModel = new ArrayList<>();
+        long[]       alRootIds = new long[cSlots];
+        Random       rnd       = new Random(42);
+        for (int i = 0; i < cSlots; ++i)
+            {
+            roots.al[i]  = allocateNode(space, listModel);
+            alRootIds[i] = i;
+            }
+
+        for (int i = 0; i < 500_000; ++i)
+            {
+            // pick two random nodes (most of them old)
+            int    iField = rnd.nextInt(2);
+            long[] aFrom  = descend(space, roots, alRootIds, listModel, rnd);
+            long[] aTo    = descend(space, roots, alRootIds, listModel, rnd);
+            int nOp = rnd.nextInt(100);
+            switch (nOp < 50 ? 0 : nOp < 95 ? 1 : 2)
+                {
+                case 0: // swap the subtrees of two nodes
+                    {
+                    int    iFieldTo = rnd.nextInt(2);
+                    long   pFrom    = space.getField(aFrom[0], iField);
+                    long   pTo      = space.getField(aTo[0], iFieldTo);
+                    long[] alFrom   = listModel.get((int) aFrom[1]);
+                    long[] alTo     = listModel.get((int) aTo[1]);
+                    long   nFrom    = alFrom[iField];
+
+                    space.setField(aFrom[0], iField, pTo);
+                    alFrom[iField] = alTo[iFieldTo];
+                    space.setField(aTo[0], iFieldTo, pFrom);
+                    alTo[iFieldTo] = nFrom;
+                    break;
+                    }
+
+                case 1: // grow a tree
+                    {
+                    int    iRoot = rnd.nextInt(cSlots);
+                    long   p     = allocateNode(space, listModel);
+                    long   n     = listModel.size() - 1;
+                    long[] al    = listModel.get((int) alRootIds[iRoot]);
+
+                    space.setField(p, iField, space.getField(roots.al[iRoot], iField));
+                    listModel.get((int) n)[iField] = al[iField];
+                    space.setField(roots.al[iRoot], iField, p);
+                    al[iField] = n;
+                    break;
+                    }
+
+                default: // replace a root by a subtree; cut it from its parent
+                    {
+                    long pChild = space.getField(aFrom[0], iField);
+                    if (pChild != GcSpace.NULL)
+                        {
+                        int    iRoot  = rnd.nextInt(cSlots);
+                        long[] alFrom = listModel.get((int) aFrom[1]);
+                        roots.al[iRoot]  = pChild;
+                        alRootIds[iRoot] = alFrom[iField];
+                        space.setField(aFrom[0], iField, GcSpace.NULL);
+                        alFrom[iField] = -1;
+                        }
+                    break;
+                    }
+                }
+            }
+
+        assertTrue(space.getMetrics().getOldCollectionCount() > 0);
+
+        // every reachable object must still be there
+        Set<Long>  setVisited  = new HashSet<>();
+        List<Long> listPending = new ArrayList<>();
+        for (long p : roots.al)
+            {
+            listPending.add(p);
+            }
+        while (!listPending.isEmpty())
+            {
+            long p = listPending.remove(listPending.size() - 1);
+            if (p != GcSpace.NULL && setVisited.add(p))
+                {
+                assertTrue(space.isValid(p));
+
+                long[] al = listModel.get((int) (space.getField(p, 2) >>> 1));
+                for (int i = 0; i < 2; ++i)
+                    {
+                    long pChild = space.getField(p, i);
+                    assertEquals(al[i], pChild == GcSpace.NULL ? -1 : space.getField(pChild, 2) >>> 1);
+                    listPending.add(pChild);
+                    }
+                }
+            }
+        }
+
+    /**
+     * Walk down a random path of a random tree.
+     *
+     * @return the node's address and id
+     */
+    private static long[] descend(GcSpace space, Roots roots, long[] alRootIds, List<long[]> listModel, Random rnd)
+        {
+        int  iRoot = rnd.nextInt(roots.al.length);
+        long p     = roots.al[iRoot];
+        long n     = alRootIds[iRoot];
+        for (int i = 0, c = rnd.nextInt(12); i < c; ++i)
+            {
+            int  iField = rnd.nextInt(2);
+            long pChild = space.getField(p, iField);
+            if (pChild == GcSpace.NULL)
+                {
+                break;
+                }
+            p = pChild;
+            n = listModel.get((int) n)[iField];
+            }
+        return new long[] {p, n};
+        }
+
+    /**
+     * Allocate a tree node with a new id.
+     */
+    private static long allocateNode(GcSpace space, List<long[]> listModel)
+        {
+        long p = space.allocate(3);
+        space.setField(p, 2, (long) listModel.size() << 1);
+        listModel.add(new long[] {-1, -1});
+        return p;
+        }
+
+    @Test
+    public void shouldClearWeakRefsToUnreachables()
+        {
+        List<Long> cleared = new ArrayList<>();
+        GenerationalGcSpace<long[]> space = makeSpace(cleared::add, Long.MAX_VALUE, 16);
+        Roots roots = new Roots(2);
+        space.addRoot(roots::iterator);
+
+        roots.al[0] = space.allocateWeak(2); // the weak-ref
+        roots.al[1] = space.allocate(1);     // the strong holder
+        long p = space.allocate(0);
+        space.setField(roots.al[0], 0, p);
+        space.setField(roots.al[0], 1, space.allocate(0)); // notifier
+        space.setField(roots.al[1], 0, p);
+
+        space.gc();
+        assertEquals(space.getField(roots.al[1], 0), space.getField(roots.al[0], 0));
+        assertTrue(cleared.isEmpty());
+
+        // drop the strong ref to a young referent
+        space.setField(roots.al[1], 0, GcSpace.NULL);
+        space.gc();
+        assertEquals(GcSpace.NULL, space.getField(roots.al[0], 0));
+        assertTrue(cleared.remove(roots.al[0]));
+
+        // the same for an old referent
+        p = space.allocate(0);
+        space.setField(roots.al[0], 0, p);
+        space.setField(roots.al[1], 0, p);
+        space.gc();
+        p = space.getField(roots.al[1], 0);
+        assertEquals(p, space.getField(roots.al[0], 0));
+
+        space.setField(roots.al[1], 0, GcSpace.NULL);
+        space.gc();
+        assertEquals(GcSpace.NULL, space.getField(roots.al[0], 0));
+        assertFalse(space.isValid(p));
+        assertTrue(cleared.remove(roots.al[0]));
+        }
+
+    @Test
+    public void shouldOOMEOnHardLimit()
+        {
+        long cbLimit = 1024 * 1024 * 16;
+        GenerationalGcSpace<long[]> space = makeSpace(l -> {}, cbLimit, 256);
+        Roots roots = new Roots(1);
+        space.addRoot(roots::iterator);
+        roots.al[0] = space.allocate(1);
+
+        try
+            {
+            for (int i = 0; i < 2_000_000; ++i)
+                {
+                long p = space.allocate(512);
+                space.setField(p, 0, roots.al[0]);
+                roots.al[0] = p;
+                }
+            fail();
+            }
+        catch (OutOfMemoryError e)
+            {
+            assertTrue(space.getByteCount() >= cbLimit);
+            }
+        }
+    }
@@ -0,0 +1,106 @@
+package org.xvm.tool;
+
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import java.net.InetAddress;
+import java.net.Socket;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests of the {@link CompilerDaemon} protocol.
+ */
+public class CompilerDaemonTest
+    {
+    @Test
+    public void testHandshake()
+            throws Exception
+        {
+        File dir      = Files.createTempDirectory("daemon").toFile();
+        File filePort = new File(dir, "test.port");
+        try
+            {
+            Thread thread = new Thread(() ->
+                {
+                try
+                    {
+                    new CompilerDaemon(filePort, 5_000).serve();
+                    }
+                catch (IOException e)
+                    {
+                    throw new RuntimeException(e);
+                    }
+                });
+            thread.start();
+
+            String[] asPort = awaitPortFile(filePort).split(" ");
+            int      nPort  = Integer.parseInt(asPort[0]);
+
+            // a request with a wrong token is rejected with the protocol error frame
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), nPort))
+                {
+                DataInputStream in = send(socket, "wrong", "stop");
+                assertEquals('P', in.readByte());
+                byte[] ab = new byte[in.readInt()];
+                in.readFully(ab);
+                assertFalse(new String(ab, StandardCharsets.UTF_8).isEmpty());
+                assertEquals(-1, in.read());
+                }
+
+            // a valid request is accepted first, and then completed
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), nPort))
+                {
+                DataInputStream in = send(socket, asPort[1], "stop");
+                assertEquals('A', in.readByte());
+                assertEquals('X', in.readByte());
+                assertEquals(0, in.readInt());
+                }
+
+            thread.join(30_000);
+            assertFalse(thread.isAlive());
+            assertFalse(filePort.exists());
+            }
+        finally
+            {
+            filePort.delete();
+            assertTrue(dir.delete());
+            }
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    private static String awaitPortFile(File filePort)
+            throws Exception
+        {
+        for (int i = 0; i < 100 && !filePort.exists(); i++)
+            {
+            Thread.sleep(100);
+            }
+        return Files.readString(filePort.toPath()).trim();
+        }
+
+    private static DataInputStream send(Socket socket, String sToken, String sCmd)
+            throws IOException
+        {
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        out.writeUTF(sToken);
+        out.writeUTF(sCmd);
+        out.writeInt(0);
+        out.flush();
+        return new DataInputStream(socket.getInputStream());
+        }
+    }
@@ -0,0 +1,114 @@
+package org.xvm.tool;
+
+
+import java.io.File;
+
+import java.lang.management.ManagementFactory;
+
+import java.nio.file.Files;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+
+/**
+ * Tests of the compiler's memory footprint.
+ */
+public class CompilerMemoryTest
+    {
+    /**
+     * The Ecstasy module must compile within a bounded heap. The validated method bodies are let
+     * go of as soon as they are emitted, and the source trees as soon as their modules are stored,
+     * so the peak heap is dominated by the structures being generated rather than by the ASTs.
+     */
+    @Test
+    public void testBoundedHeap()
+            throws Exception
+        {
+        File dirRoot = findProjectRoot();
+        File dirOut  = Files.createTempDirectory("xtc").toFile();
+        File fileLog = new File(dirOut, "compiler.log");
+        try
+            {
+            List<String> listCmd = new ArrayList<>();
+            listCmd.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+            if (ManagementFactory.getRuntimeMXBean().getInputArguments().contains("--enable-preview"))
+                {
+                listCmd.add("--enable-preview");
+                }
+            listCmd.add("-Xmx" + MAX_HEAP);
+            listCmd.add("-Xss8m");
+            listCmd.add("-XX:+UseSerialGC");
+            listCmd.add("-cp");
+            listCmd.add(System.getProperty("java.class.path"));
+            listCmd.add(Compiler.class.getName());
+            listCmd.add("-o");
+            listCmd.add(dirOut.getPath());
+            listCmd.add(new File(dirRoot, "lib_ecstasy/src/main/x/ecstasy.x").getPath());
+            listCmd.add(new File(dirRoot, "javatools_turtle/src/main/resources/mack.x").getPath());
+
+            Process process = new ProcessBuilder(listCmd)
+                    .redirectErrorStream(true)
+                    .redirectOutput(fileLog)
+                    .start();
+
+            int nExit = process.waitFor();
+            assertEquals(0, nExit, () -> "the compilation failed within " + MAX_HEAP + ":\n"
+                    + readLog(fileLog));
+            assertTrue(new File(dirOut, "ecstasy.xtc").exists());
+            }
+        finally
+            {
+            for (File file : dirOut.listFiles())
+                {
+                file.delete();
+                }
+            dirOut.delete();
+            }
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    private static String readLog(File fileLog)
+        {
+        try
+            {
+            return Files.readString(fileLog.toPath());
+            }
+        catch (Exception e)
+            {
+            return e.toString();
+            }
+        }
+
+    /**
+     * @return the root directory of the project, which contains the Ecstasy library sources
+     */
+    private static File findProjectRoot()
+        {
+        for (File dir = new File(System.getProperty("user.dir")).getAbsoluteFile();
+                dir != null; dir = dir.getParentFile())
+            {
+            if (new File(dir, "lib_ecstasy").isDirectory())
+                {
+                return dir;
+                }
+            }
+
+        return fail("the project root is not found");
+        }
+
+    /**
+     * The heap that the compilation of the Ecstasy module must fit in; it takes less than 320MB
+     * (with about 190MB live at the peak), so the bound leaves room for the differences between
+     * the JVMs.
+     */
+    private static final String MAX_HEAP = "384m";
+    }
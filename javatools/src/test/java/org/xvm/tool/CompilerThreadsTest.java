@@ -0,0 +1,126 @@
+package org.xvm.tool;
+
+
+import java.io.File;
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import org.xvm.asm.FileStructure;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+
+/**
+ * Tests of the compiler's "--threads" option.
+ */
+@Tag("slow")
+public class CompilerThreadsTest
+    {
+    /**
+     * The Ecstasy module compiled on multiple threads must be byte-for-byte the same as the one
+     * compiled on a single thread (except for the compilation timestamp).
+     */
+    @Test
+    public void testDeterministicOutput()
+            throws Exception
+        {
+        File dirRoot = findProjectRoot();
+
+        byte[] abSingle = compileEcstasy(dirRoot, 1);
+        byte[] abMulti  = compileEcstasy(dirRoot, 4);
+        assertArrayEquals(abSingle, abMulti);
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Compile the Ecstasy module on the specified number of threads.
+     *
+     * @return the content of the compiled module, with the compilation timestamp blanked out
+     */
+    private static byte[] compileEcstasy(File dirRoot, int cThreads)
+            throws Exception
+        {
+        File dirOut = Files.createTempDirectory("xtc").toFile();
+        try
+            {
+            Compiler.launch(new String[]
+                {
+                "--threads", String.valueOf(cThreads),
+                "-o", dirOut.getPath(),
+                new File(dirRoot, "lib_ecstasy/src/main/x/ecstasy.x").getPath(),
+                new File(dirRoot, "javatools_turtle/src/main/resources/mack.x").getPath(),
+                });
+
+            File fileOut = new File(dirOut, "ecstasy.xtc");
+            assertTrue(fileOut.exists());
+
+            byte[] ab = Files.readAllBytes(fileOut.toPath());
+            blankOut(ab, new FileStructure(fileOut).getModule().getTimestamp().getValue());
+            return ab;
+            }
+        finally
+            {
+            for (File file : dirOut.listFiles())
+                {
+                file.delete();
+                }
+            dirOut.delete();
+            }
+        }
+
+    /**
+     * Zero out every occurrence of the specified string in the specified bytes.
+     */
+    private static void blankOut(byte[] ab, String s)
+        {
+        byte[] abFind = s.getBytes(StandardCharsets.UTF_8);
+        int    cFound = 0;
+
+        NextOffset:
+        for (int of = 0, ofLast = ab.length - abFind.length; of <= ofLast; ++of)
+            {
+            for (int i = 0; i < abFind.length; ++i)
+                {
+                if (ab[of + i] != abFind[i])
+                    {
+                    continue NextOffset;
+                    }
+                }
+
+            for (int i = 0; i < abFind.length; ++i)
+                {
+                ab[of + i] = 0;
+                }
+            ++cFound;
+            }
+
+        assertTrue(cFound > 0);
+        }
+
+    /**
+     * @return the root directory of the project, which contains the Ecstasy library sources
+     */
+    private static File findProjectRoot()
+        {
+        for (File dir = new File(System.getProperty("user.dir")).getAbsoluteFile();
+                dir != null; dir = dir.getParentFile())
+            {
+            if (new File(dir, "lib_ecstasy").isDirectory())
+                {
+                return dir;
+                }
+            }
+
+        return fail("the project root is not found");
+        }
+    }
@@ -0,0 +1,217 @@
+package org.xvm.tool;
+
+
+import java.io.File;
+import java.io.IOException;
+
+import java.lang.reflect.Field;
+
+import java.nio.file.Files;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import org.xvm.asm.DirRepository;
+import org.xvm.asm.FileRepository;
+import org.xvm.asm.FileStructure;
+import org.xvm.asm.ModuleRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Tests of the {@link RepositoryCache}.
+ */
+public class RepositoryCacheTest
+    {
+    @Test
+    public void testLeaseAndRelease()
+            throws IOException
+        {
+        File dir = createModuleDir("lib", "a.test.org");
+        try
+            {
+            RepositoryCache    cache = new RepositoryCache(4);
+            List<File>         path  = List.of(dir);
+            ModuleRepository[] aRepo = cache.lease(path);
+            assertEquals(1, aRepo.length);
+            assertTrue(aRepo[0] instanceof DirRepository);
+            assertNotNull(aRepo[0].loadModule("a.test.org"));
+
+            // the repositories are not handed out again until released
+            ModuleRepository[] aRepoConcurrent = cache.lease(path);
+            assertNotSame(aRepo[0], aRepoConcurrent[0]);
+            cache.release(aRepoConcurrent);
+            assertEquals(0, cache.getHitCount());
+
+            cache.release(aRepo);
+            assertSame(aRepo, cache.lease(path));
+            assertEquals(1, cache.getHitCount());
+
+            // the concurrently leased repositories were never cached
+            assertNotSame(aRepoConcurrent, cache.lease(path));
+            }
+        finally
+            {
+            delete(dir);
+            }
+        }
+
+    @Test
+    public void testStale()
+            throws IOException
+        {
+        File dir = createModuleDir("lib", "a.test.org");
+        try
+            {
+            RepositoryCache    cache = new RepositoryCache(4);
+            List<File>         path  = List.of(dir);
+            ModuleRepository[] aRepo = cache.lease(path);
+            aRepo[0].loadModule("a.test.org");
+            cache.release(aRepo);
+
+            // a changed module file discards the repositories
+            File file = new File(dir, "a.test.org.xtc");
+            assertTrue(file.setLastModified(file.lastModified() - 60_000));
+            ModuleRepository[] aRepoChanged = cache.lease(path);
+            assertNotSame(aRepo[0], aRepoChanged[0]);
+            cache.release(aRepoChanged);
+            assertSame(aRepoChanged, cache.lease(path));
+            cache.release(aRepoChanged);
+
+            // and so does an added one
+            new FileStructure("b.test.org").writeTo(new File(dir, "b.test.org.xtc"));
+            ModuleRepository[] aRepoAdded = cache.lease(path);
+            assertNotSame(aRepoChanged[0], aRepoAdded[0]);
+            assertTrue(aRepoAdded[0].getModuleNames().contains("b.test.org"));
+            }
+        finally
+            {
+            delete(dir);
+            }
+        }
+
+    @Test
+    public void testWholePath()
+            throws IOException
+        {
+        File dirLib  = createModuleDir("lib",  "a.test.org");
+        File dirAlt1 = createModuleDir("alt1", "b.test.org");
+        File dirAlt2 = createModuleDir("alt2", "b.test.org");
+        try
+            {
+            RepositoryCache    cache  = new RepositoryCache(4);
+            ModuleRepository[] aRepo1 = cache.lease(List.of(dirLib, dirAlt1));
+            cache.release(aRepo1);
+
+            // the modules of "lib" may have been linked against the "b" module of "alt1", so the
+            // repository for "lib" must not be reused with another "b" module
+            ModuleRepository[] aRepo2 = cache.lease(List.of(dirLib, dirAlt2));
+            assertNotSame(aRepo1[0], aRepo2[0]);
+            cache.release(aRepo2);
+
+            // the same path, spelled differently, is the same path
+            File dirLibAlias = new File(new File(dirLib, "."), "../" + dirLib.getName());
+            assertSame(aRepo1, cache.lease(List.of(dirLibAlias, dirAlt1)));
+            assertSame(aRepo2, cache.lease(List.of(dirLib, dirAlt2)));
+            }
+        finally
+            {
+            delete(dirLib);
+            delete(dirAlt1);
+            delete(dirAlt2);
+            }
+        }
+
+    @Test
+    public void testEviction()
+            throws IOException
+        {
+        File dir1 = createModuleDir("lib1", "a.test.org");
+        File dir2 = createModuleDir("lib2", "b.test.org");
+        try
+            {
+            RepositoryCache    cache  = new RepositoryCache(1);
+            ModuleRepository[] aRepo1 = cache.lease(List.of(dir1));
+            ModuleRepository[] aRepo2 = cache.lease(List.of(dir2));
+
+            // the least recently used repositories are still leased, so they are kept
+            cache.release(aRepo2);
+            cache.release(aRepo1);
+            assertSame(aRepo1, cache.lease(List.of(dir1)));
+            assertNotSame(aRepo2, cache.lease(List.of(dir2)));
+            }
+        finally
+            {
+            delete(dir1);
+            delete(dir2);
+            }
+        }
+
+    @Test
+    public void testNotMapped()
+            throws Exception
+        {
+        File dir = createModuleDir("lib", "a.test.org");
+        try
+            {
+            // the cached modules must not keep their files open
+            RepositoryCache    cache = new RepositoryCache(4);
+            ModuleRepository[] aRepo = cache.lease(List.of(dir, new File(dir, "a.test.org.xtc")));
+            assertFalse(isMapped(aRepo[0], "m_fMap"));
+            assertTrue(aRepo[1] instanceof FileRepository);
+            assertFalse(isMapped(aRepo[1], "fMap"));
+            }
+        finally
+            {
+            delete(dir);
+            }
+        }
+
+
+    // ----- helpers -------------------------------------------------------------------------------
+
+    /**
+     * Create a temporary directory with the empty modules of the specified names.
+     */
+    private static File createModuleDir(String sPrefix, String... asModule)
+            throws IOException
+        {
+        File dir = Files.createTempDirectory(sPrefix).toFile();
+        for (String sModule : asModule)
+            {
+            new FileStructure(sModule).writeTo(new File(dir, sModule + ".xtc"));
+            }
+        return dir;
+        }
+
+    /**
+     * @return true iff the specified repository may memory-map its module files
+     */
+    private static boolean isMapped(ModuleRepository repo, String sField)
+            throws ReflectiveOperationException
+        {
+        Field field = repo.getClass().getDeclaredField(sField);
+        field.setAccessible(true);
+        return field.getBoolean(repo);
+        }
+
+    private static void delete(File dir)
+        {
+        File[] aFile = dir.listFiles();
+        if (aFile != null)
+            {
+            for (File file : aFile)
+                {
+                file.delete();
+                }
+            }
+        dir.delete();
+        }
+    }
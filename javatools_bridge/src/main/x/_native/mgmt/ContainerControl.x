@@ -17,6 +17,9 @@ class ContainerControl
     @Override @RO Service? mainService                                      .get() {TODO("Native");}
     @Override @RO Container[] nestedContainers                              .get() {TODO("Native");}
     @Override @RO Service[] nestedServices                                  .get() {TODO("Native");}
+    @Override @RO Int serviceCount                                          .get() {TODO("Native");}
+    @Override @RO Int opsExecuted                                           .get() {TODO("Native");}
+    @Override @RO Int objectsAllocated                                      .get() {TODO("Native");}
     @Override void pause()                                                         {TODO("Native");}
     @Override void resume()                                                        {TODO("Native");}
     @Override void store(FileStore filestore)                                      {TODO("Native");}
@@ -50,6 +50,25 @@ service ContainerLinker
             sharedModules, additionalModules, definedNames);
     }
 
+    @Override
+    void prepareContainers(
+            ModuleSpec        primarySpec,
+            ModuleRepository? repository,
+            ResourceProvider  provider,
+            Int               count = 1) {
+        ModuleTemplate primaryModule;
+        if (primarySpec.is(ModuleTemplate)) {
+            primaryModule = primarySpec;
+        } else {
+            assert:arg repository != Null;
+            assert primaryModule := repository.getModule(primarySpec) as $"Missing {primarySpec}";
+        }
+
+        for (Int i : 0 ..< count) {
+            prepareContainer(primaryModule, repository, provider);
+        }
+    }
+
     @Override
     FileTemplate loadFileTemplate(File file) {
         return loadFileTemplate(file.contents);
@@ -74,5 +93,13 @@ service ContainerLinker
             ModuleTemplate[]  additionalModules,
             String[]          definedNames) {TODO("Native");}
 
+    void prepareContainer(
+            ModuleTemplate    primaryModule,
+            ModuleRepository? repository,
+            ResourceProvider  provider) {TODO("Native");}
+
+    @Override
+    Int discardPreparedContainers() {TODO("Native");}
+
     FileTemplate loadFileTemplate(Byte[] contents) {TODO("Native");}
 }
\ No newline at end of file
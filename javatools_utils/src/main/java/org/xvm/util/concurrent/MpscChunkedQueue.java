@@ -0,0 +1,226 @@
+package org.xvm.util.concurrent;
+
+
+import java.lang.invoke.VarHandle;
+
+import java.util.function.Consumer;
+
+
+/**
+ * An unbounded lock-free multi-producer single-consumer queue built out of fixed-size array
+ * chunks.
+ * <p/>
+ * A producer claims a slot in the tail chunk using a single atomic increment and then publishes
+ * the element into that slot; a new chunk is linked only when the tail chunk is full. Compared to
+ * a {@link java.util.concurrent.ConcurrentLinkedQueue ConcurrentLinkedQueue} this allocates one
+ * chunk per {@link #CHUNK_SIZE} elements instead of a node per element, and the consumer reads
+ * the elements sequentially out of an array.
+ * <p/>
+ * The {@link #poll}, {@link #peek} and {@link #drain} methods must only be called by a single
+ * consumer thread at a time (for example, the thread holding a service's scheduling lock). The
+ * {@link #size} and {@link #isEmpty} methods can be called on any thread and are approximate:
+ * an element whose slot has been claimed, but not yet published is already counted.
+ *
+ * @param <E> the element type
+ */
+public class MpscChunkedQueue<E>
+    {
+    public MpscChunkedQueue()
+        {
+        Chunk chunk = new Chunk(0L);
+        m_chunkHead = chunk;
+        m_chunkTail = chunk;
+        }
+
+    /**
+     * Add the specified element to the tail of the queue. This method can be called on any thread.
+     *
+     * @param e  the element (not null)
+     */
+    public void add(E e)
+        {
+        if (e == null)
+            {
+            throw new NullPointerException();
+            }
+
+        while (true)
+            {
+            Chunk chunk = m_chunkTail;
+            int   i     = (int) COUNT_HANDLE.getAndAdd(chunk, 1);
+            if (i < CHUNK_SIZE)
+                {
+                ITEM_HANDLE.setRelease(chunk.f_aItem, i, e);
+                return;
+                }
+
+            // the chunk is full; link a new one (or help the producer that is doing it)
+            Chunk next = chunk.m_next;
+            if (next == null)
+                {
+                Chunk chunkNew = new Chunk(chunk.f_lBase + CHUNK_SIZE);
+                next = NEXT_HANDLE.compareAndSet(chunk, null, chunkNew)
+                        ? chunkNew
+                        : chunk.m_next;
+                }
+            TAIL_HANDLE.compareAndSet(this, chunk, next);
+            }
+        }
+
+    /**
+     * Retrieve and remove the head of the queue. Must be called on the consumer thread.
+     *
+     * @return the head of the queue or null if the queue is empty
+     */
+    public E poll()
+        {
+        E e = peek();
+        if (e != null)
+            {
+            int ixHead = m_ixHead;
+            m_chunkHead.f_aItem[ixHead] = null;
+            m_ixHead = ixHead + 1;
+            HEAD_HANDLE.setRelease(this, m_lHead + 1);
+            }
+        return e;
+        }
+
+    /**
+     * Retrieve, but don't remove the head of the queue. Must be called on the consumer thread.
+     *
+     * @return the head of the queue or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public E peek()
+        {
+        Chunk chunk  = m_chunkHead;
+        int   ixHead = m_ixHead;
+        if (ixHead == CHUNK_SIZE)
+            {
+            Chunk next = chunk.m_next;
+            if (next == null)
+                {
+                return null;
+                }
+
+            // the consumed chunk becomes garbage
+            m_chunkHead = chunk = next;
+            m_ixHead    = ixHead = 0;
+            }
+        return (E) ITEM_HANDLE.getAcquire(chunk.f_aItem, ixHead);
+        }
+
+    /**
+     * Remove all the published elements from the queue, passing them to the specified consumer
+     * in order. The elements added by the consumer itself are drained as well. Must be called on
+     * the consumer thread.
+     *
+     * @param consumer  the consumer
+     *
+     * @return the number of drained elements
+     */
+    public int drain(Consumer<? super E> consumer)
+        {
+        int c = 0;
+        E   e;
+        while ((e = poll()) != null)
+            {
+            consumer.accept(e);
+            c++;
+            }
+        return c;
+        }
+
+    /**
+     * @return true iff the queue appears to be empty
+     */
+    public boolean isEmpty()
+        {
+        return size() == 0;
+        }
+
+    /**
+     * @return the approximate number of elements in the queue
+     */
+    public int size()
+        {
+        long  lHead = (long) HEAD_HANDLE.getAcquire(this);
+        Chunk chunk = m_chunkTail;
+        long  lTail = chunk.f_lBase + Math.min((int) COUNT_HANDLE.getAcquire(chunk), CHUNK_SIZE);
+        return (int) Math.max(0L, Math.min(lTail - lHead, Integer.MAX_VALUE));
+        }
+
+    @Override
+    public String toString()
+        {
+        return "size=" + size();
+        }
+
+
+    // ----- Chunk ---------------------------------------------------------------------------------
+
+    /**
+     * A fixed-size array of elements.
+     */
+    private static final class Chunk
+        {
+        Chunk(long lBase)
+            {
+            f_lBase = lBase;
+            }
+
+        /**
+         * The overall index of the first element in this chunk.
+         */
+        final long f_lBase;
+
+        /**
+         * The elements; a null indicates an unclaimed or not yet published slot.
+         */
+        final Object[] f_aItem = new Object[CHUNK_SIZE];
+
+        /**
+         * The number of claimed slots; could exceed the chunk size.
+         */
+        volatile int m_cClaimed;
+
+        /**
+         * The next chunk.
+         */
+        volatile Chunk m_next;
+        }
+
+
+    // ----- constants and fields ------------------------------------------------------------------
+
+    /**
+     * The number of elements in a chunk.
+     */
+    public static final int CHUNK_SIZE = 128;
+
+    /**
+     * The chunk the consumer reads from; accessed only by the consumer.
+     */
+    private Chunk m_chunkHead;
+
+    /**
+     * The index of the next element to read in the head chunk; accessed only by the consumer.
+     */
+    private int m_ixHead;
+
+    /**
+     * The overall number of consumed elements; written only by the consumer.
+     */
+    private volatile long m_lHead;
+
+    /**
+     * The chunk the producers write to.
+     */
+    private volatile Chunk m_chunkTail;
+
+    private static final VarHandle HEAD_HANDLE  = VarHandles.of(MpscChunkedQueue.class, "m_lHead");
+    private static final VarHandle TAIL_HANDLE  = VarHandles.of(MpscChunkedQueue.class, "m_chunkTail");
+    private static final VarHandle COUNT_HANDLE = VarHandles.of(Chunk.class, "m_cClaimed");
+    private static final VarHandle NEXT_HANDLE  = VarHandles.of(Chunk.class, "m_next");
+    private static final VarHandle ITEM_HANDLE  = VarHandles.ofArray(Object[].class);
+    }
@@ -0,0 +1,102 @@
+package org.xvm.util.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link MpscChunkedQueue}
+ */
+public class MpscChunkedQueueTest
+    {
+    @Test
+    void shouldPollInOrder()
+        {
+        MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        int c = MpscChunkedQueue.CHUNK_SIZE * 3 + 7;
+        for (int i = 0; i < c; i++)
+            {
+            queue.add(i);
+            }
+        assertEquals(c, queue.size());
+
+        for (int i = 0; i < c; i++)
+            {
+            assertEquals(Integer.valueOf(i), queue.poll());
+            }
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+        }
+
+    @Test
+    void shouldDrain()
+        {
+        MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>();
+        for (int i = 0; i < 300; i++)
+            {
+            queue.add(i);
+            }
+
+        List<Integer> list = new ArrayList<>();
+        assertEquals(300, queue.drain(list::add));
+        assertEquals(300, list.size());
+        assertEquals(Integer.valueOf(299), list.get(299));
+        assertEquals(0, queue.size());
+        }
+
+    @Test
+    void shouldNotLoseConcurrentElements()
+            throws InterruptedException
+        {
+        MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>();
+
+        int      cThreads = 4;
+        int      cEach    = 100_000;
+        Thread[] aThread  = new Thread[cThreads];
+        for (int t = 0; t < cThreads; t++)
+            {
+            int nBase = t * cEach;
+            aThread[t] = new Thread(() ->
+                {
+                for (int i = 0; i < cEach; i++)
+                    {
+                    queue.add(nBase + i);
+                    }
+                });
+            aThread[t].start();
+            }
+
+        // consume concurrently, checking the per-producer order
+        int[] anLast = new int[cThreads];
+        Arrays.fill(anLast, -1);
+        int cTotal = cThreads * cEach;
+        int cSeen  = 0;
+        while (cSeen < cTotal)
+            {
+            Integer n = queue.poll();
+            if (n == null)
+                {
+                Thread.onSpinWait();
+                continue;
+                }
+
+            int t = n / cEach;
+            assertTrue(n > anLast[t]);
+            anLast[t] = n;
+            cSeen++;
+            }
+
+        for (Thread thread : aThread)
+            {
+            thread.join();
+            }
+        assertNull(queue.poll());
+        }
+    }
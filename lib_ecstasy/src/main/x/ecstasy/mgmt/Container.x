@@ -229,6 +229,39 @@ service Container
                 ModuleSpec[]      additionalModules = [],
                 String[]          definedNames      = []);
 
+        /**
+         * Prepare the specified number of containers ahead of time, so that subsequent
+         * [loadAndLink] calls for the same primary module, repository and injector (and no shared
+         * or additional modules) return instantly. A prepared container has its type system
+         * linked, its injections resolved, and its main service started, but it has not executed
+         * any code. A prepared container is handed out only once; to keep a number of containers
+         * ready, call this method again after handing them out (for example, asynchronously).
+         *
+         * This is intended for scenarios that create many short-lived containers for the same
+         * module, such as per-request isolation; a container that is killed after use will not be
+         * reused, but its linked type system is recycled to prepare the replacement containers.
+         *
+         * @param primaryModule  the module that will act as the primary module for the containers
+         * @param repository     the repository to use to load any necessary modules
+         * @param injector       the [ResourceProvider] to use to inject resources into the
+         *                       containers
+         * @param count          the number of containers to prepare
+         *
+         * @throws Unsupported  if the runtime is not able to prepare containers for the module
+         */
+        void prepareContainers(ModuleSpec        primaryModule,
+                               ModuleRepository? repository,
+                               ResourceProvider  injector,
+                               Int               count = 1);
+
+        /**
+         * Discard all the containers prepared by the current container that have not been handed
+         * out.
+         *
+         * @return the number of discarded containers
+         */
+        Int discardPreparedContainers();
+
         /**
          * Create an unresolved FileTemplate from the specified file.
          *
@@ -473,6 +506,29 @@ service Container
          */
         @RO Service[] nestedServices;
 
+        /**
+         * The number of services that are currently running within the container.
+         */
+        @RO Int serviceCount;
+
+        /**
+         * The number of operations that the services of the container have executed.
+         *
+         * For a container, the [cpuTime], [backlogDepth] and [bytesAllocated] statistics are also
+         * accumulated across all of the services running within the container. The [bytesReserved]
+         * and [bytesAllocated] statistics are only tracked if the runtime limits the memory of the
+         * container; otherwise, they are zero. A runtime that doesn't track which objects are still
+         * in use may report the memory limit as [bytesReserved], and all the memory allocated since
+         * the container started as [bytesAllocated].
+         */
+        @RO Int opsExecuted;
+
+        /**
+         * The number of objects that have been allocated within the container since it was
+         * created.
+         */
+        @RO Int objectsAllocated;
+
         /**
          * Pause all execution of code within the container. This attempts to pause all service
          * execution within the container as that execution reaches safe points (the definition of
@@ -0,0 +1,94 @@
+/**
+ * A scheduler benchmark: thousands of small services that keep calling each other.
+ *
+ * The "throughput" test sends a message to every service, each of which passes it along a ring
+ * for a number of hops; the "latency" test measures sequential round-trips to a single service
+ * while all the others are busy.
+ */
+module TestChattyServices {
+    @Inject Console console;
+    @Inject Timer   timer;
+
+    static Int ServiceCount = 4_000;
+    static Int Hops         = 50;
+    static Int Rounds       = 5;
+    static Int RoundTrips   = 10_000;
+
+    void run() {
+        console.print($"Chatty services benchmark: {ServiceCount} services, {Hops} hops");
+
+        Peer[] peers = new Peer[ServiceCount](i -> new Peer(i));
+        for (Int i : 0 ..< ServiceCount) {
+            peers[i].connect(peers[(i + 1) % ServiceCount]);
+        }
+
+        for (Int round : 1 .. Rounds) {
+            timer.reset();
+            timer.start();
+            Int messages = broadcast(peers);
+            Int millis   = timer.elapsed.milliseconds.maxOf(1);
+            console.print($|round {round}: {messages} messages in {millis} ms \
+                             |({messages * 1000 / millis} msg/s)
+                             );
+        }
+
+        // keep the rest of the services busy while measuring the round-trip latency
+        Peer probe = new Peer(-1);
+        @Future Int background = peers[0].spin(Hops * ServiceCount);
+
+        timer.reset();
+        timer.start();
+        for (Int i : 1 .. RoundTrips) {
+            probe.ping(0);
+        }
+        Int micros = timer.elapsed.microseconds;
+        console.print($"latency: {micros / RoundTrips} us per round-trip (under load)");
+        assert background > 0;
+    }
+
+    Int broadcast(Peer[] peers) {
+        FutureVar<Int>[] results = new FutureVar<Int>[];
+        for (Peer peer : peers) {
+            @Future Int result = peer.ping(Hops);
+            results.add(&result);
+        }
+
+        Int total = 0;
+        for (FutureVar<Int> result : results) {
+            total += result.get();
+        }
+        return total;
+    }
+
+    service Peer(Int id) {
+        Peer? next;
+
+        void connect(Peer next) {
+            this.next = next;
+        }
+
+        /**
+         * Pass the message along the ring.
+         *
+         * @return the number of messages sent
+         */
+        Int ping(Int hops) {
+            if (hops == 0) {
+                return 1;
+            }
+            assert Peer peer ?= next;
+            return peer.ping(hops - 1) + 1;
+        }
+
+        /**
+         * Keep the ring busy for the specified number of messages.
+         */
+        Int spin(Int count) {
+            Int sent = 0;
+            while (sent < count) {
+                sent += ping(Hops);
+            }
+            return sent;
+        }
+    }
+}
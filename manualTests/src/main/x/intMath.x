@@ -0,0 +1,57 @@
+/**
+ * A micro-benchmark for the interpreter's handling of Int64 registers: counted loops and integer
+ * math. Run with "-Dxvm.quicken=false" to compare against the generic (boxing) ops.
+ */
+module TestIntMath {
+    @Inject Console console;
+    @Inject Timer   timer;
+
+    void run() {
+        console.print("Int64 math benchmark:");
+
+        // warm up
+        sumLoop(1000);
+        fibLoop(1000);
+        nestedLoop(100);
+
+        measure("sumLoop",    () -> sumLoop(10_000_000));
+        measure("fibLoop",    () -> fibLoop(10_000_000));
+        measure("nestedLoop", () -> nestedLoop(3_000));
+    }
+
+    void measure(String name, function Int() test) {
+        timer.reset();
+        timer.start();
+        Int result = test();
+        console.print($"{name}: {timer.elapsed.milliseconds} ms (result={result})");
+    }
+
+    Int sumLoop(Int count) {
+        Int sum = 0;
+        for (Int i = 0; i < count; ++i) {
+            sum += i;
+        }
+        return sum;
+    }
+
+    Int fibLoop(Int count) {
+        Int prev = 0;
+        Int curr = 1;
+        for (Int i = 0; i < count; ++i) {
+            Int next = prev + curr;
+            prev = curr;
+            curr = next & 0xFFFFFF;
+        }
+        return curr;
+    }
+
+    Int nestedLoop(Int count) {
+        Int sum = 0;
+        for (Int i = 0; i < count; ++i) {
+            for (Int j = 0; j < count; ++j) {
+                sum += i * j - j;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * A pass-through validation benchmark: a large immutable structure is repeatedly passed to a
+ * chain of services in the same container and then into a nested container.
+ *
+ * Within a container, passing an immutable object is always cheap; crossing the container boundary
+ * requires checking that the entire object graph is shared with the receiving type system, which
+ * now only happens on the first pass.
+ */
+module TestPassThrough {
+    import ecstasy.mgmt.*;
+    import ecstasy.reflect.ModuleTemplate;
+
+    @Inject Console console;
+    @Inject Timer   timer;
+
+    static Int Rows = 10_000;
+    static Int Hops = 200;
+
+    void run() {
+        String[][] doc = new String[][Rows](i -> [$"key{i}", $"value{i}", i.toString()].freeze(True))
+                            .freeze(True);
+
+        Relay[] relays = new Relay[Hops](_ -> new Relay());
+
+        timer.reset();
+        timer.start();
+        Int total = 0;
+        for (Relay relay : relays) {
+            total += relay.size(doc);
+        }
+        console.print($"same container: {Hops} hops in {timer.elapsed.milliseconds} ms");
+
+        @Inject("repository") ModuleRepository repository;
+        ModuleTemplate template  = repository.getResolvedModule("TestPassThrough");
+        Container      container = new Container(template, Lightweight, repository,
+                                                 new BasicResourceProvider());
+
+        timer.reset();
+        timer.start();
+        for (Int i : 1 .. Hops) {
+            Tuple result = container.invoke("size", Tuple:(doc));
+            total += result[0].as(Int);
+        }
+        console.print($"nested container: {Hops} hops in {timer.elapsed.milliseconds} ms");
+
+        assert total == 2 * Hops * Rows;
+    }
+
+    Int size(String[][] doc) {
+        return doc.size;
+    }
+
+    service Relay {
+        Int size(String[][] doc) {
+            return doc.size;
+        }
+    }
+}
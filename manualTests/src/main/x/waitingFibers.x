@@ -0,0 +1,68 @@
+/**
+ * A fiber scheduling benchmark: a service with thousands of fibers suspended on calls to another
+ * service (e.g. a web handler waiting on database calls) keeps processing new requests.
+ *
+ * The cost of every scheduling decision used to grow with the number of suspended fibers, so the
+ * throughput of the "ping" calls is the number to compare.
+ */
+module TestWaitingFibers {
+    @Inject Console console;
+    @Inject Timer   timer;
+
+    static Int[] WaiterCounts = [0, 1_000, 10_000];
+    static Int   Calls        = 100_000;
+
+    void run() {
+        for (Int waiters : WaiterCounts) {
+            Db      db      = new Db();
+            Handler handler = new Handler(db);
+
+            FutureVar<Int>[] pending = new FutureVar<Int>[];
+            for (Int i : 0 ..< waiters) {
+                @Future Int result = handler.query(i);
+                pending.add(&result);
+            }
+
+            timer.reset();
+            timer.start();
+            Int sum = 0;
+            for (Int i : 1 .. Calls) {
+                sum += handler.ping(i);
+            }
+            Int millis = timer.elapsed.milliseconds.maxOf(1);
+            console.print($|{waiters} waiting fibers: {Calls} calls in {millis} ms \
+                             |({Calls * 1000 / millis} calls/s)
+                             );
+
+            db.release();
+            Int total = 0;
+            for (FutureVar<Int> result : pending) {
+                total += result.get();
+            }
+            assert total == waiters && sum > 0;
+        }
+    }
+
+    @Concurrent
+    service Handler(Db db) {
+        Int query(Int id) {
+            return db.query(id);
+        }
+
+        Int ping(Int i) {
+            return i;
+        }
+    }
+
+    service Db {
+        @Future Int released;
+
+        Int query(Int id) {
+            return released;
+        }
+
+        void release() {
+            released = 1;
+        }
+    }
+}
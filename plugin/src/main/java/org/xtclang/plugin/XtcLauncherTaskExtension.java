@@ -18,6 +18,8 @@ public interface XtcLauncherTaskExtension extends Named {
 
     Property<Boolean> getUseNativeLauncher();
 
+    Property<Boolean> getUseCompilerDaemon();
+
     Property<Boolean> getVerbose();
 
     ListProperty<String> getJvmArgs();
@@ -32,6 +32,7 @@ public abstract class DefaultXtcLauncherTaskExtension implements XtcLauncherTask
     protected final Property<Boolean> fork;
     protected final Property<Boolean> showVersion;
     protected final Property<Boolean> useNativeLauncher;
+    protected final Property<Boolean> useCompilerDaemon;
     protected final Property<InputStream> stdin;
     protected final Property<OutputStream> stdout;
     protected final Property<OutputStream> stderr;
@@ -55,6 +56,7 @@ public abstract class DefaultXtcLauncherTaskExtension implements XtcLauncherTask
         this.fork = objects.property(Boolean.class).convention(true);
         this.showVersion = objects.property(Boolean.class).convention(false);
         this.useNativeLauncher = objects.property(Boolean.class).convention(false);
+        this.useCompilerDaemon = objects.property(Boolean.class).convention(Boolean.parseBoolean(env.getOrDefault("XTC_COMPILER_DAEMON", "false")));
         this.stdin = objects.property(InputStream.class);
         this.stdout = objects.property(OutputStream.class);
         this.stderr = objects.property(OutputStream.class);
@@ -92,6 +94,11 @@ public abstract class DefaultXtcLauncherTaskExtension implements XtcLauncherTask
         return useNativeLauncher;
     }
 
+    @Override
+    public Property<Boolean> getUseCompilerDaemon() {
+        return useCompilerDaemon;
+    }
+
     @Override
     public Property<Boolean> getVerbose() {
         return verbose;
@@ -0,0 +1,356 @@
+package org.xtclang.plugin.launchers;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import static org.xtclang.plugin.XtcPluginConstants.JAVATOOLS_JAR_NAME;
+import static org.xtclang.plugin.XtcPluginUtils.FileUtils.readXdkVersionFromJar;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import java.nio.file.Files;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.process.ExecResult;
+
+import org.xtclang.plugin.XtcLauncherTaskExtension;
+import org.xtclang.plugin.tasks.XtcLauncherTask;
+
+/**
+ * Launcher logic that hands the compilation to a long-lived compiler daemon (org.xvm.tool.CompilerDaemon in the
+ * resolved javatools.jar) instead of forking a new Java process for every compile task. The daemon is started on
+ * demand, and is shared by all the compile tasks and builds that use the same javatools.jar, so the library modules
+ * it keeps loaded and the JIT compiled compiler code survive from one compilation to the next. It terminates itself
+ * after being idle for a while.
+ * <p>
+ * The daemon is started with the JVM arguments of the task that happens to start it; the JVM arguments of the
+ * subsequent tasks are ignored for as long as it runs.
+ * <p>
+ * If the daemon published in the port file does not accept the request (it rejects the token, it has died, or the
+ * port now belongs to another process), the port file is discarded and the request is retried once with a freshly
+ * started daemon.
+ */
+public class DaemonLauncher<E extends XtcLauncherTaskExtension, T extends XtcLauncherTask<E>> extends JavaExecLauncher<E, T> {
+    private static final String DAEMON_CLASS_NAME = "org.xvm.tool.CompilerDaemon";
+    private static final String DAEMON_DIR_NAME = "xtc-daemon";
+    private static final String COMMAND_COMPILE = "xcc";
+    private static final long CONNECT_TIMEOUT_MILLIS = 1_000L;
+    private static final long HANDSHAKE_TIMEOUT_MILLIS = 10_000L;
+    private static final long START_TIMEOUT_MILLIS = 60_000L;
+    private static final long START_POLL_MILLIS = 100L;
+
+    /**
+     * Serializes the daemon start-up between the compile tasks running in parallel in this build.
+     */
+    private static final Object START_LOCK = new Object();
+
+    public DaemonLauncher(final Project project, final T task) {
+        super(project, task);
+    }
+
+    @Override
+    public ExecResult apply(final CommandLine cmd) {
+        logger.info("{} Launching task: {}", prefix, this);
+
+        final var javaToolsJar = resolveJavaTools();
+        if (javaToolsJar == null) {
+            throw buildException("Failed to resolve '{}' in any classpath.", JAVATOOLS_JAR_NAME);
+        }
+
+        final var args = absoluteArgs(cmd.toList());
+        if (task.hasVerboseLogging()) {
+            logger.lifecycle("{} Compiler daemon command (launcher {}):", prefix, getClass().getSimpleName());
+            logger.lifecycle("{}     {} {}", prefix, COMMAND_COMPILE, String.join(" ", args));
+        }
+
+        final var builder = resultBuilder(cmd);
+        try {
+            final int exitValue = compile(javaToolsJar, cmd.getJvmArgs(), args);
+            builder.exitValue(exitValue);
+            if (exitValue != 0) {
+                builder.failure(new GradleException("Compiler daemon reported a failure (exitValue: " + exitValue + ')'));
+            }
+        } catch (final IOException e) {
+            throw buildException(e, "Failed to compile through the compiler daemon: {}", e.getMessage());
+        }
+        return createExecResult(builder);
+    }
+
+    /**
+     * The daemon resolves relative paths against its own working directory, so make sure that any argument that
+     * names an existing file in the project is passed as an absolute path.
+     */
+    private List<String> absoluteArgs(final List<String> args) {
+        final var result = new ArrayList<String>(args.size());
+        for (final String arg : args) {
+            final var file = new File(arg);
+            if (!arg.startsWith("-") && !file.isAbsolute() && project.file(arg).exists()) {
+                result.add(project.file(arg).getAbsolutePath());
+            } else {
+                result.add(arg);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compile on the daemon, starting a new daemon if the published one does not accept the request.
+     *
+     * @return the exit code of the compiler
+     */
+    private int compile(final File javaToolsJar, final List<String> jvmArgs, final List<String> args) throws IOException {
+        String stalePortInfo = null;
+        while (true) {
+            final var connection = connect(javaToolsJar, jvmArgs, stalePortInfo);
+            try (connection) {
+                return connection.compile(args);
+            } catch (final HandshakeException e) {
+                if (stalePortInfo != null) {
+                    throw e;
+                }
+                logger.warn("{} Compiler daemon did not accept the request ({}); starting a new compiler daemon.", prefix, e.getMessage());
+                stalePortInfo = connection.portInfo;
+            }
+        }
+    }
+
+    /**
+     * Connect to the daemon, starting it if necessary.
+     *
+     * @param stalePortInfo  the content of the port file that is known to not lead to a working daemon, or null
+     */
+    private DaemonConnection connect(final File javaToolsJar, final List<String> jvmArgs, final String stalePortInfo) throws IOException {
+        final var portFile = portFile(javaToolsJar);
+        synchronized (START_LOCK) {
+            if (stalePortInfo != null) {
+                discardPortFile(portFile, stalePortInfo);
+            }
+
+            var connection = openConnection(portFile);
+            if (connection != null) {
+                return connection;
+            }
+
+            final var logFile = startDaemon(javaToolsJar, jvmArgs, portFile);
+            final long deadline = System.currentTimeMillis() + START_TIMEOUT_MILLIS;
+            do {
+                try {
+                    Thread.sleep(START_POLL_MILLIS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw buildException(e, "Interrupted while waiting for the compiler daemon to start.");
+                }
+                connection = openConnection(portFile);
+                if (connection != null) {
+                    return connection;
+                }
+            } while (System.currentTimeMillis() < deadline);
+
+            throw buildException("Timed out waiting for the compiler daemon to start (see '{}').", logFile.getAbsolutePath());
+        }
+    }
+
+    private File startDaemon(final File javaToolsJar, final List<String> jvmArgs, final File portFile) throws IOException {
+        final var dir = portFile.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw buildException("Failed to create the compiler daemon directory: '{}'", dir.getAbsolutePath());
+        }
+
+        // A port file that we could not connect through was left behind by a daemon that is no longer running.
+        Files.deleteIfExists(portFile.toPath());
+
+        final var logFile = new File(dir, portFile.getName().replace(".port", ".log"));
+        final var command = new ArrayList<String>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getAbsolutePath());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(javaToolsJar.getAbsolutePath());
+        command.add(DAEMON_CLASS_NAME);
+        command.add(portFile.getAbsolutePath());
+
+        logger.lifecycle("{} Starting compiler daemon (log: '{}').", prefix, logFile.getAbsolutePath());
+        new ProcessBuilder(command)
+            .directory(dir)
+            .redirectErrorStream(true)
+            .redirectOutput(logFile)
+            .start();
+        return logFile;
+    }
+
+    /**
+     * Delete the port file if it still has the specified content; a concurrent task may have already replaced it by
+     * starting a new daemon.
+     */
+    private static void discardPortFile(final File portFile, final String stalePortInfo) throws IOException {
+        final String portInfo;
+        try {
+            portInfo = Files.readString(portFile.toPath()).trim();
+        } catch (final IOException e) {
+            return;
+        }
+        if (portInfo.equals(stalePortInfo)) {
+            Files.deleteIfExists(portFile.toPath());
+        }
+    }
+
+    /**
+     * The port file is specific to the javatools.jar the daemon runs, so a rebuilt or a different XDK never ends up
+     * talking to a daemon that runs stale compiler code.
+     */
+    private File portFile(final File javaToolsJar) {
+        final var version = Objects.requireNonNullElse(readXdkVersionFromJar(javaToolsJar), "unknown");
+        final int hash = Objects.hash(javaToolsJar.getAbsolutePath(), javaToolsJar.length(), javaToolsJar.lastModified());
+        final var dir = new File(project.getGradle().getGradleUserHomeDir(), DAEMON_DIR_NAME);
+        return new File(dir, version + '-' + Integer.toHexString(hash) + ".port");
+    }
+
+    /**
+     * Connect to the daemon published in the specified port file.
+     *
+     * @return the connection, or null if there is no daemon to connect to
+     */
+    private DaemonConnection openConnection(final File portFile) {
+        final String portInfo;
+        try {
+            portInfo = Files.readString(portFile.toPath()).trim();
+        } catch (final IOException e) {
+            return null;
+        }
+        final String[] parts = portInfo.split(" ");
+        if (parts.length != 2) {
+            return null;
+        }
+
+        final var socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(parts[0])), (int)CONNECT_TIMEOUT_MILLIS);
+        } catch (final IOException | NumberFormatException e) {
+            try {
+                socket.close();
+            } catch (final IOException ignored) {
+                // nothing to release
+            }
+            return null;
+        }
+        return new DaemonConnection(socket, portInfo, parts[1]);
+    }
+
+    private OutputStream outputStream(final boolean isError) {
+        if (isError) {
+            return task.hasStderrRedirect() ? task.getStderr().get() : null;
+        }
+        return task.hasStdoutRedirect() ? task.getStdout().get() : null;
+    }
+
+    /**
+     * A connection to a running compiler daemon, carrying a single request.
+     */
+    private final class DaemonConnection implements AutoCloseable {
+        private final Socket socket;
+        private final String portInfo;
+        private final String token;
+
+        private DaemonConnection(final Socket socket, final String portInfo, final String token) {
+            this.socket = socket;
+            this.portInfo = portInfo;
+            this.token = token;
+        }
+
+        int compile(final List<String> args) throws IOException {
+            final var in = handshake(args);
+            while (true) {
+                final int kind = in.readByte();
+                if (kind == 'X') {
+                    return in.readInt();
+                }
+                final byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                report(kind == 'E', new String(bytes, UTF_8));
+            }
+        }
+
+        /**
+         * Send the request and wait for the daemon to accept it.
+         *
+         * @return the stream to read the rest of the response from
+         *
+         * @throws HandshakeException if the daemon rejected the request or did not respond as a daemon would
+         */
+        private DataInputStream handshake(final List<String> args) throws IOException {
+            try {
+                final var out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                out.writeUTF(token);
+                out.writeUTF(COMMAND_COMPILE);
+                out.writeInt(args.size());
+                for (final String arg : args) {
+                    out.writeUTF(arg);
+                }
+                out.flush();
+
+                socket.setSoTimeout((int)HANDSHAKE_TIMEOUT_MILLIS);
+                final var in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                final int kind = in.readByte();
+                if (kind == 'P') {
+                    final byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    throw new HandshakeException("rejected: " + new String(bytes, UTF_8));
+                }
+                if (kind != 'A') {
+                    throw new HandshakeException("unexpected response");
+                }
+                socket.setSoTimeout(0);
+                return in;
+            } catch (final HandshakeException e) {
+                throw e;
+            } catch (final IOException e) {
+                throw new HandshakeException("no response: " + e, e);
+            }
+        }
+
+        private void report(final boolean isError, final String line) throws IOException {
+            final var stream = outputStream(isError);
+            if (stream != null) {
+                stream.write((line + System.lineSeparator()).getBytes(UTF_8));
+                stream.flush();
+            } else if (isError) {
+                logger.error(line);
+            } else {
+                logger.lifecycle(line);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    /**
+     * Indicates that the daemon did not accept a request, so the request has not been processed.
+     */
+    private static final class HandshakeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private HandshakeException(final String message) {
+            super(message);
+        }
+
+        private HandshakeException(final String message, final Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
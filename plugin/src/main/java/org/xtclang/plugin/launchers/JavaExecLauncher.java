@@ -58,7 +58,7 @@ public class JavaExecLauncher<E extends XtcLauncherTaskExtension, T extends XtcL
         })));
     }
 
-    private File resolveJavaTools() {
+    protected File resolveJavaTools() {
         // TODO: Way too complicated, just making absolutely sure that we don't mix class paths for e.g. XDK development, and something
         //   that is a distribution installed locally, thinking one is the other. This can be solved through artifact signing instead.
 
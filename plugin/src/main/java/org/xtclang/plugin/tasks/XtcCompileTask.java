@@ -116,6 +116,11 @@ public class XtcCompileTask extends XtcSourceTask implements XtcCompilerExtensio
         return XTC_COMPILER_CLASS_NAME;
     }
 
+    @Override
+    protected boolean supportsCompilerDaemon() {
+        return true;
+    }
+
     /**
      * Add an output Filename mapping.
      */
@@ -43,6 +43,7 @@ import org.gradle.process.ExecResult;
 import org.xtclang.plugin.XtcLauncherTaskExtension;
 import org.xtclang.plugin.XtcProjectDelegate;
 import org.xtclang.plugin.launchers.BuildThreadLauncher;
+import org.xtclang.plugin.launchers.DaemonLauncher;
 import org.xtclang.plugin.launchers.JavaExecLauncher;
 import org.xtclang.plugin.launchers.NativeBinaryLauncher;
 import org.xtclang.plugin.launchers.XtcLauncher;
@@ -65,6 +66,7 @@ public abstract class XtcLauncherTask<E extends XtcLauncherTaskExtension> extend
     protected final Property<Boolean> fork;
     protected final Property<Boolean> showVersion;
     protected final Property<Boolean> useNativeLauncher;
+    protected final Property<Boolean> useCompilerDaemon;
 
     protected final E ext;
 
@@ -98,6 +100,7 @@ public abstract class XtcLauncherTask<E extends XtcLauncherTaskExtension> extend
         this.fork = objects.property(Boolean.class).convention(ext.getFork());
         this.showVersion = objects.property(Boolean.class).convention(ext.getShowVersion());
         this.useNativeLauncher = objects.property(Boolean.class).convention(ext.getUseNativeLauncher());
+        this.useCompilerDaemon = objects.property(Boolean.class).convention(ext.getUseCompilerDaemon());
     }
 
     @Override
@@ -224,6 +227,11 @@ public abstract class XtcLauncherTask<E extends XtcLauncherTaskExtension> extend
         return useNativeLauncher;
     }
 
+    @Input
+    public Property<Boolean> getUseCompilerDaemon() {
+        return useCompilerDaemon;
+    }
+
     @Optional
     @Input
     public ListProperty<String> getJvmArgs() {
@@ -246,11 +254,22 @@ public abstract class XtcLauncherTask<E extends XtcLauncherTaskExtension> extend
         return result;
     }
 
+    /**
+     * Can this task be handed to the compiler daemon instead of a forked process? Only the compiler is supported,
+     * since the runner keeps its container state in the process, and runs programs that expect a console of their own.
+     */
+    protected boolean supportsCompilerDaemon() {
+        return false;
+    }
+
     protected XtcLauncher<E, ? extends XtcLauncherTask<E>> createLauncher() {
         final var prefix = prefix();
         if (getUseNativeLauncher().get()) {
             logger.info("{} Created XTC launcher: native executable.", prefix);
             return new NativeBinaryLauncher<>(project, this);
+        } else if (getFork().get() && getUseCompilerDaemon().get() && supportsCompilerDaemon()) {
+            logger.info("{} Created XTC launcher: compiler daemon shared between builds.", prefix);
+            return new DaemonLauncher<>(project, this);
         } else if (getFork().get()) {
             logger.info("{} Created XTC launcher: Java process forked from build.", prefix);
             return new JavaExecLauncher<>(project, this);